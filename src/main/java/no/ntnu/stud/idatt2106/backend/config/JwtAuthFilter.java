@@ -1,5 +1,6 @@
 package no.ntnu.stud.idatt2106.backend.config;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -44,14 +45,16 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     }
 
     String token = authHeader.substring(7);
-    String username = jwtService.extractUserName(token);
+    Claims claims = jwtService.extractAllClaims(token);
+    String username = claims.getSubject();
 
     if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
       UserDetails userDetails = userDetailsService.loadUserByUsername(username);
 
       if (jwtService.validateToken(token, userDetails)) {
-        UsernamePasswordAuthenticationToken authToken = 
-            new UsernamePasswordAuthenticationToken(userDetails, null,
+        // The verified claims are kept with the authentication, so they are parsed only once
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+            userDetails, new JwtService.VerifiedToken(token, claims),
             userDetails.getAuthorities());
         
         authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
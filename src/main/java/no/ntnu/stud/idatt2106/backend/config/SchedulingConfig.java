@@ -0,0 +1,44 @@
+package no.ntnu.stud.idatt2106.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+/**
+ * Enables scheduled background jobs, such as rebuilding stored preparedness data.
+ *
+ * <p>
+ * The jobs run on their own thread pool, with about one thread per job, so a long job such
+ * as the preparedness rebuild or the food expiry sweep does not delay the short WebSocket
+ * flushes that run every few hundred milliseconds.
+ * </p>
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig implements SchedulingConfigurer {
+
+  @Value("${scheduling.pool-size:10}")
+  private int poolSize = 10;
+
+  /**
+   * Creates the thread pool running the scheduled jobs.
+   *
+   * @return the scheduler of the jobs
+   */
+  @Bean(destroyMethod = "shutdown")
+  public ThreadPoolTaskScheduler scheduledJobScheduler() {
+    ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+    scheduler.setPoolSize(poolSize);
+    scheduler.setThreadNamePrefix("scheduled-");
+    return scheduler;
+  }
+
+  @Override
+  public void configureTasks(ScheduledTaskRegistrar registrar) {
+    registrar.setTaskScheduler(scheduledJobScheduler());
+  }
+}
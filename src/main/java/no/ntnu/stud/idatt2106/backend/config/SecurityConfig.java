@@ -2,6 +2,7 @@ package no.ntnu.stud.idatt2106.backend.config;
 
 import java.util.Arrays;
 import java.util.List;
+import no.ntnu.stud.idatt2106.backend.service.PasswordHasher;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -15,7 +16,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
@@ -43,6 +43,9 @@ public class SecurityConfig {
   @Autowired
   private JwtAuthFilter jwtAuthFilter;
 
+  @Autowired
+  private PasswordHasher passwordHasher;
+
   @Value("${cors.allowed-origins:http://localhost:3000,http://localhost:4000}")
   private String allowedOrigins;
 
@@ -93,6 +96,8 @@ public class SecurityConfig {
             // Public
             .requestMatchers(HttpMethod.GET, "/api/events/*").permitAll()
             .requestMatchers(HttpMethod.GET, "/api/events/bounds").permitAll()
+            .requestMatchers(HttpMethod.GET, "/api/events/tiles/**").permitAll()
+            .requestMatchers(HttpMethod.GET, "/api/events/active").permitAll()
 
             // -- EXTRA RESIDENT CONTROLLER --//
             // Public
@@ -115,6 +120,12 @@ public class SecurityConfig {
             .requestMatchers(HttpMethod.GET, "/api/food-types/*").permitAll()
             .requestMatchers(HttpMethod.GET, "/api/food-types/search").permitAll()
 
+            // -- HOUSEHOLD CONTROLLER --//
+            // Admin
+            .requestMatchers(HttpMethod.POST, "/api/households/preparedness").hasRole("ADMIN")
+            .requestMatchers(HttpMethod.POST, "/api/households/preparedness/rebuild")
+            .hasRole("ADMIN")
+
             // -- HOUSEHOLD KIT CONTROLLER --//
             // Public
             .requestMatchers(HttpMethod.GET, "/api/household-kits/kit/*").permitAll()
@@ -144,6 +155,8 @@ public class SecurityConfig {
             .requestMatchers(HttpMethod.GET, "/api/map-object/*").permitAll()
             .requestMatchers(HttpMethod.GET, "/api/map-object/bounds").permitAll()
             .requestMatchers(HttpMethod.GET, "/api/map-object/closest").permitAll()
+            .requestMatchers(HttpMethod.GET, "/api/map-object/nearest").permitAll()
+            .requestMatchers(HttpMethod.GET, "/api/map-object/tiles/**").permitAll()
 
             // ADMIN
             .requestMatchers(HttpMethod.POST, "/api/map-object").hasRole("ADMIN")
@@ -223,12 +236,13 @@ public class SecurityConfig {
 
   /**
    * Creates an AuthenticationProvider bean that uses a DaoAuthenticationProvider
-   * with a BCryptPasswordEncoder for password encoding and a UserDetailsService.
+   * with the bounded BCrypt {@link PasswordHasher} for password encoding and a
+   * UserDetailsService.
    */
   @Bean
   public AuthenticationProvider authenticationProvider() {
     DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
-    provider.setPasswordEncoder(new BCryptPasswordEncoder(12));
+    provider.setPasswordEncoder(passwordHasher);
     provider.setUserDetailsService(userDetailsService);
 
     return provider;
@@ -158,12 +158,12 @@ public class TestDataInitializer implements CommandLineRunner {
     RegisterRequest testUserRequest4 = new RegisterRequest("ensomNordmann",
         "Password12345", "loneUser@gmail.com", "captha");
 
-    authService.register(adminUserRequest);
-    authService.register(superAdminUserRequest);
-    authService.register(testUserRequest);
-    authService.register(testUserRequest2);
-    authService.register(testUserRequest3);
-    authService.register(testUserRequest4);
+    authService.register(adminUserRequest, null);
+    authService.register(superAdminUserRequest, null);
+    authService.register(testUserRequest, null);
+    authService.register(testUserRequest2, null);
+    authService.register(testUserRequest3, null);
+    authService.register(testUserRequest4, null);
 
     User adminUser = userService.getUserByUsername("adminAdminsen");
 
@@ -1,6 +1,8 @@
 package no.ntnu.stud.idatt2106.backend.config;
 
+import no.ntnu.stud.idatt2106.backend.service.HouseholdGroupIndex;
 import no.ntnu.stud.idatt2106.backend.service.HouseholdService;
+import no.ntnu.stud.idatt2106.backend.websocket.HouseholdSubscriptionRegistry;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
@@ -17,12 +19,26 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
   private final WebSocketAuthHandshakeInterceptor authInterceptor;
   private final HouseholdService householdService;
+  private final HouseholdGroupIndex groupIndex;
+  private final HouseholdSubscriptionRegistry subscriptionRegistry;
 
+  /**
+   * Creates the WebSocket configuration.
+   *
+   * @param authInterceptor      the interceptor authenticating the handshake
+   * @param householdService     the service checking household membership
+   * @param groupIndex           the index checking group membership
+   * @param subscriptionRegistry the registry of subscriptions to household topics
+   */
   public WebSocketConfig(
       WebSocketAuthHandshakeInterceptor authInterceptor,
-      HouseholdService householdService) {
+      HouseholdService householdService,
+      HouseholdGroupIndex groupIndex,
+      HouseholdSubscriptionRegistry subscriptionRegistry) {
     this.authInterceptor = authInterceptor;
     this.householdService = householdService;
+    this.groupIndex = groupIndex;
+    this.subscriptionRegistry = subscriptionRegistry;
   }
 
   @Override
@@ -47,6 +63,7 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
   @Override
   public void configureClientInboundChannel(ChannelRegistration registration) {
-    registration.interceptors(new WebSocketInboundInterceptor(householdService));
+    registration.interceptors(
+        new WebSocketInboundInterceptor(householdService, groupIndex, subscriptionRegistry));
   }
 }
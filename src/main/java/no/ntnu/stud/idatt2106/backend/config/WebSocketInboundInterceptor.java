@@ -1,6 +1,12 @@
 package no.ntnu.stud.idatt2106.backend.config;
 
+import java.security.Principal;
+import no.ntnu.stud.idatt2106.backend.service.EventWebSocketService;
+import no.ntnu.stud.idatt2106.backend.service.FoodExpirySweeper;
+import no.ntnu.stud.idatt2106.backend.service.HouseholdGroupIndex;
 import no.ntnu.stud.idatt2106.backend.service.HouseholdService;
+import no.ntnu.stud.idatt2106.backend.service.LocationBroadcastService;
+import no.ntnu.stud.idatt2106.backend.websocket.HouseholdSubscriptionRegistry;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.simp.stomp.StompCommand;
@@ -10,14 +16,32 @@ import org.springframework.messaging.support.ChannelInterceptor;
 class WebSocketInboundInterceptor implements ChannelInterceptor {
 
   private final HouseholdService householdService;
+  private final HouseholdGroupIndex groupIndex;
+  private final HouseholdSubscriptionRegistry subscriptionRegistry;
 
-  public WebSocketInboundInterceptor(HouseholdService householdService) {
+  public WebSocketInboundInterceptor(HouseholdService householdService,
+      HouseholdGroupIndex groupIndex, HouseholdSubscriptionRegistry subscriptionRegistry) {
     this.householdService = householdService;
+    this.groupIndex = groupIndex;
+    this.subscriptionRegistry = subscriptionRegistry;
   }
 
   @Override
   public Message<?> preSend(Message<?> message, MessageChannel channel) {
     StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+    Principal user = accessor.getUser();
+
+    if (user != null && StompCommand.UNSUBSCRIBE.equals(accessor.getCommand())) {
+      subscriptionRegistry.remove(Long.parseLong(user.getName()), accessor.getSessionId(),
+          accessor.getSubscriptionId());
+      return message;
+    }
+
+    if (user != null && StompCommand.DISCONNECT.equals(accessor.getCommand())) {
+      subscriptionRegistry.removeSession(Long.parseLong(user.getName()),
+          accessor.getSessionId());
+      return message;
+    }
 
     if (!StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
       return message;
@@ -25,25 +49,58 @@ class WebSocketInboundInterceptor implements ChannelInterceptor {
 
     String dest = accessor.getDestination();
 
-    if (dest.startsWith("/topic/location/")) {
-      if (!canSubscribeToHousehold(dest, Long.parseLong(accessor.getUser().getName()))) {
-        throw new IllegalArgumentException("Not allowed to subscribe to this location topic");
-      }
+    if (dest.startsWith(LocationBroadcastService.GROUP_TOPIC)) {
+      checkGroupSubscription(accessor);
+    } else if (dest.startsWith(LocationBroadcastService.HOUSEHOLD_TOPIC)) {
+      checkHouseholdSubscription(accessor, "Not allowed to subscribe to this location topic");
+    }
+
+    if (dest.startsWith(EventWebSocketService.HOUSEHOLD_TOPIC)) {
+      checkHouseholdSubscription(accessor, "Not allowed to subscribe to this event topic");
+    }
+
+    if (dest.startsWith(FoodExpirySweeper.HOUSEHOLD_TOPIC)) {
+      checkHouseholdSubscription(accessor, "Not allowed to subscribe to this food topic");
     }
 
     return message;
   }
 
   /**
-   * Checks if the user can subscribe to the household topic.
+   * Checks that the user is a member of the household of the topic, and registers the
+   * subscription so it can be removed if the user leaves the household.
+   *
+   * @param accessor the headers of the SUBSCRIBE frame
+   * @param error    the message of the exception thrown if the user is not a member
+   */
+  private void checkHouseholdSubscription(StompHeaderAccessor accessor, String error) {
+    Long userId = Long.parseLong(accessor.getUser().getName());
+    String destination = accessor.getDestination();
+    Long householdId = Long.parseLong(destination.substring(destination.lastIndexOf("/") + 1));
+    if (!householdService.isMember(householdId, userId)) {
+      throw new IllegalArgumentException(error);
+    }
+    subscriptionRegistry.add(userId, accessor.getSessionId(), accessor.getSubscriptionId(),
+        householdId);
+  }
+
+  /**
+   * Checks that the household of the user is a member of the group of the topic, and
+   * registers the subscription under that household and group so it is removed if the user
+   * leaves the household or the household leaves the group.
    *
-   * @param destination the destination topic
-   * @param userId      the user ID
-   * @return true if the user can subscribe, false otherwise
+   * @param accessor the headers of the SUBSCRIBE frame
    */
-  private boolean canSubscribeToHousehold(String destination, Long userId) {
-    String householdId = destination.substring(destination.lastIndexOf("/") + 1);
-    return householdService.getMembers(Long.parseLong(householdId)).stream()
-        .anyMatch(member -> member.getId().equals(userId));
+  private void checkGroupSubscription(StompHeaderAccessor accessor) {
+    Long userId = Long.parseLong(accessor.getUser().getName());
+    String destination = accessor.getDestination();
+    Long groupId = Long.parseLong(destination.substring(destination.lastIndexOf("/") + 1));
+    Long householdId = groupIndex.getHouseholds(groupId).stream()
+        .filter(id -> householdService.isMember(id, userId))
+        .findFirst()
+        .orElseThrow(() -> new IllegalArgumentException(
+            "Not allowed to subscribe to this group location topic"));
+    subscriptionRegistry.addGroup(userId, accessor.getSessionId(),
+        accessor.getSubscriptionId(), householdId, groupId);
   }
-}
\ No newline at end of file
+}
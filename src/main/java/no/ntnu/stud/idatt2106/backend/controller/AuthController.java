@@ -2,6 +2,7 @@ package no.ntnu.stud.idatt2106.backend.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import no.ntnu.stud.idatt2106.backend.model.request.AdminInviteRequest;
 import no.ntnu.stud.idatt2106.backend.model.request.AdminRemoveRequest;
 import no.ntnu.stud.idatt2106.backend.model.request.AdminUpgradeRequest;
@@ -46,12 +47,15 @@ public class AuthController {
    * system and returns a response indicating success or failure.
    *
    * @param registerRequest the registration request containing user details
+   * @param request the HTTP request, used to rate limit by client address
    * @return a ResponseEntity containing the registration response or an error message
    */
   @Operation(summary = "Register a new user", description = "Creates a new user in the system")
   @PostMapping("/register")
-  public ResponseEntity<?> register(@RequestBody RegisterRequest registerRequest) {
-    RegisterResponse registerResponse = service.register(registerRequest);
+  public ResponseEntity<?> register(@RequestBody RegisterRequest registerRequest,
+      HttpServletRequest request) {
+    RegisterResponse registerResponse = service.register(registerRequest,
+        request.getRemoteAddr());
     logger.info("User registered successfully: {}", registerRequest.getUsername());
     return ResponseEntity.ok(registerResponse);
   }
@@ -61,13 +65,15 @@ public class AuthController {
    * and returns a JWT token if successful.
    *
    * @param loginRequest the login request containing the user's credentials
+   * @param request the HTTP request, used to rate limit by client address
    * @return a ResponseEntity containing the login response or an error message
    */
   @Operation(summary = "Login a user", 
       description = "Verifies user credentials and returns a JWT token")
   @PostMapping("/login")
-  public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest) {
-    LoginResponse loginResponse = service.login(loginRequest);
+  public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest,
+      HttpServletRequest request) {
+    LoginResponse loginResponse = service.login(loginRequest, request.getRemoteAddr());
     logger.info("User logged in successfully: {}", loginRequest.getUsername());
     return ResponseEntity.ok(loginResponse);
   }
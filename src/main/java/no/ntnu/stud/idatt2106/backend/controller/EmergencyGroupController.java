@@ -6,6 +6,7 @@ import java.util.List;
 import no.ntnu.stud.idatt2106.backend.model.request.EmergencyGroupRequest;
 import no.ntnu.stud.idatt2106.backend.model.response.EmergencyGroupResponse;
 import no.ntnu.stud.idatt2106.backend.model.response.EmergencyGroupSummaryResponse;
+import no.ntnu.stud.idatt2106.backend.model.response.HouseholdPreparednessResponse;
 import no.ntnu.stud.idatt2106.backend.service.EmergencyGroupService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -165,4 +166,24 @@ public class EmergencyGroupController {
     return ResponseEntity.ok(service.getSummaryByGroupId(groupId));
   }
 
+  /**
+   * Handles requests to get the level of preparedness of every household in a group.
+   *
+   * @param groupId the ID of the group
+   * @param token   the users valid jwt token
+   * @return the level of preparedness of each household in the group
+   */
+  @Operation(
+      summary = "Get the level of preparedness for all households in an emergency group",
+      description = """
+          Calculates the level of preparedness for every household in the group
+          with a single query. Only available to admins and members of the group.
+          """)
+  @GetMapping("/{groupId}/preparedness")
+  public ResponseEntity<List<HouseholdPreparednessResponse>> getGroupPreparedness(
+      @PathVariable Long groupId,
+      @RequestHeader("Authorization") String token) {
+    logger.info("Calculating preparedness for households in group with ID = {}", groupId);
+    return ResponseEntity.ok(service.getPreparednessByGroupId(groupId, token));
+  }
 }
@@ -1,13 +1,17 @@
 package no.ntnu.stud.idatt2106.backend.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import java.util.List;
 import no.ntnu.stud.idatt2106.backend.model.base.Event;
 import no.ntnu.stud.idatt2106.backend.model.request.EventRequest;
 import no.ntnu.stud.idatt2106.backend.model.response.EventResponse;
 import no.ntnu.stud.idatt2106.backend.service.EventService;
+import no.ntnu.stud.idatt2106.backend.util.TileCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -136,4 +140,76 @@ public class EventController {
       return ResponseEntity.ok(events);
     }
   }
+
+  /**
+   * Retrieves the active events whose area contains a location.
+   *
+   * @param latitude  The latitude of the location.
+   * @param longitude The longitude of the location.
+   * @return A ResponseEntity containing the active events covering the location, which is
+   *         empty if no event affects the location.
+   */
+  @Operation(summary = "Retrieves the active events affecting a location",
+      description = """
+          Retrieve the events whose area contains the given location and that have started
+          and not yet ended, with the closest event center first.
+          """)
+  @GetMapping("/active")
+  public ResponseEntity<List<EventResponse>> getActiveEventsAt(
+      @Parameter(description = "Latitude of the location") @RequestParam double latitude,
+      @Parameter(description = "Longitude of the location") @RequestParam double longitude) {
+    return ResponseEntity.ok(eventService.findActiveEventsAt(latitude, longitude));
+  }
+
+  /**
+   * Retrieves the active events whose area contains the location of a household.
+   *
+   * @param householdId The ID of the household.
+   * @return A ResponseEntity containing the active events covering the household, which is
+   *         empty if no event affects the household.
+   */
+  @Operation(summary = "Retrieves the active events affecting a household",
+      description = """
+          Retrieve the events whose area contains the stored location of the household and
+          that have started and not yet ended, with the closest event center first.
+          """)
+  @GetMapping("/active/household/{householdId}")
+  public ResponseEntity<List<EventResponse>> getActiveEventsForHousehold(
+      @PathVariable Long householdId) {
+    return ResponseEntity.ok(eventService.findActiveEventsForHousehold(householdId));
+  }
+
+  /**
+   * Retrieves the events inside a map tile, for clients that load the map tile by tile.
+   *
+   * @param z           The zoom level of the tile.
+   * @param x           The column of the tile, counted from the west.
+   * @param y           The row of the tile, counted from the north.
+   * @param ifNoneMatch The ETag of the tile contents the client already has, if any.
+   * @return A ResponseEntity containing the events inside the tile, or Not Modified if the
+   *         tile is unchanged.
+   */
+  @Operation(summary = "Retrieves the events overlapping a map tile",
+      description = """
+          Retrieve the events whose area overlaps a z/x/y web map tile. Tiles are cached
+          on the server.
+          Responses carry an ETag, and requests with a matching If-None-Match header
+          receive 304 Not Modified.
+          """)
+  @GetMapping("/tiles/{z}/{x}/{y}")
+  public ResponseEntity<List<EventResponse>> getEventTile(
+      @Parameter(description = "Zoom level of the tile") @PathVariable int z,
+      @Parameter(description = "Column of the tile") @PathVariable int x,
+      @Parameter(description = "Row of the tile") @PathVariable int y,
+      @Parameter(description = "ETag of the cached tile contents")
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+    TileCache.Tile<EventResponse> tile = eventService.findEventTile(z, x, y);
+    if (tile.matches(ifNoneMatch)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(tile.etag()).build();
+    }
+    return ResponseEntity.ok()
+        .eTag(tile.etag())
+        .cacheControl(CacheControl.noCache())
+        .body(tile.items());
+  }
 }
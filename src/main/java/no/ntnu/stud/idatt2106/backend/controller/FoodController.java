@@ -19,6 +19,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 /**
@@ -129,6 +130,22 @@ public class FoodController {
     return ResponseEntity.ok(service.getByHouseholdId(householdId));
   }
 
+  /**
+   * Get the food items of a household that expire within a number of days.
+   *
+   * @param householdId the ID of the household
+   * @param days        the number of days from today
+   * @return list of food items expiring within the given number of days, soonest first
+   */
+  @Operation(
+      summary = "Retrieves the food items in a household expiring within a number of days"
+  )
+  @GetMapping("/household/{householdId}/expiring")
+  public ResponseEntity<List<FoodResponse>> getExpiringByHouseholdId(
+      @PathVariable Long householdId, @RequestParam(defaultValue = "7") int days) {
+    return ResponseEntity.ok(service.getExpiringByHouseholdId(householdId, days));
+  }
+
   /**
    * Get a summary of food items grouped by type for a specific household.
    *
@@ -5,8 +5,10 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import java.util.List;
 import no.ntnu.stud.idatt2106.backend.model.request.CreateHouseholdRequest;
 import no.ntnu.stud.idatt2106.backend.model.request.HouseHoldInviteAcceptRequest;
+import no.ntnu.stud.idatt2106.backend.model.request.HouseholdPreparednessRequest;
 import no.ntnu.stud.idatt2106.backend.model.request.InviteUserHouseholdRequest;
 import no.ntnu.stud.idatt2106.backend.model.request.UpdateHouseholdRequest;
+import no.ntnu.stud.idatt2106.backend.model.response.HouseholdPreparednessResponse;
 import no.ntnu.stud.idatt2106.backend.model.response.HouseholdResponse;
 import no.ntnu.stud.idatt2106.backend.model.response.UserResponse;
 import no.ntnu.stud.idatt2106.backend.service.HouseholdService;
@@ -187,6 +189,43 @@ public class HouseholdController {
     return ResponseEntity.ok().body(response);
   }
 
+  /**
+   * Handles request to get the level of preparedness of several households.
+   *
+   * @param request object with the IDs of the households
+   * @return a ResponseEntity with the level of preparedness of each household
+   */
+  @Operation(summary = "Retrieves the level of preparedness of several households",
+      description = """
+          Calculates the level of preparedness for every household in the request
+          using a constant number of queries. Unknown household IDs are ignored.
+          """)
+  @PostMapping("/preparedness")
+  public ResponseEntity<List<HouseholdPreparednessResponse>> getPreparednessForHouseholds(
+      @RequestBody HouseholdPreparednessRequest request) {
+    List<HouseholdPreparednessResponse> response =
+        householdService.getPreparednessForHouseholds(request);
+    logger.info("Calculated preparedness for {} households", response.size());
+    return ResponseEntity.ok(response);
+  }
+
+  /**
+   * Handles request to recalculate the stored level of preparedness of all households.
+   *
+   * @return a ResponseEntity with status code No Content
+   */
+  @Operation(summary = "Rebuilds the stored level of preparedness of all households",
+      description = """
+          Recalculates the stored preparedness data of every household from the
+          underlying tables. Used to repair drift, for example after schema changes.
+          """)
+  @PostMapping("/preparedness/rebuild")
+  public ResponseEntity<Void> rebuildPreparedness() {
+    householdService.rebuildPreparedness();
+    logger.info("Rebuilt stored preparedness for all households");
+    return ResponseEntity.noContent().build();
+  }
+
   /**
    * Handles request to get all of the users in a Household.
    *
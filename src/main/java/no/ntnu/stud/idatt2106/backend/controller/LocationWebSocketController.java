@@ -0,0 +1,52 @@
+package no.ntnu.stud.idatt2106.backend.controller;
+
+import java.security.Principal;
+import no.ntnu.stud.idatt2106.backend.model.update.LocationUpdate;
+import no.ntnu.stud.idatt2106.backend.service.LocationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Controller;
+
+/**
+ * STOMP controller receiving position updates over the WebSocket session of a user.
+ *
+ * <p>
+ * Clients send {@link LocationUpdate} frames to {@code /app/location} on the session they
+ * already use for subscriptions, instead of making an HTTP request per update. The user is
+ * taken from the session principal set during the handshake, so any user ID in the frame
+ * is ignored.
+ * </p>
+ */
+@Controller
+public class LocationWebSocketController {
+  private static final Logger logger = LoggerFactory.getLogger(LocationWebSocketController.class);
+
+  @Autowired
+  private LocationService locationService;
+
+  /**
+   * Updates the last known position of the user of the session.
+   *
+   * @param update    the new position
+   * @param principal the principal of the WebSocket session
+   */
+  @MessageMapping("/location")
+  public void updatePosition(@Payload LocationUpdate update, Principal principal) {
+    if (principal == null) {
+      logger.warn("Ignoring position update from unauthenticated session");
+      return;
+    }
+    if (update == null || update.getLatitude() == null || update.getLongitude() == null) {
+      logger.warn("Missing fields in location update from user {}", principal.getName());
+      return;
+    }
+
+    locationService.updateLastKnownPosition(
+        Long.parseLong(principal.getName()),
+        update.getLatitude().floatValue(),
+        update.getLongitude().floatValue());
+  }
+}
@@ -3,12 +3,18 @@ package no.ntnu.stud.idatt2106.backend.controller;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import java.time.LocalTime;
 import java.util.List;
 import no.ntnu.stud.idatt2106.backend.model.base.MapObject;
 import no.ntnu.stud.idatt2106.backend.model.request.MapObjectRequest;
 import no.ntnu.stud.idatt2106.backend.model.response.MapObjectResponse;
 import no.ntnu.stud.idatt2106.backend.service.MapObjectService;
+import no.ntnu.stud.idatt2106.backend.util.TileCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -155,4 +161,74 @@ public class MapObjectController {
     }
     return ResponseEntity.ok(closestMapObject);
   }
+
+  /**
+   * Retrieves the map objects closest to a given location.
+   *
+   * @param latitude      The latitude of the location.
+   * @param longitude     The longitude of the location.
+   * @param k             The maximum number of map objects to return.
+   * @param maxDistanceKm The maximum distance from the location in kilometers.
+   * @param typeIds       The types of map objects to include.
+   * @param openAt        A time of day the map objects must be open at.
+   * @return A ResponseEntity containing the closest map objects, ordered by distance, or an
+   *         empty list if none match.
+   */
+  @Operation(summary = "Get nearest map objects",
+      description = """
+          Retrieve up to k map objects closest to a given location, ordered by distance.
+          Results can be limited to a maximum distance, a set of types, and map objects
+          that are open at a given time of day.
+          """)
+  @GetMapping("/nearest")
+  public ResponseEntity<List<MapObjectResponse>> getNearestMapObjects(
+      @Parameter(description = "Latitude of the location") @RequestParam double latitude,
+      @Parameter(description = "Longitude of the location") @RequestParam double longitude,
+      @Parameter(description = "Maximum number of map objects to return")
+        @RequestParam(defaultValue = "5") int k,
+      @Parameter(description = "Maximum distance from the location in kilometers")
+        @RequestParam(required = false) Double maxDistanceKm,
+      @Parameter(description = "IDs of the map object types to include")
+        @RequestParam(required = false) List<Long> typeIds,
+      @Parameter(description = "Time of day the map objects must be open, e.g. 14:30")
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME)
+        LocalTime openAt) {
+    List<MapObjectResponse> mapObjects = mapObjectService.getNearestMapObjects(
+        latitude, longitude, k, maxDistanceKm, typeIds, openAt);
+    return ResponseEntity.ok(mapObjects);
+  }
+
+  /**
+   * Retrieves the map objects inside a map tile, for clients that load the map tile by tile.
+   *
+   * @param z           The zoom level of the tile.
+   * @param x           The column of the tile, counted from the west.
+   * @param y           The row of the tile, counted from the north.
+   * @param ifNoneMatch The ETag of the tile contents the client already has, if any.
+   * @return A ResponseEntity containing the map objects inside the tile, or Not Modified if the
+   *         tile is unchanged.
+   */
+  @Operation(summary = "Get map objects in tile",
+      description = """
+          Retrieve the map objects inside a z/x/y web map tile. Tiles are cached on the
+          server.
+          Responses carry an ETag, and requests with a matching If-None-Match header
+          receive 304 Not Modified.
+          """)
+  @GetMapping("/tiles/{z}/{x}/{y}")
+  public ResponseEntity<List<MapObjectResponse>> getMapObjectTile(
+      @Parameter(description = "Zoom level of the tile") @PathVariable int z,
+      @Parameter(description = "Column of the tile") @PathVariable int x,
+      @Parameter(description = "Row of the tile") @PathVariable int y,
+      @Parameter(description = "ETag of the cached tile contents")
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+    TileCache.Tile<MapObjectResponse> tile = mapObjectService.getMapObjectTile(z, x, y);
+    if (tile.matches(ifNoneMatch)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(tile.etag()).build();
+    }
+    return ResponseEntity.ok()
+        .eTag(tile.etag())
+        .cacheControl(CacheControl.noCache())
+        .body(tile.items());
+  }
 }
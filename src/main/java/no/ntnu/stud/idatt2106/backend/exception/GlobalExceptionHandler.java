@@ -5,6 +5,7 @@ import io.jsonwebtoken.security.SignatureException;
 import java.util.NoSuchElementException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.AuthenticationException;
@@ -52,6 +53,34 @@ public class GlobalExceptionHandler {
         .body("Resource not found: " + ex.getMessage());
   }
 
+  /**
+   * Handles TooManyRequestsException.
+   *
+   * @param ex the TooManyRequestsException
+   * @return the ResponseEntity with a 429 status, a Retry-After header and error message
+   */
+  @ExceptionHandler(TooManyRequestsException.class)
+  public ResponseEntity<String> handleTooManyRequestsException(TooManyRequestsException ex) {
+    logger.warn("Too many requests: {}", ex.getMessage());
+    return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+        .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+        .body(ex.getMessage());
+  }
+
+  /**
+   * Handles ServiceBusyException.
+   *
+   * @param ex the ServiceBusyException
+   * @return the ResponseEntity with a 503 status, a Retry-After header and error message
+   */
+  @ExceptionHandler(ServiceBusyException.class)
+  public ResponseEntity<String> handleServiceBusyException(ServiceBusyException ex) {
+    logger.warn("Service busy: {}", ex.getMessage());
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+        .body(ex.getMessage());
+  }
+
   /**
    * Handles MissingServletRequestPartException.
    *
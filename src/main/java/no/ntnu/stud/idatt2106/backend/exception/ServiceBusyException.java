@@ -0,0 +1,25 @@
+package no.ntnu.stud.idatt2106.backend.exception;
+
+/**
+ * Thrown when the server is too busy to handle a request right now. Mapped to 503 Service
+ * Unavailable with a Retry-After header.
+ */
+public class ServiceBusyException extends RuntimeException {
+
+  private final long retryAfterSeconds;
+
+  /**
+   * Creates a new exception.
+   *
+   * @param message           the detail message
+   * @param retryAfterSeconds how many seconds the client should wait before retrying
+   */
+  public ServiceBusyException(String message, long retryAfterSeconds) {
+    super(message);
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+
+  public long getRetryAfterSeconds() {
+    return retryAfterSeconds;
+  }
+}
@@ -0,0 +1,25 @@
+package no.ntnu.stud.idatt2106.backend.exception;
+
+/**
+ * Thrown when a client has made too many requests in a short time. Mapped to 429 Too Many
+ * Requests with a Retry-After header.
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+  private final long retryAfterSeconds;
+
+  /**
+   * Creates a new exception.
+   *
+   * @param message           the detail message
+   * @param retryAfterSeconds how many seconds the client should wait before retrying
+   */
+  public TooManyRequestsException(String message, long retryAfterSeconds) {
+    super(message);
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+
+  public long getRetryAfterSeconds() {
+    return retryAfterSeconds;
+  }
+}
@@ -0,0 +1,35 @@
+package no.ntnu.stud.idatt2106.backend.model.base;
+
+import java.sql.Timestamp;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Model class representing an email queued in the email outbox.
+ *
+ * <p>
+ * The status is PENDING while the email waits to be sent, SENDING while a dispatcher
+ * has claimed it, SENT once delivered, and FAILED when it has used up its attempts.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEmail {
+  public static final String PENDING = "PENDING";
+  public static final String SENDING = "SENDING";
+  public static final String SENT = "SENT";
+  public static final String FAILED = "FAILED";
+
+  private Long id;
+  private String recipient;
+  private String subject;
+  private String htmlContent;
+  private String status;
+  private int attempts;
+  private Timestamp nextAttemptAt;
+  private String lastError;
+  private Timestamp createdAt;
+  private Timestamp sentAt;
+}
@@ -0,0 +1,27 @@
+package no.ntnu.stud.idatt2106.backend.model.base;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Aggregated inputs needed to calculate the level of preparedness for a household.
+ *
+ * <p>
+ * All values are read from the database in a single query, so that the full
+ * preparedness response can be built without any further lookups.
+ * </p>
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PreparednessSnapshot {
+  private Long householdId;
+  private double waterAmountLiters;
+  private int userCount;
+  private double totalCalories;
+  private double extraResidentWaterPerDay;
+  private double extraResidentCaloriesPerDay;
+  private int kitCount;
+  private int totalKitTypes;
+}
@@ -0,0 +1,16 @@
+package no.ntnu.stud.idatt2106.backend.model.request;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request object for retrieving the level of preparedness of several households.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class HouseholdPreparednessRequest {
+  private List<Long> householdIds;
+}
@@ -0,0 +1,16 @@
+package no.ntnu.stud.idatt2106.backend.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Class for sending the level of preparedness of a single household to the frontend.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class HouseholdPreparednessResponse {
+  private Long householdId;
+  private LevelOfPreparednessResponse levelOfPreparedness;
+}
@@ -0,0 +1,68 @@
+package no.ntnu.stud.idatt2106.backend.repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+import no.ntnu.stud.idatt2106.backend.model.base.OutboxEmail;
+
+/**
+ * Repository interface for the email outbox.
+ */
+public interface EmailOutboxRepository {
+
+  /**
+   * Queues an email to be sent as soon as possible.
+   *
+   * @param recipient   the email address of the recipient
+   * @param subject     the subject of the email
+   * @param htmlContent the HTML content of the email
+   */
+  void save(String recipient, String subject, String htmlContent);
+
+  /**
+   * Finds an email in the outbox by its ID.
+   *
+   * @param id the ID of the email
+   * @return the email, or null if not found
+   */
+  OutboxEmail findById(Long id);
+
+  /**
+   * Finds emails that are due to be sent, oldest first. This includes emails claimed by a
+   * dispatcher whose claim has expired.
+   *
+   * @param now   the current time
+   * @param limit the maximum number of emails to return
+   * @return the due emails
+   */
+  List<OutboxEmail> findDue(Timestamp now, int limit);
+
+  /**
+   * Claims a due email for sending, counting it as an attempt. Fails if another dispatcher
+   * claimed it first.
+   *
+   * @param id         the ID of the email
+   * @param now        the current time
+   * @param claimUntil when the claim expires, and the email may be claimed again
+   * @return true if the email was claimed
+   */
+  boolean claim(Long id, Timestamp now, Timestamp claimUntil);
+
+  /**
+   * Marks a claimed email as sent, and clears its content.
+   *
+   * @param id     the ID of the email
+   * @param sentAt the time the email was sent
+   */
+  void markSent(Long id, Timestamp sentAt);
+
+  /**
+   * Records a failed attempt at sending a claimed email. The content of the email is
+   * cleared when it is given up on.
+   *
+   * @param id            the ID of the email
+   * @param status        PENDING to retry the email, or FAILED to give up
+   * @param nextAttemptAt when the email should be retried
+   * @param error         a description of the failure
+   */
+  void markFailed(Long id, String status, Timestamp nextAttemptAt, String error);
+}
@@ -0,0 +1,84 @@
+package no.ntnu.stud.idatt2106.backend.repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+import no.ntnu.stud.idatt2106.backend.model.base.OutboxEmail;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Implementation of the EmailOutboxRepository interface using JDBC.
+ */
+@Repository
+public class EmailOutboxRepositoryImpl implements EmailOutboxRepository {
+
+  /** Maximum length of the stored error description. */
+  private static final int MAX_ERROR_LENGTH = 1000;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private final RowMapper<OutboxEmail> rowMapper = (rs, rowNum) -> new OutboxEmail(
+      rs.getLong("id"),
+      rs.getString("recipient"),
+      rs.getString("subject"),
+      rs.getString("html_content"),
+      rs.getString("status"),
+      rs.getInt("attempts"),
+      rs.getTimestamp("next_attempt_at"),
+      rs.getString("last_error"),
+      rs.getTimestamp("created_at"),
+      rs.getTimestamp("sent_at")
+  );
+
+  @Override
+  public void save(String recipient, String subject, String htmlContent) {
+    String sql = "INSERT INTO email_outbox (recipient, subject, html_content) VALUES (?, ?, ?)";
+    jdbcTemplate.update(sql, recipient, subject, htmlContent);
+  }
+
+  @Override
+  public OutboxEmail findById(Long id) {
+    String sql = "SELECT * FROM email_outbox WHERE id = ?";
+    List<OutboxEmail> emails = jdbcTemplate.query(sql, rowMapper, id);
+    return emails.isEmpty() ? null : emails.get(0);
+  }
+
+  @Override
+  public List<OutboxEmail> findDue(Timestamp now, int limit) {
+    String sql = "SELECT * FROM email_outbox WHERE status IN (?, ?) AND next_attempt_at <= ? "
+        + "ORDER BY next_attempt_at, id LIMIT ?";
+    return jdbcTemplate.query(sql, rowMapper,
+        OutboxEmail.PENDING, OutboxEmail.SENDING, now, limit);
+  }
+
+  @Override
+  public boolean claim(Long id, Timestamp now, Timestamp claimUntil) {
+    String sql = "UPDATE email_outbox SET status = ?, attempts = attempts + 1, "
+        + "next_attempt_at = ? WHERE id = ? AND status IN (?, ?) AND next_attempt_at <= ?";
+    return jdbcTemplate.update(sql, OutboxEmail.SENDING, claimUntil, id,
+        OutboxEmail.PENDING, OutboxEmail.SENDING, now) == 1;
+  }
+
+  @Override
+  public void markSent(Long id, Timestamp sentAt) {
+    String sql = "UPDATE email_outbox SET status = ?, sent_at = ?, last_error = NULL, "
+        + "html_content = NULL WHERE id = ?";
+    jdbcTemplate.update(sql, OutboxEmail.SENT, sentAt, id);
+  }
+
+  @Override
+  public void markFailed(Long id, String status, Timestamp nextAttemptAt, String error) {
+    // The content of an email that will not be retried is no longer needed
+    String sql = OutboxEmail.FAILED.equals(status)
+        ? "UPDATE email_outbox SET status = ?, next_attempt_at = ?, last_error = ?, "
+            + "html_content = NULL WHERE id = ?"
+        : "UPDATE email_outbox SET status = ?, next_attempt_at = ?, last_error = ? "
+            + "WHERE id = ?";
+    String truncated = error != null && error.length() > MAX_ERROR_LENGTH
+        ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    jdbcTemplate.update(sql, status, nextAttemptAt, truncated, id);
+  }
+}
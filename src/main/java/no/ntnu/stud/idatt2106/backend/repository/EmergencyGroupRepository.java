@@ -58,4 +58,19 @@ public interface EmergencyGroupRepository {
    * @return a list of EmergencyGroupSummaryResponses
    */
   List<EmergencyGroupSummaryResponse> findGroupSummariesByHouseholdId(Long householdId);
+
+  /**
+   * Retrieves a summary of every emergency group, counted in the database.
+   *
+   * @return a list of EmergencyGroupSummaryResponses, one for each group
+   */
+  List<EmergencyGroupSummaryResponse> findAllSummaries();
+
+  /**
+   * Retrieves the summary of one emergency group, counted in the database.
+   *
+   * @param groupId the ID of the group
+   * @return Optional with the summary of the group, or empty if there is no such group
+   */
+  Optional<EmergencyGroupSummaryResponse> findSummaryByGroupId(Long groupId);
 }
@@ -25,6 +25,35 @@ public class EmergencyGroupRepositoryImpl implements EmergencyGroupRepository {
       rs.getString("name"),
       rs.getString("description"));
 
+  /**
+   * Counts the households, users and extra residents of each group. The users and extra
+   * residents are counted per household with correlated subqueries, so only the households
+   * of the selected groups are counted and one household does not multiply the rows of the
+   * other. The first {@code %s} filters the group-household relations, the second the groups.
+   */
+  private static final String SUMMARY_SQL = "SELECT eg.id AS group_id, "
+      + "eg.name AS group_name, eg.description AS group_description, "
+      + "COUNT(m.household_id) AS total_households, "
+      + "COALESCE(SUM(m.users), 0) AS total_users, "
+      + "COALESCE(SUM(m.extra_residents), 0) AS total_extra_residents "
+      + "FROM emergency_group eg "
+      + "LEFT JOIN (SELECT gh.group_id, gh.household_id, "
+      + "(SELECT COUNT(*) FROM `user` u WHERE u.household_id = gh.household_id) AS users, "
+      + "(SELECT COUNT(*) FROM extra_resident er "
+      + "WHERE er.household_id = gh.household_id) AS extra_residents "
+      + "FROM (SELECT DISTINCT group_id, household_id FROM group_household%s) gh) m "
+      + "ON eg.id = m.group_id%s "
+      + "GROUP BY eg.id, eg.name, eg.description";
+
+  private final RowMapper<EmergencyGroupSummaryResponse> summaryRowMapper = (rs, rowNum) ->
+      new EmergencyGroupSummaryResponse(
+          rs.getLong("group_id"),
+          rs.getString("group_name"),
+          rs.getString("group_description"),
+          rs.getInt("total_households"),
+          rs.getInt("total_users"),
+          rs.getInt("total_extra_residents"));
+
   @Override
   public EmergencyGroup save(EmergencyGroup group) {
     String sql = "INSERT INTO emergency_group (name, description) VALUES (?, ?)";
@@ -114,15 +143,18 @@ public class EmergencyGroupRepositoryImpl implements EmergencyGroupRepository {
         +
         "GROUP BY eg.id, eg.name, eg.description";
 
-    return jdbcTemplate.query(
-        sql,
-        (rs, rowNum) -> new EmergencyGroupSummaryResponse(
-            rs.getLong("group_id"),
-            rs.getString("group_name"),
-            rs.getString("group_description"),
-            rs.getInt("total_households"),
-            rs.getInt("total_users"),
-            rs.getInt("total_extra_residents")),
-        householdId);
+    return jdbcTemplate.query(sql, summaryRowMapper, householdId);
+  }
+
+  @Override
+  public List<EmergencyGroupSummaryResponse> findAllSummaries() {
+    String sql = String.format(SUMMARY_SQL, "", "") + " ORDER BY eg.id";
+    return jdbcTemplate.query(sql, summaryRowMapper);
+  }
+
+  @Override
+  public Optional<EmergencyGroupSummaryResponse> findSummaryByGroupId(Long groupId) {
+    String sql = String.format(SUMMARY_SQL, " WHERE group_id = ?", " WHERE eg.id = ?");
+    return jdbcTemplate.query(sql, summaryRowMapper, groupId, groupId).stream().findFirst();
   }
 }
@@ -9,7 +9,7 @@ import no.ntnu.stud.idatt2106.backend.model.response.EventResponse;
  */
 public interface EventRepository {
   /**
-   * Saves an event to the repository.
+   * Saves an event to the repository, and sets the generated ID on the event.
    *
    * @param event the event to be saved
    * @return the number of rows affected
@@ -1,18 +1,31 @@
 package no.ntnu.stud.idatt2106.backend.repository;
 
+import java.sql.PreparedStatement;
 import java.util.List;
 import no.ntnu.stud.idatt2106.backend.model.base.Event;
 import no.ntnu.stud.idatt2106.backend.model.response.EventResponse;
+import no.ntnu.stud.idatt2106.backend.util.SpatialIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 
 /**
  * Repository class for managing Event entities in the database.
+ *
+ * <p>
+ * The bounding box of each event's coverage area is stored alongside the event and kept
+ * up to date on save and update, so bounds queries can filter on indexed columns. Events
+ * whose box overlaps the bounds are then checked against the exact circle.
+ * </p>
  */
 @Repository
 public class EventRepositoryImpl implements EventRepository {
+  private static final String BOUNDS_CONDITION =
+      "min_lat <= ? AND max_lat >= ? AND min_long <= ? AND max_long >= ?";
+
   @Autowired
   private JdbcTemplate jdbcTemplate;
 
@@ -48,7 +61,7 @@ public class EventRepositoryImpl implements EventRepository {
   };
 
   /**
-   * Saves an event to the repository.
+   * Saves an event to the repository, and sets the generated ID on the event.
    *
    * @param event the event to be saved
    * @return the number of rows affected
@@ -56,17 +69,34 @@ public class EventRepositoryImpl implements EventRepository {
   public int save(Event event) {
     String sql = "INSERT INTO event "
         + "(name, info_page_id, latitude, longitude, radius, start_time, end_time, severity_id, " 
-        + "recomendation) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
-    return jdbcTemplate.update(sql,
-        event.getName(),
-        event.getInfoPageId(),
-        event.getLatitude(),
-        event.getLongitude(),
-        event.getRadius(),
-        event.getStartTime(),
-        event.getEndTime(),
-        event.getSeverityId(),
-        event.getRecomendation());
+        + "recomendation, min_lat, max_lat, min_long, max_long) "
+        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    SpatialIndex.Box coverage = coverage(event);
+
+    KeyHolder keyHolder = new GeneratedKeyHolder();
+    int rows = jdbcTemplate.update(connection -> {
+      PreparedStatement ps = connection.prepareStatement(sql, new String[] {"id"});
+      ps.setString(1, event.getName());
+      ps.setObject(2, event.getInfoPageId());
+      ps.setDouble(3, event.getLatitude());
+      ps.setDouble(4, event.getLongitude());
+      ps.setDouble(5, event.getRadius());
+      ps.setTimestamp(6, event.getStartTime());
+      ps.setTimestamp(7, event.getEndTime());
+      ps.setObject(8, event.getSeverityId());
+      ps.setString(9, event.getRecomendation());
+      ps.setDouble(10, coverage.minLat());
+      ps.setDouble(11, coverage.maxLat());
+      ps.setDouble(12, coverage.minLong());
+      ps.setDouble(13, coverage.maxLong());
+      return ps;
+    }, keyHolder);
+
+    Number generatedId = keyHolder.getKey();
+    if (generatedId != null) {
+      event.setId(generatedId.longValue());
+    }
+    return rows;
   }
 
   /**
@@ -101,11 +131,11 @@ public class EventRepositoryImpl implements EventRepository {
    * @return a list of events within the specified bounds
    */
   public List<Event> findAllInBounds(double minLat, double maxLat, double minLong, double maxLong) {
-    String sql = "SELECT * FROM event WHERE (latitude + ((radius) / 111.32) >= ? AND latitude "
-        + "- ((radius) / 111.32) <= ?) AND (longitude + ((radius) / (111.32 * " 
-        + "COS(RADIANS(latitude)))) >= ? AND longitude - ((radius) / (111.32 * " 
-        + "COS(RADIANS(latitude)))) <= ?)";
-    return jdbcTemplate.query(sql, eventRowMapper, minLat, maxLat, minLong, maxLong);
+    String sql = "SELECT * FROM event WHERE " + BOUNDS_CONDITION;
+    SpatialIndex.Box bounds = new SpatialIndex.Box(minLat, maxLat, minLong, maxLong);
+    return jdbcTemplate.query(sql, eventRowMapper, maxLat, minLat, maxLong, minLong).stream()
+        .filter(e -> covers(e.getLatitude(), e.getLongitude(), e.getRadius(), bounds))
+        .toList();
   }
 
   /**
@@ -144,11 +174,13 @@ public class EventRepositoryImpl implements EventRepository {
   public List<EventResponse> findAllWithSeverityInBounds(
       double minLat, double maxLat, double minLong, double maxLong) {
     String sql = "SELECT event.*, severity.colour, severity.name, severity.description "
-        + "FROM event JOIN severity ON event.severity_id = severity.id "
-        + "WHERE (latitude + (radius / 111.32) >= ? AND latitude - (radius / 111.32) <= ?) "
-        + "AND (longitude + (radius / (111.32 * COS(RADIANS(latitude)))) >= ? AND longitude - "
-        + "(radius / (111.32 * COS(RADIANS(latitude)))) <= ?)";
-    return jdbcTemplate.query(sql, eventResponseRowMapper, minLat, maxLat, minLong, maxLong);
+        + "FROM event JOIN severity ON event.severity_id = severity.id WHERE "
+        + BOUNDS_CONDITION;
+    SpatialIndex.Box bounds = new SpatialIndex.Box(minLat, maxLat, minLong, maxLong);
+    return jdbcTemplate.query(sql, eventResponseRowMapper, maxLat, minLat, maxLong, minLong)
+        .stream()
+        .filter(e -> covers(e.getLatitude(), e.getLongitude(), e.getRadius(), bounds))
+        .toList();
   }
 
   /**
@@ -159,8 +191,9 @@ public class EventRepositoryImpl implements EventRepository {
    */
   public int update(Event event) {
     String sql = "UPDATE event SET name = ?, info_page_id = ?, latitude = ?, longitude = ?, " 
-        + "radius = ?, start_time = ?, end_time = ?, severity_id = ?, recomendation = ? " 
-        + "WHERE id = ?";
+        + "radius = ?, start_time = ?, end_time = ?, severity_id = ?, recomendation = ?, " 
+        + "min_lat = ?, max_lat = ?, min_long = ?, max_long = ? WHERE id = ?";
+    SpatialIndex.Box coverage = coverage(event);
     return jdbcTemplate.update(sql,
         event.getName(),
         event.getInfoPageId(),
@@ -171,6 +204,10 @@ public class EventRepositoryImpl implements EventRepository {
         event.getEndTime(),
         event.getSeverityId(),
         event.getRecomendation(),
+        coverage.minLat(),
+        coverage.maxLat(),
+        coverage.minLong(),
+        coverage.maxLong(),
         event.getId());
   }
 
@@ -184,4 +221,16 @@ public class EventRepositoryImpl implements EventRepository {
     String sql = "DELETE FROM event WHERE id = ?";
     return jdbcTemplate.update(sql, id);
   }
+
+  private static SpatialIndex.Box coverage(Event event) {
+    return SpatialIndex.Box.circle(event.getLatitude(), event.getLongitude(), event.getRadius());
+  }
+
+  /**
+   * Checks if the circle covered by an event reaches into the given bounds.
+   */
+  private static boolean covers(double latitude, double longitude, double radius,
+      SpatialIndex.Box bounds) {
+    return bounds.distanceKm(latitude, longitude) <= radius;
+  }
 }
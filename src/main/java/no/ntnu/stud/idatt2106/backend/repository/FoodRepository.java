@@ -1,9 +1,13 @@
 package no.ntnu.stud.idatt2106.backend.repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import no.ntnu.stud.idatt2106.backend.model.base.Food;
+import no.ntnu.stud.idatt2106.backend.model.response.FoodDetailedResponse;
+import no.ntnu.stud.idatt2106.backend.model.response.FoodSummaryResponse;
 
 /**
  * Repository interface for accessing and managing food items.
@@ -57,4 +61,69 @@ public interface FoodRepository {
   Optional<Food> findByTypeIdAndExpirationDateAndHouseholdId(Long typeId, 
       LocalDate expirationDate, Long householdId);
 
+  /**
+   * Find the food items of a household that expire within a date range, soonest first.
+   *
+   * @param householdId the household ID
+   * @param from        the first expiration date to include
+   * @param to          the last expiration date to include
+   * @return the food items expiring within the range
+   */
+  List<Food> findByHouseholdIdAndExpirationDateBetween(long householdId, LocalDate from,
+      LocalDate to);
+
+  /**
+   * Find a page of food items households have not been notified about expiring, ordered by
+   * expiration date and ID, starting after the given item. Paging by the last item read
+   * instead of an offset keeps every page an index range scan, no matter how far into the
+   * table it is.
+   *
+   * @param afterDate the expiration date of the last item read
+   * @param afterId   the ID of the last item read
+   * @param until     the last expiration date to include
+   * @param limit     the maximum number of items to return
+   * @return the next food items not notified about and expiring no later than {@code until}
+   */
+  List<Food> findUnnotifiedExpiringAfter(LocalDate afterDate, long afterId, LocalDate until,
+      int limit);
+
+  /**
+   * Marks food items as notified about expiring, so they are not notified about again
+   * unless their expiration date is changed.
+   *
+   * @param ids the IDs of the food items
+   */
+  void markExpiryNotified(Collection<Long> ids);
+
+  /**
+   * Sums the calories of all food in a household.
+   *
+   * @param householdId the household ID
+   * @return the total calories, or 0 if the household has no food
+   */
+  double sumCaloriesByHouseholdId(long householdId);
+
+  /**
+   * Sums the calories of all food in each of several households.
+   *
+   * @param householdIds the household IDs
+   * @return the total calories by household ID, for the households that have food
+   */
+  Map<Long, Double> sumCaloriesByHouseholdIds(Collection<Long> householdIds);
+
+  /**
+   * Sums the amount of food of each type in a household.
+   *
+   * @param householdId the household ID
+   * @return one summary per food type in the household
+   */
+  List<FoodSummaryResponse> findSummaryByHouseholdId(long householdId);
+
+  /**
+   * Retrieves the food of a household with its food type, summarized per food type.
+   *
+   * @param householdId the household ID
+   * @return one summary per food type, with a batch for each food item
+   */
+  List<FoodDetailedResponse> findDetailedByHouseholdId(long householdId);
 }
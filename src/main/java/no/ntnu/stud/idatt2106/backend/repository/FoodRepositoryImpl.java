@@ -2,9 +2,15 @@ package no.ntnu.stud.idatt2106.backend.repository;
 
 import java.sql.Date;
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import no.ntnu.stud.idatt2106.backend.model.base.Food;
+import no.ntnu.stud.idatt2106.backend.model.response.FoodDetailedResponse;
+import no.ntnu.stud.idatt2106.backend.model.response.FoodSummaryResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
@@ -19,6 +25,16 @@ import org.springframework.stereotype.Repository;
 @Repository
 public class FoodRepositoryImpl implements FoodRepository {
 
+  /**
+   * Maximum number of household or food IDs bound in a single query.
+   */
+  private static final int MAX_IDS_PER_QUERY = 1000;
+
+  private static final String CALORIES_SQL = "SELECT f.household_id, "
+      + "SUM(f.amount * ft.calories_per_unit) AS total_calories "
+      + "FROM food f JOIN food_type ft ON f.type_id = ft.id "
+      + "WHERE f.household_id %s GROUP BY f.household_id";
+
   @Autowired
   private JdbcTemplate jdbcTemplate;
 
@@ -71,12 +87,16 @@ public class FoodRepositoryImpl implements FoodRepository {
 
   @Override
   public void update(Food food) {
-    String sql = "UPDATE food SET type_id = ?, household_id = ?, expiration_date = ?, amount = ? " 
-        + "WHERE id = ?";
+    // The notice mark is assigned first, so it is compared with the old expiration date
+    String sql = "UPDATE food SET expiry_notified_at = CASE WHEN expiration_date = ? "
+        + "THEN expiry_notified_at ELSE NULL END, "
+        + "type_id = ?, household_id = ?, expiration_date = ?, amount = ? WHERE id = ?";
+    Date expirationDate = Date.valueOf(food.getExpirationDate());
     jdbcTemplate.update(sql,
+        expirationDate,
         food.getTypeId(),
         food.getHouseholdId(),
-        Date.valueOf(food.getExpirationDate()),
+        expirationDate,
         food.getAmount(),
         food.getId());
   }
@@ -111,4 +131,93 @@ public class FoodRepositoryImpl implements FoodRepository {
         Date.valueOf(expirationDate), householdId);
     return results.stream().findFirst();
   }
+
+  @Override
+  public List<Food> findByHouseholdIdAndExpirationDateBetween(long householdId,
+      LocalDate from, LocalDate to) {
+    String sql = "SELECT * FROM food WHERE household_id = ? "
+        + "AND expiration_date BETWEEN ? AND ? ORDER BY expiration_date, id";
+    return jdbcTemplate.query(sql, rowMapper, householdId, Date.valueOf(from),
+        Date.valueOf(to));
+  }
+
+  @Override
+  public List<Food> findUnnotifiedExpiringAfter(LocalDate afterDate, long afterId,
+      LocalDate until, int limit) {
+    String sql = "SELECT * FROM food WHERE expiry_notified_at IS NULL "
+        + "AND expiration_date <= ? "
+        + "AND (expiration_date > ? OR (expiration_date = ? AND id > ?)) "
+        + "ORDER BY expiration_date, id LIMIT ?";
+    return jdbcTemplate.query(sql, rowMapper, Date.valueOf(until), Date.valueOf(afterDate),
+        Date.valueOf(afterDate), afterId, limit);
+  }
+
+  @Override
+  public void markExpiryNotified(Collection<Long> ids) {
+    List<Long> distinct = ids.stream().distinct().toList();
+    for (int from = 0; from < distinct.size(); from += MAX_IDS_PER_QUERY) {
+      List<Long> chunk =
+          distinct.subList(from, Math.min(from + MAX_IDS_PER_QUERY, distinct.size()));
+      String sql = "UPDATE food SET expiry_notified_at = CURRENT_TIMESTAMP WHERE id IN ("
+          + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+      jdbcTemplate.update(sql, chunk.toArray());
+    }
+  }
+
+  @Override
+  public double sumCaloriesByHouseholdId(long householdId) {
+    return sumCalories("= ?", List.of(householdId)).getOrDefault(householdId, 0.0);
+  }
+
+  @Override
+  public Map<Long, Double> sumCaloriesByHouseholdIds(Collection<Long> householdIds) {
+    if (householdIds == null || householdIds.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    List<Long> ids = householdIds.stream().distinct().toList();
+    Map<Long, Double> result = new HashMap<>();
+    for (int from = 0; from < ids.size(); from += MAX_IDS_PER_QUERY) {
+      List<Long> chunk = ids.subList(from, Math.min(from + MAX_IDS_PER_QUERY, ids.size()));
+      String filter = "IN (" + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+      result.putAll(sumCalories(filter, chunk));
+    }
+    return result;
+  }
+
+  @Override
+  public List<FoodSummaryResponse> findSummaryByHouseholdId(long householdId) {
+    String sql = "SELECT type_id, SUM(amount) AS total_amount FROM food "
+        + "WHERE household_id = ? GROUP BY type_id ORDER BY type_id";
+    return jdbcTemplate.query(sql, (rs, rowNum) -> {
+      FoodSummaryResponse summary = new FoodSummaryResponse();
+      summary.setTypeId(rs.getObject("type_id", Long.class));
+      summary.setTotalAmount((float) rs.getDouble("total_amount"));
+      return summary;
+    }, householdId);
+  }
+
+  /**
+   * Reads the food of the household with its food type in one query, and groups the rows
+   * into one summary per food type as they are read.
+   */
+  @Override
+  public List<FoodDetailedResponse> findDetailedByHouseholdId(long householdId) {
+    String sql = "SELECT ft.id AS type_id, ft.name AS type_name, ft.unit, "
+        + "ft.calories_per_unit, f.id AS food_id, f.expiration_date, f.household_id, "
+        + "f.amount FROM food f "
+        + "JOIN food_type ft ON f.type_id = ft.id "
+        + "WHERE f.household_id = ? ORDER BY ft.id, f.expiration_date, f.id";
+
+    FoodSummaryCallback callback = new FoodSummaryCallback(false);
+    jdbcTemplate.query(sql, callback, householdId);
+    return callback.getSummaries();
+  }
+
+  private Map<Long, Double> sumCalories(String householdFilter, List<Long> filterArgs) {
+    Map<Long, Double> totals = new HashMap<>();
+    jdbcTemplate.query(String.format(CALORIES_SQL, householdFilter), rs -> {
+      totals.put(rs.getLong("household_id"), rs.getDouble("total_calories"));
+    }, filterArgs.toArray());
+    return totals;
+  }
 }
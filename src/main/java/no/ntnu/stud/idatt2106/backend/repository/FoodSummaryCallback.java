@@ -0,0 +1,82 @@
+package no.ntnu.stud.idatt2106.backend.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import no.ntnu.stud.idatt2106.backend.model.response.FoodBatchResponse;
+import no.ntnu.stud.idatt2106.backend.model.response.FoodDetailedResponse;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+/**
+ * Groups food rows into one summary per food type as they are read, shared by the
+ * summaries of household food and shared food.
+ *
+ * <p>
+ * Each row must have the columns {@code type_id}, {@code type_name}, {@code unit},
+ * {@code calories_per_unit}, {@code food_id}, {@code expiration_date},
+ * {@code household_id} and {@code amount}, and {@code group_household_id} for shared food.
+ * The rows should be ordered by food type, and the batches of each type are kept in the
+ * order they are read.
+ * </p>
+ */
+class FoodSummaryCallback implements RowCallbackHandler {
+
+  private final boolean shared;
+  private final Map<Long, FoodDetailedResponse> summaries = new LinkedHashMap<>();
+  private final Map<Long, Float> caloriesPerUnit = new HashMap<>();
+
+  /**
+   * Creates a callback with no rows read.
+   *
+   * @param shared whether the rows are shared food with a group household ID
+   */
+  FoodSummaryCallback(boolean shared) {
+    this.shared = shared;
+  }
+
+  @Override
+  public void processRow(ResultSet rs) throws SQLException {
+    Long typeId = rs.getObject("type_id", Long.class);
+    FoodDetailedResponse summary = summaries.computeIfAbsent(typeId, key -> {
+      FoodDetailedResponse response = new FoodDetailedResponse();
+      response.setTypeId(key);
+      response.setBatches(new ArrayList<>());
+      return response;
+    });
+    if (summary.getTypeName() == null) {
+      summary.setTypeName(rs.getString("type_name"));
+      summary.setUnit(rs.getString("unit"));
+      caloriesPerUnit.put(typeId, rs.getFloat("calories_per_unit"));
+    }
+
+    FoodBatchResponse batch = new FoodBatchResponse();
+    batch.setId(rs.getObject("food_id", Long.class));
+    batch.setAmount(rs.getFloat("amount"));
+    batch.setExpirationDate(rs.getDate("expiration_date").toLocalDate());
+    batch.setHouseholdId(rs.getObject("household_id", Long.class));
+    if (shared) {
+      batch.setGroupHouseholdId(rs.getObject("group_household_id", Long.class));
+    }
+    summary.getBatches().add(batch);
+    summary.setTotalAmount(summary.getTotalAmount() + batch.getAmount());
+  }
+
+  /**
+   * Returns the summaries of the rows read, with the total amount and calories of each
+   * food type.
+   *
+   * @return one summary per food type, in the order the types were read
+   */
+  List<FoodDetailedResponse> getSummaries() {
+    for (FoodDetailedResponse summary : summaries.values()) {
+      float totalAmount = (float) summary.getTotalAmount();
+      summary.setTotalAmount(totalAmount);
+      summary.setTotalCalories(totalAmount * caloriesPerUnit.get(summary.getTypeId()));
+    }
+    return new ArrayList<>(summaries.values());
+  }
+}
@@ -16,6 +16,13 @@ public interface MapObjectRepository {
    */
   List<MapObject> findAll();
 
+  /**
+   * Finds all map objects in the database, including details about their type.
+   *
+   * @return a list of all map objects with type details
+   */
+  List<MapObjectResponse> findAllWithDetail();
+
   /**
    * Finds a map object by its ID.
    *
@@ -25,7 +32,7 @@ public interface MapObjectRepository {
   MapObjectResponse findByIdWithDetail(Long id);
 
   /**
-   * Saves a new map object to the database.
+   * Saves a new map object to the database and sets its generated ID.
    *
    * @param mapObject the map object to save
    */
@@ -1,11 +1,15 @@
 package no.ntnu.stud.idatt2106.backend.repository;
 
+import java.sql.PreparedStatement;
+import java.sql.Statement;
 import java.util.List;
 import no.ntnu.stud.idatt2106.backend.model.base.MapObject;
 import no.ntnu.stud.idatt2106.backend.model.response.MapObjectResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -57,6 +61,13 @@ public class MapObjectRepositoryImpl implements MapObjectRepository {
     return jdbcTemplate.query(sql, mapObjectRowMapper);
   }
 
+  @Override
+  public List<MapObjectResponse> findAllWithDetail() {
+    String sql = "SELECT mo.*, mot.name AS type_name, mot.icon AS type_icon FROM map_object mo "
+        + "JOIN map_object_type mot ON mo.type_id = mot.id";
+    return jdbcTemplate.query(sql, mapObjectResponseRowMapper);
+  }
+
   @Override
   public MapObjectResponse findByIdWithDetail(Long id) {
     String sql = "SELECT mo.*, mot.name AS type_name, mot.icon AS type_icon FROM map_object mo "
@@ -70,10 +81,26 @@ public class MapObjectRepositoryImpl implements MapObjectRepository {
     String sql = "INSERT INTO map_object (type_id, latitude, longitude, opening, closing, "
         + "contact_phone, contact_email, contact_name, description) "
         + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
-    jdbcTemplate.update(sql, mapObject.getTypeId(), mapObject.getLatitude(),
-        mapObject.getLongitude(), mapObject.getOpening(), mapObject.getClosing(),
-        mapObject.getContactPhone(), mapObject.getContactEmail(), mapObject.getContactName(),
-        mapObject.getDescription());
+
+    KeyHolder keyHolder = new GeneratedKeyHolder();
+    jdbcTemplate.update(connection -> {
+      PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+      ps.setObject(1, mapObject.getTypeId());
+      ps.setFloat(2, mapObject.getLatitude());
+      ps.setFloat(3, mapObject.getLongitude());
+      ps.setTimestamp(4, mapObject.getOpening());
+      ps.setTimestamp(5, mapObject.getClosing());
+      ps.setString(6, mapObject.getContactPhone());
+      ps.setString(7, mapObject.getContactEmail());
+      ps.setString(8, mapObject.getContactName());
+      ps.setString(9, mapObject.getDescription());
+      return ps;
+    }, keyHolder);
+
+    Number generatedId = keyHolder.getKey();
+    if (generatedId != null) {
+      mapObject.setId(generatedId.longValue());
+    }
   }
 
   @Override
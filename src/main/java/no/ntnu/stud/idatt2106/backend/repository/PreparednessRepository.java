@@ -0,0 +1,57 @@
+package no.ntnu.stud.idatt2106.backend.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import no.ntnu.stud.idatt2106.backend.model.base.PreparednessSnapshot;
+
+/**
+ * Repository for reading and maintaining the aggregated data used to calculate
+ * household preparedness.
+ *
+ * <p>
+ * The aggregated inputs are stored in the household_preparedness table. Reads are
+ * primary key lookups, and a missing row is calculated and stored on first read.
+ * </p>
+ */
+public interface PreparednessRepository {
+
+  /**
+   * Retrieves the preparedness inputs for a household.
+   *
+   * @param householdId the ID of the household
+   * @return an Optional containing the snapshot, or empty if the household does not exist
+   */
+  Optional<PreparednessSnapshot> findSnapshotByHouseholdId(Long householdId);
+
+  /**
+   * Retrieves the preparedness inputs for several households using set-based queries.
+   * IDs of households that do not exist are ignored.
+   *
+   * @param householdIds the IDs of the households
+   * @return a snapshot for each existing household
+   */
+  List<PreparednessSnapshot> findSnapshotsByHouseholdIds(Collection<Long> householdIds);
+
+  /**
+   * Retrieves the preparedness inputs for every household in an emergency group.
+   *
+   * @param groupId the ID of the emergency group
+   * @return a snapshot for each household in the group
+   */
+  List<PreparednessSnapshot> findSnapshotsByGroupId(Long groupId);
+
+  /**
+   * Recalculates and stores the preparedness inputs of a household. Does nothing
+   * if the ID is null or the household does not exist.
+   *
+   * @param householdId the ID of the household
+   */
+  void refreshSnapshot(Long householdId);
+
+  /**
+   * Recalculates and stores the preparedness inputs of every household, repairing
+   * any rows that have drifted from the underlying tables.
+   */
+  void rebuildAllSnapshots();
+}
@@ -0,0 +1,214 @@
+package no.ntnu.stud.idatt2106.backend.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import no.ntnu.stud.idatt2106.backend.model.base.PreparednessSnapshot;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * JDBC implementation of the PreparednessRepository.
+ *
+ * <p>
+ * Snapshots are read from the household_preparedness table joined with the household
+ * table on their primary keys. Rows are recalculated with a grouped query, where the
+ * household filter is applied inside each derived table so only the rows of the
+ * affected households are aggregated.
+ * </p>
+ */
+@Repository
+@Transactional
+@RequiredArgsConstructor
+public class PreparednessRepositoryImpl implements PreparednessRepository {
+
+  /**
+   * Maximum number of household IDs bound in a single query. The filter is bound once
+   * per derived table, which keeps the statement well below driver parameter limits.
+   */
+  private static final int MAX_IDS_PER_QUERY = 1000;
+
+  private static final String AGGREGATE_SQL = """
+      SELECT h.id AS household_id,
+             COALESCE(u.user_count, 0) AS user_count,
+             COALESCE(f.total_calories, 0) AS total_calories,
+             COALESCE(er.extra_resident_water, 0) AS extra_resident_water,
+             COALESCE(er.extra_resident_food, 0) AS extra_resident_food,
+             COALESCE(hk.kit_count, 0) AS kit_count
+      FROM household h
+      LEFT JOIN (
+        SELECT household_id, COUNT(*) AS user_count
+        FROM `user`
+        WHERE household_id %1$s
+        GROUP BY household_id
+      ) u ON u.household_id = h.id
+      LEFT JOIN (
+        SELECT f.household_id, SUM(f.amount * ft.calories_per_unit) AS total_calories
+        FROM food f
+        JOIN food_type ft ON ft.id = f.type_id
+        WHERE f.household_id %1$s
+        GROUP BY f.household_id
+      ) f ON f.household_id = h.id
+      LEFT JOIN (
+        SELECT er.household_id,
+               SUM(ert.consumption_water) AS extra_resident_water,
+               SUM(ert.consumption_food) AS extra_resident_food
+        FROM extra_resident er
+        JOIN extra_resident_type ert ON ert.id = er.type_id
+        WHERE er.household_id %1$s
+        GROUP BY er.household_id
+      ) er ON er.household_id = h.id
+      LEFT JOIN (
+        SELECT household_id, COUNT(*) AS kit_count
+        FROM household_kit
+        WHERE household_id %1$s
+        GROUP BY household_id
+      ) hk ON hk.household_id = h.id
+      WHERE h.id %1$s
+      """;
+
+  /** Number of times the household filter occurs in AGGREGATE_SQL. */
+  private static final int FILTER_OCCURRENCES = 5;
+
+  private static final String DELETE_SQL =
+      "DELETE FROM household_preparedness WHERE household_id %s";
+
+  private static final String INSERT_SQL = """
+      INSERT INTO household_preparedness (household_id, user_count, total_calories,
+          extra_resident_water, extra_resident_food, kit_count, updated_at)
+      SELECT a.household_id, a.user_count, a.total_calories,
+             a.extra_resident_water, a.extra_resident_food, a.kit_count, CURRENT_TIMESTAMP
+      FROM (%s) a
+      """;
+
+  private static final String STORED_SQL = """
+      SELECT h.id AS household_id,
+             h.amount_water,
+             hp.household_id AS stored_household_id,
+             hp.user_count,
+             hp.total_calories,
+             hp.extra_resident_water,
+             hp.extra_resident_food,
+             hp.kit_count,
+             (SELECT COUNT(*) FROM kit) AS total_kit_types
+      FROM household h
+      LEFT JOIN household_preparedness hp ON hp.household_id = h.id
+      WHERE h.id %s
+      """;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private final RowMapper<StoredRow> rowMapper = (rs, rowNum) -> new StoredRow(
+      new PreparednessSnapshot(
+          rs.getObject("household_id", Long.class),
+          rs.getDouble("amount_water"),
+          rs.getInt("user_count"),
+          rs.getDouble("total_calories"),
+          rs.getDouble("extra_resident_water"),
+          rs.getDouble("extra_resident_food"),
+          rs.getInt("kit_count"),
+          rs.getInt("total_kit_types")),
+      rs.getObject("stored_household_id") != null);
+
+  /**
+   * A snapshot read from the database, and whether the household had a stored row.
+   */
+  private record StoredRow(PreparednessSnapshot snapshot, boolean stored) {
+  }
+
+  @Override
+  public Optional<PreparednessSnapshot> findSnapshotByHouseholdId(Long householdId) {
+    return findStored("= ?", List.of(householdId)).stream().findFirst();
+  }
+
+  @Override
+  public List<PreparednessSnapshot> findSnapshotsByHouseholdIds(Collection<Long> householdIds) {
+    if (householdIds == null || householdIds.isEmpty()) {
+      return Collections.emptyList();
+    }
+    List<Long> ids = householdIds.stream().distinct().toList();
+    List<PreparednessSnapshot> result = new ArrayList<>(ids.size());
+    for (List<Long> chunk : chunks(ids)) {
+      result.addAll(findStored(inList(chunk.size()), chunk));
+    }
+    return result;
+  }
+
+  @Override
+  public List<PreparednessSnapshot> findSnapshotsByGroupId(Long groupId) {
+    return findStored("IN (SELECT household_id FROM group_household WHERE group_id = ?)",
+        List.of(groupId));
+  }
+
+  @Override
+  public void refreshSnapshot(Long householdId) {
+    if (householdId == null) {
+      return;
+    }
+    refresh("= ?", List.of(householdId));
+  }
+
+  @Override
+  public void rebuildAllSnapshots() {
+    refresh("IS NOT NULL", List.of());
+  }
+
+  /**
+   * Reads stored snapshots matching the filter. Households without a stored row are
+   * calculated and stored with one extra query before they are read again.
+   */
+  private List<PreparednessSnapshot> findStored(String householdFilter, List<Long> filterArgs) {
+    List<StoredRow> rows = jdbcTemplate.query(
+        String.format(STORED_SQL, householdFilter), rowMapper, filterArgs.toArray());
+
+    List<PreparednessSnapshot> result = new ArrayList<>(rows.size());
+    List<Long> missing = new ArrayList<>();
+    for (StoredRow row : rows) {
+      if (row.stored()) {
+        result.add(row.snapshot());
+      } else {
+        missing.add(row.snapshot().getHouseholdId());
+      }
+    }
+
+    for (List<Long> chunk : chunks(missing)) {
+      refresh(inList(chunk.size()), chunk);
+      jdbcTemplate.query(String.format(STORED_SQL, inList(chunk.size())), rowMapper,
+          chunk.toArray()).forEach(row -> result.add(row.snapshot()));
+    }
+    return result;
+  }
+
+  /**
+   * Replaces the stored rows matching the filter with freshly aggregated ones. Delete and
+   * insert are used instead of an upsert, since the test database does not support
+   * upserts from a select.
+   */
+  private void refresh(String householdFilter, List<Long> filterArgs) {
+    jdbcTemplate.update(String.format(DELETE_SQL, householdFilter), filterArgs.toArray());
+
+    String sql = String.format(INSERT_SQL, String.format(AGGREGATE_SQL, householdFilter));
+    List<Object> args = new ArrayList<>(filterArgs.size() * FILTER_OCCURRENCES);
+    for (int i = 0; i < FILTER_OCCURRENCES; i++) {
+      args.addAll(filterArgs);
+    }
+    jdbcTemplate.update(sql, args.toArray());
+  }
+
+  private static String inList(int size) {
+    return "IN (" + String.join(", ", Collections.nCopies(size, "?")) + ")";
+  }
+
+  private static List<List<Long>> chunks(List<Long> ids) {
+    List<List<Long>> chunks = new ArrayList<>();
+    for (int from = 0; from < ids.size(); from += MAX_IDS_PER_QUERY) {
+      chunks.add(ids.subList(from, Math.min(from + MAX_IDS_PER_QUERY, ids.size())));
+    }
+    return chunks;
+  }
+}
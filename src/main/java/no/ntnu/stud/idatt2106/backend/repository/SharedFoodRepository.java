@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.Optional;
 import no.ntnu.stud.idatt2106.backend.model.base.SharedFood;
 import no.ntnu.stud.idatt2106.backend.model.base.SharedFoodKey;
+import no.ntnu.stud.idatt2106.backend.model.response.FoodDetailedResponse;
 
 /**
  * Interface for shared food persistence operations.
@@ -21,7 +22,19 @@ public interface SharedFoodRepository {
   
   List<SharedFood> findByGroupHouseholdId(Long groupHouseholdId);
 
-
-
-
+  /**
+   * Retrieves the food shared through a group membership, summarized per food type.
+   *
+   * @param groupHouseholdId the ID of the group-household relation
+   * @return one summary per food type, with a batch for each shared food item
+   */
+  List<FoodDetailedResponse> findSummaryByGroupHouseholdId(Long groupHouseholdId);
+
+  /**
+   * Retrieves the food shared with a group by all its households, summarized per food type.
+   *
+   * @param groupId the ID of the group
+   * @return one summary per food type, with a batch for each shared food item
+   */
+  List<FoodDetailedResponse> findSummaryByGroupId(Long groupId);
 }
@@ -1,10 +1,12 @@
 package no.ntnu.stud.idatt2106.backend.repository;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import lombok.RequiredArgsConstructor;
 import no.ntnu.stud.idatt2106.backend.model.base.SharedFood;
 import no.ntnu.stud.idatt2106.backend.model.base.SharedFoodKey;
+import no.ntnu.stud.idatt2106.backend.model.response.FoodDetailedResponse;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
@@ -70,6 +72,32 @@ public class SharedFoodRepositoryImpl implements SharedFoodRepository {
     return jdbcTemplate.query(sql, rowMapper, groupHouseholdId);
   }
 
+  @Override
+  public List<FoodDetailedResponse> findSummaryByGroupHouseholdId(Long groupHouseholdId) {
+    return findSummary("WHERE sf.group_household_id = ?", groupHouseholdId);
+  }
+
+  @Override
+  public List<FoodDetailedResponse> findSummaryByGroupId(Long groupId) {
+    return findSummary("JOIN group_household gh ON sf.group_household_id = gh.id "
+        + "WHERE gh.group_id = ?", groupId);
+  }
 
+  /**
+   * Reads the shared food matching a condition with its food and food type in one query,
+   * and groups the rows into one summary per food type as they are read.
+   */
+  private List<FoodDetailedResponse> findSummary(String condition, Long id) {
+    String sql = "SELECT ft.id AS type_id, ft.name AS type_name, ft.unit, "
+        + "ft.calories_per_unit, f.id AS food_id, f.expiration_date, f.household_id, "
+        + "sf.group_household_id, sf.amount "
+        + "FROM shared_food sf "
+        + "JOIN food f ON sf.food_id = f.id "
+        + "JOIN food_type ft ON f.type_id = ft.id "
+        + condition + " ORDER BY ft.id, f.expiration_date, f.id";
 
+    FoodSummaryCallback callback = new FoodSummaryCallback(true);
+    jdbcTemplate.query(sql, callback, id);
+    return callback.getSummaries();
+  }
 }
@@ -2,6 +2,7 @@ package no.ntnu.stud.idatt2106.backend.repository;
 
 import java.util.List;
 import no.ntnu.stud.idatt2106.backend.model.base.User;
+import no.ntnu.stud.idatt2106.backend.model.update.LocationUpdate;
 
 /**
  * Repository interface for user persistence operations.
@@ -26,6 +27,8 @@ public interface UserRepository {
   void updateSharePositionGroup(Long userId, boolean value);
 
   void updateLastKnownPosition(Long userId, float latitude, float longitude);
+
+  void updateLastKnownPositions(List<LocationUpdate> updates);
   
   int updateSharePositionHouseholdForHousehold(Long householdId, boolean share);
 
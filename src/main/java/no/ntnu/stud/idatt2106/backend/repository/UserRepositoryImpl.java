@@ -2,6 +2,7 @@ package no.ntnu.stud.idatt2106.backend.repository;
 
 import java.util.List;
 import no.ntnu.stud.idatt2106.backend.model.base.User;
+import no.ntnu.stud.idatt2106.backend.model.update.LocationUpdate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
@@ -103,6 +104,15 @@ public class UserRepositoryImpl implements UserRepository {
     jdbcTemplate.update(sql, latitude, longitude, userId);
   }
 
+  @Override
+  public void updateLastKnownPositions(List<LocationUpdate> updates) {
+    String sql = "UPDATE `user` SET last_latitude = ?, last_longitude = ? WHERE id = ?";
+    jdbcTemplate.batchUpdate(sql, updates.stream()
+        .map(update -> new Object[] {update.getLatitude().floatValue(),
+            update.getLongitude().floatValue(), update.getUserId()})
+        .toList());
+  }
+
   @Override
   public int updateSharePositionHouseholdForHousehold(Long householdId, boolean share) {
     String sql = "UPDATE `user` SET share_position_household = ? WHERE household_id = ?";
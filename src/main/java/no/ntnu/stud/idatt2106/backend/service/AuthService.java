@@ -1,6 +1,7 @@
 package no.ntnu.stud.idatt2106.backend.service;
 
-import jakarta.mail.MessagingException;
+import java.util.Locale;
+import no.ntnu.stud.idatt2106.backend.exception.TooManyRequestsException;
 import no.ntnu.stud.idatt2106.backend.model.base.AdminRegistrationKey;
 import no.ntnu.stud.idatt2106.backend.model.base.PasswordResetKey;
 import no.ntnu.stud.idatt2106.backend.model.base.User;
@@ -16,12 +17,12 @@ import no.ntnu.stud.idatt2106.backend.model.response.LoginResponse;
 import no.ntnu.stud.idatt2106.backend.model.response.RegisterResponse;
 import no.ntnu.stud.idatt2106.backend.model.update.CredentialsUpdate;
 import no.ntnu.stud.idatt2106.backend.util.EmailTemplates;
+import no.ntnu.stud.idatt2106.backend.util.TokenBucketLimiter;
 import no.ntnu.stud.idatt2106.backend.util.Validate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
 /**
@@ -45,13 +46,28 @@ public class AuthService {
   private AdminRegistrationKeyService adminRegistrationKeyService;
   @Autowired
   private CloudflareTurnstileService turnstileService;
+  @Autowired
+  private PasswordHasher encoder;
 
-  private final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(12);
+  /**
+   * Limits password attempts per client address, a burst of 20 and then one per second.
+   */
+  private final TokenBucketLimiter addressLimiter = new TokenBucketLimiter(20, 1);
+
+  /**
+   * Limits login attempts per username, a burst of 5 and then 5 per minute.
+   */
+  private final TokenBucketLimiter usernameLimiter = new TokenBucketLimiter(5, 5 / 60.0);
 
   /**
    * Registers a new user in the system.
+   *
+   * @param registerRequest the details of the new user
+   * @param clientAddress   the address of the client, used for rate limiting, or null
+   *                        for internal calls that should not be limited
    */
-  public RegisterResponse register(RegisterRequest registerRequest) {
+  public RegisterResponse register(RegisterRequest registerRequest, String clientAddress) {
+    checkRateLimit(addressLimiter, clientAddress);
 
     Validate.that(registerRequest.getUsername(),
         Validate.isNotBlankOrNull(), "Username cannot be blank or null");
@@ -84,19 +100,19 @@ public class AuthService {
     String token = authenticateUser(registerRequest.getUsername(), registerRequest.getPassword());
 
     String htmlContent = EmailTemplates.getWelcomeEmailTemplate(user.getUsername());
-    try {
-      emailService.sendHtmlEmail(user.getEmail(), "Welcome to Our Platform", htmlContent);
-    } catch (MessagingException e) {
-      throw new RuntimeException("Failed to send welcome email", e);
-    }
+    emailService.queueHtmlEmail(user.getEmail(), "Welcome to Our Platform", htmlContent);
 
     return new RegisterResponse("Registration successful!", token);
   }
 
   /**
    * Verifies the login credentials of a user.
+   *
+   * @param loginRequest  the credentials of the user
+   * @param clientAddress the address of the client, used for rate limiting, or null
+   *                      for internal calls that should not be limited
    */
-  public LoginResponse login(LoginRequest loginRequest) {
+  public LoginResponse login(LoginRequest loginRequest, String clientAddress) {
     if (loginRequest.getUsername() == null) {
       throw new IllegalArgumentException("Username cannot be null or empty");      
     }
@@ -104,12 +120,31 @@ public class AuthService {
       throw new IllegalArgumentException("Password cannot be null or empty");
       
     }
+    checkRateLimit(addressLimiter, clientAddress);
+    checkRateLimit(usernameLimiter, loginRequest.getUsername().toLowerCase(Locale.ROOT));
     
     String token = authenticateUser(loginRequest.getUsername(), loginRequest.getPassword());
 
     return new LoginResponse("Login successful!", token);
   }
 
+  /**
+   * Takes a token from the bucket of a key, so password hashing is only started for
+   * clients within their limit.
+   *
+   * @throws TooManyRequestsException if the key has used up its requests
+   */
+  private void checkRateLimit(TokenBucketLimiter limiter, String key) {
+    if (key == null) {
+      return;
+    }
+    long retryAfter = limiter.tryAcquire(key);
+    if (retryAfter > 0) {
+      throw new TooManyRequestsException("Too many attempts, please try again later",
+          retryAfter);
+    }
+  }
+
   /**
    * Authenticates the user and generates a token.
    */
@@ -233,11 +268,7 @@ public class AuthService {
     String key = passwordResetKeyService.createPasswordResetKey(user.getId());
 
     String htmlContent = EmailTemplates.getPasswordResetTemplate(key);
-    try {
-      emailService.sendHtmlEmail(user.getEmail(), "Tilbakestill passord", htmlContent);
-    } catch (MessagingException e) {
-      throw new RuntimeException("Failed to send password reset email", e);
-    }
+    emailService.queueHtmlEmail(user.getEmail(), "Tilbakestill passord", htmlContent);
   }
 
   /**
@@ -287,11 +318,7 @@ public class AuthService {
 
     String htmlContent = EmailTemplates.getAdminUpgradeTemplate(
         request.getUsername(), registrationKey);
-    try {
-      emailService.sendHtmlEmail(user.getEmail(), "Registrer deg som admin", htmlContent);
-    } catch (MessagingException e) {
-      throw new RuntimeException("Failed to send admin registration email", e);
-    }
+    emailService.queueHtmlEmail(user.getEmail(), "Registrer deg som admin", htmlContent);
   }
 
   /**
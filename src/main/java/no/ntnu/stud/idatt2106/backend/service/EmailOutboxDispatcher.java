@@ -0,0 +1,194 @@
+package no.ntnu.stud.idatt2106.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import no.ntnu.stud.idatt2106.backend.model.base.OutboxEmail;
+import no.ntnu.stud.idatt2106.backend.repository.EmailOutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Sends the emails queued in the email outbox.
+ *
+ * <p>
+ * The outbox is polled on a fixed delay. Due emails are claimed and split into at most
+ * {@code email.outbox.concurrency} chunks, which are sent in parallel. Each chunk is sent
+ * with a single call to the mail sender, so the whole chunk shares one SMTP connection.
+ * Failed emails are retried with exponential backoff until they have used up their
+ * attempts. A claim expires after a while, so emails claimed by an instance that stopped
+ * are picked up again.
+ * </p>
+ */
+@Service
+public class EmailOutboxDispatcher {
+
+  private static final Logger logger = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+  /** How long a claimed email is reserved for the dispatcher that claimed it. */
+  static final long CLAIM_MILLIS = 5 * 60 * 1000;
+
+  /** Delay before the first retry, doubled for every further attempt. */
+  static final long INITIAL_BACKOFF_MILLIS = 30 * 1000;
+
+  /** Upper limit of the delay between retries. */
+  static final long MAX_BACKOFF_MILLIS = 60 * 60 * 1000;
+
+  @Autowired
+  private EmailOutboxRepository emailOutboxRepository;
+
+  @Autowired
+  private EmailService emailService;
+
+  @Autowired
+  private JavaMailSender mailSender;
+
+  @Value("${email.outbox.batch-size:50}")
+  private int batchSize = 50;
+
+  @Value("${email.outbox.concurrency:2}")
+  private int concurrency = 2;
+
+  @Value("${email.outbox.max-attempts:5}")
+  private int maxAttempts = 5;
+
+  private ExecutorService executor;
+
+  @PostConstruct
+  void startExecutor() {
+    executor = Executors.newFixedThreadPool(Math.max(1, concurrency));
+  }
+
+  @PreDestroy
+  void stopExecutor() {
+    executor.shutdown();
+  }
+
+  /**
+   * Sends a batch of due emails from the outbox.
+   *
+   * @return the number of emails that were sent
+   */
+  @Scheduled(fixedDelayString = "${email.outbox.poll-interval-ms:5000}")
+  public int dispatch() {
+    long now = System.currentTimeMillis();
+    List<OutboxEmail> claimed = new ArrayList<>();
+    for (OutboxEmail email : emailOutboxRepository.findDue(new Timestamp(now), batchSize)) {
+      if (emailOutboxRepository.claim(email.getId(), new Timestamp(now),
+          new Timestamp(now + CLAIM_MILLIS))) {
+        email.setAttempts(email.getAttempts() + 1);
+        claimed.add(email);
+      }
+    }
+    if (claimed.isEmpty()) {
+      return 0;
+    }
+
+    int chunks = Math.min(Math.max(1, concurrency), claimed.size());
+    int chunkSize = (claimed.size() + chunks - 1) / chunks;
+    List<Future<Integer>> results = new ArrayList<>();
+    for (int start = 0; start < claimed.size(); start += chunkSize) {
+      List<OutboxEmail> chunk = claimed.subList(start, Math.min(start + chunkSize,
+          claimed.size()));
+      results.add(executor.submit(() -> sendChunk(chunk)));
+    }
+
+    int sent = 0;
+    for (Future<Integer> result : results) {
+      try {
+        sent += result.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return sent;
+      } catch (ExecutionException e) {
+        logger.error("Failed to send emails from the outbox", e.getCause());
+      }
+    }
+    logger.debug("Sent {} of {} emails from the outbox", sent, claimed.size());
+    return sent;
+  }
+
+  /**
+   * Sends a chunk of claimed emails over one connection, and records the outcome of each.
+   */
+  private int sendChunk(List<OutboxEmail> chunk) {
+    Map<MimeMessage, OutboxEmail> messages = new HashMap<>();
+    for (OutboxEmail email : chunk) {
+      try {
+        messages.put(emailService.createHtmlMessage(email.getRecipient(), email.getSubject(),
+            email.getHtmlContent()), email);
+      } catch (MessagingException | RuntimeException e) {
+        recordFailure(email, e);
+      }
+    }
+    if (messages.isEmpty()) {
+      return 0;
+    }
+
+    Map<Object, Exception> failures = new HashMap<>();
+    try {
+      mailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+    } catch (MailSendException e) {
+      failures.putAll(e.getFailedMessages());
+      if (failures.isEmpty()) {
+        messages.keySet().forEach(message -> failures.put(message, e));
+      }
+    } catch (MailException e) {
+      messages.keySet().forEach(message -> failures.put(message, e));
+    }
+
+    int sent = 0;
+    Timestamp sentAt = new Timestamp(System.currentTimeMillis());
+    for (Map.Entry<MimeMessage, OutboxEmail> entry : messages.entrySet()) {
+      Exception failure = failures.get(entry.getKey());
+      if (failure == null) {
+        emailOutboxRepository.markSent(entry.getValue().getId(), sentAt);
+        sent++;
+      } else {
+        recordFailure(entry.getValue(), failure);
+      }
+    }
+    return sent;
+  }
+
+  private void recordFailure(OutboxEmail email, Exception e) {
+    boolean giveUp = email.getAttempts() >= maxAttempts;
+    long retryAt = System.currentTimeMillis() + backoffMillis(email.getAttempts());
+    emailOutboxRepository.markFailed(email.getId(),
+        giveUp ? OutboxEmail.FAILED : OutboxEmail.PENDING, new Timestamp(retryAt),
+        e.getMessage());
+    if (giveUp) {
+      logger.error("Giving up on email {} after {} attempts: {}", email.getId(),
+          email.getAttempts(), e.getMessage());
+    } else {
+      logger.warn("Failed to send email {}, attempt {}: {}", email.getId(),
+          email.getAttempts(), e.getMessage());
+    }
+  }
+
+  /**
+   * Calculates the delay before retrying an email that has failed the given number of
+   * attempts.
+   */
+  static long backoffMillis(int attempts) {
+    int doublings = Math.min(Math.max(0, attempts - 1), 20);
+    return Math.min(MAX_BACKOFF_MILLIS, INITIAL_BACKOFF_MILLIS << doublings);
+  }
+}
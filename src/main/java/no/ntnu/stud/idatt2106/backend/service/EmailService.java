@@ -2,6 +2,7 @@ package no.ntnu.stud.idatt2106.backend.service;
 
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
+import no.ntnu.stud.idatt2106.backend.repository.EmailOutboxRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.SimpleMailMessage;
@@ -11,6 +12,12 @@ import org.springframework.stereotype.Service;
 
 /**
  * Service class for sending emails.
+ *
+ * <p>
+ * Request handling code should queue emails with {@link #queueHtmlEmail}, which only
+ * stores the email in the outbox. The emails are sent in the background by the
+ * {@link EmailOutboxDispatcher}, so requests do not wait for the mail server.
+ * </p>
  */
 @Service
 public class EmailService {
@@ -18,6 +25,9 @@ public class EmailService {
   @Autowired
   private JavaMailSender mailSender;
 
+  @Autowired
+  private EmailOutboxRepository emailOutboxRepository;
+
   @Value("${spring.mail.username}")
   private String fromEmail;
 
@@ -53,6 +63,31 @@ public class EmailService {
    */
   public void sendHtmlEmail(String to, String subject, String htmlContent) 
       throws MessagingException {
+    mailSender.send(createHtmlMessage(to, subject, htmlContent));
+  }
+
+  /**
+   * Queue an HTML email in the outbox, to be sent in the background.
+   *
+   * @param to to email address
+   * @param subject subject of the email
+   * @param htmlContent HTML content of the email
+   */
+  public void queueHtmlEmail(String to, String subject, String htmlContent) {
+    emailOutboxRepository.save(to, subject, htmlContent);
+  }
+
+  /**
+   * Create an HTML email without sending it.
+   *
+   * @param to to email address
+   * @param subject subject of the email
+   * @param htmlContent HTML content of the email
+   * @return the email message
+   * @throws MessagingException if the message could not be created
+   */
+  public MimeMessage createHtmlMessage(String to, String subject, String htmlContent)
+      throws MessagingException {
     htmlContent = htmlContent.replace("{frontendUrl}", frontendUrl);
 
     MimeMessage message = mailSender.createMimeMessage();
@@ -62,7 +97,6 @@ public class EmailService {
     helper.setTo(to);
     helper.setSubject(subject);
     helper.setText(htmlContent, true);
-
-    mailSender.send(message);
+    return message;
   }
 }
\ No newline at end of file
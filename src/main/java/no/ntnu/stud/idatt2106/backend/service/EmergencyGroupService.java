@@ -2,21 +2,21 @@ package no.ntnu.stud.idatt2106.backend.service;
 
 import java.util.List;
 import java.util.NoSuchElementException;
-import java.util.Objects;
-import java.util.Set;
 import java.util.stream.Collectors;
 import no.ntnu.stud.idatt2106.backend.model.base.EmergencyGroup;
-import no.ntnu.stud.idatt2106.backend.model.base.ExtraResident;
 import no.ntnu.stud.idatt2106.backend.model.base.GroupHousehold;
 import no.ntnu.stud.idatt2106.backend.model.base.User;
 import no.ntnu.stud.idatt2106.backend.model.request.EmergencyGroupRequest;
 import no.ntnu.stud.idatt2106.backend.model.response.EmergencyGroupResponse;
 import no.ntnu.stud.idatt2106.backend.model.response.EmergencyGroupSummaryResponse;
+import no.ntnu.stud.idatt2106.backend.model.response.HouseholdPreparednessResponse;
 import no.ntnu.stud.idatt2106.backend.repository.EmergencyGroupRepository;
 import no.ntnu.stud.idatt2106.backend.repository.GroupHouseholdRepository;
 import no.ntnu.stud.idatt2106.backend.service.mapper.EmergencyGroupMapper;
 import no.ntnu.stud.idatt2106.backend.util.Validate;
+import no.ntnu.stud.idatt2106.backend.websocket.GroupHouseholdLeftEvent;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 /**
@@ -35,10 +35,16 @@ public class EmergencyGroupService {
   private UserService userService;
 
   @Autowired
-  private ExtraResidentService extraResidentService;
+  private JwtService jwtService;
 
   @Autowired
-  private JwtService jwtService;
+  private LevelOfPreparednessService levelOfPreparednessService;
+
+  @Autowired
+  private HouseholdGroupIndex groupIndex;
+
+  @Autowired
+  private ApplicationEventPublisher eventPublisher;
 
   /**
    * Creates a new emergency group from the provided request.
@@ -53,6 +59,7 @@ public class EmergencyGroupService {
     
     EmergencyGroup group = repository.save(EmergencyGroupMapper.toModel(request));
     groupHouseholdRepository.save(new GroupHousehold(null, user.getHouseholdId(), group.getId()));
+    groupIndex.add(user.getHouseholdId(), group.getId());
   }
 
   /**
@@ -78,7 +85,10 @@ public class EmergencyGroupService {
     Long householdId = user.getHouseholdId();
     Validate.that(isHouseholdInGroup(householdId, id), Validate.isTrue(),
         "Household with ID = " + householdId + " is not in group with ID = " + id);
-    return repository.deleteById(id);
+    boolean deleted = repository.deleteById(id);
+    groupIndex.removeGroup(id);
+    eventPublisher.publishEvent(new GroupHouseholdLeftEvent(id, null));
+    return deleted;
   }
 
   /**
@@ -130,42 +140,7 @@ public class EmergencyGroupService {
    *         counts
    */
   public List<EmergencyGroupSummaryResponse> getAllSummaries() {
-    List<EmergencyGroup> groups = repository.findAll();
-    List<GroupHousehold> groupHouseholds = groupHouseholdRepository.findAll();
-    List<User> allUsers = userService.getAllUsers();
-    List<ExtraResident> allExtras = extraResidentService.getAllEntities();
-
-    return groups.stream().map(group -> {
-      Long groupId = group.getId();
-
-      List<GroupHousehold> householdsInGroup = groupHouseholds.stream()
-          .filter(gh -> Objects.equals(gh.getGroupId(), groupId))
-          .toList();
-
-      Set<Long> householdIds = householdsInGroup.stream()
-          .map(GroupHousehold::getHouseholdId)
-          .collect(Collectors.toSet());
-
-      int totalHouseholds = householdIds.size();
-
-      int totalResidents = (int) allUsers.stream()
-          .filter(user -> user.getHouseholdId() != null && householdIds.contains(
-              user.getHouseholdId()))
-          .count();
-
-      int totalExtraResidents = (int) allExtras.stream()
-          .filter(extra -> extra.getHouseholdId() != null && householdIds.contains(
-              extra.getHouseholdId()))
-          .count();
-
-      return new EmergencyGroupSummaryResponse(
-          groupId,
-          group.getName(),
-          group.getDescription(),
-          totalHouseholds,
-          totalResidents,
-          totalExtraResidents);
-    }).toList();
+    return repository.findAllSummaries();
   }
 
   /**
@@ -176,39 +151,27 @@ public class EmergencyGroupService {
    *         counts
    */
   public EmergencyGroupSummaryResponse getSummaryByGroupId(Long groupId) {
-    EmergencyGroup group = repository.findById(groupId)
+    return repository.findSummaryByGroupId(groupId)
         .orElseThrow(() -> new IllegalArgumentException("Group not found with id: " + groupId));
+  }
 
-    List<GroupHousehold> householdsInGroup = groupHouseholdRepository.findAll().stream()
-        .filter(gh -> Objects.equals(gh.getGroupId(), groupId))
-        .toList();
-
-    Set<Long> householdIds = householdsInGroup.stream()
-        .map(GroupHousehold::getHouseholdId)
-        .collect(Collectors.toSet());
-
-    List<User> allUsers = userService.getAllUsers();
-    List<ExtraResident> allExtras = extraResidentService.getAllEntities();
-
-    int totalHouseholds = householdIds.size();
-
-    int totalResidents = (int) allUsers.stream()
-        .filter(user -> user.getHouseholdId() != null && householdIds.contains(
-          user.getHouseholdId()))
-        .count();
-
-    int totalExtraResidents = (int) allExtras.stream()
-        .filter(extra -> extra.getHouseholdId() != null && householdIds.contains(
-          extra.getHouseholdId()))
-        .count();
-
-    return new EmergencyGroupSummaryResponse(
-        group.getId(),
-        group.getName(),
-        group.getDescription(),
-        totalHouseholds,
-        totalResidents,
-        totalExtraResidents);
+  /**
+   * Retrieves the level of preparedness for every household in an emergency group.
+   * Only admins and users whose household is in the group can see the preparedness.
+   *
+   * @param groupId the ID of the emergency group
+   * @param token   the JWT token of the user
+   * @return the level of preparedness of each household in the group
+   */
+  public List<HouseholdPreparednessResponse> getPreparednessByGroupId(Long groupId,
+      String token) {
+    if (!jwtService.extractIsAdmin(token.substring(7))) {
+      User user = userService.getUserById(jwtService.extractUserId(token.substring(7)));
+      Validate.that(isHouseholdInGroup(user.getHouseholdId(), groupId), Validate.isTrue(),
+          "Household with ID = " + user.getHouseholdId()
+              + " is not in group with ID = " + groupId);
+    }
+    return levelOfPreparednessService.getPreparednessForGroup(groupId);
   }
 
   /**
@@ -1,23 +1,84 @@
 package no.ntnu.stud.idatt2106.backend.service;
 
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
 import no.ntnu.stud.idatt2106.backend.model.base.Event;
+import no.ntnu.stud.idatt2106.backend.model.base.Household;
 import no.ntnu.stud.idatt2106.backend.model.request.EventRequest;
 import no.ntnu.stud.idatt2106.backend.model.response.EventResponse;
 import no.ntnu.stud.idatt2106.backend.repository.EventRepository;
+import no.ntnu.stud.idatt2106.backend.repository.HouseholdRepository;
 import no.ntnu.stud.idatt2106.backend.service.mapper.EventMapper;
+import no.ntnu.stud.idatt2106.backend.util.SpatialIndex;
+import no.ntnu.stud.idatt2106.backend.util.TileCache;
 import no.ntnu.stud.idatt2106.backend.util.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 /**
  * Service class for managing events.
+ *
+ * <p>
+ * Events are cached per map tile. Changes to an event invalidate the tiles its area
+ * covered before and after the change, before the change is broadcast to clients.
+ * </p>
+ *
+ * <p>
+ * The areas of all events are also kept in an in-memory spatial index, used to look up
+ * which events affect a location. The index is loaded from the database on startup and
+ * kept up to date by the create, update and delete operations of this service.
+ * </p>
+ *
+ * <p>
+ * Besides the global broadcast, changes are sent to the households inside the area of the
+ * event, both before and after the change, and to the map regions the area overlaps.
+ * </p>
  */
 @Service
 public class EventService {
+  private static final Logger logger = LoggerFactory.getLogger(EventService.class);
+
+  /** Maximum number of event tiles kept in memory. */
+  private static final int MAX_CACHED_TILES = 10_000;
+
+  /** Largest radius of an event in kilometers, enough to cover the whole country. */
+  static final double MAX_RADIUS_KM = 1000;
+
+  /** Grid cell size of the spatial index, roughly 11 km north-south. */
+  private static final double INDEX_CELL_SIZE_DEGREES = 0.1;
+
+  private final TileCache<EventResponse> tileCache = new TileCache<>(MAX_CACHED_TILES);
+
+  private final SpatialIndex<EventResponse> index = new SpatialIndex<>(
+      INDEX_CELL_SIZE_DEGREES, EventResponse::getId,
+      event -> SpatialIndex.Box.circle(event.getLatitude(), event.getLongitude(),
+          event.getRadius()));
+
+  private volatile boolean indexLoaded = false;
+
+  /**
+   * Circle covered by an event.
+   */
+  private record Area(double latitude, double longitude, double radius) {
+  }
+
   @Autowired
   private EventRepository eventRepository;
   @Autowired
+  private HouseholdRepository householdRepository;
+  @Autowired
+  private HouseholdService householdService;
+  @Autowired
   private JwtService jwtService;
 
   @Autowired
@@ -25,7 +86,12 @@ public class EventService {
 
 
   private static void validateEvent(Event event) {
-    // severity exists
+    Validate.isValid(event.getLatitude() >= -90 && event.getLatitude() <= 90,
+        "Latitude must be between -90 and 90");
+    Validate.isValid(event.getLongitude() >= -180 && event.getLongitude() <= 180,
+        "Longitude must be between -180 and 180");
+    Validate.isValid(event.getRadius() >= 0 && event.getRadius() <= MAX_RADIUS_KM,
+        "Radius must be between 0 and " + (int) MAX_RADIUS_KM + " km");
   }
 
   /**
@@ -41,9 +107,19 @@ public class EventService {
     Event event = EventMapper.requestToEvent(request);
     validateEvent(event);
 
-    EventResponse response = eventRepository.findWithSeverityById(event.getId());
+    final int rows = eventRepository.save(event);
+    EventResponse response = null;
+    if (event.getId() != null) {
+      response = eventRepository.findWithSeverityById(event.getId());
+      indexEvent(event.getId(), response);
+    }
+    invalidateTiles(event.getLatitude(), event.getLongitude(), event.getRadius());
     eventWebSocketService.broadcastCreated(request);
-    return eventRepository.save(event);
+    if (response != null) {
+      sendToAffected("created", response, List.of(
+          new Area(response.getLatitude(), response.getLongitude(), response.getRadius())));
+    }
+    return rows;
   }
 
   /**
@@ -111,6 +187,105 @@ public class EventService {
     return eventRepository.findAllWithSeverityInBounds(minLat, maxLat, minLong, maxLong);
   }
 
+  /**
+   * Finds all events and associated severity details overlapping a map tile. Tiles are
+   * cached until an event overlapping them changes.
+   *
+   * @param z the zoom level of the tile
+   * @param x the column of the tile
+   * @param y the row of the tile
+   * @return the events overlapping the tile, with an ETag for the tile contents
+   */
+  public TileCache.Tile<EventResponse> findEventTile(int z, int x, int y) {
+    return tileCache.get(z, x, y, bounds -> findAllEventsWithSeverityInBounds(
+        bounds.minLat(), bounds.maxLat(), bounds.minLong(), bounds.maxLong()));
+  }
+
+  /**
+   * Finds the events affecting a location right now, that is the events whose area
+   * contains the location and that have started and not yet ended.
+   *
+   * @param latitude the latitude of the location
+   * @param longitude the longitude of the location
+   * @return the active events covering the location, with the closest event center first
+   */
+  public List<EventResponse> findActiveEventsAt(double latitude, double longitude) {
+    return findEventsCovering(latitude, longitude, Instant.now());
+  }
+
+  /**
+   * Finds the events affecting a household right now, using the stored location of the
+   * household.
+   *
+   * @param householdId the ID of the household
+   * @return the active events covering the household, with the closest event center first
+   * @throws NoSuchElementException if the household does not exist
+   */
+  public List<EventResponse> findActiveEventsForHousehold(Long householdId) {
+    Household household = householdRepository.findById(householdId)
+        .orElseThrow(() -> new NoSuchElementException(
+            "Household with ID = " + householdId + " not found"));
+    return findActiveEventsAt(household.getLatitude(), household.getLongitude());
+  }
+
+  /**
+   * Finds the events whose area contains a location and that are active at a given time.
+   * Events without an end time are active from their start time onwards.
+   */
+  List<EventResponse> findEventsCovering(double latitude, double longitude, Instant time) {
+    ensureIndexLoaded();
+    Timestamp at = Timestamp.from(time);
+    return index.findInBounds(latitude, latitude, longitude, longitude).stream()
+        .filter(event -> isActive(event, at))
+        .filter(event -> distanceTo(event, latitude, longitude) <= event.getRadius())
+        .sorted(Comparator.comparingDouble(event -> distanceTo(event, latitude, longitude)))
+        .toList();
+  }
+
+  private static boolean isActive(EventResponse event, Timestamp at) {
+    return (event.getStartTime() == null || !event.getStartTime().after(at))
+        && (event.getEndTime() == null || event.getEndTime().after(at));
+  }
+
+  private static double distanceTo(EventResponse event, double latitude, double longitude) {
+    return SpatialIndex.distanceKm(event.getLatitude(), event.getLongitude(),
+        latitude, longitude);
+  }
+
+  /**
+   * Reloads the spatial index of events from the database and removes all cached event
+   * tiles. Called on startup, and when changes outside this service affect how events are
+   * presented, such as changes to severities.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void reloadIndex() {
+    final long start = System.currentTimeMillis();
+    List<EventResponse> events = eventRepository.findAllWithSeverity();
+    index.replaceAll(events);
+    indexLoaded = true;
+    tileCache.clear();
+    logger.info("Indexed {} events in {} ms", events.size(),
+        System.currentTimeMillis() - start);
+  }
+
+  private void ensureIndexLoaded() {
+    if (!indexLoaded) {
+      synchronized (index) {
+        if (!indexLoaded) {
+          reloadIndex();
+        }
+      }
+    }
+  }
+
+  private void indexEvent(Long id, EventResponse event) {
+    if (event == null) {
+      index.remove(id);
+    } else {
+      index.put(event);
+    }
+  }
+
   /**
    * Updates an event in the repository.
    *
@@ -123,10 +298,26 @@ public class EventService {
         Validate.isTrue(), "User is not an admin");
     validateEvent(event);
 
+    EventResponse previous = eventRepository.findWithSeverityById(event.getId());
+    final int rows = eventRepository.update(event);
     EventResponse response = eventRepository.findWithSeverityById(event.getId());
+    indexEvent(event.getId(), response);
+    // Invalidated after the index has changed, so a tile loaded in between is not kept
+    if (previous != null) {
+      invalidateTiles(previous.getLatitude(), previous.getLongitude(), previous.getRadius());
+    }
+    invalidateTiles(event.getLatitude(), event.getLongitude(), event.getRadius());
     eventWebSocketService.broadcastUpdated(response);
 
-    return eventRepository.update(event);
+    List<Area> areas = new ArrayList<>();
+    if (previous != null) {
+      areas.add(new Area(previous.getLatitude(), previous.getLongitude(), previous.getRadius()));
+    }
+    if (response != null) {
+      areas.add(new Area(response.getLatitude(), response.getLongitude(), response.getRadius()));
+      sendToAffected("updated", response, areas);
+    }
+    return rows;
   }
 
   /**
@@ -140,8 +331,37 @@ public class EventService {
     Validate.that(jwtService.extractIsAdmin(token.substring(7)), 
         Validate.isTrue(), "User is not an admin");
 
+    Event previous = eventRepository.findEventById(id);
+    final int rows = eventRepository.delete(id);
+    index.remove(id);
+    if (previous != null) {
+      invalidateTiles(previous.getLatitude(), previous.getLongitude(), previous.getRadius());
+    }
+
     eventWebSocketService.broadcastDeleted(id);
+    if (previous != null) {
+      sendToAffected("deleted", id, List.of(
+          new Area(previous.getLatitude(), previous.getLongitude(), previous.getRadius())));
+    }
+    return rows;
+  }
+
+  /**
+   * Sends a change to the households inside the given areas and to the map regions the
+   * areas overlap.
+   */
+  private void sendToAffected(String eventType, Object payload, List<Area> areas) {
+    Set<Long> householdIds = new LinkedHashSet<>();
+    List<SpatialIndex.Box> boxes = new ArrayList<>();
+    for (Area area : areas) {
+      householdIds.addAll(householdService.findHouseholdIdsWithin(
+          area.latitude(), area.longitude(), area.radius()));
+      boxes.add(SpatialIndex.Box.circle(area.latitude(), area.longitude(), area.radius()));
+    }
+    eventWebSocketService.sendToAffected(eventType, payload, householdIds, boxes);
+  }
 
-    return eventRepository.delete(id);
+  private void invalidateTiles(double latitude, double longitude, double radius) {
+    tileCache.invalidate(SpatialIndex.Box.circle(latitude, longitude, radius));
   }
 }
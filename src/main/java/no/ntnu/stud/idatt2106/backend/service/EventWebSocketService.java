@@ -1,34 +1,113 @@
 package no.ntnu.stud.idatt2106.backend.service;
 
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
 import no.ntnu.stud.idatt2106.backend.model.request.EventRequest;
 import no.ntnu.stud.idatt2106.backend.model.response.EventResponse;
+import no.ntnu.stud.idatt2106.backend.util.SpatialIndex;
+import no.ntnu.stud.idatt2106.backend.websocket.CoalescingBroadcaster;
 import no.ntnu.stud.idatt2106.backend.websocket.WebSocketEvent;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
 /**
  * Service for broadcasting event-related messages over WebSocket.
- * This service uses Spring's SimpMessagingTemplate to send messages to connected clients.
+ * Messages are sent through the {@link CoalescingBroadcaster}, so clients receive the
+ * changes of a short window as one list per topic, with only the latest change to each
+ * event.
+ *
+ * <p>
+ * Besides the global {@code /topic/events} topic, changes are sent only to the clients
+ * they affect: to {@code /topic/events/household/{householdId}} for every household
+ * inside the area of the event, and to {@code /topic/events/region/{lat}/{long}} for every
+ * region the area overlaps. Regions are one degree squares, named by the latitude and
+ * longitude of their south west corner rounded down to whole degrees.
+ * </p>
  */
 @Service
 public class EventWebSocketService {
 
-  private final SimpMessagingTemplate messagingTemplate;
+  /** Topic with changes to all events. */
+  private static final String TOPIC = "/topic/events";
 
-  public EventWebSocketService(SimpMessagingTemplate messagingTemplate) {
-    this.messagingTemplate = messagingTemplate;
+  /** Prefix of the topics with changes to events affecting a household. */
+  public static final String HOUSEHOLD_TOPIC = "/topic/events/household/";
+
+  /** Prefix of the topics with changes to events overlapping a region. */
+  public static final String REGION_TOPIC = "/topic/events/region/";
+
+  /** Width and height of a region in degrees. */
+  private static final double REGION_SIZE_DEGREES = 1.0;
+
+  private final CoalescingBroadcaster broadcaster;
+
+  public EventWebSocketService(CoalescingBroadcaster broadcaster) {
+    this.broadcaster = broadcaster;
   }
 
   public void broadcastCreated(EventRequest event) {
-    messagingTemplate.convertAndSend("/topic/events", new WebSocketEvent<>("created", event));
+    broadcaster.send(TOPIC, null, new WebSocketEvent<>("created", event));
   }
 
   public void broadcastUpdated(EventResponse event) {
-    messagingTemplate.convertAndSend("/topic/events", new WebSocketEvent<>("updated", event));
+    broadcaster.send(TOPIC, eventId("updated", event), new WebSocketEvent<>("updated", event));
   }
 
   public void broadcastDeleted(Long eventId) {
-    messagingTemplate.convertAndSend("/topic/events", new WebSocketEvent<>("deleted", eventId));
+    broadcaster.send(TOPIC, eventId, new WebSocketEvent<>("deleted", eventId));
+  }
+
+  /**
+   * Sends a change to an event to the households and regions it affects.
+   *
+   * @param eventType    the type of the change
+   * @param payload      the contents of the message
+   * @param householdIds the IDs of the households inside the area of the event
+   * @param areas        the areas covered by the event, such as before and after an update
+   */
+  public void sendToAffected(String eventType, Object payload, Collection<Long> householdIds,
+      Collection<SpatialIndex.Box> areas) {
+    WebSocketEvent<Object> message = new WebSocketEvent<>(eventType, payload);
+    Object id = eventId(eventType, payload);
+    for (Long householdId : householdIds) {
+      broadcaster.send(HOUSEHOLD_TOPIC + householdId, id, message);
+    }
+    for (String region : regions(areas)) {
+      broadcaster.send(REGION_TOPIC + region, id, message);
+    }
+  }
+
+  /**
+   * Finds the ID of the event a change is about, used to replace older queued changes to
+   * the same event. Creations are never replaced, so they return null.
+   */
+  private static Object eventId(String eventType, Object payload) {
+    if ("created".equals(eventType)) {
+      return null;
+    }
+    if (payload instanceof EventResponse event) {
+      return event.getId();
+    }
+    return payload;
+  }
+
+  /**
+   * Finds the names of the regions overlapping any of the given areas.
+   */
+  static Set<String> regions(Collection<SpatialIndex.Box> areas) {
+    Set<String> regions = new LinkedHashSet<>();
+    for (SpatialIndex.Box area : areas) {
+      for (int lat = region(area.minLat()); lat <= region(area.maxLat()); lat++) {
+        for (int lon = region(area.minLong()); lon <= region(area.maxLong()); lon++) {
+          regions.add(lat + "/" + lon);
+        }
+      }
+    }
+    return regions;
+  }
+
+  private static int region(double degrees) {
+    return (int) Math.floor(degrees / REGION_SIZE_DEGREES);
   }
 }
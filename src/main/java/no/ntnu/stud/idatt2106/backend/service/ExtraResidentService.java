@@ -1,6 +1,7 @@
 package no.ntnu.stud.idatt2106.backend.service;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import no.ntnu.stud.idatt2106.backend.model.base.ExtraResident;
@@ -9,6 +10,7 @@ import no.ntnu.stud.idatt2106.backend.model.request.ExtraResidentRequest;
 import no.ntnu.stud.idatt2106.backend.model.response.ExtraResidentResponse;
 import no.ntnu.stud.idatt2106.backend.model.update.ExtraResidentUpdate;
 import no.ntnu.stud.idatt2106.backend.repository.ExtraResidentRepository;
+import no.ntnu.stud.idatt2106.backend.repository.PreparednessRepository;
 import no.ntnu.stud.idatt2106.backend.service.mapper.ExtraResidentMapper;
 import no.ntnu.stud.idatt2106.backend.util.Validate;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -30,6 +32,9 @@ public class ExtraResidentService {
   @Autowired
   private UserService userService;
 
+  @Autowired
+  private PreparednessRepository preparednessRepository;
+
   /**
    * Creates a new extra resident in a household.
    *
@@ -45,6 +50,7 @@ public class ExtraResidentService {
         "Users household is not the same as the household in the request");
     ExtraResident resident = ExtraResidentMapper.toModel(request);
     repository.save(resident);
+    preparednessRepository.refreshSnapshot(resident.getHouseholdId());
   }
 
   /**
@@ -93,12 +99,17 @@ public class ExtraResidentService {
     Long requestId = request.getHouseholdId();
     Validate.that(requestId == householdId, Validate.isTrue(),
         "Users household is not the same as the household in the request");
-    if (repository.findById(id).isEmpty()) {
+    Optional<ExtraResident> existing = repository.findById(id);
+    if (existing.isEmpty()) {
       return false;
     }
     ExtraResident resident = ExtraResidentMapper.toModel(request);
     resident.setId(id);
     repository.update(resident);
+    preparednessRepository.refreshSnapshot(resident.getHouseholdId());
+    if (!Objects.equals(existing.get().getHouseholdId(), resident.getHouseholdId())) {
+      preparednessRepository.refreshSnapshot(existing.get().getHouseholdId());
+    }
     return true;
   }
 
@@ -109,10 +120,12 @@ public class ExtraResidentService {
    * @return true if the resident was deleted, false if the resident was not found
    */
   public boolean delete(Long id) {
-    if (repository.findById(id).isEmpty()) {
+    Optional<ExtraResident> existing = repository.findById(id);
+    if (existing.isEmpty()) {
       return false;
     }
     repository.deleteById(id);
+    preparednessRepository.refreshSnapshot(existing.get().getHouseholdId());
     return true;
   }
 }
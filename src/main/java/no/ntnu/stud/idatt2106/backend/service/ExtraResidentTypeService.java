@@ -6,17 +6,29 @@ import no.ntnu.stud.idatt2106.backend.model.base.ExtraResidentType;
 import no.ntnu.stud.idatt2106.backend.model.request.ExtraResidentTypeRequest;
 import no.ntnu.stud.idatt2106.backend.model.response.ExtraResidentTypeResponse;
 import no.ntnu.stud.idatt2106.backend.repository.ExtraResidentTypeRepository;
+import no.ntnu.stud.idatt2106.backend.repository.PreparednessRepository;
 import no.ntnu.stud.idatt2106.backend.service.mapper.ExtraResidentTypeMapper;
+import no.ntnu.stud.idatt2106.backend.util.ReferenceCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 /**
  * Service class for managing extra resident types.
+ *
+ * <p>
+ * Types are read from a {@link ReferenceCache}, which is refreshed after every change made
+ * through this service.
+ * </p>
  */
 @Service
 public class ExtraResidentTypeService {
   @Autowired
   private ExtraResidentTypeRepository repository;
+  @Autowired
+  private PreparednessRepository preparednessRepository;
+
+  private final ReferenceCache<ExtraResidentType> cache =
+      new ReferenceCache<>(() -> repository.findAll(), ExtraResidentType::getId);
 
   /**
    * Create a new extra resident type.
@@ -27,6 +39,7 @@ public class ExtraResidentTypeService {
   public void create(ExtraResidentTypeRequest request) {
     ExtraResidentType type = ExtraResidentTypeMapper.toModel(request);
     repository.save(type);
+    cache.refresh();
   }
 
   /**
@@ -36,7 +49,7 @@ public class ExtraResidentTypeService {
    *         types
    */
   public List<ExtraResidentTypeResponse> getAll() {
-    return repository.findAll().stream()
+    return cache.getAll().stream()
         .map(ExtraResidentTypeMapper::toResponse)
         .toList();
   }
@@ -49,7 +62,7 @@ public class ExtraResidentTypeService {
    *         otherwise
    */
   public Optional<ExtraResidentTypeResponse> getById(long id) {
-    return repository.findById(id).map(ExtraResidentTypeMapper::toResponse);
+    return Optional.ofNullable(cache.get(id)).map(ExtraResidentTypeMapper::toResponse);
   }
 
   /**
@@ -67,6 +80,9 @@ public class ExtraResidentTypeService {
     ExtraResidentType type = ExtraResidentTypeMapper.toModel(request);
     type.setId(id);
     repository.update(type);
+    cache.refresh();
+    // Consumption values affect the stored preparedness of every household
+    preparednessRepository.rebuildAllSnapshots();
     return true;
   }
 
@@ -81,6 +97,8 @@ public class ExtraResidentTypeService {
       return false;
     }
     repository.deleteById(id);
+    cache.refresh();
+    preparednessRepository.rebuildAllSnapshots();
     return true;
   }
 }
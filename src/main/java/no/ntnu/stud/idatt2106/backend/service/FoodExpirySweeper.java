@@ -0,0 +1,110 @@
+package no.ntnu.stud.idatt2106.backend.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import no.ntnu.stud.idatt2106.backend.model.base.Food;
+import no.ntnu.stud.idatt2106.backend.model.response.FoodResponse;
+import no.ntnu.stud.idatt2106.backend.repository.FoodRepository;
+import no.ntnu.stud.idatt2106.backend.service.mapper.FoodMapper;
+import no.ntnu.stud.idatt2106.backend.websocket.WebSocketEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Notifies households about food that is about to expire.
+ *
+ * <p>
+ * The sweep runs on a fixed delay and walks the food expiring within
+ * {@code food.expiry.notice-days} in expiration date order, one page of
+ * {@code food.expiry.page-size} items at a time. The food of each page is grouped by
+ * household and sent as one message to {@code /topic/food/expiring/{householdId}} per
+ * household. The food of each page is then marked as notified, so the next run only reads
+ * food that has come within the notice period or been added since, and a run that stops
+ * halfway is continued where it stopped. Changing the expiration date of food clears the
+ * mark, so it is notified about again.
+ * </p>
+ */
+@Service
+public class FoodExpirySweeper {
+
+  private static final Logger logger = LoggerFactory.getLogger(FoodExpirySweeper.class);
+
+  /** Prefix of the topics expiring food is sent to, followed by the ID of the household. */
+  public static final String HOUSEHOLD_TOPIC = "/topic/food/expiring/";
+
+  static final String FOOD_EXPIRING = "FOOD_EXPIRING";
+
+  @Autowired
+  private FoodRepository foodRepository;
+
+  @Autowired
+  private SimpMessagingTemplate messagingTemplate;
+
+  @Value("${food.expiry.notice-days:3}")
+  private int noticeDays = 3;
+
+  @Value("${food.expiry.page-size:500}")
+  private int pageSize = 500;
+
+  /**
+   * Notifies households about the food within the notice period they have not been notified
+   * about yet.
+   *
+   * @return the number of food items households were notified about
+   */
+  @Scheduled(fixedDelayString = "${food.expiry.sweep-interval-ms:3600000}")
+  public int sweep() {
+    return sweep(LocalDate.now());
+  }
+
+  synchronized int sweep(LocalDate today) {
+    LocalDate until = today.plusDays(noticeDays);
+    // Food that expired before today is not worth a notice, so paging starts at today
+    LocalDate lastDate = today;
+    long lastId = 0L;
+
+    int notified = 0;
+    List<Food> page;
+    do {
+      page = foodRepository.findUnnotifiedExpiringAfter(lastDate, lastId, until, pageSize);
+      if (page.isEmpty()) {
+        break;
+      }
+      notifyHouseholds(page);
+      foodRepository.markExpiryNotified(page.stream().map(Food::getId).toList());
+      Food last = page.get(page.size() - 1);
+      lastDate = last.getExpirationDate();
+      lastId = last.getId();
+      notified += page.size();
+    } while (page.size() == pageSize);
+
+    if (notified > 0) {
+      logger.info("Notified households about {} food items expiring by {}", notified, until);
+    }
+    return notified;
+  }
+
+  private void notifyHouseholds(List<Food> page) {
+    Map<Long, List<FoodResponse>> byHousehold = new LinkedHashMap<>();
+    for (Food food : page) {
+      byHousehold.computeIfAbsent(food.getHouseholdId(), id -> new ArrayList<>())
+          .add(FoodMapper.toResponse(food));
+    }
+    byHousehold.forEach((householdId, foods) -> {
+      try {
+        messagingTemplate.convertAndSend(HOUSEHOLD_TOPIC + householdId,
+            new WebSocketEvent<>(FOOD_EXPIRING, foods));
+      } catch (RuntimeException e) {
+        logger.error("Failed to notify household {} about expiring food", householdId, e);
+      }
+    });
+  }
+}
@@ -1,21 +1,20 @@
 package no.ntnu.stud.idatt2106.backend.service;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
 import no.ntnu.stud.idatt2106.backend.model.base.Food;
-import no.ntnu.stud.idatt2106.backend.model.base.FoodType;
 import no.ntnu.stud.idatt2106.backend.model.request.FoodRequest;
-import no.ntnu.stud.idatt2106.backend.model.response.FoodBatchResponse;
 import no.ntnu.stud.idatt2106.backend.model.response.FoodDetailedResponse;
 import no.ntnu.stud.idatt2106.backend.model.response.FoodResponse;
 import no.ntnu.stud.idatt2106.backend.model.response.FoodSummaryResponse;
 import no.ntnu.stud.idatt2106.backend.model.update.FoodUpdate;
 import no.ntnu.stud.idatt2106.backend.repository.FoodRepository;
-import no.ntnu.stud.idatt2106.backend.repository.FoodTypeRepository;
+import no.ntnu.stud.idatt2106.backend.repository.PreparednessRepository;
 import no.ntnu.stud.idatt2106.backend.service.mapper.FoodMapper;
 import no.ntnu.stud.idatt2106.backend.util.Validate;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -31,10 +30,7 @@ public class FoodService {
   private FoodRepository repository;
 
   @Autowired
-  private FoodTypeRepository foodTypeRepository;
-
-  @Autowired
-  private FoodTypeService foodTypeService;
+  private PreparednessRepository preparednessRepository;
 
   /**
    * Creates a new food item.
@@ -46,6 +42,7 @@ public class FoodService {
 
     Food food = FoodMapper.toModel(request);
     repository.save(food);
+    preparednessRepository.refreshSnapshot(food.getHouseholdId());
   }
 
   /**
@@ -78,12 +75,17 @@ public class FoodService {
    */
   public boolean update(Long id, FoodUpdate update) {
     Validate.that(update.getAmount(), Validate.isPositive());
-    if (repository.findById(id).isEmpty()) {
+    Optional<Food> existing = repository.findById(id);
+    if (existing.isEmpty()) {
       return false;
     }
     Food food = FoodMapper.toModel(update);
     food.setId(id);
     repository.update(food);
+    preparednessRepository.refreshSnapshot(food.getHouseholdId());
+    if (!Objects.equals(existing.get().getHouseholdId(), food.getHouseholdId())) {
+      preparednessRepository.refreshSnapshot(existing.get().getHouseholdId());
+    }
     return true;
   }
 
@@ -94,10 +96,12 @@ public class FoodService {
    * @return true if deleted, false if not found
    */
   public boolean delete(Long id) {
-    if (repository.findById(id).isEmpty()) {
+    Optional<Food> existing = repository.findById(id);
+    if (existing.isEmpty()) {
       return false;
     }
     repository.deleteById(id);
+    preparednessRepository.refreshSnapshot(existing.get().getHouseholdId());
     return true;
   }
 
@@ -113,6 +117,23 @@ public class FoodService {
         .toList();
   }
 
+  /**
+   * Gets the food items of a household that expire within a number of days, soonest first.
+   * Food that expires today is included, food that has already expired is not.
+   *
+   * @param householdId the ID of the household
+   * @param days        the number of days from today
+   * @return a list of the food items expiring within the given number of days
+   */
+  public List<FoodResponse> getExpiringByHouseholdId(Long householdId, int days) {
+    Validate.that(days, Validate.isNotNegative(), "Number of days cannot be negative");
+    LocalDate today = LocalDate.now();
+    return repository.findByHouseholdIdAndExpirationDateBetween(householdId, today,
+            today.plusDays(days)).stream()
+        .map(FoodMapper::toResponse)
+        .toList();
+  }
+
   /**
    * Get the total amount of calories in a household by its ID.
    *
@@ -120,9 +141,19 @@ public class FoodService {
    * @return the total calories in the household
    */
   public double getCaloriesByHouseholdId(Long householdId) {
-    return repository.findByHouseholdId(householdId).stream()
-        .mapToDouble(food -> food.getAmount() * foodTypeService.getCaloriesById(food.getTypeId()))
-        .sum();
+    return repository.sumCaloriesByHouseholdId(householdId);
+  }
+
+  /**
+   * Get the total amount of calories in each of several households.
+   *
+   * @param householdIds the IDs of the households
+   * @return the total calories by household ID, with 0 for households without food
+   */
+  public Map<Long, Double> getCaloriesByHouseholdIds(Collection<Long> householdIds) {
+    Map<Long, Double> totals = new HashMap<>(repository.sumCaloriesByHouseholdIds(householdIds));
+    householdIds.forEach(id -> totals.putIfAbsent(id, 0.0));
+    return totals;
   }
 
   /**
@@ -133,21 +164,7 @@ public class FoodService {
    * @return a list of FoodSummaryResponse grouped by type
    */
   public List<FoodSummaryResponse> getFoodSummaryByHousehold(Long householdId) {
-    List<Food> foodList = repository.findByHouseholdId(householdId);
-
-    return foodList.stream()
-        .collect(Collectors.groupingBy(Food::getTypeId,
-            Collectors.summingDouble(f -> f.getAmount())))
-        .entrySet().stream()
-        .map(entry -> {
-          FoodSummaryResponse response = new FoodSummaryResponse();
-          response.setTypeId(entry.getKey());
-          response.setTotalAmount(((Double) entry.getValue()).floatValue()
-          );
-          return response;
-        })
-
-        .toList();
+    return repository.findSummaryByHouseholdId(householdId);
   }
 
   /**
@@ -156,49 +173,8 @@ public class FoodService {
    *
    * @param householdId the ID of the household
    * @return a list of FoodDetailedResponse with detailed info
-   * @throws NoSuchElementException if no foodtype with a given ID is found
    */
   public List<FoodDetailedResponse> getFoodDetailedByHousehold(Long householdId) {
-    List<Food> foods = repository.findByHouseholdId(householdId);
-
-    Map<Long, List<Food>> grouped = foods.stream()
-        .collect(Collectors.groupingBy(Food::getTypeId));
-
-    return grouped.entrySet().stream()
-        .map(entry -> {
-          Long typeId = entry.getKey();
-          FoodType type = foodTypeRepository.findById(typeId).orElseThrow(() -> {
-            throw new NoSuchElementException("FoodType with ID = " + typeId + " not found");
-          });
-          List<Food> foodList = entry.getValue();
-          FoodDetailedResponse summary = new FoodDetailedResponse();
-          summary.setTypeId(typeId);
-          summary.setTypeName(type.getName());
-          summary.setUnit(type.getUnit());
-
-          float totalAmount = (float) foodList.stream()
-              .mapToDouble(Food::getAmount)
-              .sum();
-          summary.setTotalAmount(totalAmount);
-
-          float totalCalories = totalAmount * type.getCaloriesPerUnit();
-          summary.setTotalCalories(totalCalories);
-
-          List<FoodBatchResponse> batches = foodList.stream()
-              .map(f -> {
-                FoodBatchResponse batch = new FoodBatchResponse();
-                batch.setId(f.getId());
-                batch.setAmount(f.getAmount());
-                batch.setExpirationDate(f.getExpirationDate());
-                batch.setHouseholdId(f.getHouseholdId());
-                return batch;
-              })
-              .toList();
-
-          summary.setBatches(batches);
-          return summary;
-        })
-        .filter(Objects::nonNull)
-        .toList();
+    return repository.findDetailedByHouseholdId(householdId);
   }
-}
\ No newline at end of file
+}
@@ -8,12 +8,19 @@ import no.ntnu.stud.idatt2106.backend.model.base.FoodType;
 import no.ntnu.stud.idatt2106.backend.model.request.FoodTypeRequest;
 import no.ntnu.stud.idatt2106.backend.model.response.FoodTypeResponse;
 import no.ntnu.stud.idatt2106.backend.repository.FoodTypeRepository;
+import no.ntnu.stud.idatt2106.backend.repository.PreparednessRepository;
 import no.ntnu.stud.idatt2106.backend.service.mapper.FoodTypeMapper;
+import no.ntnu.stud.idatt2106.backend.util.ReferenceCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 /**
  * Service class for managing food types.
+ *
+ * <p>
+ * Food types are read from a {@link ReferenceCache}, which is refreshed after every change
+ * made through this service.
+ * </p>
  */
 @Service
 public class FoodTypeService {
@@ -21,6 +28,12 @@ public class FoodTypeService {
   @Autowired
   private FoodTypeRepository repository;
 
+  @Autowired
+  private PreparednessRepository preparednessRepository;
+
+  private final ReferenceCache<FoodType> cache =
+      new ReferenceCache<>(() -> repository.findAll(), FoodType::getId);
+
   /**
    * Create a new food type.
    *
@@ -29,6 +42,7 @@ public class FoodTypeService {
   public void create(FoodTypeRequest request) {
     FoodType foodType = FoodTypeMapper.toModel(request);
     repository.save(foodType);
+    cache.refresh();
   }
 
   /**
@@ -37,7 +51,7 @@ public class FoodTypeService {
    * @return List of FoodTypeResponse for all food types
    */
   public List<FoodTypeResponse> getAll() {
-    return repository.findAll().stream()
+    return cache.getAll().stream()
         .map(FoodTypeMapper::toResponse)
         .collect(Collectors.toList());
   }
@@ -49,10 +63,20 @@ public class FoodTypeService {
    * @return Optional containing FoodTypeResponse if found, empty otherwise
    */
   public Optional<FoodTypeResponse> getById(Long id) {
-    return repository.findById(id)
+    return getFoodTypeById(id)
         .map(FoodTypeMapper::toResponse);
   }
 
+  /**
+   * Get the food type model with the given ID from the cache.
+   *
+   * @param id the ID of the food type
+   * @return Optional containing the food type if found, empty otherwise
+   */
+  public Optional<FoodType> getFoodTypeById(Long id) {
+    return Optional.ofNullable(cache.get(id));
+  }
+
   /**
    * Update an existing food type.
    *
@@ -66,6 +90,9 @@ public class FoodTypeService {
           FoodType updated = FoodTypeMapper.toModel(request);
           updated.setId(id);
           repository.update(updated);
+          cache.refresh();
+          // Calories per unit affect the stored preparedness of every household
+          preparednessRepository.rebuildAllSnapshots();
           return true;
         })
         .orElse(false);
@@ -81,6 +108,8 @@ public class FoodTypeService {
     return repository.findById(id)
         .map(existing -> {
           repository.deleteById(id);
+          cache.refresh();
+          preparednessRepository.rebuildAllSnapshots();
           return true;
         })
         .orElse(false);
@@ -106,7 +135,7 @@ public class FoodTypeService {
    * @throws NoSuchElementException if the food type is not found
    */
   public float getCaloriesById(Long id) {
-    return repository.findById(id)
+    return getFoodTypeById(id)
         .map(FoodType::getCaloriesPerUnit)
         .orElseThrow(() -> new NoSuchElementException("Food type not found with id = " + id));
   }
@@ -12,7 +12,9 @@ import no.ntnu.stud.idatt2106.backend.repository.GroupHouseholdRepository;
 import no.ntnu.stud.idatt2106.backend.repository.HouseholdRepository;
 import no.ntnu.stud.idatt2106.backend.service.mapper.GroupHouseholdMapper;
 import no.ntnu.stud.idatt2106.backend.util.Validate;
+import no.ntnu.stud.idatt2106.backend.websocket.GroupHouseholdLeftEvent;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 /**
@@ -43,6 +45,12 @@ public class GroupHouseholdService {
   @Autowired
   private SharedFoodService sharedFoodService;
 
+  @Autowired
+  private HouseholdGroupIndex groupIndex;
+
+  @Autowired
+  private ApplicationEventPublisher eventPublisher;
+
   /**
    * Creates a new group-household relation.
    *
@@ -50,6 +58,7 @@ public class GroupHouseholdService {
    */
   public void create(GroupHouseholdRequest request) {
     repository.save(GroupHouseholdMapper.toModel(request));
+    groupIndex.add(request.getHouseholdId(), request.getGroupId());
   }
 
   /**
@@ -98,7 +107,10 @@ public class GroupHouseholdService {
 
     sharedFoodService.unshareAllFromGroup(userId, groupHousehold.getGroupId());
 
-    boolean success = repository.deleteById(id);
+    final boolean success = repository.deleteById(id);
+    groupIndex.remove(groupHousehold.getHouseholdId(), groupHousehold.getGroupId());
+    eventPublisher.publishEvent(new GroupHouseholdLeftEvent(groupHousehold.getGroupId(),
+        groupHousehold.getHouseholdId()));
     List<GroupHousehold> groupHouseholds = repository.findByGroupId(groupHousehold.getGroupId());
     if (groupHouseholds.isEmpty()) {
       emergencyGroupService.delete(groupHousehold.getGroupId(), token);
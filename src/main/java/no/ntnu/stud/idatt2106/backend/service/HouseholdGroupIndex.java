@@ -0,0 +1,152 @@
+package no.ntnu.stud.idatt2106.backend.service;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import no.ntnu.stud.idatt2106.backend.model.base.GroupHousehold;
+import no.ntnu.stud.idatt2106.backend.repository.GroupHouseholdRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * In-memory index of which emergency groups each household is a member of.
+ *
+ * <p>
+ * The whole {@code group_household} table is loaded on first use, and the services that
+ * change memberships update the index, so positions can be sent to the topics of the groups
+ * of a household without querying the database. The index is reloaded on a fixed delay to
+ * pick up rows removed by cascading deletes.
+ * </p>
+ */
+@Service
+public class HouseholdGroupIndex {
+
+  private static final Logger logger = LoggerFactory.getLogger(HouseholdGroupIndex.class);
+
+  private record Memberships(Map<Long, Set<Long>> groupsByHousehold,
+      Map<Long, Set<Long>> householdsByGroup) {
+  }
+
+  @Autowired
+  private GroupHouseholdRepository groupHouseholdRepository;
+
+  private volatile Memberships memberships;
+
+  /**
+   * Returns the IDs of the groups a household is a member of.
+   *
+   * @param householdId the ID of the household
+   * @return the IDs of the groups of the household
+   */
+  public Set<Long> getGroups(Long householdId) {
+    return Collections.unmodifiableSet(
+        memberships().groupsByHousehold().getOrDefault(householdId, Set.of()));
+  }
+
+  /**
+   * Returns the IDs of the households that are members of a group.
+   *
+   * @param groupId the ID of the group
+   * @return the IDs of the households in the group
+   */
+  public Set<Long> getHouseholds(Long groupId) {
+    return Collections.unmodifiableSet(
+        memberships().householdsByGroup().getOrDefault(groupId, Set.of()));
+  }
+
+  /**
+   * Records that a household has joined a group.
+   *
+   * @param householdId the ID of the household
+   * @param groupId     the ID of the group
+   */
+  public synchronized void add(Long householdId, Long groupId) {
+    Memberships current = memberships();
+    current.groupsByHousehold()
+        .computeIfAbsent(householdId, id -> ConcurrentHashMap.newKeySet()).add(groupId);
+    current.householdsByGroup()
+        .computeIfAbsent(groupId, id -> ConcurrentHashMap.newKeySet()).add(householdId);
+  }
+
+  /**
+   * Records that a household has left a group.
+   *
+   * @param householdId the ID of the household
+   * @param groupId     the ID of the group
+   */
+  public synchronized void remove(Long householdId, Long groupId) {
+    Memberships current = memberships();
+    removeFrom(current.groupsByHousehold(), householdId, groupId);
+    removeFrom(current.householdsByGroup(), groupId, householdId);
+  }
+
+  /**
+   * Records that a group has been deleted.
+   *
+   * @param groupId the ID of the group
+   */
+  public synchronized void removeGroup(Long groupId) {
+    Memberships current = memberships();
+    Set<Long> households = current.householdsByGroup().remove(groupId);
+    if (households != null) {
+      households.forEach(householdId ->
+          removeFrom(current.groupsByHousehold(), householdId, groupId));
+    }
+  }
+
+  /**
+   * Records that a household has been deleted.
+   *
+   * @param householdId the ID of the household
+   */
+  public synchronized void removeHousehold(Long householdId) {
+    Memberships current = memberships();
+    Set<Long> groups = current.groupsByHousehold().remove(householdId);
+    if (groups != null) {
+      groups.forEach(groupId -> removeFrom(current.householdsByGroup(), groupId, householdId));
+    }
+  }
+
+  /**
+   * Reloads the index from the database, if it has been loaded.
+   */
+  @Scheduled(fixedDelayString = "${groups.index.refresh-interval-ms:300000}")
+  public void refresh() {
+    if (memberships != null) {
+      reload();
+    }
+  }
+
+  private Memberships memberships() {
+    Memberships current = memberships;
+    return current != null ? current : reload();
+  }
+
+  private synchronized Memberships reload() {
+    Memberships loaded = new Memberships(new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+    for (GroupHousehold row : groupHouseholdRepository.findAll()) {
+      loaded.groupsByHousehold()
+          .computeIfAbsent(row.getHouseholdId(), id -> ConcurrentHashMap.newKeySet())
+          .add(row.getGroupId());
+      loaded.householdsByGroup()
+          .computeIfAbsent(row.getGroupId(), id -> ConcurrentHashMap.newKeySet())
+          .add(row.getHouseholdId());
+    }
+    memberships = loaded;
+    logger.debug("Loaded {} group memberships of {} households",
+        loaded.householdsByGroup().values().stream().mapToInt(Set::size).sum(),
+        loaded.groupsByHousehold().size());
+    return loaded;
+  }
+
+  private static void removeFrom(Map<Long, Set<Long>> index, Long key, Long value) {
+    index.computeIfPresent(key, (id, values) -> {
+      values.remove(value);
+      return values.isEmpty() ? null : values;
+    });
+  }
+}
@@ -8,6 +8,7 @@ import no.ntnu.stud.idatt2106.backend.model.request.HouseholdKitRequest;
 import no.ntnu.stud.idatt2106.backend.model.request.MoveHouseholdKitRequest;
 import no.ntnu.stud.idatt2106.backend.model.response.HouseholdKitResponse;
 import no.ntnu.stud.idatt2106.backend.repository.HouseholdKitRepository;
+import no.ntnu.stud.idatt2106.backend.repository.PreparednessRepository;
 import no.ntnu.stud.idatt2106.backend.service.mapper.HouseholdKitMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -21,6 +22,9 @@ public class HouseholdKitService {
   @Autowired
   private HouseholdKitRepository repository;
 
+  @Autowired
+  private PreparednessRepository preparednessRepository;
+
   /**
    * Creates a new household-kit relation.
    *
@@ -29,6 +33,7 @@ public class HouseholdKitService {
   public void create(HouseholdKitRequest request) {
     HouseholdKit householdKit = HouseholdKitMapper.toEntity(request);
     repository.save(householdKit);
+    preparednessRepository.refreshSnapshot(householdKit.getHouseholdId());
   }
 
   /**
@@ -71,6 +76,7 @@ public class HouseholdKitService {
       return false;
     }
     repository.delete(relation.get());
+    preparednessRepository.refreshSnapshot(request.getHouseholdId());
     return true;
   }
 
@@ -91,6 +97,8 @@ public class HouseholdKitService {
     }
     repository.updateHouseholdForKit(request.getOldHouseholdId(), 
         request.getKitId(), request.getNewHouseholdId());
+    preparednessRepository.refreshSnapshot(request.getOldHouseholdId());
+    preparednessRepository.refreshSnapshot(request.getNewHouseholdId());
     return true;
   }
 }
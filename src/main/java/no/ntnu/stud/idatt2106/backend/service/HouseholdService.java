@@ -1,30 +1,79 @@
 package no.ntnu.stud.idatt2106.backend.service;
 
 import java.util.Calendar;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
 import no.ntnu.stud.idatt2106.backend.model.base.Household;
 import no.ntnu.stud.idatt2106.backend.model.base.HouseholdInvite;
 import no.ntnu.stud.idatt2106.backend.model.base.User;
 import no.ntnu.stud.idatt2106.backend.model.request.CreateHouseholdRequest;
 import no.ntnu.stud.idatt2106.backend.model.request.HouseHoldInviteAcceptRequest;
+import no.ntnu.stud.idatt2106.backend.model.request.HouseholdPreparednessRequest;
 import no.ntnu.stud.idatt2106.backend.model.request.InviteUserHouseholdRequest;
 import no.ntnu.stud.idatt2106.backend.model.request.UpdateHouseholdRequest;
+import no.ntnu.stud.idatt2106.backend.model.response.HouseholdPreparednessResponse;
 import no.ntnu.stud.idatt2106.backend.model.response.HouseholdResponse;
 import no.ntnu.stud.idatt2106.backend.model.response.UserResponse;
 import no.ntnu.stud.idatt2106.backend.repository.HouseholdRepository;
+import no.ntnu.stud.idatt2106.backend.repository.PreparednessRepository;
 import no.ntnu.stud.idatt2106.backend.service.mapper.HouseholdMapper;
 import no.ntnu.stud.idatt2106.backend.util.EmailTemplates;
+import no.ntnu.stud.idatt2106.backend.util.SpatialIndex;
 import no.ntnu.stud.idatt2106.backend.util.Validate;
+import no.ntnu.stud.idatt2106.backend.websocket.HouseholdMemberLeftEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 /**
  * Provides methods related to Households.
+ *
+ * <p>
+ * The locations of all households are kept in an in-memory spatial index, used to find
+ * the households inside the area of an event. The index is loaded from the database on
+ * startup and kept up to date when households are registered, updated and deleted.
+ * </p>
  */
 @Service
 public class HouseholdService {
+  private static final Logger logger = LoggerFactory.getLogger(HouseholdService.class);
+
+  /** Grid cell size of the household location index, roughly 5.5 km north-south. */
+  private static final double INDEX_CELL_SIZE_DEGREES = 0.05;
+
+  private final SpatialIndex<Household> locationIndex = new SpatialIndex<>(
+      INDEX_CELL_SIZE_DEGREES, Household::getId,
+      household -> SpatialIndex.Box.point(household.getLatitude(), household.getLongitude()));
+
+  private volatile boolean locationIndexLoaded = false;
+
+  /** Maximum number of households with cached members. */
+  static final int MAX_INDEXED_HOUSEHOLDS = 10_000;
+
+  /**
+   * IDs of the members of each household, loaded from the database on first use and kept
+   * current when users join or leave households. The least recently used household is
+   * dropped when the index is full. Guarded by its own lock.
+   */
+  private final Map<Long, Set<Long>> memberIndex = new LinkedHashMap<>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Long, Set<Long>> eldest) {
+      return size() > MAX_INDEXED_HOUSEHOLDS;
+    }
+  };
+
+  /** Incremented whenever a user changes household, guarded by the member index lock. */
+  private long memberIndexGeneration = 0;
+
   @Autowired
   private HouseholdRepository householdRepository;
   @Autowired
@@ -37,6 +86,14 @@ public class HouseholdService {
   private HouseholdInviteService householdInviteService;
   @Autowired
   private LevelOfPreparednessService levelOfPreparednessService;
+  @Autowired
+  private PreparednessRepository preparednessRepository;
+  @Autowired
+  private LivePositionStore positionStore;
+  @Autowired
+  private HouseholdGroupIndex groupIndex;
+  @Autowired
+  private ApplicationEventPublisher eventPublisher;
 
   private HouseholdResponse toResponse(Household household) {
     HouseholdResponse response = HouseholdMapper.toResponse(household);
@@ -73,10 +130,30 @@ public class HouseholdService {
     HouseholdResponse response = householdRepository.findById(id).map(this::toResponse)
         .orElseThrow(() -> new NoSuchElementException("Household with ID = " + id + " not found"));
     response.setLevelOfPreparedness(levelOfPreparednessService
-        .getPreparednessForHousehold(getById(id)));
+        .getPreparednessForHousehold(response));
     return response;
   }
 
+  /**
+   * Returns the level of preparedness for each of the requested households.
+   *
+   * @param request the request containing the IDs of the households
+   * @return the level of preparedness of each existing household
+   */
+  public List<HouseholdPreparednessResponse> getPreparednessForHouseholds(
+      HouseholdPreparednessRequest request) {
+    Validate.that(request.getHouseholdIds(), Validate.isNotNull(),
+        "Household IDs cannot be null");
+    return levelOfPreparednessService.getPreparednessForHouseholds(request.getHouseholdIds());
+  }
+
+  /**
+   * Recalculates the stored level of preparedness data for every household.
+   */
+  public void rebuildPreparedness() {
+    levelOfPreparednessService.rebuildSnapshots();
+  }
+
   /**
    * Retrieves a Household by its ID.
    *
@@ -114,7 +191,7 @@ public class HouseholdService {
     HouseholdResponse householdResponse = householdRepository.findById(householdId)
         .map(this::toResponse).get();
     householdResponse.setLevelOfPreparedness(levelOfPreparednessService
-        .getPreparednessForHousehold(getById(householdId)));
+        .getPreparednessForHousehold(householdResponse));
     return householdResponse;
   }
 
@@ -132,6 +209,7 @@ public class HouseholdService {
     Household household = HouseholdMapper.toEntity(householdReqeust);
 
     Household registeredHousehold = householdRepository.save(household);
+    indexLocation(registeredHousehold);
 
     // Adds the user creating the household to the household.
     addUserToHousehold(
@@ -159,8 +237,12 @@ public class HouseholdService {
       throw new NoSuchElementException("Household with ID = " + householdId + " not found");
     }
 
+    final Long oldHouseholdId = user.getHouseholdId();
     user.setHouseholdId(householdId);
     userService.updateUserCredentials(user);
+    moveMember(user.getId(), oldHouseholdId, householdId);
+    preparednessRepository.refreshSnapshot(householdId);
+    preparednessRepository.refreshSnapshot(oldHouseholdId);
   }
 
   /**
@@ -187,14 +269,10 @@ public class HouseholdService {
 
     householdInviteService.createHouseholdInvite(household.getId(), user.getId());
 
-    try {
-      emailService.sendHtmlEmail(
-          user.getEmail(),
-          "Du har blitt invitert til å bli med i en husstand",
-          EmailTemplates.getHouseholdInviteTemplate(household.getName()));
-    } catch (Exception e) {
-      throw new RuntimeException("Failed to send email", e);
-    }
+    emailService.queueHtmlEmail(
+        user.getEmail(),
+        "Du har blitt invitert til å bli med i en husstand",
+        EmailTemplates.getHouseholdInviteTemplate(household.getName()));
   }
 
 
@@ -221,10 +299,16 @@ public class HouseholdService {
     Long oldHouseholdId = user.getHouseholdId();
     user.setHouseholdId(invite.getHouseholdId());
     userService.updateUserCredentials(user);
-
-    if (getMembers(oldHouseholdId).size() == 0) {
-      householdRepository.deleteById(oldHouseholdId);
+    moveMember(user.getId(), oldHouseholdId, invite.getHouseholdId());
+
+    if (oldHouseholdId != null) {
+      if (getMembers(oldHouseholdId).size() == 0) {
+        deleteHousehold(oldHouseholdId);
+      } else {
+        preparednessRepository.refreshSnapshot(oldHouseholdId);
+      }
     }
+    preparednessRepository.refreshSnapshot(invite.getHouseholdId());
 
     householdInviteService.deleteHouseholdInvite(
         invite.getUserId(), invite.getHouseholdId());
@@ -268,9 +352,12 @@ public class HouseholdService {
     }
     user.setHouseholdId(null);
     userService.updateUserCredentials(user);
+    moveMember(userId, householdId, null);
 
     if (getMembers(householdId).size() == 0) {
-      householdRepository.deleteById(householdId);
+      deleteHousehold(householdId);
+    } else {
+      preparednessRepository.refreshSnapshot(householdId);
     }
   }
 
@@ -323,9 +410,128 @@ public class HouseholdService {
     }
 
     householdRepository.update(validatedHousehold);
+    indexLocation(validatedHousehold);
     return toResponse(validatedHousehold);
   }
 
+  /**
+   * Finds the households located inside a circle, such as the area of an event.
+   *
+   * @param latitude  the latitude of the center of the circle
+   * @param longitude the longitude of the center of the circle
+   * @param radiusKm  the radius of the circle in kilometers
+   * @return the IDs of the households inside the circle
+   */
+  public List<Long> findHouseholdIdsWithin(double latitude, double longitude, double radiusKm) {
+    ensureLocationIndexLoaded();
+    SpatialIndex.Box area = SpatialIndex.Box.circle(latitude, longitude, radiusKm);
+    return locationIndex.findInBounds(area.minLat(), area.maxLat(), area.minLong(),
+        area.maxLong()).stream()
+        .filter(household -> SpatialIndex.distanceKm(latitude, longitude,
+            household.getLatitude(), household.getLongitude()) <= radiusKm)
+        .map(Household::getId)
+        .toList();
+  }
+
+  /**
+   * Reloads the household location index from the database.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void reloadLocationIndex() {
+    final long start = System.currentTimeMillis();
+    List<Household> households = householdRepository.findAll();
+    locationIndex.replaceAll(households);
+    locationIndexLoaded = true;
+    logger.info("Indexed {} household locations in {} ms", households.size(),
+        System.currentTimeMillis() - start);
+  }
+
+  private void ensureLocationIndexLoaded() {
+    if (!locationIndexLoaded) {
+      synchronized (locationIndex) {
+        if (!locationIndexLoaded) {
+          reloadLocationIndex();
+        }
+      }
+    }
+  }
+
+  private void indexLocation(Household household) {
+    if (household != null && household.getId() != null) {
+      locationIndex.put(household);
+    }
+  }
+
+  private void deleteHousehold(Long householdId) {
+    if (householdId == null) {
+      return;
+    }
+    householdRepository.deleteById(householdId);
+    locationIndex.remove(householdId);
+    synchronized (memberIndex) {
+      memberIndexGeneration++;
+      memberIndex.remove(householdId);
+    }
+    positionStore.evictHousehold(householdId);
+    groupIndex.removeHousehold(householdId);
+  }
+
+  /**
+   * Checks if a user is a member of a household, using the in-memory member index.
+   *
+   * @param householdId the ID of the household
+   * @param userId      the ID of the user
+   * @return true if the user is a member of the household
+   */
+  public boolean isMember(Long householdId, Long userId) {
+    long loadedGeneration;
+    synchronized (memberIndex) {
+      Set<Long> members = memberIndex.get(householdId);
+      if (members != null) {
+        return members.contains(userId);
+      }
+      loadedGeneration = memberIndexGeneration;
+    }
+
+    Set<Long> members = new HashSet<>();
+    getMembers(householdId).forEach(member -> members.add(member.getId()));
+
+    synchronized (memberIndex) {
+      // Members loaded while a user changed household might be stale, so only cache if none did
+      if (memberIndexGeneration == loadedGeneration) {
+        memberIndex.put(householdId, members);
+      }
+    }
+    return members.contains(userId);
+  }
+
+  /**
+   * Updates the member index and the member lists of the position store after a user has
+   * changed household, and notifies listeners that the user left the old household.
+   */
+  private void moveMember(Long userId, Long oldHouseholdId, Long newHouseholdId) {
+    synchronized (memberIndex) {
+      memberIndexGeneration++;
+      Set<Long> oldMembers = memberIndex.get(oldHouseholdId);
+      if (oldMembers != null) {
+        oldMembers.remove(userId);
+      }
+      Set<Long> newMembers = memberIndex.get(newHouseholdId);
+      if (newMembers != null) {
+        newMembers.add(userId);
+      }
+    }
+    if (oldHouseholdId != null) {
+      positionStore.evictHousehold(oldHouseholdId);
+    }
+    if (newHouseholdId != null) {
+      positionStore.evictHousehold(newHouseholdId);
+    }
+    if (oldHouseholdId != null && !oldHouseholdId.equals(newHouseholdId)) {
+      eventPublisher.publishEvent(new HouseholdMemberLeftEvent(userId, oldHouseholdId));
+    }
+  }
+
   /**
    * Retrieves all the user members of the household with the given ID.
    *
@@ -1,17 +1,19 @@
 package no.ntnu.stud.idatt2106.backend.service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
 import java.security.NoSuchAlgorithmException;
-import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
@@ -19,11 +21,32 @@ import org.springframework.stereotype.Service;
  * Service class for handling JWT (JSON Web Token) operations.
  * This class provides methods to generate, validate, and extract information
  * from JWTs.
+ *
+ * <p>
+ * Verifying the signature of a token is relatively expensive, so the claims of verified
+ * tokens are cached by token until the token expires. The claims of the token a request
+ * was authenticated with are also kept in the security context, as a {@link VerifiedToken}
+ * credential, and reused by the services handling the request.
+ * </p>
  */
 @Service
 public class JwtService {
 
-  private String secretkey = "";
+  /** Maximum number of tokens with cached claims. */
+  static final int MAX_CACHED_TOKENS = 10_000;
+
+  /**
+   * A token whose signature has been verified, together with its claims.
+   *
+   * @param token  the compact JWT
+   * @param claims the claims of the token
+   */
+  public record VerifiedToken(String token, Claims claims) {
+  }
+
+  private final SecretKey key;
+  private final JwtParser parser;
+  private final Map<String, Claims> claimsCache = new ConcurrentHashMap<>();
 
   /**
    * Constructor that initializes the secret key for signing JWTs.
@@ -32,11 +55,11 @@ public class JwtService {
 
     try {
       KeyGenerator keyGen = KeyGenerator.getInstance("HmacSHA256");
-      SecretKey sk = keyGen.generateKey();
-      secretkey = Base64.getEncoder().encodeToString(sk.getEncoded());
+      key = keyGen.generateKey();
     } catch (NoSuchAlgorithmException e) {
       throw new RuntimeException(e);
     }
+    parser = Jwts.parser().verifyWith(key).build();
   }
 
   /**
@@ -62,15 +85,10 @@ public class JwtService {
         .issuedAt(new Date(System.currentTimeMillis()))
         .expiration(new Date(System.currentTimeMillis() + 1000 * 5 * 60 * 60))
         .and()
-        .signWith(getKey())
+        .signWith(key)
         .compact();
   }
 
-  private SecretKey getKey() {
-    byte[] keyBytes = Decoders.BASE64.decode(secretkey);
-    return Keys.hmacShaKeyFor(keyBytes);
-  }
-
   /**
    * Extracts the username from the given JWT token.
    *
@@ -116,12 +134,61 @@ public class JwtService {
     return claimResolver.apply(claims);
   }
 
-  private Claims extractAllClaims(String token) {
-    return Jwts.parser()
-        .verifyWith(getKey())
-        .build()
-        .parseSignedClaims(token)
-        .getPayload();
+  /**
+   * Returns the claims of the given JWT token, verifying its signature unless the claims
+   * are already known for the current request or cached.
+   *
+   * @param token the JWT token to extract the claims from
+   * @return the claims of the token
+   * @throws io.jsonwebtoken.JwtException if the token is invalid or expired
+   */
+  public Claims extractAllClaims(String token) {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication != null
+        && authentication.getCredentials() instanceof VerifiedToken verified
+        && verified.token().equals(token)) {
+      return verified.claims();
+    }
+
+    Claims cached = claimsCache.get(token);
+    if (cached != null) {
+      if (!isExpired(cached, new Date())) {
+        return cached;
+      }
+      claimsCache.remove(token);
+    }
+
+    Claims claims = parser.parseSignedClaims(token).getPayload();
+    if (claimsCache.size() >= MAX_CACHED_TOKENS) {
+      evictExpiredClaims();
+      if (claimsCache.size() >= MAX_CACHED_TOKENS) {
+        claimsCache.clear();
+      }
+    }
+    claimsCache.put(token, claims);
+    return claims;
+  }
+
+  /**
+   * Removes the cached claims of expired tokens.
+   */
+  @Scheduled(fixedDelay = 60_000)
+  public void evictExpiredClaims() {
+    Date now = new Date();
+    claimsCache.values().removeIf(claims -> isExpired(claims, now));
+  }
+
+  /**
+   * Returns the number of tokens with cached claims.
+   *
+   * @return the number of cached tokens
+   */
+  int cachedTokenCount() {
+    return claimsCache.size();
+  }
+
+  private static boolean isExpired(Claims claims, Date now) {
+    return claims.getExpiration() != null && claims.getExpiration().before(now);
   }
 
   /**
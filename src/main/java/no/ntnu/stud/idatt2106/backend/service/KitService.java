@@ -7,19 +7,36 @@ import no.ntnu.stud.idatt2106.backend.model.base.Kit;
 import no.ntnu.stud.idatt2106.backend.model.request.KitRequest;
 import no.ntnu.stud.idatt2106.backend.model.response.KitResponse;
 import no.ntnu.stud.idatt2106.backend.repository.KitRepository;
+import no.ntnu.stud.idatt2106.backend.repository.PreparednessRepository;
 import no.ntnu.stud.idatt2106.backend.service.mapper.KitMapper;
+import no.ntnu.stud.idatt2106.backend.util.ReferenceCache;
 import org.springframework.stereotype.Service;
 
 /**
  * Service class for managing kits.
+ *
+ * <p>
+ * Kits are read from a {@link ReferenceCache}, which is refreshed after every change made
+ * through this service.
+ * </p>
  */
 @Service
 public class KitService {
   
   private final KitRepository repository;
+  private final PreparednessRepository preparednessRepository;
+  private final ReferenceCache<Kit> cache;
 
-  public KitService(KitRepository repository) {
+  /**
+   * Creates the service.
+   *
+   * @param repository             the repository of kits
+   * @param preparednessRepository the repository of stored preparedness
+   */
+  public KitService(KitRepository repository, PreparednessRepository preparednessRepository) {
     this.repository = repository;
+    this.preparednessRepository = preparednessRepository;
+    this.cache = new ReferenceCache<>(repository::findAll, Kit::getId);
   }
 
   /**
@@ -30,6 +47,7 @@ public class KitService {
   public void create(KitRequest request) {
     Kit kit = KitMapper.toModel(request);
     repository.save(kit);
+    cache.refresh();
   }
   
   /**
@@ -38,11 +56,20 @@ public class KitService {
    * @return List of KitResponse for all kits
    */
   public List<KitResponse> getAll() {
-    return repository.findAll().stream()
+    return cache.getAll().stream()
         .map(KitMapper::toResponse)
         .collect(Collectors.toList());
   }
 
+  /**
+   * Get the number of kits.
+   *
+   * @return the number of kits
+   */
+  public int count() {
+    return cache.size();
+  }
+
   /**
    * Get Kit by ID.
    *
@@ -50,7 +77,7 @@ public class KitService {
    * @return Optional containing KitResponse if found, empty otherwise
    */
   public Optional<KitResponse> getById(Long id) {
-    return repository.findById(id)
+    return Optional.ofNullable(cache.get(id))
         .map(KitMapper::toResponse);
   }
 
@@ -67,6 +94,7 @@ public class KitService {
           Kit updated = KitMapper.toModel(request);
           updated.setId(id);
           repository.update(updated);
+          cache.refresh();
           return true;
         })
         .orElse(false);
@@ -82,6 +110,9 @@ public class KitService {
     return repository.findById(id)
     .map(existing -> {
       repository.deleteById(id);
+      cache.refresh();
+      // Deleting a kit removes it from every household that had it
+      preparednessRepository.rebuildAllSnapshots();
       return true;
     })
     .orElse(false);
@@ -1,18 +1,34 @@
 package no.ntnu.stud.idatt2106.backend.service;
 
+import java.util.Collection;
 import java.util.List;
+import no.ntnu.stud.idatt2106.backend.model.base.PreparednessSnapshot;
 import no.ntnu.stud.idatt2106.backend.model.response.ExtraResidentResponse;
 import no.ntnu.stud.idatt2106.backend.model.response.ExtraResidentTypeResponse;
+import no.ntnu.stud.idatt2106.backend.model.response.HouseholdPreparednessResponse;
 import no.ntnu.stud.idatt2106.backend.model.response.HouseholdResponse;
 import no.ntnu.stud.idatt2106.backend.model.response.LevelOfPreparednessResponse;
 import no.ntnu.stud.idatt2106.backend.model.response.UserResponse;
+import no.ntnu.stud.idatt2106.backend.repository.PreparednessRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 /**
  * Service class for calculating the level of preparedness for a household.
+ *
+ * <p>
+ * The aggregated inputs of each household are stored in the household_preparedness
+ * table and refreshed by the services that change them, so reading the level of
+ * preparedness is a primary key lookup.
+ * </p>
  */
 @Service
 public class LevelOfPreparednessService {
+  private static final Logger logger = LoggerFactory.getLogger(LevelOfPreparednessService.class);
 
   private final FoodService foodService;
   private final HouseholdKitService householdKitService;
@@ -20,24 +36,28 @@ public class LevelOfPreparednessService {
   private final ExtraResidentService extraResidentService;
   private final ExtraResidentTypeService extraResidentTypeService;
   private final UserService userService;
+  private final PreparednessRepository preparednessRepository;
 
   /**
    * Service class for calculating the level of preparedness for a
    * household.
    *
-   * @param foodService         Service for managing food items
-   * @param householdKitService Service for managing household kits
+   * @param foodService            Service for managing food items
+   * @param householdKitService    Service for managing household kits
+   * @param preparednessRepository Repository for aggregated preparedness data
    */
   public LevelOfPreparednessService(FoodService foodService,
       HouseholdKitService householdKitService,
       KitService kitService, ExtraResidentService extraResidentService,
-      ExtraResidentTypeService extraResidentTypeService, UserService userService) {
+      ExtraResidentTypeService extraResidentTypeService, UserService userService,
+      PreparednessRepository preparednessRepository) {
     this.foodService = foodService;
     this.householdKitService = householdKitService;
     this.kitService = kitService;
     this.extraResidentService = extraResidentService;
     this.extraResidentTypeService = extraResidentTypeService;
     this.userService = userService;
+    this.preparednessRepository = preparednessRepository;
   }
 
   /**
@@ -73,20 +93,23 @@ public class LevelOfPreparednessService {
    */
   public double calculateLevelOfPreparednessWater(HouseholdResponse household) {
 
-    double householdWaterAmount = household.getWaterAmountLiters();
     List<UserResponse> users = userService.getUsersByHouseholdId(household.getId());
     double amountOfUsersInHousehold = users != null ? users.size() : 0;
 
+    return waterPreparedness(household.getWaterAmountLiters(), amountOfUsersInHousehold,
+        getDailyWaterNeedExtraResidents(household.getId()));
+  }
+
+  private static double waterPreparedness(double householdWaterAmount,
+      double amountOfUsersInHousehold, double extraResidentsWaterDay) {
     // Calculate the daily water need for all users in the household
     // 20 liters per person to sustain minimal needs for 7 days as 
     // recommended by DSB (Direktoratet for Samfunnssikkerhet og Beredskap)
     // https://www.dsb.no/sikkerhverdag/egenberedskap/vann-i-beredskap/
-    double extraResidentsWaterWeek = getDailyWaterNeedExtraResidents(household.getId()) * 7;
+    double extraResidentsWaterWeek = extraResidentsWaterDay * 7;
     double totalWaterNeed = (amountOfUsersInHousehold * 20) + extraResidentsWaterWeek;
 
-
     if (totalWaterNeed == 0) {
-    
       return 0.0;
     }
     double householdWaterPreparedness = householdWaterAmount / totalWaterNeed;
@@ -135,10 +158,16 @@ public class LevelOfPreparednessService {
 
     double caloriesInHousehold = foodService.getCaloriesByHouseholdId(householdId);
 
+    return foodPreparedness(caloriesInHousehold, amountOfUsersInHousehold,
+        getDailyCaloryNeedExtraResidents(householdId));
+  }
+
+  private static double foodPreparedness(double caloriesInHousehold,
+      double amountOfUsersInHousehold, double extraResidentsCaloriesDay) {
     // Calculate the daily calorie need for all extra residents in the household for 7 days
     // As suggested by DSB (Direktoratet for Samfunnssikkerhet og Beredskap)
     // https://www.dsb.no/sikkerhverdag/egenberedskap/mat-du-bor-ha-i-hus-i-tilfelle-krise/
-    double extraResidentsConsumptionWeek = getDailyCaloryNeedExtraResidents(householdId) * 7;
+    double extraResidentsConsumptionWeek = extraResidentsCaloriesDay * 7;
 
     // Calculate the daily calorie need for all users in the household
     // 2000 calories per person to sustain minimal needs for 7 days as recommended by DSB
@@ -164,11 +193,15 @@ public class LevelOfPreparednessService {
   public double calculateLevelOfPreparednessKit(long householdId) {
 
     // Numbers of different kits
-    int totalTypes = kitService.getAll().size();
+    int totalTypes = kitService.count();
 
     // Get the household kit amount
     int numberOfKitsForHousehold = householdKitService.getByHouseholdId(householdId).size();
 
+    return kitPreparedness(numberOfKitsForHousehold, totalTypes);
+  }
+
+  private static double kitPreparedness(int numberOfKitsForHousehold, int totalTypes) {
     if (totalTypes == 0) {
       return 0.0;
     }
@@ -195,17 +228,12 @@ public class LevelOfPreparednessService {
     return (foodPreparedness + waterPreparedness + kitPreparedness) / 3;
   }
 
-  private long calculateTimePrepared(HouseholdResponse household) {
-    List<UserResponse> users = userService.getUsersByHouseholdId(household.getId());
-    double amountOfUsersInHousehold = users != null ? users.size() : 0;
-
-    double caloriesInHousehold = foodService.getCaloriesByHouseholdId(household.getId());
-    double extraResidentsConsumptionWeek = getDailyCaloryNeedExtraResidents(household.getId());
+  private static long hoursPrepared(double caloriesInHousehold, double householdWaterAmount,
+      double amountOfUsersInHousehold, double extraResidentsConsumptionDay,
+      double extraResidentsWaterDay) {
     double totalFoodConsumption = (amountOfUsersInHousehold * 2000)
-        + extraResidentsConsumptionWeek;
+        + extraResidentsConsumptionDay;
 
-    double householdWaterAmount = household.getWaterAmountLiters();
-    double extraResidentsWaterDay = getDailyWaterNeedExtraResidents(household.getId());
     double totalWaterNeedDay = (amountOfUsersInHousehold * 20 / 7) + extraResidentsWaterDay;
 
     if (totalFoodConsumption == 0 || totalWaterNeedDay == 0) {
@@ -219,21 +247,105 @@ public class LevelOfPreparednessService {
   }
 
   /**
-   * Retrieves the preparedness levels for a specific household.
+   * Retrieves the preparedness levels for a specific household, using the water
+   * amount of the given household response.
    *
-   * @param household The ID of the household to retrieve preparedness levels
-   *                    for
+   * @param household The household to retrieve preparedness levels for
    * @return A LevelOfPreparednessResponse object containing the preparedness
    *         levels
    */
   public LevelOfPreparednessResponse getPreparednessForHousehold(HouseholdResponse household) {
+    PreparednessSnapshot snapshot = findSnapshot(household.getId());
+    snapshot.setWaterAmountLiters(household.getWaterAmountLiters());
+    return toResponse(snapshot);
+  }
+
+  /**
+   * Retrieves the preparedness levels for a specific household. All inputs are
+   * read in a single aggregated query.
+   *
+   * @param householdId the ID of the household to retrieve preparedness levels for
+   * @return A LevelOfPreparednessResponse object containing the preparedness
+   *         levels
+   */
+  public LevelOfPreparednessResponse getPreparednessForHousehold(Long householdId) {
+    return toResponse(findSnapshot(householdId));
+  }
+
+  private PreparednessSnapshot findSnapshot(Long householdId) {
+    return preparednessRepository.findSnapshotByHouseholdId(householdId)
+        .orElseGet(() -> {
+          PreparednessSnapshot empty = new PreparednessSnapshot();
+          empty.setHouseholdId(householdId);
+          return empty;
+        });
+  }
+
+  /**
+   * Retrieves the preparedness levels for several households. The number of
+   * queries does not depend on the number of households.
+   *
+   * @param householdIds the IDs of the households, unknown IDs are ignored
+   * @return the preparedness levels of each existing household
+   */
+  public List<HouseholdPreparednessResponse> getPreparednessForHouseholds(
+      Collection<Long> householdIds) {
+    return toResponses(preparednessRepository.findSnapshotsByHouseholdIds(householdIds));
+  }
+
+  /**
+   * Retrieves the preparedness levels for every household in an emergency group
+   * with a single query.
+   *
+   * @param groupId the ID of the emergency group
+   * @return the preparedness levels of each household in the group
+   */
+  public List<HouseholdPreparednessResponse> getPreparednessForGroup(Long groupId) {
+    return toResponses(preparednessRepository.findSnapshotsByGroupId(groupId));
+  }
+
+  private List<HouseholdPreparednessResponse> toResponses(List<PreparednessSnapshot> snapshots) {
+    return snapshots.stream()
+        .map(snapshot -> new HouseholdPreparednessResponse(
+            snapshot.getHouseholdId(), toResponse(snapshot)))
+        .toList();
+  }
+
+  /**
+   * Builds a preparedness response from aggregated household data.
+   *
+   * @param snapshot the aggregated preparedness inputs of a household
+   * @return A LevelOfPreparednessResponse object containing the preparedness
+   *         levels
+   */
+  public LevelOfPreparednessResponse toResponse(PreparednessSnapshot snapshot) {
+    double water = waterPreparedness(snapshot.getWaterAmountLiters(),
+        snapshot.getUserCount(), snapshot.getExtraResidentWaterPerDay());
+    double food = foodPreparedness(snapshot.getTotalCalories(),
+        snapshot.getUserCount(), snapshot.getExtraResidentCaloriesPerDay());
+    double kit = kitPreparedness(snapshot.getKitCount(), snapshot.getTotalKitTypes());
+
     LevelOfPreparednessResponse preparedness = new LevelOfPreparednessResponse();
-    preparedness.setLevelOfPreparednessWater(calculateLevelOfPreparednessWater(household));
-    preparedness.setLevelOfPreparednessFood(calculateLevelOfFoodPreparedness(household.getId()));
-    preparedness.setLevelOfPreparednessKit(calculateLevelOfPreparednessKit(household.getId()));
-    preparedness.setLevelOfPreparedness(calculateOverallLevelOfPreparedness(household));
-    preparedness.setTimePrepared(calculateTimePrepared(household));
+    preparedness.setLevelOfPreparednessWater(water);
+    preparedness.setLevelOfPreparednessFood(food);
+    preparedness.setLevelOfPreparednessKit(kit);
+    preparedness.setLevelOfPreparedness((food + water + kit) / 3);
+    preparedness.setTimePrepared(hoursPrepared(snapshot.getTotalCalories(),
+        snapshot.getWaterAmountLiters(), snapshot.getUserCount(),
+        snapshot.getExtraResidentCaloriesPerDay(), snapshot.getExtraResidentWaterPerDay()));
     return preparedness;
   }
 
+  /**
+   * Recalculates the stored preparedness data of every household. Runs on startup,
+   * so rows are repaired after migrations, and nightly to correct any drift.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(cron = "${preparedness.rebuild-cron:0 0 3 * * *}")
+  public void rebuildSnapshots() {
+    long start = System.currentTimeMillis();
+    preparednessRepository.rebuildAllSnapshots();
+    logger.info("Rebuilt stored household preparedness in {} ms",
+        System.currentTimeMillis() - start);
+  }
 }
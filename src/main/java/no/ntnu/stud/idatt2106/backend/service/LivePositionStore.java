@@ -0,0 +1,284 @@
+package no.ntnu.stud.idatt2106.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import no.ntnu.stud.idatt2106.backend.model.base.User;
+import no.ntnu.stud.idatt2106.backend.model.update.LocationUpdate;
+import no.ntnu.stud.idatt2106.backend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * In-memory store of the latest position of each user, written behind to the database.
+ *
+ * <p>
+ * Position updates only change the store, and the positions that changed since the last
+ * flush are written to the {@code user} table with one batch update on a fixed delay. The
+ * store also keeps the household and sharing settings of each user, so a position can be
+ * broadcast without reading the user from the database. These settings are reloaded when
+ * they are older than {@code location.user-ttl-ms}, or at once when a service that changes
+ * them evicts the user.
+ * </p>
+ *
+ * <p>
+ * The members of a household are loaded into the store the first time the positions of the
+ * household are asked for, so later snapshots of the household are served from memory.
+ * </p>
+ */
+@Service
+public class LivePositionStore {
+
+  private static final Logger logger = LoggerFactory.getLogger(LivePositionStore.class);
+
+  /** Clean entries not updated for this long are dropped from memory. */
+  static final long IDLE_MILLIS = 10 * 60 * 1000;
+
+  /**
+   * The latest known state of a user.
+   *
+   * @param userId         the ID of the user
+   * @param householdId    the ID of the household of the user, or null
+   * @param shareHousehold whether the user shares their position with the household
+   * @param shareGroup     whether the user shares their position with emergency groups
+   * @param latitude       the latest latitude
+   * @param longitude      the latest longitude
+   */
+  public record LivePosition(Long userId, Long householdId, boolean shareHousehold,
+      boolean shareGroup, float latitude, float longitude) {
+
+    /**
+     * Converts the position to the update sent to clients.
+     *
+     * @return the location update
+     */
+    public LocationUpdate toLocationUpdate() {
+      return new LocationUpdate(userId, (double) latitude, (double) longitude);
+    }
+  }
+
+  private record Entry(LivePosition position, long loadedAt, long updatedAt) {
+  }
+
+  private record Members(Set<Long> userIds, long loadedAt) {
+  }
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Value("${location.user-ttl-ms:60000}")
+  private long userTtlMillis = 60_000;
+
+  private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+  private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+  private final Map<Long, Members> households = new ConcurrentHashMap<>();
+
+  /**
+   * Stores the latest position of a user.
+   *
+   * @param userId    the ID of the user
+   * @param latitude  the new latitude
+   * @param longitude the new longitude
+   * @return the stored state of the user, or null if the user does not exist
+   */
+  public LivePosition update(Long userId, float latitude, float longitude) {
+    long now = System.currentTimeMillis();
+    while (true) {
+      // The user is loaded before compute, so no map lock is held during the query
+      Entry existing = entries.get(userId);
+      User user = null;
+      if (existing == null || now - existing.loadedAt() > userTtlMillis) {
+        user = userRepository.findById(userId);
+        if (user == null) {
+          entries.remove(userId);
+          return null;
+        }
+      }
+      final User loaded = user;
+      Entry entry = entries.compute(userId, (id, current) -> {
+        if (loaded != null) {
+          return new Entry(new LivePosition(id, loaded.getHouseholdId(),
+              loaded.isSharePositionHousehold(), loaded.isSharePositionGroup(), latitude,
+              longitude), now, now);
+        }
+        if (current == null) {
+          // Evicted since it was read, so the settings have to be loaded again
+          return null;
+        }
+        LivePosition settings = current.position();
+        return new Entry(new LivePosition(id, settings.householdId(), settings.shareHousehold(),
+            settings.shareGroup(), latitude, longitude), current.loadedAt(), now);
+      });
+      if (entry != null) {
+        dirty.add(userId);
+        return entry.position();
+      }
+    }
+  }
+
+  /**
+   * Returns the latest stored position of a user.
+   *
+   * @param userId the ID of the user
+   * @return the stored state of the user, or null if no position is stored
+   */
+  public LivePosition get(Long userId) {
+    Entry entry = entries.get(userId);
+    return entry == null ? null : entry.position();
+  }
+
+  /**
+   * Returns the latest positions of the members of a household who share their position
+   * with it. The members are loaded from the database when the household is not in the
+   * store, or when its member list is older than {@code location.user-ttl-ms}.
+   *
+   * @param householdId the ID of the household
+   * @return the positions of the sharing members of the household
+   */
+  public List<LivePosition> getHousehold(Long householdId) {
+    long now = System.currentTimeMillis();
+    Members members = households.get(householdId);
+    if (members == null || now - members.loadedAt() > userTtlMillis) {
+      members = loadHousehold(householdId, now);
+    }
+    List<LivePosition> positions = new ArrayList<>();
+    for (Long userId : members.userIds()) {
+      LivePosition position = get(userId);
+      if (position != null && position.shareHousehold()
+          && householdId.equals(position.householdId())) {
+        positions.add(position);
+      }
+    }
+    return positions;
+  }
+
+  /**
+   * Forgets the stored settings of a user, so they are reloaded on the next update. Call
+   * this after changing the household or sharing settings of the user. The stored position
+   * is written again on the next flush, so it wins over an older position in a full user
+   * row written at the same time.
+   *
+   * @param userId the ID of the user
+   */
+  public void evictUser(Long userId) {
+    entries.computeIfPresent(userId, (id, entry) -> {
+      dirty.add(id);
+      forgetMembers(entry.position().householdId());
+      return new Entry(entry.position(), 0, entry.updatedAt());
+    });
+  }
+
+  /**
+   * Forgets the stored settings of all users in a household, and the member list of the
+   * household.
+   *
+   * @param householdId the ID of the household
+   */
+  public void evictHousehold(Long householdId) {
+    if (householdId == null) {
+      return;
+    }
+    households.remove(householdId);
+    for (Map.Entry<Long, Entry> entry : entries.entrySet()) {
+      if (householdId.equals(entry.getValue().position().householdId())) {
+        evictUser(entry.getKey());
+      }
+    }
+  }
+
+  /**
+   * Writes the positions that changed since the last flush to the database, and drops
+   * entries that have not been updated for a while.
+   *
+   * @return the number of positions written
+   */
+  @Scheduled(fixedDelayString = "${location.flush-interval-ms:5000}")
+  public int flush() {
+    List<LocationUpdate> updates = new ArrayList<>();
+    for (Long userId : dirty) {
+      dirty.remove(userId);
+      LivePosition position = get(userId);
+      if (position != null) {
+        updates.add(position.toLocationUpdate());
+      }
+    }
+
+    if (!updates.isEmpty()) {
+      try {
+        userRepository.updateLastKnownPositions(updates);
+      } catch (RuntimeException e) {
+        updates.forEach(update -> dirty.add(update.getUserId()));
+        logger.error("Failed to write {} positions, retrying on next flush", updates.size(), e);
+        return 0;
+      }
+      logger.debug("Wrote {} positions", updates.size());
+    }
+
+    long idleBefore = System.currentTimeMillis() - IDLE_MILLIS;
+    for (Long userId : entries.keySet()) {
+      entries.computeIfPresent(userId, (id, entry) -> {
+        if (entry.updatedAt() >= idleBefore || dirty.contains(id)) {
+          return entry;
+        }
+        forgetMembers(entry.position().householdId());
+        return null;
+      });
+    }
+    households.values().removeIf(members -> members.loadedAt() < idleBefore);
+    return updates.size();
+  }
+
+  /**
+   * Writes the remaining positions before shutting down.
+   */
+  @PreDestroy
+  public void flushOnShutdown() {
+    flush();
+  }
+
+  /**
+   * Loads the members of a household into the store. Positions already in the store are
+   * newer than the ones in the database, so only the settings of those users are replaced.
+   */
+  private Members loadHousehold(Long householdId, long now) {
+    Set<Long> userIds = new HashSet<>();
+    for (User user : userRepository.findUsersByHouseholdId(householdId)) {
+      userIds.add(user.getId());
+      entries.compute(user.getId(), (id, existing) -> {
+        float latitude = existing == null ? user.getLastLatitude()
+            : existing.position().latitude();
+        float longitude = existing == null ? user.getLastLongitude()
+            : existing.position().longitude();
+        LivePosition position = new LivePosition(id, user.getHouseholdId(),
+            user.isSharePositionHousehold(), user.isSharePositionGroup(), latitude, longitude);
+        return new Entry(position, now, existing == null ? now : existing.updatedAt());
+      });
+    }
+    Members members = new Members(Set.copyOf(userIds), now);
+    households.put(householdId, members);
+    return members;
+  }
+
+  private void forgetMembers(Long householdId) {
+    if (householdId != null) {
+      households.remove(householdId);
+    }
+  }
+
+  /**
+   * Returns the number of users in the store.
+   *
+   * @return the number of users
+   */
+  int size() {
+    return entries.size();
+  }
+}
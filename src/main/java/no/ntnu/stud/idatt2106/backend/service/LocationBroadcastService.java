@@ -1,11 +1,15 @@
 package no.ntnu.stud.idatt2106.backend.service;
 
-import no.ntnu.stud.idatt2106.backend.model.base.User;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
 import no.ntnu.stud.idatt2106.backend.model.update.LocationUpdate;
-import no.ntnu.stud.idatt2106.backend.repository.UserRepository;
+import no.ntnu.stud.idatt2106.backend.util.SpatialIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 /**
@@ -16,56 +20,164 @@ import org.springframework.stereotype.Service;
  * of a specific household WebSocket topic, if the user has enabled position
  * sharing
  * and belongs to a household.
+ *
+ * <p>
+ * Users who share their position with emergency groups also have it sent to
+ * {@code /topic/location/group/{groupId}} for every group of their household. The groups
+ * are looked up in the {@link HouseholdGroupIndex}.
+ * </p>
+ *
+ * <p>
+ * Broadcasts are throttled per user. A position is only sent if the user has moved at
+ * least {@code location.broadcast.min-distance-m} since the last sent position, and at
+ * most once per {@code location.broadcast.min-interval-ms}. Positions arriving faster are
+ * coalesced, so the latest of them is sent when the interval has passed. A position waiting
+ * to be sent is dropped if the user stops sharing their position or leaves their household.
+ * </p>
  */
 @Service
 public class LocationBroadcastService {
 
   private static final Logger logger = LoggerFactory.getLogger(LocationBroadcastService.class);
+
+  /** Throttling state of users that have not sent a position for this long is dropped. */
+  static final long IDLE_MILLIS = 10 * 60 * 1000;
+
+  /** Prefix of the topics with positions of household members. */
+  public static final String HOUSEHOLD_TOPIC = "/topic/location/";
+
+  /** Prefix of the topics with positions of members of emergency groups. */
+  public static final String GROUP_TOPIC = "/topic/location/group/";
+
   private final SimpMessagingTemplate messagingTemplate;
-  private final UserRepository userRepository;
+  private final HouseholdGroupIndex groupIndex;
+
+  @Value("${location.broadcast.min-distance-m:10}")
+  private double minDistanceMeters = 10;
+
+  @Value("${location.broadcast.min-interval-ms:2000}")
+  private long minIntervalMillis = 2000;
+
+  LongSupplier clock = System::currentTimeMillis;
+
+  /**
+   * The last position sent for a user, and the latest position waiting to be sent.
+   *
+   * @param sent    the last sent position
+   * @param sentAt  when the last position was sent
+   * @param pending the latest position not sent yet, or null
+   */
+  private record Throttle(LivePositionStore.LivePosition sent, long sentAt,
+      LivePositionStore.LivePosition pending) {
+  }
+
+  private final Map<Long, Throttle> throttles = new ConcurrentHashMap<>();
 
   /**
    * Constructs a new {@code LocationBroadcastService}.
    *
    * @param messagingTemplate the template for sending WebSocket messages
-   * @param userRepository    the repository for retrieving user data
+   * @param groupIndex        the index of the groups of each household
    */
   public LocationBroadcastService(SimpMessagingTemplate messagingTemplate,
-      UserRepository userRepository) {
+      HouseholdGroupIndex groupIndex) {
     this.messagingTemplate = messagingTemplate;
-    this.userRepository = userRepository;
+    this.groupIndex = groupIndex;
   }
 
   /**
-   * Broadcasts a location update to the household topic if the user has enabled
-   * position sharing and is associated with a household.
+   * Broadcasts a location update to the household topic and the topics of the groups of
+   * the household, depending on which the user shares their position with. The update is
+   * delayed or dropped if the user has not moved far enough or has sent a position
+   * recently.
    *
-   * @param locationUpdate the location update containing user ID, latitude, and
-   *                       longitude
+   * @param position the latest position of the user, along with their household
+   *                 and sharing settings
    */
-  public void broadcastToHousehold(LocationUpdate locationUpdate) {
-    User user = userRepository.findById(locationUpdate.getUserId());
-
-    if (user == null) {
-      logger.warn("User with ID {} not found", locationUpdate.getUserId());
+  public void broadcast(LivePositionStore.LivePosition position) {
+    // A position waiting to be sent was shared under the old settings, so it is dropped
+    if (!position.shareHousehold() && !position.shareGroup()) {
+      logger.debug("User {} has disabled position sharing", position.userId());
+      throttles.remove(position.userId());
       return;
     }
 
-    if (!user.isSharePositionHousehold()) {
-      logger.info("User {} has disabled position sharing", user.getId());
+    if (position.householdId() == null) {
+      logger.debug("User {} has no household ID", position.userId());
+      throttles.remove(position.userId());
       return;
     }
 
-    if (user.getHouseholdId() == null) {
-      logger.info("User {} has no household ID", user.getId());
-      return;
+    long now = clock.getAsLong();
+    LivePositionStore.LivePosition[] toSend = new LivePositionStore.LivePosition[1];
+    throttles.compute(position.userId(), (id, throttle) -> {
+      boolean newHousehold = throttle == null
+          || !position.householdId().equals(throttle.sent().householdId());
+      if (newHousehold || hasMoved(throttle.sent(), position)
+          && now - throttle.sentAt() >= minIntervalMillis) {
+        toSend[0] = position;
+        return new Throttle(position, now, null);
+      }
+      if (!hasMoved(throttle.sent(), position)) {
+        // Too close to the last sent position to be worth sending
+        return new Throttle(throttle.sent(), throttle.sentAt(), null);
+      }
+      return new Throttle(throttle.sent(), throttle.sentAt(), position);
+    });
+
+    if (toSend[0] != null) {
+      send(toSend[0]);
+    }
+  }
+
+  /**
+   * Sends the coalesced positions whose interval has passed, and drops the state of idle
+   * users.
+   */
+  @Scheduled(fixedDelayString = "${location.broadcast.flush-interval-ms:250}")
+  public void flushPending() {
+    long now = clock.getAsLong();
+    for (Long userId : throttles.keySet()) {
+      LivePositionStore.LivePosition[] toSend = new LivePositionStore.LivePosition[1];
+      throttles.computeIfPresent(userId, (id, throttle) -> {
+        if (throttle.pending() != null && now - throttle.sentAt() >= minIntervalMillis) {
+          toSend[0] = throttle.pending();
+          return new Throttle(throttle.pending(), now, null);
+        }
+        if (throttle.pending() == null && now - throttle.sentAt() > IDLE_MILLIS) {
+          return null;
+        }
+        return throttle;
+      });
+      if (toSend[0] != null) {
+        send(toSend[0]);
+      }
     }
+  }
 
-    logger.info("Broadcasting position for user {} to household {} at {}, {}",
-        user.getId(), user.getHouseholdId(), locationUpdate.getLatitude(),
-        locationUpdate.getLongitude());
+  /**
+   * Checks if a position is far enough from the last sent one to be broadcast.
+   */
+  private boolean hasMoved(LivePositionStore.LivePosition sent,
+      LivePositionStore.LivePosition position) {
+    double meters = SpatialIndex.distanceKm(sent.latitude(), sent.longitude(),
+        position.latitude(), position.longitude()) * 1000;
+    return meters >= minDistanceMeters;
+  }
 
-    String topic = "/topic/location/" + user.getHouseholdId();
-    messagingTemplate.convertAndSend(topic, locationUpdate);
+  private void send(LivePositionStore.LivePosition position) {
+    logger.debug("Broadcasting position for user {} to household {} at {}, {}",
+        position.userId(), position.householdId(), position.latitude(),
+        position.longitude());
+
+    LocationUpdate update = position.toLocationUpdate();
+    if (position.shareHousehold()) {
+      messagingTemplate.convertAndSend(HOUSEHOLD_TOPIC + position.householdId(), update);
+    }
+    if (position.shareGroup()) {
+      for (Long groupId : groupIndex.getGroups(position.householdId())) {
+        messagingTemplate.convertAndSend(GROUP_TOPIC + groupId, update);
+      }
+    }
   }
-}
\ No newline at end of file
+}
@@ -2,9 +2,10 @@ package no.ntnu.stud.idatt2106.backend.service;
 
 import java.util.List;
 import java.util.stream.Collectors;
-import no.ntnu.stud.idatt2106.backend.model.base.User;
 import no.ntnu.stud.idatt2106.backend.model.update.LocationUpdate;
 import no.ntnu.stud.idatt2106.backend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 /**
@@ -14,33 +15,38 @@ import org.springframework.stereotype.Service;
 @Service
 public class LocationService {
 
+  private static final Logger logger = LoggerFactory.getLogger(LocationService.class);
+
   private final UserRepository userRepository;
   private final LocationBroadcastService locationBroadcastService;
+  private final LivePositionStore positionStore;
 
+  /**
+   * Constructs a new {@code LocationService}.
+   *
+   * @param userRepository           the repository for user data
+   * @param locationBroadcastService the service broadcasting positions to households
+   * @param positionStore            the in-memory store of the latest positions
+   */
   public LocationService(UserRepository userRepository,
-      LocationBroadcastService locationBroadcastService) {
+      LocationBroadcastService locationBroadcastService, LivePositionStore positionStore) {
     this.userRepository = userRepository;
     this.locationBroadcastService = locationBroadcastService;
+    this.positionStore = positionStore;
   }
 
   /**
    * Retrieves last known positions for all users in a household
-   * who have enabled position sharing.
+   * who have enabled position sharing. The positions are served from the
+   * {@link LivePositionStore}, which only reads the household from the database
+   * when it is not already loaded.
    *
    * @param householdId the household ID
    * @return list of {@link LocationUpdate} containing user IDs and positions
    */
   public List<LocationUpdate> getLastKnownPositionsByHousehold(Long householdId) {
-    List<User> users = userRepository.findUsersByHouseholdId(householdId);
-    return users.stream()
-        .filter(User::isSharePositionHousehold)
-        .map(user -> {
-          LocationUpdate update = new LocationUpdate();
-          update.setUserId(user.getId());
-          update.setLatitude((double) user.getLastLatitude());
-          update.setLongitude((double) user.getLastLongitude());
-          return update;
-        })
+    return positionStore.getHousehold(householdId).stream()
+        .map(LivePositionStore.LivePosition::toLocationUpdate)
         .collect(Collectors.toList());
   }
 
@@ -52,19 +58,27 @@ public class LocationService {
    * @return number of users updated
    */
   public int toggleShareLocationForHousehold(Long householdId, boolean share) {
-    return userRepository.updateSharePositionHouseholdForHousehold(householdId, share);
+    int updated = userRepository.updateSharePositionHouseholdForHousehold(householdId, share);
+    positionStore.evictHousehold(householdId);
+    return updated;
   }
 
   /**
-   * Updates the last known position of a user in the database.
+   * Updates the last known position of a user and broadcasts it to their household and
+   * emergency groups.
+   * The position is stored in memory and written to the database in batches by the
+   * {@link LivePositionStore}.
    *
    * @param userId    the ID of the user
    * @param latitude  new latitude
    * @param longitude new longitude
    */
   public void updateLastKnownPosition(Long userId, float latitude, float longitude) {
-    userRepository.updateLastKnownPosition(userId, latitude, longitude);
-    locationBroadcastService.broadcastToHousehold(
-        new LocationUpdate(userId, (double) latitude, (double) longitude));
+    LivePositionStore.LivePosition position = positionStore.update(userId, latitude, longitude);
+    if (position == null) {
+      logger.warn("User with ID {} not found", userId);
+      return;
+    }
+    locationBroadcastService.broadcast(position);
   }
 }
@@ -1,21 +1,58 @@
 package no.ntnu.stud.idatt2106.backend.service;
 
+import java.sql.Timestamp;
+import java.time.LocalTime;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
 import no.ntnu.stud.idatt2106.backend.model.base.MapObject;
 import no.ntnu.stud.idatt2106.backend.model.request.MapObjectRequest;
 import no.ntnu.stud.idatt2106.backend.model.response.MapObjectResponse;
 import no.ntnu.stud.idatt2106.backend.repository.MapObjectRepositoryImpl;
 import no.ntnu.stud.idatt2106.backend.service.mapper.MapObjectMapper;
+import no.ntnu.stud.idatt2106.backend.util.SpatialIndex;
+import no.ntnu.stud.idatt2106.backend.util.TileCache;
 import no.ntnu.stud.idatt2106.backend.util.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 /**
  * Service class for managing map objects.
+ *
+ * <p>
+ * Bounds and closest object queries are served from an in-memory spatial index of all
+ * map objects. The index is loaded from the database on startup and kept up to date by
+ * the create, update and delete operations of this service. Map tiles are cached, and
+ * the same operations invalidate the tiles covering the changed positions.
+ * </p>
  */
 @Service
 public class MapObjectService {
 
+  private static final Logger logger = LoggerFactory.getLogger(MapObjectService.class);
+
+  /** Grid cell size of the spatial index, roughly 5.5 km north-south. */
+  private static final double INDEX_CELL_SIZE_DEGREES = 0.05;
+
+  /** Maximum number of map objects returned by a single nearest query. */
+  public static final int MAX_NEAREST_RESULTS = 50;
+
+  /** Maximum number of map object tiles kept in memory. */
+  private static final int MAX_CACHED_TILES = 10_000;
+
+  private final SpatialIndex<MapObjectResponse> index = new SpatialIndex<>(
+      INDEX_CELL_SIZE_DEGREES, MapObjectResponse::getId,
+      object -> SpatialIndex.Box.point(object.getLatitude(), object.getLongitude()));
+
+  private volatile boolean indexLoaded = false;
+
+  private final TileCache<MapObjectResponse> tileCache = new TileCache<>(MAX_CACHED_TILES);
+
   @Autowired
   private MapObjectRepositoryImpl mapObjectRepository;
 
@@ -55,7 +92,9 @@ public class MapObjectService {
 
     MapObject object = MapObjectMapper.requestToMapObject(request);
     mapObjectRepository.save(object);
-
+    if (object.getId() != null) {
+      indexObject(object.getId());
+    }
 
     webSocketService.broadcastCreated(request);
   }
@@ -70,8 +109,13 @@ public class MapObjectService {
     Validate.isValid(jwtService.extractIsAdmin(token.substring(7)), "User is not admin");
 
     mapObjectRepository.update(updatedMapObject);
-    MapObjectResponse response = mapObjectRepository.findByIdWithDetail(updatedMapObject.getId());
-    webSocketService.broadcastUpdated(response);
+    MapObjectResponse response = indexObject(updatedMapObject.getId());
+    if (response == null) {
+      // The map object does not exist, or was deleted while it was updated
+      webSocketService.broadcastDeleted(updatedMapObject.getId());
+    } else {
+      webSocketService.broadcastUpdated(response);
+    }
   }
 
   /**
@@ -84,6 +128,9 @@ public class MapObjectService {
     Validate.isValid(jwtService.extractIsAdmin(token.substring(7)), "User is not admin");
 
     mapObjectRepository.deleteById(id);
+    MapObjectResponse previous = index.get(id);
+    index.remove(id);
+    invalidateTiles(previous);
     webSocketService.broadcastDeleted(id);
   }
 
@@ -98,7 +145,22 @@ public class MapObjectService {
    */
   public List<MapObjectResponse> getMapObjectsInBounds(
       double minLat, double maxLat, double minLong, double maxLong) {
-    return mapObjectRepository.findAllInBoundsWithDetail(minLat, maxLat, minLong, maxLong);
+    ensureIndexLoaded();
+    return index.findInBounds(minLat, maxLat, minLong, maxLong);
+  }
+
+  /**
+   * Retrieves the map objects inside a map tile. Tiles are cached until a map object inside
+   * them changes.
+   *
+   * @param z The zoom level of the tile.
+   * @param x The column of the tile.
+   * @param y The row of the tile.
+   * @return The map objects inside the tile, with an ETag for the tile contents.
+   */
+  public TileCache.Tile<MapObjectResponse> getMapObjectTile(int z, int x, int y) {
+    return tileCache.get(z, x, y, bounds -> getMapObjectsInBounds(
+        bounds.minLat(), bounds.maxLat(), bounds.minLong(), bounds.maxLong()));
   }
 
   /**
@@ -110,6 +172,120 @@ public class MapObjectService {
    * @return The closest map object to the specified location.
    */
   public MapObjectResponse getClosestMapObject(double latitude, double longitude, long type) {
-    return mapObjectRepository.findClosestWithDetail(latitude, longitude, type);
+    ensureIndexLoaded();
+    List<MapObjectResponse> closest = index.findNearest(latitude, longitude, 1,
+        Double.POSITIVE_INFINITY, object -> object.getTypeId() != null
+            && object.getTypeId() == type);
+    return closest.isEmpty() ? null : closest.get(0);
+  }
+
+  /**
+   * Retrieves the map objects closest to a given location.
+   *
+   * @param latitude      The latitude of the location.
+   * @param longitude     The longitude of the location.
+   * @param k             The maximum number of map objects to return.
+   * @param maxDistanceKm The maximum distance in kilometers, or null for no limit.
+   * @param typeIds       The types to include, or null or empty to include all types.
+   * @param openAt        A time of day the map objects must be open at, or null to include
+   *                      map objects regardless of opening hours.
+   * @return Up to k map objects, ordered by increasing distance from the location.
+   */
+  public List<MapObjectResponse> getNearestMapObjects(double latitude, double longitude, int k,
+      Double maxDistanceKm, List<Long> typeIds, LocalTime openAt) {
+    Validate.that(k, Validate.isPositive(), "Number of map objects must be positive");
+    Validate.isValid(k <= MAX_NEAREST_RESULTS,
+        "Number of map objects can not exceed " + MAX_NEAREST_RESULTS);
+    if (maxDistanceKm != null) {
+      Validate.that(maxDistanceKm, Validate.isPositive(), "Max distance must be positive");
+    }
+
+    Predicate<MapObjectResponse> filter = object -> true;
+    if (typeIds != null && !typeIds.isEmpty()) {
+      Set<Long> types = new HashSet<>(typeIds);
+      filter = filter.and(object -> types.contains(object.getTypeId()));
+    }
+    if (openAt != null) {
+      filter = filter.and(object -> isOpenAt(object, openAt));
+    }
+
+    ensureIndexLoaded();
+    return index.findNearest(latitude, longitude, k,
+        maxDistanceKm == null ? Double.POSITIVE_INFINITY : maxDistanceKm, filter);
+  }
+
+  /**
+   * Checks if a map object is open at a time of day. Map objects without opening hours are
+   * considered always open, and closing before opening means the map object is open past
+   * midnight.
+   */
+  static boolean isOpenAt(MapObjectResponse object, LocalTime time) {
+    if (object.getOpening() == null || object.getClosing() == null) {
+      return true;
+    }
+    LocalTime opening = toLocalTime(object.getOpening());
+    LocalTime closing = toLocalTime(object.getClosing());
+    if (opening.equals(closing)) {
+      return true;
+    }
+    if (opening.isBefore(closing)) {
+      return !time.isBefore(opening) && time.isBefore(closing);
+    }
+    return !time.isBefore(opening) || time.isBefore(closing);
+  }
+
+  private static LocalTime toLocalTime(Timestamp timestamp) {
+    return timestamp.toLocalDateTime().toLocalTime();
+  }
+
+  /**
+   * Reloads the spatial index of map objects from the database. Called on startup, and
+   * when changes outside this service affect many map objects, such as type changes.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void reloadIndex() {
+    final long start = System.currentTimeMillis();
+    List<MapObjectResponse> objects = mapObjectRepository.findAllWithDetail();
+    index.replaceAll(objects);
+    indexLoaded = true;
+    tileCache.clear();
+    logger.info("Indexed {} map objects in {} ms", objects.size(),
+        System.currentTimeMillis() - start);
+  }
+
+  private void ensureIndexLoaded() {
+    if (!indexLoaded) {
+      synchronized (index) {
+        if (!indexLoaded) {
+          reloadIndex();
+        }
+      }
+    }
+  }
+
+  /**
+   * Reads a map object with type details and stores it in the index.
+   *
+   * @param id the ID of the map object
+   * @return the map object, or null if it does not exist
+   */
+  private MapObjectResponse indexObject(Long id) {
+    MapObjectResponse response = mapObjectRepository.findByIdWithDetail(id);
+    MapObjectResponse previous = index.get(id);
+    if (response == null) {
+      index.remove(id);
+    } else {
+      index.put(response);
+    }
+    // Invalidated after the index has changed, so a tile loaded in between is not kept
+    invalidateTiles(previous);
+    invalidateTiles(response);
+    return response;
+  }
+
+  private void invalidateTiles(MapObjectResponse object) {
+    if (object != null) {
+      tileCache.invalidate(SpatialIndex.Box.point(object.getLatitude(), object.getLongitude()));
+    }
   }
 }
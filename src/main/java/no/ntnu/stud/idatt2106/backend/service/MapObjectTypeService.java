@@ -5,6 +5,7 @@ import no.ntnu.stud.idatt2106.backend.model.base.MapObjectType;
 import no.ntnu.stud.idatt2106.backend.model.request.MapObjectTypeRequest;
 import no.ntnu.stud.idatt2106.backend.repository.MapObjectTypeRepositoryImpl;
 import no.ntnu.stud.idatt2106.backend.service.mapper.MapObjectTypeMapper;
+import no.ntnu.stud.idatt2106.backend.util.ReferenceCache;
 import no.ntnu.stud.idatt2106.backend.util.Validate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -18,13 +19,18 @@ public class MapObjectTypeService {
   private MapObjectTypeRepositoryImpl mapObjectTypeRepository;
   @Autowired
   private JwtService jwtService;
+  @Autowired
+  private MapObjectService mapObjectService;
+
+  private final ReferenceCache<MapObjectType> cache =
+      new ReferenceCache<>(() -> mapObjectTypeRepository.findAll(), MapObjectType::getId);
 
   /**
    * Service class for managing map object types.
    * This class provides methods to create, read, update, and delete map object types.
    */
   public List<MapObjectType> getAllMapObjectTypes() {
-    return mapObjectTypeRepository.findAll();
+    return cache.getAll();
   }
 
   /**
@@ -34,7 +40,7 @@ public class MapObjectTypeService {
    * @return the map object type with the specified ID, or null if not found
    */
   public MapObjectType getMapObjectTypeById(Long id) {
-    return mapObjectTypeRepository.findById(id);
+    return cache.get(id);
   }
 
   /**
@@ -46,6 +52,7 @@ public class MapObjectTypeService {
   public void createMapObjectType(MapObjectTypeRequest mapObjectType, String token) {
     Validate.isValid(jwtService.extractIsAdmin(token.substring(7)), "User is not admin");
     mapObjectTypeRepository.save(MapObjectTypeMapper.requestToMapObjectType(mapObjectType));
+    cache.refresh();
   }
 
   /**
@@ -57,6 +64,9 @@ public class MapObjectTypeService {
   public void updateMapObjectType(MapObjectType mapObjectType, String token) {
     Validate.isValid(jwtService.extractIsAdmin(token.substring(7)), "User is not admin");
     mapObjectTypeRepository.update(mapObjectType);
+    cache.refresh();
+    // Indexed map objects carry the name and icon of their type
+    mapObjectService.reloadIndex();
   }
 
   /**
@@ -68,5 +78,7 @@ public class MapObjectTypeService {
   public void deleteMapObjectType(Long id, String token) {
     Validate.isValid(jwtService.extractIsAdmin(token.substring(7)), "User is not admin");
     mapObjectTypeRepository.deleteById(id);
+    cache.refresh();
+    mapObjectService.reloadIndex();
   }
 }
@@ -3,32 +3,35 @@ package no.ntnu.stud.idatt2106.backend.service;
 
 import no.ntnu.stud.idatt2106.backend.model.request.MapObjectRequest;
 import no.ntnu.stud.idatt2106.backend.model.response.MapObjectResponse;
+import no.ntnu.stud.idatt2106.backend.websocket.CoalescingBroadcaster;
 import no.ntnu.stud.idatt2106.backend.websocket.WebSocketEvent;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
 /**
  * Service for broadcasting map object events over WebSocket.
- * This service uses Spring's SimpMessagingTemplate to send messages to connected clients.
+ * Events are sent through the {@link CoalescingBroadcaster}, so clients receive the changes
+ * of a short window as one list, with only the latest change to each map object.
  */
 @Service
 public class MapObjectWebSocketService {
 
-  private final SimpMessagingTemplate messagingTemplate;
+  private static final String TOPIC = "/topic/map-object/all";
 
-  public MapObjectWebSocketService(SimpMessagingTemplate messagingTemplate) {
-    this.messagingTemplate = messagingTemplate;
+  private final CoalescingBroadcaster broadcaster;
+
+  public MapObjectWebSocketService(CoalescingBroadcaster broadcaster) {
+    this.broadcaster = broadcaster;
   }
 
   public void broadcastCreated(MapObjectRequest obj) {
-    messagingTemplate.convertAndSend("/topic/map-object/all", new WebSocketEvent<>("created", obj));
+    broadcaster.send(TOPIC, null, new WebSocketEvent<>("created", obj));
   }
 
   public void broadcastUpdated(MapObjectResponse obj) {
-    messagingTemplate.convertAndSend("/topic/map-object/all", new WebSocketEvent<>("updated", obj));
+    broadcaster.send(TOPIC, obj.getId(), new WebSocketEvent<>("updated", obj));
   }
 
   public void broadcastDeleted(Long id) {
-    messagingTemplate.convertAndSend("/topic/map-object/all", new WebSocketEvent<>("deleted", id));
+    broadcaster.send(TOPIC, id, new WebSocketEvent<>("deleted", id));
   }
 }
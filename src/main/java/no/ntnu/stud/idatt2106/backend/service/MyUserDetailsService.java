@@ -1,9 +1,12 @@
 package no.ntnu.stud.idatt2106.backend.service;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import no.ntnu.stud.idatt2106.backend.model.base.User;
 import no.ntnu.stud.idatt2106.backend.model.base.UserPrincipal;
 import no.ntnu.stud.idatt2106.backend.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -12,20 +15,65 @@ import org.springframework.stereotype.Service;
 
 /**
  * Service class that implements UserDetailsService to load user-specific data.
+ *
+ * <p>
+ * Every authenticated request loads the details of its user, so loaded details are
+ * cached by username for a short time. Changes to a user must call {@link #evictUser}
+ * so the next request sees the new credentials and roles.
+ * </p>
  */
 @Service
 public class MyUserDetailsService implements UserDetailsService {
 
+  /** Maximum number of users with cached details. */
+  static final int MAX_CACHED_USERS = 10_000;
+
+  private record CachedUser(Long userId, UserPrincipal principal, long expiresAt) {
+  }
+
+  private final Map<String, CachedUser> cache = new ConcurrentHashMap<>();
+
+  @Value("${security.user-details-cache-ttl-ms:60000}")
+  private long ttlMillis;
+
   @Autowired
   private UserRepository userRepo;
 
   @Override
   public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+    long now = System.currentTimeMillis();
+    CachedUser cached = cache.get(username);
+    if (cached != null && cached.expiresAt() > now) {
+      return cached.principal();
+    }
+
     User user = userRepo.findUserByUsername(username);
     if (user == null) {
+      cache.remove(username);
       throw new UsernameNotFoundException("user not found");
     }
 
-    return new UserPrincipal(user);
+    UserPrincipal principal = new UserPrincipal(user);
+    if (cache.size() >= MAX_CACHED_USERS) {
+      cache.values().removeIf(entry -> entry.expiresAt() <= now);
+      if (cache.size() >= MAX_CACHED_USERS) {
+        cache.clear();
+      }
+    }
+    cache.put(username, new CachedUser(user.getId(), principal, now + ttlMillis));
+    return principal;
+  }
+
+  /**
+   * Removes the cached details of a user, for instance after their password or roles
+   * changed. Entries are matched by user ID, so details cached under a previous username
+   * are removed as well.
+   *
+   * @param userId the ID of the user
+   */
+  public void evictUser(Long userId) {
+    if (userId != null) {
+      cache.values().removeIf(entry -> userId.equals(entry.userId()));
+    }
   }
-}
\ No newline at end of file
+}
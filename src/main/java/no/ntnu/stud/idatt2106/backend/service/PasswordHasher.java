@@ -0,0 +1,159 @@
+package no.ntnu.stud.idatt2106.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import no.ntnu.stud.idatt2106.backend.exception.ServiceBusyException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+/**
+ * BCrypt password encoder that hashes on a dedicated, bounded executor.
+ *
+ * <p>
+ * A cost 12 BCrypt hash takes hundreds of milliseconds of CPU time. Running the hashes on
+ * the request threads lets a burst of logins occupy every request thread, so the hashes run
+ * on a pool sized to the number of cores with a bounded queue instead. When the queue is
+ * full the request is rejected at once with a {@link ServiceBusyException}, so the client
+ * can retry later while the rest of the API stays responsive.
+ * </p>
+ */
+@Service
+public class PasswordHasher implements PasswordEncoder {
+
+  private static final Logger logger = LoggerFactory.getLogger(PasswordHasher.class);
+
+  private final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(12);
+
+  @Value("${security.hashing.threads:0}")
+  private int threads = 0;
+
+  @Value("${security.hashing.queue-capacity:64}")
+  private int queueCapacity = 64;
+
+  @Value("${security.hashing.retry-after-seconds:2}")
+  private long retryAfterSeconds = 2;
+
+  private ThreadPoolExecutor executor;
+
+  private final LongAdder hashCount = new LongAdder();
+  private final LongAdder hashNanos = new LongAdder();
+  private final LongAdder rejectedCount = new LongAdder();
+
+  /**
+   * Snapshot of the hashing metrics.
+   *
+   * @param queueDepth      number of hashes waiting for a thread
+   * @param activeThreads   number of hashes being calculated
+   * @param hashCount       number of hashes calculated since startup
+   * @param averageHashMillis average time to calculate a hash
+   * @param rejectedCount   number of hashes rejected because the queue was full
+   */
+  public record Metrics(int queueDepth, int activeThreads, long hashCount,
+      double averageHashMillis, long rejectedCount) {
+  }
+
+  @PostConstruct
+  void startExecutor() {
+    int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    AtomicInteger threadNumber = new AtomicInteger();
+    executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity),
+        runnable -> {
+          Thread thread = new Thread(runnable, "password-hasher-" + threadNumber.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        },
+        new ThreadPoolExecutor.AbortPolicy());
+  }
+
+  @PreDestroy
+  void stopExecutor() {
+    executor.shutdown();
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return hash(() -> encoder.encode(rawPassword));
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    return hash(() -> encoder.matches(rawPassword, encodedPassword));
+  }
+
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    return encoder.upgradeEncoding(encodedPassword);
+  }
+
+  /**
+   * Returns the current hashing metrics.
+   *
+   * @return the metrics
+   */
+  public Metrics metrics() {
+    long count = hashCount.sum();
+    return new Metrics(executor.getQueue().size(), executor.getActiveCount(), count,
+        count == 0 ? 0 : hashNanos.sum() / 1e6 / count, rejectedCount.sum());
+  }
+
+  /**
+   * Logs the hashing metrics, so a build-up of the queue is visible.
+   */
+  @Scheduled(fixedDelay = 60_000)
+  public void logMetrics() {
+    Metrics metrics = metrics();
+    if (metrics.queueDepth() > 0 || metrics.rejectedCount() > 0) {
+      logger.info("Password hashing: {} queued, {} active, {} hashed in {} ms on average, "
+          + "{} rejected", metrics.queueDepth(), metrics.activeThreads(), metrics.hashCount(),
+          String.format("%.1f", metrics.averageHashMillis()), metrics.rejectedCount());
+    }
+  }
+
+  private <T> T hash(Callable<T> task) {
+    Future<T> future;
+    try {
+      future = executor.submit(() -> {
+        long start = System.nanoTime();
+        try {
+          return task.call();
+        } finally {
+          hashNanos.add(System.nanoTime() - start);
+          hashCount.increment();
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      rejectedCount.increment();
+      logger.warn("Password hashing queue is full, rejecting request");
+      throw new ServiceBusyException("Server is busy, please try again later",
+          retryAfterSeconds);
+    }
+
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new ServiceBusyException("Password hashing was interrupted", retryAfterSeconds);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new IllegalStateException("Password hashing failed", e.getCause());
+    }
+  }
+}
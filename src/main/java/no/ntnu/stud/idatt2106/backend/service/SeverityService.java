@@ -6,12 +6,18 @@ import no.ntnu.stud.idatt2106.backend.model.base.Severity;
 import no.ntnu.stud.idatt2106.backend.model.request.SeverityRequest;
 import no.ntnu.stud.idatt2106.backend.repository.SeverityRepository;
 import no.ntnu.stud.idatt2106.backend.service.mapper.SeverityMapper;
+import no.ntnu.stud.idatt2106.backend.util.ReferenceCache;
 import no.ntnu.stud.idatt2106.backend.util.Validate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 /**
  * Service class for managing severity levels.
+ *
+ * <p>
+ * Severity levels are read from a {@link ReferenceCache}, which is refreshed after every
+ * change made through this service.
+ * </p>
  */
 @Service
 public class SeverityService {
@@ -19,6 +25,11 @@ public class SeverityService {
   private SeverityRepository severityRepository;
   @Autowired
   private JwtService jwtService;
+  @Autowired
+  private EventService eventService;
+
+  private final ReferenceCache<Severity> cache =
+      new ReferenceCache<>(() -> severityRepository.findAll(), Severity::getId);
 
   /**
    * Saves a severity level to the repository.
@@ -30,7 +41,9 @@ public class SeverityService {
   public int saveSeverity(SeverityRequest severity, String token) {
     Validate.that(jwtService.extractIsAdmin(token.substring(7)), 
         Validate.isTrue(), "User is not an admin");
-    return severityRepository.save(SeverityMapper.requestToSeverity(severity));
+    int rows = severityRepository.save(SeverityMapper.requestToSeverity(severity));
+    cache.refresh();
+    return rows;
   }
 
   /**
@@ -40,7 +53,7 @@ public class SeverityService {
    * @return the severity level with the specified ID, or null if not found
    */
   public Severity findSeverityById(long id) {
-    return severityRepository.findSeverityById(id);
+    return cache.get(id);
   }
 
   /**
@@ -53,7 +66,11 @@ public class SeverityService {
   public int updateSeverity(Severity severity, String token) {
     Validate.that(jwtService.extractIsAdmin(token.substring(7)), 
         Validate.isTrue(), "User is not an admin");
-    return severityRepository.update(severity);
+    int rows = severityRepository.update(severity);
+    cache.refresh();
+    // Cached events include the colour and name of their severity
+    eventService.reloadIndex();
+    return rows;
   }
 
   /**
@@ -66,7 +83,10 @@ public class SeverityService {
   public int deleteSeverity(long id, String token) {
     Validate.that(jwtService.extractIsAdmin(token.substring(7)), 
         Validate.isTrue(), "User is not an admin");
-    return severityRepository.delete(id);
+    int rows = severityRepository.delete(id);
+    cache.refresh();
+    eventService.reloadIndex();
+    return rows;
   }
 
   /**
@@ -75,6 +95,6 @@ public class SeverityService {
    * @return a list of all severity levels
    */
   public List<Severity> findAllSeverities() {
-    return severityRepository.findAll();
+    return cache.getAll();
   }
 }
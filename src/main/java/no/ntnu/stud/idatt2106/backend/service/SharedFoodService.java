@@ -1,24 +1,21 @@
 package no.ntnu.stud.idatt2106.backend.service;
 
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import no.ntnu.stud.idatt2106.backend.model.base.Food;
-import no.ntnu.stud.idatt2106.backend.model.base.FoodType;
 import no.ntnu.stud.idatt2106.backend.model.base.GroupHousehold;
 import no.ntnu.stud.idatt2106.backend.model.base.SharedFood;
 import no.ntnu.stud.idatt2106.backend.model.base.SharedFoodKey;
 import no.ntnu.stud.idatt2106.backend.model.request.SharedFoodRequest;
-import no.ntnu.stud.idatt2106.backend.model.response.FoodBatchResponse;
 import no.ntnu.stud.idatt2106.backend.model.response.FoodDetailedResponse;
 import no.ntnu.stud.idatt2106.backend.model.response.SharedFoodResponse;
 import no.ntnu.stud.idatt2106.backend.repository.FoodRepository;
-import no.ntnu.stud.idatt2106.backend.repository.FoodTypeRepository;
 import no.ntnu.stud.idatt2106.backend.repository.GroupHouseholdRepository;
 import no.ntnu.stud.idatt2106.backend.repository.HouseholdRepository;
+import no.ntnu.stud.idatt2106.backend.repository.PreparednessRepository;
 import no.ntnu.stud.idatt2106.backend.repository.SharedFoodRepository;
 import no.ntnu.stud.idatt2106.backend.service.mapper.SharedFoodMapper;
 import org.springframework.stereotype.Service;
@@ -34,9 +31,9 @@ public class SharedFoodService {
   private final SharedFoodRepository repository;
   private final FoodRepository foodRepository;
   private final HouseholdRepository householdRepository;
-  private final FoodTypeRepository foodTypeRepository;
   private final GroupHouseholdRepository groupHouseholdRepository;
   private final JwtService jwtService;
+  private final PreparednessRepository preparednessRepository;
 
   /**
    * Creates a new shared food entry in the repository.
@@ -173,6 +170,7 @@ public class SharedFoodService {
 
     food.setAmount(food.getAmount() - request.getAmount());
     foodRepository.update(food);
+    preparednessRepository.refreshSnapshot(householdId);
 
     return true;
   }
@@ -233,6 +231,7 @@ public class SharedFoodService {
       newFood.setHouseholdId(food.getHouseholdId());
       foodRepository.save(newFood);
     }
+    preparednessRepository.refreshSnapshot(food.getHouseholdId());
 
     return true;
   }
@@ -244,48 +243,7 @@ public class SharedFoodService {
    * @return A list of detailed responses containing shared food information.
    */
   public List<FoodDetailedResponse> getSharedFoodSummaryByGroup(Long groupHouseholdId) {
-    List<SharedFood> sharedFoods = repository.findByGroupHouseholdId(groupHouseholdId);
-    Map<Long, Food> foodMap = sharedFoods.stream()
-        .map(sf -> foodRepository.findById(sf.getId().getFoodId()))
-        .filter(Optional::isPresent)
-        .map(Optional::get)
-        .collect(Collectors.toMap(Food::getId, f -> f));
-
-    Map<Long, List<SharedFood>> grouped = sharedFoods.stream()
-        .filter(sf -> foodMap.containsKey(sf.getId().getFoodId()))
-        .collect(Collectors.groupingBy(sf -> foodMap.get(sf.getId().getFoodId()).getTypeId()));
-
-    return grouped.entrySet().stream().map(entry -> {
-      Long typeId = entry.getKey();
-      Optional<FoodType> typeOpt = foodTypeRepository.findById(typeId);
-      if (typeOpt.isEmpty()) {
-        return null;
-      }
-
-      FoodType type = typeOpt.get();
-      List<FoodBatchResponse> batches = entry.getValue().stream().map(sf -> {
-        Food food = foodMap.get(sf.getId().getFoodId());
-        FoodBatchResponse b = new FoodBatchResponse();
-        b.setId(food.getId());
-        b.setAmount(sf.getAmount());
-        b.setExpirationDate(food.getExpirationDate());
-        b.setHouseholdId(food.getHouseholdId());
-        b.setGroupHouseholdId(sf.getId().getGroupHouseholdId());
-        return b;
-      }).toList();
-
-      float totalAmount = (float) batches.stream().mapToDouble(FoodBatchResponse::getAmount).sum();
-      float totalCalories = totalAmount * type.getCaloriesPerUnit();
-
-      FoodDetailedResponse response = new FoodDetailedResponse();
-      response.setTypeId(type.getId());
-      response.setTypeName(type.getName());
-      response.setUnit(type.getUnit());
-      response.setTotalAmount(totalAmount);
-      response.setTotalCalories(totalCalories);
-      response.setBatches(batches);
-      return response;
-    }).filter(Objects::nonNull).toList();
+    return repository.findSummaryByGroupHouseholdId(groupHouseholdId);
   }
 
   /**
@@ -296,52 +254,7 @@ public class SharedFoodService {
    * @return A list of detailed responses containing shared food information.
    */
   public List<FoodDetailedResponse> getSharedFoodSummaryByGroupId(Long groupId) {
-    List<GroupHousehold> memberships = groupHouseholdRepository.findByGroupId(groupId);
-    List<SharedFood> sharedFoods = memberships.stream()
-        .flatMap(m -> repository.findByGroupHouseholdId(m.getId()).stream())
-        .toList();
-
-    Map<Long, Food> foodMap = sharedFoods.stream()
-        .map(sf -> foodRepository.findById(sf.getId().getFoodId()))
-        .filter(Optional::isPresent)
-        .map(Optional::get)
-        .collect(Collectors.toMap(Food::getId, f -> f));
-
-    Map<Long, List<SharedFood>> grouped = sharedFoods.stream()
-        .filter(sf -> foodMap.containsKey(sf.getId().getFoodId()))
-        .collect(Collectors.groupingBy(sf -> foodMap.get(sf.getId().getFoodId()).getTypeId()));
-
-    return grouped.entrySet().stream().map(entry -> {
-      Long typeId = entry.getKey();
-      Optional<FoodType> typeOpt = foodTypeRepository.findById(typeId);
-      if (typeOpt.isEmpty()) {
-        return null;
-      }
-
-      FoodType type = typeOpt.get();
-      List<FoodBatchResponse> batches = entry.getValue().stream().map(sf -> {
-        Food food = foodMap.get(sf.getId().getFoodId());
-        FoodBatchResponse b = new FoodBatchResponse();
-        b.setId(food.getId());
-        b.setAmount(sf.getAmount());
-        b.setExpirationDate(food.getExpirationDate());
-        b.setHouseholdId(food.getHouseholdId());
-        b.setGroupHouseholdId(sf.getId().getGroupHouseholdId());
-        return b;
-      }).toList();
-
-      float totalAmount = (float) batches.stream().mapToDouble(FoodBatchResponse::getAmount).sum();
-      float totalCalories = totalAmount * type.getCaloriesPerUnit();
-
-      FoodDetailedResponse response = new FoodDetailedResponse();
-      response.setTypeId(type.getId());
-      response.setTypeName(type.getName());
-      response.setUnit(type.getUnit());
-      response.setTotalAmount(totalAmount);
-      response.setTotalCalories(totalCalories);
-      response.setBatches(batches);
-      return response;
-    }).filter(Objects::nonNull).toList();
+    return repository.findSummaryByGroupId(groupId);
   }
 
   private Long getHouseholdIdByUser(Long userId) {
@@ -401,5 +314,6 @@ public class SharedFoodService {
   
       repository.deleteById(shared.getId());
     }
+    preparednessRepository.refreshSnapshot(householdId);
   }
 }  
@@ -27,6 +27,10 @@ public class UserService {
   private EmailService emailService;
   @Autowired
   private EmailConfirmationKeyService emailConfirmationKeyService;
+  @Autowired
+  private MyUserDetailsService userDetailsService;
+  @Autowired
+  private LivePositionStore positionStore;
 
   /**
    * Retrieves a user by their ID.
@@ -91,6 +95,8 @@ public class UserService {
    */
   public void updateUserCredentials(User user) {
     userRepo.updateUser(user);
+    userDetailsService.evictUser(user.getId());
+    positionStore.evictUser(user.getId());
   }
 
   /**
@@ -153,6 +159,8 @@ public class UserService {
     existingUser.setEmail(update.getEmail());
 
     userRepo.updateUser(existingUser);
+    userDetailsService.evictUser(existingUser.getId());
+    positionStore.evictUser(existingUser.getId());
     return UserMapper.toResponse(existingUser);
   }
 
@@ -180,6 +188,7 @@ public class UserService {
       return false;
     }
     userRepo.updateSharePositionHousehold(userId, true);
+    positionStore.evictUser(userId);
     return true;
   }
 
@@ -203,6 +212,7 @@ public class UserService {
     }
     userRepo.updateSharePositionHousehold(userId, sharedPositionHousehold);
     userRepo.updateSharePositionGroup(userId, sharedPositionGroup);
+    positionStore.evictUser(userId);
     return true;
   }
 
@@ -253,14 +263,10 @@ public class UserService {
     }
     String key = emailConfirmationKeyService.createEmailConfirmationKey(user.getId());
     
-    try {
-      emailService.sendHtmlEmail(
-          user.getEmail(), 
-          "Verify your email address", 
-          EmailTemplates.getEmailConfirmationTemplate(key));
-    } catch (Exception e) {
-      throw new RuntimeException("Failed to send email verification", e);
-    }
+    emailService.queueHtmlEmail(
+        user.getEmail(),
+        "Verify your email address",
+        EmailTemplates.getEmailConfirmationTemplate(key));
   }
 
   /**
@@ -280,6 +286,8 @@ public class UserService {
 
     user.setEmailConfirmed(true);
     userRepo.updateUser(user);
+    userDetailsService.evictUser(user.getId());
+    positionStore.evictUser(user.getId());
     emailConfirmationKeyService.deleteEmailConfirmationKey(user.getId());
   }
 }
\ No newline at end of file
@@ -0,0 +1,89 @@
+package no.ntnu.stud.idatt2106.backend.util;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * In-memory copy of a small table of reference data, such as food types or kits.
+ *
+ * <p>
+ * The whole table is loaded on first use and kept as an immutable snapshot, so reads are
+ * lock-free lookups by ID. The owning service calls {@link #refresh()} after every change
+ * to the table, which loads a new snapshot and replaces the old one. Readers holding the old
+ * snapshot are not affected.
+ * </p>
+ *
+ * @param <T> the type of the rows
+ */
+public class ReferenceCache<T> {
+
+  private record Snapshot<T>(List<T> rows, Map<Long, T> byId) {
+  }
+
+  private final Supplier<List<T>> loader;
+  private final Function<T, Long> idOf;
+  private volatile Snapshot<T> snapshot;
+
+  /**
+   * Creates a cache.
+   *
+   * @param loader the function reading all rows of the table
+   * @param idOf   the function returning the ID of a row
+   */
+  public ReferenceCache(Supplier<List<T>> loader, Function<T, Long> idOf) {
+    this.loader = loader;
+    this.idOf = idOf;
+  }
+
+  /**
+   * Returns all rows, in the order they were loaded.
+   *
+   * @return an unmodifiable list of the rows
+   */
+  public List<T> getAll() {
+    return snapshot().rows();
+  }
+
+  /**
+   * Returns the row with the given ID.
+   *
+   * @param id the ID of the row
+   * @return the row, or null if there is no row with the ID
+   */
+  public T get(Long id) {
+    return id == null ? null : snapshot().byId().get(id);
+  }
+
+  /**
+   * Returns the number of rows.
+   *
+   * @return the number of rows
+   */
+  public int size() {
+    return snapshot().rows().size();
+  }
+
+  /**
+   * Loads the table again and replaces the snapshot.
+   */
+  public synchronized void refresh() {
+    List<T> rows = List.copyOf(loader.get());
+    Map<Long, T> byId = new HashMap<>();
+    for (T row : rows) {
+      byId.put(idOf.apply(row), row);
+    }
+    snapshot = new Snapshot<>(rows, Map.copyOf(byId));
+  }
+
+  private Snapshot<T> snapshot() {
+    Snapshot<T> current = snapshot;
+    if (current == null) {
+      refresh();
+      current = snapshot;
+    }
+    return current;
+  }
+}
@@ -0,0 +1,485 @@
+package no.ntnu.stud.idatt2106.backend.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Thread safe in-memory spatial index over geographical entries.
+ *
+ * <p>
+ * Entries are kept in a uniform grid of latitude/longitude cells. An entry is stored
+ * in every cell its bounding box overlaps, so both points and areas can be indexed.
+ * Bounds queries only visit the cells overlapping the requested box, and nearest
+ * neighbour queries search outwards from the cell of the query position until no
+ * unvisited cell can hold a closer entry. Longitudes are not wrapped around the
+ * antimeridian.
+ * </p>
+ *
+ * <p>
+ * Entries overlapping more than {@value #MAX_CELLS_PER_ENTRY} cells are kept in a separate
+ * overflow list that every query scans, so a single very large area does not fill the grid.
+ * </p>
+ *
+ * @param <T> the type of the indexed values
+ */
+public class SpatialIndex<T> {
+
+  /** Mean radius of the earth in kilometers. */
+  public static final double EARTH_RADIUS_KM = 6371.0;
+
+  /** Largest number of grid cells an entry is stored in before it goes to the overflow. */
+  static final int MAX_CELLS_PER_ENTRY = 256;
+
+  /**
+   * Bounding box of an indexed entry or a query, in degrees.
+   *
+   * @param minLat  the minimum latitude
+   * @param maxLat  the maximum latitude
+   * @param minLong the minimum longitude
+   * @param maxLong the maximum longitude
+   */
+  public record Box(double minLat, double maxLat, double minLong, double maxLong) {
+
+    /**
+     * Creates a box containing a single point.
+     *
+     * @param latitude  the latitude of the point
+     * @param longitude the longitude of the point
+     * @return a box with no extent
+     */
+    public static Box point(double latitude, double longitude) {
+      return new Box(latitude, latitude, longitude, longitude);
+    }
+
+    /**
+     * Creates the smallest box containing a circle on the earth's surface.
+     *
+     * @param latitude  the latitude of the center
+     * @param longitude the longitude of the center
+     * @param radiusKm  the radius of the circle in kilometers
+     * @return a box containing the circle
+     */
+    public static Box circle(double latitude, double longitude, double radiusKm) {
+      double latDelta = Math.toDegrees(radiusKm / EARTH_RADIUS_KM);
+      double minLat = Math.max(-90, latitude - latDelta);
+      double maxLat = Math.min(90, latitude + latDelta);
+      double cos = Math.cos(Math.toRadians(latitude));
+      // A circle reaching a pole covers every longitude
+      double longDelta = cos < 1e-9 || minLat <= -90 || maxLat >= 90
+          ? 180 : Math.min(180, latDelta / cos);
+      return new Box(minLat, maxLat, longitude - longDelta, longitude + longDelta);
+    }
+
+    /**
+     * Calculates the shortest great-circle distance from a position to any point in this box.
+     *
+     * @param latitude  the latitude of the position
+     * @param longitude the longitude of the position
+     * @return the distance in kilometers, or 0 if the position is inside the box
+     */
+    public double distanceKm(double latitude, double longitude) {
+      if (longitude >= minLong && longitude <= maxLong) {
+        if (latitude >= minLat && latitude <= maxLat) {
+          return 0;
+        }
+        // The closest point is straight north or south, on the nearest latitude edge
+        double edge = latitude > maxLat ? maxLat : minLat;
+        return EARTH_RADIUS_KM * Math.toRadians(Math.abs(latitude - edge));
+      }
+      // Otherwise the closest point lies on one of the longitude edges
+      return Math.min(distanceToMeridian(latitude, longitude, minLong),
+          distanceToMeridian(latitude, longitude, maxLong));
+    }
+
+    private double distanceToMeridian(double latitude, double longitude, double meridian) {
+      double cos = Math.cos(Math.toRadians(longitude - meridian));
+      double foot;
+      if (cos <= 0) {
+        // More than a quarter turn away, the closest point on the meridian is a pole
+        foot = latitude >= 0 ? 90 : -90;
+      } else {
+        foot = Math.toDegrees(Math.atan(Math.tan(Math.toRadians(latitude)) / cos));
+      }
+      // The distance grows monotonically away from the foot point, so clamp it to the edge
+      double closest = Math.max(minLat, Math.min(maxLat, foot));
+      return SpatialIndex.distanceKm(latitude, longitude, closest, meridian);
+    }
+
+    boolean intersects(Box other) {
+      return minLat <= other.maxLat && maxLat >= other.minLat
+          && minLong <= other.maxLong && maxLong >= other.minLong;
+    }
+
+    double centerLat() {
+      return (minLat + maxLat) / 2;
+    }
+
+    double centerLong() {
+      return (minLong + maxLong) / 2;
+    }
+  }
+
+  private record Entry<T>(Long id, T value, Box box) {
+  }
+
+  private record Candidate<T>(T value, double distance) {
+  }
+
+  private final double cellSize;
+  private final Function<T, Long> idFunction;
+  private final Function<T, Box> boxFunction;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private final Map<Long, Entry<T>> entries = new HashMap<>();
+  private final Map<Long, Map<Long, Entry<T>>> cells = new HashMap<>();
+  private final Map<Long, Entry<T>> overflow = new HashMap<>();
+  private double maxAbsLatitude;
+  private int minLatCell = Integer.MAX_VALUE;
+  private int maxLatCell = Integer.MIN_VALUE;
+  private int minLongCell = Integer.MAX_VALUE;
+  private int maxLongCell = Integer.MIN_VALUE;
+
+  /**
+   * Creates an empty index.
+   *
+   * @param cellSizeDegrees the width and height of a grid cell in degrees
+   * @param idFunction      extracts the unique ID of a value
+   * @param boxFunction     extracts the bounding box of a value
+   */
+  public SpatialIndex(double cellSizeDegrees, Function<T, Long> idFunction,
+      Function<T, Box> boxFunction) {
+    Validate.that(cellSizeDegrees, Validate.isPositive(), "Cell size must be positive");
+    this.cellSize = cellSizeDegrees;
+    this.idFunction = idFunction;
+    this.boxFunction = boxFunction;
+  }
+
+  /**
+   * Calculates the great-circle distance between two positions with the haversine formula.
+   *
+   * @param lat1  the latitude of the first position
+   * @param long1 the longitude of the first position
+   * @param lat2  the latitude of the second position
+   * @param long2 the longitude of the second position
+   * @return the distance in kilometers
+   */
+  public static double distanceKm(double lat1, double long1, double lat2, double long2) {
+    double deltaLat = Math.toRadians(lat2 - lat1);
+    double deltaLong = Math.toRadians(long2 - long1);
+    double a = Math.sin(deltaLat / 2) * Math.sin(deltaLat / 2)
+        + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+        * Math.sin(deltaLong / 2) * Math.sin(deltaLong / 2);
+    return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+  }
+
+  /**
+   * Adds a value to the index, replacing any value with the same ID.
+   *
+   * @param value the value to add
+   */
+  public void put(T value) {
+    lock.writeLock().lock();
+    try {
+      Long id = idFunction.apply(value);
+      removeEntry(id);
+      addEntry(new Entry<>(id, value, boxFunction.apply(value)));
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Removes the value with the given ID from the index, if present.
+   *
+   * @param id the ID of the value to remove
+   */
+  public void remove(Long id) {
+    lock.writeLock().lock();
+    try {
+      removeEntry(id);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Replaces the contents of the index with the given values.
+   *
+   * @param values the values the index should contain
+   */
+  public void replaceAll(Collection<T> values) {
+    lock.writeLock().lock();
+    try {
+      entries.clear();
+      cells.clear();
+      overflow.clear();
+      maxAbsLatitude = 0;
+      minLatCell = Integer.MAX_VALUE;
+      maxLatCell = Integer.MIN_VALUE;
+      minLongCell = Integer.MAX_VALUE;
+      maxLongCell = Integer.MIN_VALUE;
+      for (T value : values) {
+        addEntry(new Entry<>(idFunction.apply(value), value, boxFunction.apply(value)));
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the value with the given ID.
+   *
+   * @param id the ID of the value
+   * @return the value, or null if it is not in the index
+   */
+  public T get(Long id) {
+    lock.readLock().lock();
+    try {
+      Entry<T> entry = entries.get(id);
+      return entry == null ? null : entry.value();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the number of values in the index.
+   *
+   * @return the number of values
+   */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return entries.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Finds all values whose bounding box intersects the given bounds.
+   *
+   * @param minLat  the minimum latitude of the bounds
+   * @param maxLat  the maximum latitude of the bounds
+   * @param minLong the minimum longitude of the bounds
+   * @param maxLong the maximum longitude of the bounds
+   * @return the matching values, in no particular order
+   */
+  public List<T> findInBounds(double minLat, double maxLat, double minLong, double maxLong) {
+    Box query = new Box(minLat, maxLat, minLong, maxLong);
+    lock.readLock().lock();
+    try {
+      Map<Long, T> result = new LinkedHashMap<>();
+      collectIntersecting(overflow, query, result);
+      int fromLat = Math.max(cell(minLat), minLatCell);
+      int toLat = Math.min(cell(maxLat), maxLatCell);
+      int fromLong = Math.max(cell(minLong), minLongCell);
+      int toLong = Math.min(cell(maxLong), maxLongCell);
+      if (fromLat > toLat || fromLong > toLong) {
+        return new ArrayList<>(result.values());
+      }
+
+      long cellCount = (long) (toLat - fromLat + 1) * (toLong - fromLong + 1);
+      if (cellCount > cells.size()) {
+        // Large bounds, scanning the occupied cells is cheaper than probing empty ones
+        for (Map<Long, Entry<T>> cell : cells.values()) {
+          collectIntersecting(cell, query, result);
+        }
+      } else {
+        for (int latCell = fromLat; latCell <= toLat; latCell++) {
+          for (int longCell = fromLong; longCell <= toLong; longCell++) {
+            Map<Long, Entry<T>> cell = cells.get(key(latCell, longCell));
+            if (cell != null) {
+              collectIntersecting(cell, query, result);
+            }
+          }
+        }
+      }
+      return new ArrayList<>(result.values());
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Finds the values closest to a position, measured to the center of their bounding box.
+   *
+   * @param latitude      the latitude of the position
+   * @param longitude     the longitude of the position
+   * @param k             the maximum number of values to return
+   * @param maxDistanceKm the maximum distance in kilometers
+   * @param filter        a condition the returned values must satisfy
+   * @return up to k values, ordered by increasing distance
+   */
+  public List<T> findNearest(double latitude, double longitude, int k, double maxDistanceKm,
+      Predicate<T> filter) {
+    if (k <= 0) {
+      return new ArrayList<>();
+    }
+    lock.readLock().lock();
+    try {
+      // Max-heap on distance, holding the k best candidates found so far
+      PriorityQueue<Candidate<T>> best = new PriorityQueue<>(
+          Comparator.comparingDouble((Candidate<T> c) -> c.distance()).reversed());
+      Set<Long> seen = new HashSet<>();
+      int centerLat = cell(latitude);
+      int centerLong = cell(longitude);
+      double cosMaxLat = Math.cos(Math.toRadians(
+          Math.min(90, Math.max(Math.abs(latitude), maxAbsLatitude))));
+      for (Entry<T> entry : overflow.values()) {
+        offer(entry, latitude, longitude, k, maxDistanceKm, filter, best, seen);
+      }
+
+      for (int ring = 0; !entries.isEmpty(); ring++) {
+        if (ringCellCount(ring) > cells.size()) {
+          // The search area is larger than the occupied part of the grid
+          for (Entry<T> entry : entries.values()) {
+            offer(entry, latitude, longitude, k, maxDistanceKm, filter, best, seen);
+          }
+          break;
+        }
+        visitRing(centerLat, centerLong, ring, entry ->
+            offer(entry, latitude, longitude, k, maxDistanceKm, filter, best, seen));
+
+        double bound = minDistanceOutside(ring, cosMaxLat);
+        boolean full = best.size() == k && best.peek().distance() <= bound;
+        boolean coveredGrid = centerLat - ring <= minLatCell && centerLat + ring >= maxLatCell
+            && centerLong - ring <= minLongCell && centerLong + ring >= maxLongCell;
+        if (full || coveredGrid || bound > maxDistanceKm) {
+          break;
+        }
+      }
+
+      List<Candidate<T>> ordered = new ArrayList<>(best);
+      ordered.sort(Comparator.comparingDouble(Candidate::distance));
+      return ordered.stream().map(Candidate::value).toList();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void offer(Entry<T> entry, double latitude, double longitude, int k,
+      double maxDistanceKm, Predicate<T> filter, PriorityQueue<Candidate<T>> best,
+      Set<Long> seen) {
+    if (!seen.add(entry.id())) {
+      return;
+    }
+    double distance = distanceKm(latitude, longitude,
+        entry.box().centerLat(), entry.box().centerLong());
+    if (distance > maxDistanceKm || !filter.test(entry.value())) {
+      return;
+    }
+    if (best.size() < k) {
+      best.add(new Candidate<>(entry.value(), distance));
+    } else if (distance < best.peek().distance()) {
+      best.poll();
+      best.add(new Candidate<>(entry.value(), distance));
+    }
+  }
+
+  private void visitRing(int centerLat, int centerLong, int ring,
+      Consumer<Entry<T>> visitor) {
+    for (int latCell = centerLat - ring; latCell <= centerLat + ring; latCell++) {
+      boolean edgeRow = Math.abs(latCell - centerLat) == ring;
+      int step = edgeRow ? 1 : Math.max(1, 2 * ring);
+      for (int longCell = centerLong - ring; longCell <= centerLong + ring; longCell += step) {
+        Map<Long, Entry<T>> cell = cells.get(key(latCell, longCell));
+        if (cell != null) {
+          cell.values().forEach(visitor);
+        }
+      }
+    }
+  }
+
+  /**
+   * Lower bound on the distance from the query position to any entry center outside the
+   * cells visited so far. Such a center differs from the query by at least ring cells in
+   * latitude or longitude.
+   */
+  private double minDistanceOutside(int ring, double cosMaxLat) {
+    double degrees = ring * cellSize;
+    double latBound = EARTH_RADIUS_KM * Math.toRadians(degrees);
+    double longBound = 2 * EARTH_RADIUS_KM * Math.asin(
+        cosMaxLat * Math.sin(Math.toRadians(Math.min(180, degrees)) / 2));
+    return Math.min(latBound, longBound);
+  }
+
+  private static long ringCellCount(int ring) {
+    return ring == 0 ? 1 : 8L * ring;
+  }
+
+  private void collectIntersecting(Map<Long, Entry<T>> cell, Box query, Map<Long, T> result) {
+    for (Entry<T> entry : cell.values()) {
+      if (entry.box().intersects(query)) {
+        result.putIfAbsent(entry.id(), entry.value());
+      }
+    }
+  }
+
+  private void addEntry(Entry<T> entry) {
+    Box box = entry.box();
+    entries.put(entry.id(), entry);
+    if (cellCount(box) > MAX_CELLS_PER_ENTRY) {
+      overflow.put(entry.id(), entry);
+      return;
+    }
+    maxAbsLatitude = Math.max(maxAbsLatitude,
+        Math.max(Math.abs(box.minLat()), Math.abs(box.maxLat())));
+    minLatCell = Math.min(minLatCell, cell(box.minLat()));
+    maxLatCell = Math.max(maxLatCell, cell(box.maxLat()));
+    minLongCell = Math.min(minLongCell, cell(box.minLong()));
+    maxLongCell = Math.max(maxLongCell, cell(box.maxLong()));
+    for (int latCell = cell(box.minLat()); latCell <= cell(box.maxLat()); latCell++) {
+      for (int longCell = cell(box.minLong()); longCell <= cell(box.maxLong()); longCell++) {
+        cells.computeIfAbsent(key(latCell, longCell), k -> new HashMap<>())
+            .put(entry.id(), entry);
+      }
+    }
+  }
+
+  private void removeEntry(Long id) {
+    Entry<T> entry = entries.remove(id);
+    if (entry == null || overflow.remove(id) != null) {
+      return;
+    }
+    Box box = entry.box();
+    for (int latCell = cell(box.minLat()); latCell <= cell(box.maxLat()); latCell++) {
+      for (int longCell = cell(box.minLong()); longCell <= cell(box.maxLong()); longCell++) {
+        long key = key(latCell, longCell);
+        Map<Long, Entry<T>> cell = cells.get(key);
+        if (cell != null) {
+          cell.remove(id);
+          if (cell.isEmpty()) {
+            cells.remove(key);
+          }
+        }
+      }
+    }
+  }
+
+  private long cellCount(Box box) {
+    return ((long) cell(box.maxLat()) - cell(box.minLat()) + 1)
+        * ((long) cell(box.maxLong()) - cell(box.minLong()) + 1);
+  }
+
+  private int cell(double degrees) {
+    return (int) Math.floor(degrees / cellSize);
+  }
+
+  private static long key(int latCell, int longCell) {
+    return ((long) latCell << 32) | (longCell & 0xffffffffL);
+  }
+}
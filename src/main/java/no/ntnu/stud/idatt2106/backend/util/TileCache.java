@@ -0,0 +1,174 @@
+package no.ntnu.stud.idatt2106.backend.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of map data per slippy map tile.
+ *
+ * <p>
+ * Tiles are addressed with the z/x/y scheme used by web maps, where zoom level z divides
+ * the world into 2^z by 2^z Web Mercator tiles. Each cached tile keeps the list of values
+ * inside it and an ETag calculated from its contents, so clients can revalidate tiles
+ * they already have. The least recently used tiles are evicted when the cache is full,
+ * and tiles are invalidated by the area a change affected.
+ * </p>
+ *
+ * @param <T> the type of the cached values
+ */
+public class TileCache<T> {
+
+  /** Highest supported zoom level. */
+  public static final int MAX_ZOOM = 22;
+
+  /**
+   * The contents of a tile.
+   *
+   * @param items the values inside the tile
+   * @param etag  the ETag of the tile, derived from its values
+   */
+  public record Tile<T>(List<T> items, String etag) {
+
+    /**
+     * Checks if an If-None-Match header matches the ETag of this tile.
+     *
+     * @param ifNoneMatch the value of the header, may be null
+     * @return true if the client already has the current contents of the tile
+     */
+    public boolean matches(String ifNoneMatch) {
+      if (ifNoneMatch == null) {
+        return false;
+      }
+      for (String tag : ifNoneMatch.split(",")) {
+        String trimmed = tag.trim();
+        if (trimmed.startsWith("W/")) {
+          trimmed = trimmed.substring(2);
+        }
+        if (trimmed.equals("*") || trimmed.equals(etag)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  private record CachedTile<T>(SpatialIndex.Box bounds, Tile<T> tile) {
+  }
+
+  private final Map<String, CachedTile<T>> tiles;
+  private long generation = 0;
+
+  /**
+   * Creates an empty cache.
+   *
+   * @param maxTiles the maximum number of tiles kept in the cache
+   */
+  public TileCache(int maxTiles) {
+    Validate.that(maxTiles, Validate.isPositive(), "Max tiles must be positive");
+    this.tiles = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, CachedTile<T>> eldest) {
+        return size() > maxTiles;
+      }
+    };
+  }
+
+  /**
+   * Calculates the geographical bounds of a tile.
+   *
+   * @param z the zoom level
+   * @param x the column of the tile, counted from the west
+   * @param y the row of the tile, counted from the north
+   * @return the bounds of the tile
+   * @throws IllegalArgumentException if the tile does not exist
+   */
+  public static SpatialIndex.Box tileBounds(int z, int x, int y) {
+    Validate.isValid(z >= 0 && z <= MAX_ZOOM, "Zoom level must be between 0 and " + MAX_ZOOM);
+    int tileCount = 1 << z;
+    Validate.isValid(x >= 0 && x < tileCount && y >= 0 && y < tileCount,
+        "Tile " + z + "/" + x + "/" + y + " does not exist");
+    return new SpatialIndex.Box(latitude(y + 1, tileCount), latitude(y, tileCount),
+        longitude(x, tileCount), longitude(x + 1, tileCount));
+  }
+
+  /**
+   * Returns a tile from the cache, loading it if it is not cached.
+   *
+   * @param z      the zoom level
+   * @param x      the column of the tile
+   * @param y      the row of the tile
+   * @param loader loads the values inside the given bounds
+   * @return the contents of the tile
+   */
+  public Tile<T> get(int z, int x, int y, Function<SpatialIndex.Box, List<T>> loader) {
+    String key = z + "/" + x + "/" + y;
+    SpatialIndex.Box bounds = tileBounds(z, x, y);
+    long loadedGeneration;
+    synchronized (this) {
+      CachedTile<T> cached = tiles.get(key);
+      if (cached != null) {
+        return cached.tile();
+      }
+      loadedGeneration = generation;
+    }
+
+    List<T> items = List.copyOf(loader.apply(bounds));
+    Tile<T> tile = new Tile<>(items, etag(items));
+
+    synchronized (this) {
+      // Tiles loaded while a change was invalidated might be stale, so only cache if none was
+      if (generation == loadedGeneration) {
+        tiles.put(key, new CachedTile<>(bounds, tile));
+      }
+    }
+    return tile;
+  }
+
+  /**
+   * Removes all cached tiles overlapping an area that has changed.
+   *
+   * @param changed the bounds of the changed area
+   */
+  public synchronized void invalidate(SpatialIndex.Box changed) {
+    generation++;
+    Iterator<CachedTile<T>> iterator = tiles.values().iterator();
+    while (iterator.hasNext()) {
+      if (iterator.next().bounds().intersects(changed)) {
+        iterator.remove();
+      }
+    }
+  }
+
+  /**
+   * Removes all cached tiles.
+   */
+  public synchronized void clear() {
+    generation++;
+    tiles.clear();
+  }
+
+  /**
+   * Returns the number of cached tiles.
+   *
+   * @return the number of cached tiles
+   */
+  public synchronized int size() {
+    return tiles.size();
+  }
+
+  private static String etag(List<?> items) {
+    return "\"" + Integer.toHexString(items.hashCode()) + "-" + items.size() + "\"";
+  }
+
+  private static double longitude(int x, int tileCount) {
+    return (double) x / tileCount * 360.0 - 180.0;
+  }
+
+  private static double latitude(int y, int tileCount) {
+    double n = Math.PI * (1 - 2.0 * y / tileCount);
+    return Math.toDegrees(Math.atan(Math.sinh(n)));
+  }
+}
@@ -0,0 +1,116 @@
+package no.ntnu.stud.idatt2106.backend.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Rate limiter keeping one token bucket per key, such as a client address or a username.
+ *
+ * <p>
+ * Each bucket holds up to {@code capacity} tokens and is refilled continuously at
+ * {@code refillPerSecond} tokens per second. A request is allowed if its bucket has a whole
+ * token left. The number of buckets is bounded, buckets that have been refilled completely
+ * are dropped first when the limit is reached since they behave like new buckets.
+ * </p>
+ */
+public class TokenBucketLimiter {
+
+  /** Maximum number of buckets kept in memory. */
+  static final int MAX_BUCKETS = 100_000;
+
+  private static final class Bucket {
+    private double tokens;
+    private long updatedAt;
+
+    private Bucket(double tokens, long updatedAt) {
+      this.tokens = tokens;
+      this.updatedAt = updatedAt;
+    }
+  }
+
+  private final int capacity;
+  private final double refillPerNano;
+  private final LongSupplier clock;
+  private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a limiter.
+   *
+   * @param capacity        the number of requests allowed in a burst
+   * @param refillPerSecond the sustained number of requests allowed per second
+   */
+  public TokenBucketLimiter(int capacity, double refillPerSecond) {
+    this(capacity, refillPerSecond, System::nanoTime);
+  }
+
+  /**
+   * Creates a limiter with a custom clock.
+   *
+   * @param capacity        the number of requests allowed in a burst
+   * @param refillPerSecond the sustained number of requests allowed per second
+   * @param clock           returns the current time in nanoseconds
+   */
+  public TokenBucketLimiter(int capacity, double refillPerSecond, LongSupplier clock) {
+    Validate.that(capacity, Validate.isPositive(), "Capacity must be positive");
+    Validate.isValid(refillPerSecond > 0, "Refill rate must be positive");
+    this.capacity = capacity;
+    this.refillPerNano = refillPerSecond / 1e9;
+    this.clock = clock;
+  }
+
+  /**
+   * Takes a token from the bucket of a key.
+   *
+   * @param key the key to limit, such as a client address
+   * @return 0 if the request is allowed, otherwise the number of seconds until it would be
+   */
+  public long tryAcquire(String key) {
+    long now = clock.getAsLong();
+    if (buckets.size() >= MAX_BUCKETS && !buckets.containsKey(key)) {
+      evictFullBuckets(now);
+    }
+    long[] retryAfter = new long[1];
+    buckets.compute(key, (k, bucket) -> {
+      if (bucket == null) {
+        bucket = new Bucket(capacity, now);
+      } else {
+        refill(bucket, now);
+      }
+      if (bucket.tokens >= 1) {
+        bucket.tokens -= 1;
+      } else {
+        retryAfter[0] = Math.max(1,
+            (long) Math.ceil((1 - bucket.tokens) / refillPerNano / 1e9));
+      }
+      return bucket;
+    });
+    return retryAfter[0];
+  }
+
+  /**
+   * Returns the number of buckets kept in memory.
+   *
+   * @return the number of buckets
+   */
+  public int size() {
+    return buckets.size();
+  }
+
+  private void refill(Bucket bucket, long now) {
+    bucket.tokens = Math.min(capacity, bucket.tokens + (now - bucket.updatedAt) * refillPerNano);
+    bucket.updatedAt = now;
+  }
+
+  private void evictFullBuckets(long now) {
+    for (String key : buckets.keySet()) {
+      buckets.computeIfPresent(key, (k, bucket) -> {
+        refill(bucket, now);
+        return bucket.tokens >= capacity ? null : bucket;
+      });
+    }
+    if (buckets.size() >= MAX_BUCKETS) {
+      buckets.clear();
+    }
+  }
+}
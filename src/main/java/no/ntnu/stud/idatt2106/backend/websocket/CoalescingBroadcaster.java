@@ -0,0 +1,80 @@
+package no.ntnu.stud.idatt2106.backend.websocket;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Collects WebSocket events for a short window and sends them as one frame per topic.
+ *
+ * <p>
+ * Events are queued per topic and sent as a list every {@code websocket.batch-window-ms}.
+ * An event with an ID replaces a queued event with the same ID on the same topic, so only
+ * the latest change to an object is sent when it changes several times within a window.
+ * Events without an ID, such as creations, are always sent.
+ * </p>
+ */
+@Component
+public class CoalescingBroadcaster {
+
+  private static final Logger logger = LoggerFactory.getLogger(CoalescingBroadcaster.class);
+
+  private final SimpMessagingTemplate messagingTemplate;
+
+  private Map<String, Map<Object, WebSocketEvent<?>>> pending = new HashMap<>();
+
+  public CoalescingBroadcaster(SimpMessagingTemplate messagingTemplate) {
+    this.messagingTemplate = messagingTemplate;
+  }
+
+  /**
+   * Queues an event to be sent to a topic with the next batch.
+   *
+   * @param topic the destination of the event
+   * @param id    the ID of the object the event is about, or null if the event should never
+   *              replace or be replaced by another event
+   * @param event the event to send
+   */
+  public synchronized void send(String topic, Object id, WebSocketEvent<?> event) {
+    Map<Object, WebSocketEvent<?>> events =
+        pending.computeIfAbsent(topic, key -> new LinkedHashMap<>());
+    Object key = id != null ? id : new Object();
+    // Removed first so the event keeps its place in time relative to other events
+    events.remove(key);
+    events.put(key, event);
+  }
+
+  /**
+   * Sends the queued events, as one list per topic.
+   *
+   * @return the number of frames sent
+   */
+  @Scheduled(fixedDelayString = "${websocket.batch-window-ms:150}")
+  public int flush() {
+    Map<String, Map<Object, WebSocketEvent<?>>> batch;
+    synchronized (this) {
+      if (pending.isEmpty()) {
+        return 0;
+      }
+      batch = pending;
+      pending = new HashMap<>();
+    }
+
+    for (Map.Entry<String, Map<Object, WebSocketEvent<?>>> entry : batch.entrySet()) {
+      List<WebSocketEvent<?>> events = new ArrayList<>(entry.getValue().values());
+      try {
+        messagingTemplate.convertAndSend(entry.getKey(), events);
+      } catch (RuntimeException e) {
+        logger.error("Failed to send {} events to {}", events.size(), entry.getKey(), e);
+      }
+    }
+    return batch.size();
+  }
+}
@@ -0,0 +1,13 @@
+package no.ntnu.stud.idatt2106.backend.websocket;
+
+/**
+ * Application event published when a household leaves an emergency group, or when the
+ * group is deleted. Subscriptions the members of the household have to the location topic
+ * of the group are removed when this event is received.
+ *
+ * @param groupId     the ID of the group
+ * @param householdId the ID of the household that left the group, or {@code null} if the
+ *                    group was deleted and all its households left it
+ */
+public record GroupHouseholdLeftEvent(Long groupId, Long householdId) {
+}
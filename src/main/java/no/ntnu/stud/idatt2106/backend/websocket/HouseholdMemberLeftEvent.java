@@ -0,0 +1,12 @@
+package no.ntnu.stud.idatt2106.backend.websocket;
+
+/**
+ * Application event published when a user leaves a household, either by leaving it or by
+ * joining another household. Subscriptions the user has to the topics of the old household
+ * are removed when this event is received.
+ *
+ * @param userId      the ID of the user
+ * @param householdId the ID of the household the user left
+ */
+public record HouseholdMemberLeftEvent(Long userId, Long householdId) {
+}
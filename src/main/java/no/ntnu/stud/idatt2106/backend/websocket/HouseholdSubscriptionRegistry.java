@@ -0,0 +1,192 @@
+package no.ntnu.stud.idatt2106.backend.websocket;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps track of the active subscriptions to household and group topics, so they can be
+ * removed when a user leaves the household or the household leaves the group.
+ *
+ * <p>
+ * Subscriptions are only checked when they are made. When a user leaves a household, the
+ * subscriptions the user has to topics of that household are removed from the broker, so
+ * the user stops receiving positions and events of the old household. Likewise, when a
+ * household leaves an emergency group or the group is deleted, the subscriptions its members
+ * have to the location topic of the group are removed.
+ * </p>
+ */
+@Component
+public class HouseholdSubscriptionRegistry {
+
+  private static final Logger logger =
+      LoggerFactory.getLogger(HouseholdSubscriptionRegistry.class);
+
+  /**
+   * A subscription to a household or group topic.
+   *
+   * @param sessionId      the ID of the WebSocket session
+   * @param subscriptionId the ID of the subscription within the session
+   * @param householdId    the ID of the household of the topic, or of the household the
+   *                       user is allowed to subscribe to the group topic through
+   * @param groupId        the ID of the group of the topic, or {@code null} for a household
+   *                       topic
+   */
+  record Subscription(String sessionId, String subscriptionId, Long householdId,
+      Long groupId) {
+  }
+
+  private final Map<Long, Set<Subscription>> subscriptionsByUser = new ConcurrentHashMap<>();
+  private final MessageChannel brokerChannel;
+
+  /**
+   * Creates the registry.
+   *
+   * @param brokerChannel the channel of the message broker, used to remove subscriptions
+   */
+  public HouseholdSubscriptionRegistry(
+      @Lazy @Qualifier("brokerChannel") MessageChannel brokerChannel) {
+    this.brokerChannel = brokerChannel;
+  }
+
+  /**
+   * Registers an allowed subscription to a household topic.
+   *
+   * @param userId         the ID of the subscribing user
+   * @param sessionId      the ID of the WebSocket session
+   * @param subscriptionId the ID of the subscription within the session
+   * @param householdId    the ID of the household of the topic
+   */
+  public void add(Long userId, String sessionId, String subscriptionId, Long householdId) {
+    register(userId, new Subscription(sessionId, subscriptionId, householdId, null));
+  }
+
+  /**
+   * Registers an allowed subscription to a group topic.
+   *
+   * @param userId         the ID of the subscribing user
+   * @param sessionId      the ID of the WebSocket session
+   * @param subscriptionId the ID of the subscription within the session
+   * @param householdId    the ID of the household of the user in the group
+   * @param groupId        the ID of the group of the topic
+   */
+  public void addGroup(Long userId, String sessionId, String subscriptionId,
+      Long householdId, Long groupId) {
+    register(userId, new Subscription(sessionId, subscriptionId, householdId, groupId));
+  }
+
+  /**
+   * Forgets a subscription the client has ended.
+   *
+   * @param userId         the ID of the user
+   * @param sessionId      the ID of the WebSocket session
+   * @param subscriptionId the ID of the subscription within the session
+   */
+  public void remove(Long userId, String sessionId, String subscriptionId) {
+    removeIf(userId, subscription -> subscription.sessionId().equals(sessionId)
+        && subscription.subscriptionId().equals(subscriptionId));
+  }
+
+  /**
+   * Forgets all subscriptions of a closed session.
+   *
+   * @param userId    the ID of the user
+   * @param sessionId the ID of the WebSocket session
+   */
+  public void removeSession(Long userId, String sessionId) {
+    removeIf(userId, subscription -> subscription.sessionId().equals(sessionId));
+  }
+
+  /**
+   * Removes the subscriptions a user has to the topics of a household they left.
+   *
+   * @param event the event describing which household the user left
+   */
+  @EventListener
+  public void onMemberLeft(HouseholdMemberLeftEvent event) {
+    revoke(event.userId(),
+        subscription -> subscription.householdId().equals(event.householdId()));
+  }
+
+  /**
+   * Removes the subscriptions to the location topic of a group that the members of a
+   * household have, when the household leaves the group or the group is deleted.
+   *
+   * @param event the event describing which household left which group
+   */
+  @EventListener
+  public void onGroupHouseholdLeft(GroupHouseholdLeftEvent event) {
+    Predicate<Subscription> filter = subscription ->
+        event.groupId().equals(subscription.groupId())
+            && (event.householdId() == null
+                || event.householdId().equals(subscription.householdId()));
+    subscriptionsByUser.keySet().forEach(userId -> revoke(userId, filter));
+  }
+
+  /**
+   * Returns the number of tracked subscriptions of a user.
+   *
+   * @param userId the ID of the user
+   * @return the number of subscriptions
+   */
+  int subscriptionCount(Long userId) {
+    Set<Subscription> subscriptions = subscriptionsByUser.get(userId);
+    return subscriptions == null ? 0 : subscriptions.size();
+  }
+
+  private void register(Long userId, Subscription subscription) {
+    subscriptionsByUser.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet())
+        .add(subscription);
+  }
+
+  private void revoke(Long userId, Predicate<Subscription> filter) {
+    Set<Subscription> subscriptions = subscriptionsByUser.get(userId);
+    if (subscriptions == null) {
+      return;
+    }
+    Iterator<Subscription> iterator = subscriptions.iterator();
+    while (iterator.hasNext()) {
+      Subscription subscription = iterator.next();
+      if (filter.test(subscription)) {
+        iterator.remove();
+        unsubscribe(subscription);
+      }
+    }
+    subscriptionsByUser.computeIfPresent(userId,
+        (id, remaining) -> remaining.isEmpty() ? null : remaining);
+  }
+
+  private void removeIf(Long userId, Predicate<Subscription> filter) {
+    subscriptionsByUser.computeIfPresent(userId, (id, subscriptions) -> {
+      subscriptions.removeIf(filter);
+      return subscriptions.isEmpty() ? null : subscriptions;
+    });
+  }
+
+  private void unsubscribe(Subscription subscription) {
+    SimpMessageHeaderAccessor headers =
+        SimpMessageHeaderAccessor.create(SimpMessageType.UNSUBSCRIBE);
+    headers.setSessionId(subscription.sessionId());
+    headers.setSubscriptionId(subscription.subscriptionId());
+    brokerChannel.send(MessageBuilder.createMessage(new byte[0], headers.getMessageHeaders()));
+    if (subscription.groupId() == null) {
+      logger.info("Removed subscription {} of session {} to household {}",
+          subscription.subscriptionId(), subscription.sessionId(), subscription.householdId());
+    } else {
+      logger.info("Removed subscription {} of session {} to group {}",
+          subscription.subscriptionId(), subscription.sessionId(), subscription.groupId());
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package no.ntnu.stud.idatt2106.backend.websocket;
+
+import java.util.List;
+import no.ntnu.stud.idatt2106.backend.model.update.LocationUpdate;
+import no.ntnu.stud.idatt2106.backend.service.LocationBroadcastService;
+import no.ntnu.stud.idatt2106.backend.service.LocationService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+/**
+ * Sends the latest known positions of a household to a client when it subscribes to the
+ * location topic of the household.
+ *
+ * <p>
+ * The snapshot is sent as a list of {@link LocationUpdate} to the new subscription only,
+ * so the client can draw the map at once instead of fetching the positions over REST.
+ * Subscriptions are authorized before this event is published, so only members of the
+ * household receive the snapshot.
+ * </p>
+ */
+@Component
+public class LocationSnapshotSender {
+
+  private final LocationService locationService;
+  private final MessageChannel clientOutboundChannel;
+  private final SimpMessagingTemplate brokerTemplate;
+
+  private SimpMessagingTemplate clientTemplate;
+
+  /**
+   * Creates the sender.
+   *
+   * @param locationService       the service providing the latest positions
+   * @param clientOutboundChannel the channel of messages sent to clients
+   * @param brokerTemplate        the template whose message converter is used
+   */
+  public LocationSnapshotSender(LocationService locationService,
+      @Lazy @Qualifier("clientOutboundChannel") MessageChannel clientOutboundChannel,
+      @Lazy SimpMessagingTemplate brokerTemplate) {
+    this.locationService = locationService;
+    this.clientOutboundChannel = clientOutboundChannel;
+    this.brokerTemplate = brokerTemplate;
+  }
+
+  /**
+   * Sends the positions of the household to a new subscription to its location topic.
+   *
+   * @param event the event describing the subscription
+   */
+  @EventListener
+  public void onSubscribe(SessionSubscribeEvent event) {
+    SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(event.getMessage());
+    String destination = headers.getDestination();
+    if (destination == null || !destination.startsWith(LocationBroadcastService.HOUSEHOLD_TOPIC)
+        || destination.startsWith(LocationBroadcastService.GROUP_TOPIC)) {
+      return;
+    }
+    Long householdId = Long.parseLong(
+        destination.substring(LocationBroadcastService.HOUSEHOLD_TOPIC.length()));
+    final List<LocationUpdate> positions =
+        locationService.getLastKnownPositionsByHousehold(householdId);
+
+    SimpMessageHeaderAccessor reply = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+    reply.setSessionId(headers.getSessionId());
+    reply.setSubscriptionId(headers.getSubscriptionId());
+    reply.setLeaveMutable(true);
+    clientTemplate().convertAndSend(destination, positions, reply.getMessageHeaders());
+  }
+
+  private SimpMessagingTemplate clientTemplate() {
+    if (clientTemplate == null) {
+      SimpMessagingTemplate template = new SimpMessagingTemplate(clientOutboundChannel);
+      template.setMessageConverter(brokerTemplate.getMessageConverter());
+      clientTemplate = template;
+    }
+    return clientTemplate;
+  }
+}
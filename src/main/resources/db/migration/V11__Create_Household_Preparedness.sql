@@ -0,0 +1,12 @@
+-- Stores the aggregated inputs used to calculate the level of preparedness of a household.
+-- Rows are refreshed whenever the inputs of a household change, so reads are primary key lookups.
+CREATE TABLE household_preparedness (
+  household_id INT PRIMARY KEY,
+  user_count INT NOT NULL DEFAULT 0,
+  total_calories DOUBLE NOT NULL DEFAULT 0,
+  extra_resident_water DOUBLE NOT NULL DEFAULT 0,
+  extra_resident_food DOUBLE NOT NULL DEFAULT 0,
+  kit_count INT NOT NULL DEFAULT 0,
+  updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  FOREIGN KEY (household_id) REFERENCES household(id) ON DELETE CASCADE
+);
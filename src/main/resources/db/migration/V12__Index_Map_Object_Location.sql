@@ -0,0 +1,2 @@
+-- Supports bounding box queries on map objects run directly against the database.
+CREATE INDEX idx_map_object_location ON map_object (latitude, longitude);
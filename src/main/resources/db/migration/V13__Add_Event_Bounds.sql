@@ -0,0 +1,22 @@
+-- Stores the bounding box of each event's coverage area, so bounds queries can compare
+-- indexed columns instead of calculating the box for every row.
+ALTER TABLE event ADD COLUMN min_lat DOUBLE;
+ALTER TABLE event ADD COLUMN max_lat DOUBLE;
+ALTER TABLE event ADD COLUMN min_long DOUBLE;
+ALTER TABLE event ADD COLUMN max_long DOUBLE;
+
+UPDATE event SET
+  min_lat = latitude - DEGREES(radius / 6371),
+  max_lat = latitude + DEGREES(radius / 6371),
+  min_long = longitude - LEAST(180,
+      DEGREES(radius / 6371) / GREATEST(COS(RADIANS(latitude)), 0.000000001)),
+  max_long = longitude + LEAST(180,
+      DEGREES(radius / 6371) / GREATEST(COS(RADIANS(latitude)), 0.000000001));
+
+ALTER TABLE event ${alter_column} min_lat DOUBLE NOT NULL;
+ALTER TABLE event ${alter_column} max_lat DOUBLE NOT NULL;
+ALTER TABLE event ${alter_column} min_long DOUBLE NOT NULL;
+ALTER TABLE event ${alter_column} max_long DOUBLE NOT NULL;
+
+CREATE INDEX idx_event_lat_bounds ON event (min_lat, max_lat);
+CREATE INDEX idx_event_long_bounds ON event (min_long, max_long);
@@ -0,0 +1,16 @@
+-- Emails are queued here by request threads and sent in the background by the outbox
+-- dispatcher, with retries.
+CREATE TABLE email_outbox (
+  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  recipient VARCHAR(255) NOT NULL,
+  subject VARCHAR(255) NOT NULL,
+  html_content TEXT NOT NULL,
+  status VARCHAR(16) NOT NULL DEFAULT 'PENDING',
+  attempts INT NOT NULL DEFAULT 0,
+  next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  last_error VARCHAR(1000),
+  created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  sent_at TIMESTAMP NULL
+);
+
+CREATE INDEX idx_email_outbox_due ON email_outbox (status, next_attempt_at);
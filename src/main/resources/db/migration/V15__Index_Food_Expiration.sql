@@ -0,0 +1,15 @@
+-- Supports finding food that expires within a date range, for a single household and for
+-- the expiry sweep, which pages through all food in expiration date order.
+CREATE INDEX idx_food_expiration ON food (expiration_date, id);
+CREATE INDEX idx_food_household_expiration ON food (household_id, expiration_date);
+
+-- Position of the food expiry sweep. Each run continues after the last food item that
+-- households were notified about, so no item is notified twice.
+CREATE TABLE food_expiry_sweep (
+  id INT PRIMARY KEY,
+  last_expiration_date DATE NULL,
+  last_food_id INT NULL,
+  updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT INTO food_expiry_sweep (id) VALUES (1);
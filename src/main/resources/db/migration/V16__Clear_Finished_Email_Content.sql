@@ -0,0 +1,5 @@
+-- The content of an email is only needed until it is sent or given up on. It can contain
+-- password reset links and registration keys, so it is cleared when the email is finished.
+ALTER TABLE email_outbox ${alter_column} html_content TEXT NULL;
+
+UPDATE email_outbox SET html_content = NULL WHERE status IN ('SENT', 'FAILED');
@@ -0,0 +1,20 @@
+-- The food expiry sweep marks each food item it has notified about, instead of storing the
+-- last position it reached. Food added later with an earlier expiration date than the
+-- position would otherwise never be notified about. The mark is cleared when the
+-- expiration date of the food is changed.
+ALTER TABLE food ADD COLUMN expiry_notified_at TIMESTAMP NULL;
+
+-- Food expiring before the old position has already been notified about
+UPDATE food SET expiry_notified_at = CURRENT_TIMESTAMP
+WHERE EXISTS (
+  SELECT 1 FROM food_expiry_sweep s
+  WHERE s.last_expiration_date IS NOT NULL
+    AND (food.expiration_date < s.last_expiration_date
+      OR (food.expiration_date = s.last_expiration_date AND food.id <= s.last_food_id))
+);
+
+-- The sweep pages through the food that has not been notified about, in expiration date order
+CREATE INDEX idx_food_expiry_notice ON food (expiry_notified_at, expiration_date, id);
+DROP INDEX idx_food_expiration ON food;
+
+DROP TABLE food_expiry_sweep;
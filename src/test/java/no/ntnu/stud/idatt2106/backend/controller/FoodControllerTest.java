@@ -66,6 +66,20 @@ public class FoodControllerTest {
         .andExpect(jsonPath("$[0].amount").value(3));
   }
 
+  @Test
+  void shouldGetExpiringFoodByHouseholdId() throws Exception {
+    FoodResponse response = new FoodResponse();
+    response.setId(1L);
+    response.setHouseholdId(10L);
+    response.setExpirationDate(LocalDate.of(2025, 5, 1));
+
+    when(service.getExpiringByHouseholdId(10L, 3)).thenReturn(List.of(response));
+
+    mockMvc.perform(get("/api/food/household/10/expiring").param("days", "3"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].id").value(1));
+  }
+
   @Test
   void shouldGetFoodById() throws Exception {
     FoodResponse response = new FoodResponse();
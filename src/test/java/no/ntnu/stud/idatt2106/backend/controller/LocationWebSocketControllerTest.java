@@ -0,0 +1,46 @@
+package no.ntnu.stud.idatt2106.backend.controller;
+
+import static org.mockito.ArgumentMatchers.anyFloat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import no.ntnu.stud.idatt2106.backend.config.StompPrincipal;
+import no.ntnu.stud.idatt2106.backend.model.update.LocationUpdate;
+import no.ntnu.stud.idatt2106.backend.service.LocationService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * Contains tests for the LocationWebSocketController class.
+ */
+@ExtendWith(MockitoExtension.class)
+public class LocationWebSocketControllerTest {
+
+  @Mock
+  private LocationService locationService;
+
+  @InjectMocks
+  private LocationWebSocketController controller;
+
+  @Test
+  void shouldUpdatePositionOfSessionUser() {
+    // The user ID in the frame must not be trusted
+    LocationUpdate update = new LocationUpdate(99L, 63.43, 10.39);
+
+    controller.updatePosition(update, new StompPrincipal("7"));
+
+    verify(locationService).updateLastKnownPosition(7L, 63.43f, 10.39f);
+  }
+
+  @Test
+  void shouldIgnoreIncompleteUpdates() {
+    controller.updatePosition(new LocationUpdate(null, 63.43, null), new StompPrincipal("7"));
+    controller.updatePosition(new LocationUpdate(null, 63.43, 10.39), null);
+
+    verify(locationService, never()).updateLastKnownPosition(anyLong(), anyFloat(), anyFloat());
+  }
+}
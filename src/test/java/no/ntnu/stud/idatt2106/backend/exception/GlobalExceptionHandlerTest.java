@@ -39,6 +39,22 @@ public class GlobalExceptionHandlerTest {
     assertEquals("Invalid token or request: Invalid argument", response.getBody());
   }
 
+  @Test
+  void shouldHandleTooManyRequestsException() {
+    TooManyRequestsException exception = new TooManyRequestsException("Slow down", 12);
+    ResponseEntity<String> response = handler.handleTooManyRequestsException(exception);
+    assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+    assertEquals("12", response.getHeaders().getFirst("Retry-After"));
+  }
+
+  @Test
+  void shouldHandleServiceBusyException() {
+    ServiceBusyException exception = new ServiceBusyException("Busy", 2);
+    ResponseEntity<String> response = handler.handleServiceBusyException(exception);
+    assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+    assertEquals("2", response.getHeaders().getFirst("Retry-After"));
+  }
+
   @Test
   void shouldHandleNoSuchElementException() {
     NoSuchElementException exception = new NoSuchElementException("Not found");
@@ -0,0 +1,122 @@
+package no.ntnu.stud.idatt2106.backend.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Timestamp;
+import java.util.List;
+import no.ntnu.stud.idatt2106.backend.model.base.OutboxEmail;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Contains tests for the EmailOutboxRepository class.
+ */
+@JdbcTest
+@ActiveProfiles("test")
+@Import(EmailOutboxRepositoryImpl.class)
+public class EmailOutboxRepositoryTest {
+
+  @Autowired
+  private EmailOutboxRepository emailOutboxRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private Timestamp now;
+
+  @BeforeEach
+  void setup() {
+    jdbcTemplate.execute("DELETE FROM email_outbox");
+    jdbcTemplate.execute("ALTER TABLE email_outbox ALTER COLUMN id RESTART WITH 1");
+    now = new Timestamp(System.currentTimeMillis() + 1000);
+  }
+
+  @Test
+  void shouldSaveEmailAsPending() {
+    emailOutboxRepository.save("user@example.com", "Subject", "<p>Hi</p>");
+
+    OutboxEmail email = emailOutboxRepository.findById(1L);
+    assertNotNull(email);
+    assertEquals("user@example.com", email.getRecipient());
+    assertEquals(OutboxEmail.PENDING, email.getStatus());
+    assertEquals(0, email.getAttempts());
+  }
+
+  @Test
+  void shouldClaimEmailOnlyOnce() {
+    emailOutboxRepository.save("user@example.com", "Subject", "<p>Hi</p>");
+    Timestamp claimUntil = new Timestamp(now.getTime() + 60_000);
+
+    assertTrue(emailOutboxRepository.claim(1L, now, claimUntil));
+    assertFalse(emailOutboxRepository.claim(1L, now, claimUntil));
+
+    OutboxEmail email = emailOutboxRepository.findById(1L);
+    assertEquals(OutboxEmail.SENDING, email.getStatus());
+    assertEquals(1, email.getAttempts());
+    assertThat(emailOutboxRepository.findDue(now, 10)).isEmpty();
+  }
+
+  @Test
+  void shouldFindExpiredClaimsAgain() {
+    emailOutboxRepository.save("user@example.com", "Subject", "<p>Hi</p>");
+    emailOutboxRepository.claim(1L, now, new Timestamp(now.getTime() + 60_000));
+
+    Timestamp later = new Timestamp(now.getTime() + 120_000);
+    List<OutboxEmail> due = emailOutboxRepository.findDue(later, 10);
+
+    assertThat(due).extracting(OutboxEmail::getId).containsExactly(1L);
+    assertTrue(emailOutboxRepository.claim(1L, later, new Timestamp(later.getTime() + 1)));
+  }
+
+  @Test
+  void shouldNotFindSentOrFailedEmails() {
+    emailOutboxRepository.save("a@example.com", "Subject", "<p>Hi</p>");
+    emailOutboxRepository.save("b@example.com", "Subject", "<p>Hi</p>");
+    emailOutboxRepository.save("c@example.com", "Subject", "<p>Hi</p>");
+
+    emailOutboxRepository.markSent(1L, now);
+    emailOutboxRepository.markFailed(2L, OutboxEmail.FAILED, now, "x".repeat(2000));
+
+    assertThat(emailOutboxRepository.findDue(now, 10))
+        .extracting(OutboxEmail::getId).containsExactly(3L);
+    assertEquals(OutboxEmail.SENT, emailOutboxRepository.findById(1L).getStatus());
+    assertEquals(1000, emailOutboxRepository.findById(2L).getLastError().length());
+  }
+
+  @Test
+  void shouldClearContentOnlyOfFinishedEmails() {
+    emailOutboxRepository.save("a@example.com", "Subject", "<p>Reset link</p>");
+    emailOutboxRepository.save("b@example.com", "Subject", "<p>Reset link</p>");
+    emailOutboxRepository.save("c@example.com", "Subject", "<p>Reset link</p>");
+
+    emailOutboxRepository.markSent(1L, now);
+    emailOutboxRepository.markFailed(2L, OutboxEmail.FAILED, now, "Rejected");
+    emailOutboxRepository.markFailed(3L, OutboxEmail.PENDING, now, "Connection refused");
+
+    assertNull(emailOutboxRepository.findById(1L).getHtmlContent());
+    assertNull(emailOutboxRepository.findById(2L).getHtmlContent());
+    assertEquals("<p>Reset link</p>", emailOutboxRepository.findById(3L).getHtmlContent());
+  }
+
+  @Test
+  void shouldPostponeRetries() {
+    emailOutboxRepository.save("user@example.com", "Subject", "<p>Hi</p>");
+
+    emailOutboxRepository.markFailed(1L, OutboxEmail.PENDING,
+        new Timestamp(now.getTime() + 60_000), "Connection refused");
+
+    assertThat(emailOutboxRepository.findDue(now, 10)).isEmpty();
+    assertThat(emailOutboxRepository.findDue(new Timestamp(now.getTime() + 60_000), 10))
+        .hasSize(1);
+  }
+}
@@ -171,4 +171,43 @@ public class EmergencyGroupRepositoryTest {
 
     assertEquals(1, result.size());
   }
+
+  @Test
+  void shouldCountSummariesOfAllGroupsInDatabase() {
+    EmergencyGroup group = new EmergencyGroup();
+    group.setName("Group");
+    group.setDescription("Desc");
+    final Long groupId = emergencyGroupRepository.save(group).getId();
+    EmergencyGroup empty = new EmergencyGroup();
+    empty.setName("Empty");
+    final Long emptyId = emergencyGroupRepository.save(empty).getId();
+
+    Long[] householdIds = new Long[2];
+    for (int i = 0; i < householdIds.length; i++) {
+      Household household = new Household();
+      household.setName("Household" + i);
+      household.setLastWaterChangeDate(new Date());
+      householdIds[i] = householdRepository.save(household).getId();
+      groupHouseholdRepository.save(new GroupHousehold(null, householdIds[i], groupId));
+      User user = new User();
+      user.setUsername("summary" + i);
+      user.setEmail("summary" + i + "@email.com");
+      user.setHouseholdId(householdIds[i]);
+      user.setPassword("password");
+      userRepository.addUser(user);
+    }
+    jdbcTemplate.update("INSERT INTO extra_resident (household_id, name) VALUES (?, ?), (?, ?)",
+        householdIds[0], "Pet", householdIds[0], "Child");
+
+    List<EmergencyGroupSummaryResponse> result = emergencyGroupRepository.findAllSummaries();
+
+    assertEquals(List.of(
+        new EmergencyGroupSummaryResponse(groupId, "Group", "Desc", 2, 2, 2),
+        new EmergencyGroupSummaryResponse(emptyId, "Empty", null, 0, 0, 0)), result);
+    assertEquals(Optional.of(result.get(0)),
+        emergencyGroupRepository.findSummaryByGroupId(groupId));
+    assertEquals(Optional.of(result.get(1)),
+        emergencyGroupRepository.findSummaryByGroupId(emptyId));
+    assertTrue(emergencyGroupRepository.findSummaryByGroupId(emptyId + 1).isEmpty());
+  }
 }
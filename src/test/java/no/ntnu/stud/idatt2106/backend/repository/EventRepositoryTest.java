@@ -340,4 +340,58 @@ public class EventRepositoryTest {
     assertThat(allEvents).hasSize(2);
   }
 
+  @Test
+  void shouldSetGeneratedIdOnSave() {
+    Event event = event(0.0, 1.0, 2.0);
+
+    repository.save(event);
+
+    assertThat(event.getId()).isNotNull();
+    assertThat(repository.findEventById(event.getId())).isNotNull();
+  }
+
+  @Test
+  void shouldMoveBoundsWhenEventIsUpdated() {
+    repository.save(event(0.0, 1.0, 2.0));
+    Event event = repository.findAll().get(0);
+
+    event.setLatitude(3.0);
+    event.setLongitude(4.0);
+    event.setRadius(5.0);
+    repository.update(event);
+
+    assertThat(repository.findAllInBounds(-0.5, 0.5, 0.5, 1.5)).isEmpty();
+    assertThat(repository.findAllInBounds(2.9, 3.1, 3.9, 4.1)).hasSize(1);
+  }
+
+  @Test
+  void shouldExcludeEventsOnlyOverlappingBoundsWithTheCornerOfTheirBoundingBox() {
+    repository.save(event(10.0, 10.0, 100.0));
+
+    assertThat(repository.findAllInBounds(10.85, 11, 10.85, 11)).isEmpty();
+    assertThat(repository.findAllWithSeverityInBounds(10.85, 11, 10.85, 11)).isEmpty();
+    assertThat(repository.findAllInBounds(10.5, 11, 10.5, 11)).hasSize(1);
+    assertThat(repository.findAllWithSeverityInBounds(10.5, 11, 10.5, 11)).hasSize(1);
+  }
+
+  @Test
+  void shouldFindEventCoveringBoundsAlongTheirEdge() {
+    repository.save(event(10.0, 10.0, 100.0));
+
+    assertThat(repository.findAllInBounds(9, 11, 10.85, 11)).hasSize(1);
+    assertThat(repository.findAllInBounds(10.85, 11, 9, 11)).hasSize(1);
+  }
+
+  private static Event event(double latitude, double longitude, double radius) {
+    Event event = new Event();
+    event.setSeverityId(1L);
+    event.setInfoPageId(1L);
+    event.setLatitude(latitude);
+    event.setLongitude(longitude);
+    event.setRadius(radius);
+    event.setStartTime(Timestamp.valueOf("2023-10-01 00:00:00"));
+    event.setEndTime(Timestamp.valueOf("2023-10-02 00:00:00"));
+    event.setRecomendation("Test recomendation");
+    return event;
+  }
 }
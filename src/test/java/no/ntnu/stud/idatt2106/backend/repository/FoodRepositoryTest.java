@@ -4,7 +4,10 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import no.ntnu.stud.idatt2106.backend.model.base.Food;
+import no.ntnu.stud.idatt2106.backend.model.response.FoodDetailedResponse;
+import no.ntnu.stud.idatt2106.backend.model.response.FoodSummaryResponse;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
@@ -49,4 +52,120 @@ public class FoodRepositoryTest {
     assertThat(result.getHouseholdId()).isEqualTo(42);
     assertThat(result.getAmount()).isEqualTo(3);
   }
+
+  private void insertInventory() {
+    jdbc.update("INSERT INTO food_type (id, name, unit, calories_per_unit, picture) "
+        + "VALUES (?, ?, ?, ?, ?)", 901, "Rice", "kg", 350.0f, null);
+    jdbc.update("INSERT INTO food_type (id, name, unit, calories_per_unit, picture) "
+        + "VALUES (?, ?, ?, ?, ?)", 902, "Beans", "kg", 100.0f, null);
+    for (long householdId : new long[] {42, 43, 44}) {
+      jdbc.update(
+          "INSERT INTO household (id, name, address, latitude, longitude) VALUES (?, ?, ?, ?, ?)",
+          householdId, "Household " + householdId, "Address", 0.0, 0.0);
+    }
+    String insertFood = "INSERT INTO food (type_id, household_id, expiration_date, amount) "
+        + "VALUES (?, ?, ?, ?)";
+    jdbc.update(insertFood, 901, 42, LocalDate.of(2025, 6, 1), 2.0f);
+    jdbc.update(insertFood, 902, 42, LocalDate.of(2025, 7, 1), 3.0f);
+    jdbc.update(insertFood, 902, 42, LocalDate.of(2025, 5, 1), 1.5f);
+    jdbc.update(insertFood, 901, 43, LocalDate.of(2025, 6, 1), 1.0f);
+  }
+
+  @Test
+  void shouldSumCaloriesOfHousehold() {
+    insertInventory();
+
+    assertThat(repository.sumCaloriesByHouseholdId(42)).isEqualTo(2 * 350.0 + 4.5 * 100.0);
+    assertThat(repository.sumCaloriesByHouseholdId(44)).isZero();
+  }
+
+  @Test
+  void shouldSumCaloriesOfSeveralHouseholds() {
+    insertInventory();
+
+    Map<Long, Double> result = repository.sumCaloriesByHouseholdIds(List.of(42L, 43L, 44L));
+
+    assertThat(result).containsExactlyInAnyOrderEntriesOf(Map.of(42L, 1150.0, 43L, 350.0));
+    assertThat(repository.sumCaloriesByHouseholdIds(List.of())).isEmpty();
+  }
+
+  @Test
+  void shouldSumAmountPerFoodType() {
+    insertInventory();
+
+    List<FoodSummaryResponse> result = repository.findSummaryByHouseholdId(42);
+
+    assertThat(result).extracting(FoodSummaryResponse::getTypeId).containsExactly(901L, 902L);
+    assertThat(result).extracting(FoodSummaryResponse::getTotalAmount)
+        .containsExactly(2.0, 4.5);
+  }
+
+  @Test
+  void shouldGroupBatchesPerFoodType() {
+    insertInventory();
+
+    List<FoodDetailedResponse> result = repository.findDetailedByHouseholdId(42);
+
+    assertThat(result).hasSize(2);
+    FoodDetailedResponse beans = result.get(1);
+    assertThat(beans.getTypeName()).isEqualTo("Beans");
+    assertThat(beans.getUnit()).isEqualTo("kg");
+    assertThat(beans.getTotalAmount()).isEqualTo(4.5);
+    assertThat(beans.getTotalCalories()).isEqualTo(450.0);
+    assertThat(beans.getBatches()).extracting(batch -> batch.getExpirationDate())
+        .containsExactly(LocalDate.of(2025, 5, 1), LocalDate.of(2025, 7, 1));
+    assertThat(beans.getBatches()).allSatisfy(
+        batch -> assertThat(batch.getHouseholdId()).isEqualTo(42L));
+  }
+
+  @Test
+  void shouldFindFoodOfHouseholdExpiringWithinRange() {
+    insertInventory();
+
+    List<Food> result = repository.findByHouseholdIdAndExpirationDateBetween(42,
+        LocalDate.of(2025, 5, 1), LocalDate.of(2025, 6, 1));
+
+    assertThat(result).extracting(Food::getExpirationDate)
+        .containsExactly(LocalDate.of(2025, 5, 1), LocalDate.of(2025, 6, 1));
+  }
+
+  @Test
+  void shouldPageThroughExpiringFoodAfterLastItem() {
+    insertInventory();
+    LocalDate until = LocalDate.of(2025, 6, 30);
+
+    List<Food> first = repository.findUnnotifiedExpiringAfter(LocalDate.of(2025, 5, 1), 0,
+        until, 2);
+    assertThat(first).extracting(Food::getExpirationDate)
+        .containsExactly(LocalDate.of(2025, 5, 1), LocalDate.of(2025, 6, 1));
+
+    Food last = first.get(1);
+    List<Food> second = repository.findUnnotifiedExpiringAfter(last.getExpirationDate(),
+        last.getId(), until, 2);
+    assertThat(second).hasSize(1);
+    assertThat(second.get(0).getExpirationDate()).isEqualTo(LocalDate.of(2025, 6, 1));
+    assertThat(second.get(0).getId()).isGreaterThan(last.getId());
+  }
+
+  @Test
+  void shouldSkipNotifiedFoodUntilExpirationDateChanges() {
+    insertInventory();
+    LocalDate from = LocalDate.of(2025, 5, 1);
+    LocalDate until = LocalDate.of(2025, 6, 30);
+    List<Food> expiring = repository.findUnnotifiedExpiringAfter(from, 0, until, 10);
+    assertThat(expiring).hasSize(3);
+
+    repository.markExpiryNotified(expiring.stream().map(Food::getId).toList());
+    assertThat(repository.findUnnotifiedExpiringAfter(from, 0, until, 10)).isEmpty();
+
+    Food changed = expiring.get(0);
+    changed.setAmount(5);
+    repository.update(changed);
+    assertThat(repository.findUnnotifiedExpiringAfter(from, 0, until, 10)).isEmpty();
+
+    changed.setExpirationDate(LocalDate.of(2025, 5, 2));
+    repository.update(changed);
+    assertThat(repository.findUnnotifiedExpiringAfter(from, 0, until, 10))
+        .extracting(Food::getId).containsExactly(changed.getId());
+  }
 }
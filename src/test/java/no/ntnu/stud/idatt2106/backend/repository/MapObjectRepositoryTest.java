@@ -257,4 +257,35 @@ public class MapObjectRepositoryTest {
       assertThat(e).isInstanceOf(Exception.class);
     }
   }
+
+  @Test
+  void shouldSetGeneratedIdOnSave() {
+    jdbc.update("INSERT INTO map_object_type (id, name, icon) VALUES (?, ?, ?)",
+        2L, "Shelter", "test-icon.png");
+    MapObject mapObject = new MapObject();
+    mapObject.setTypeId(2L);
+    mapObject.setLatitude(63.4f);
+    mapObject.setLongitude(10.4f);
+
+    repository.save(mapObject);
+
+    assertThat(mapObject.getId()).isNotNull();
+    assertThat(repository.findByIdWithDetail(mapObject.getId()).getTypeName())
+        .isEqualTo("Shelter");
+  }
+
+  @Test
+  void shouldFindAllWithDetail() {
+    jdbc.update("INSERT INTO map_object_type (id, name, icon) VALUES (?, ?, ?)",
+        2L, "Shelter", "test-icon.png");
+    jdbc.update("INSERT INTO map_object (id, type_id, latitude, longitude) VALUES (?, ?, ?, ?)",
+        1L, 2L, 63.4, 10.4);
+    jdbc.update("INSERT INTO map_object (id, type_id, latitude, longitude) VALUES (?, ?, ?, ?)",
+        2L, 2L, 59.9, 10.7);
+
+    List<MapObjectResponse> response = repository.findAllWithDetail();
+
+    assertThat(response).hasSize(2);
+    assertThat(response).allMatch(object -> "test-icon.png".equals(object.getTypeIcon()));
+  }
 }
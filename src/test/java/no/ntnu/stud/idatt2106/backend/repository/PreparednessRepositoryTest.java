@@ -0,0 +1,191 @@
+package no.ntnu.stud.idatt2106.backend.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Optional;
+import no.ntnu.stud.idatt2106.backend.model.base.PreparednessSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Contains tests for PreparednessRepository.
+ */
+@JdbcTest
+@ActiveProfiles("test")
+@Import(PreparednessRepositoryImpl.class)
+public class PreparednessRepositoryTest {
+
+  @Autowired
+  private PreparednessRepository repository;
+
+  @Autowired
+  private JdbcTemplate jdbc;
+
+  private int totalKitTypes;
+
+  @BeforeEach
+  void setUp() {
+    jdbc.update("INSERT INTO household (id, name, latitude, longitude, amount_water) "
+        + "VALUES (?, ?, ?, ?, ?)", 1L, "Home", 63.4, 10.4, 30.0);
+    jdbc.update("INSERT INTO household (id, name, latitude, longitude, amount_water) "
+        + "VALUES (?, ?, ?, ?, ?)", 2L, "Other", 63.4, 10.4, 5.0);
+
+    jdbc.update("INSERT INTO `user` (household_id, email, username, password) "
+        + "VALUES (?, ?, ?, ?)", 1L, "a@test.no", "a", "pw");
+    jdbc.update("INSERT INTO `user` (household_id, email, username, password) "
+        + "VALUES (?, ?, ?, ?)", 1L, "b@test.no", "b", "pw");
+    jdbc.update("INSERT INTO `user` (household_id, email, username, password) "
+        + "VALUES (?, ?, ?, ?)", 2L, "c@test.no", "c", "pw");
+
+    jdbc.update("INSERT INTO food_type (id, name, unit, calories_per_unit) VALUES (?, ?, ?, ?)",
+        1L, "Rice", "kg", 3500.0);
+    jdbc.update("INSERT INTO food_type (id, name, unit, calories_per_unit) VALUES (?, ?, ?, ?)",
+        2L, "Beans", "can", 400.0);
+    jdbc.update("INSERT INTO food (type_id, household_id, expiration_date, amount) "
+        + "VALUES (?, ?, CURRENT_DATE, ?)", 1L, 1L, 2.0);
+    jdbc.update("INSERT INTO food (type_id, household_id, expiration_date, amount) "
+        + "VALUES (?, ?, CURRENT_DATE, ?)", 2L, 1L, 5.0);
+    jdbc.update("INSERT INTO food (type_id, household_id, expiration_date, amount) "
+        + "VALUES (?, ?, CURRENT_DATE, ?)", 1L, 2L, 10.0);
+
+    jdbc.update("INSERT INTO extra_resident_type (id, name, consumption_water, consumption_food) "
+        + "VALUES (?, ?, ?, ?)", 1L, "Dog", 1.5, 1000.0);
+    jdbc.update("INSERT INTO extra_resident (household_id, type_id, name) VALUES (?, ?, ?)",
+        1L, 1L, "Fido");
+    jdbc.update("INSERT INTO extra_resident (household_id, type_id, name) VALUES (?, ?, ?)",
+        1L, 1L, "Rex");
+
+    Long kitId = jdbc.queryForObject("SELECT MIN(id) FROM kit", Long.class);
+    jdbc.update("INSERT INTO household_kit (household_id, kit_id) VALUES (?, ?)", 1L, kitId);
+    totalKitTypes = jdbc.queryForObject("SELECT COUNT(*) FROM kit", Integer.class);
+  }
+
+  @Test
+  void shouldAggregateOnlyTheRequestedHousehold() {
+    Optional<PreparednessSnapshot> result = repository.findSnapshotByHouseholdId(1L);
+
+    assertTrue(result.isPresent());
+    PreparednessSnapshot snapshot = result.get();
+    assertEquals(1L, snapshot.getHouseholdId());
+    assertEquals(30.0, snapshot.getWaterAmountLiters(), 0.001);
+    assertEquals(2, snapshot.getUserCount());
+    assertEquals(2 * 3500.0 + 5 * 400.0, snapshot.getTotalCalories(), 0.001);
+    assertEquals(3.0, snapshot.getExtraResidentWaterPerDay(), 0.001);
+    assertEquals(2000.0, snapshot.getExtraResidentCaloriesPerDay(), 0.001);
+    assertEquals(1, snapshot.getKitCount());
+    assertEquals(totalKitTypes, snapshot.getTotalKitTypes());
+  }
+
+  @Test
+  void shouldReturnZeroesForHouseholdWithoutData() {
+    jdbc.update("INSERT INTO household (id, name, latitude, longitude) VALUES (?, ?, ?, ?)",
+        3L, "Empty", 0.0, 0.0);
+
+    PreparednessSnapshot snapshot = repository.findSnapshotByHouseholdId(3L).get();
+
+    assertEquals(0, snapshot.getUserCount());
+    assertEquals(0.0, snapshot.getTotalCalories());
+    assertEquals(0.0, snapshot.getExtraResidentWaterPerDay());
+    assertEquals(0, snapshot.getKitCount());
+  }
+
+  @Test
+  void shouldReturnEmptyForUnknownHousehold() {
+    assertTrue(repository.findSnapshotByHouseholdId(99L).isEmpty());
+  }
+
+  @Test
+  void shouldAggregateSeveralHouseholdsAtOnce() {
+    List<PreparednessSnapshot> result =
+        repository.findSnapshotsByHouseholdIds(List.of(1L, 2L, 1L, 99L));
+
+    assertEquals(2, result.size());
+    PreparednessSnapshot other = result.stream()
+        .filter(snapshot -> snapshot.getHouseholdId() == 2L)
+        .findFirst().get();
+    assertEquals(1, other.getUserCount());
+    assertEquals(10 * 3500.0, other.getTotalCalories(), 0.001);
+    assertEquals(0.0, other.getExtraResidentWaterPerDay());
+    assertEquals(0, other.getKitCount());
+  }
+
+  @Test
+  void shouldReturnEmptyListForNoHouseholdIds() {
+    assertTrue(repository.findSnapshotsByHouseholdIds(List.of()).isEmpty());
+  }
+
+  @Test
+  void shouldAggregateHouseholdsInGroup() {
+    jdbc.update("INSERT INTO emergency_group (id, name) VALUES (?, ?)", 1L, "Group");
+    jdbc.update("INSERT INTO group_household (household_id, group_id) VALUES (?, ?)", 2L, 1L);
+
+    List<PreparednessSnapshot> result = repository.findSnapshotsByGroupId(1L);
+
+    assertEquals(1, result.size());
+    assertEquals(2L, result.get(0).getHouseholdId());
+    assertEquals(1, result.get(0).getUserCount());
+  }
+
+  @Test
+  void shouldStoreSnapshotOnFirstRead() {
+    repository.findSnapshotByHouseholdId(1L);
+
+    Integer stored = jdbc.queryForObject(
+        "SELECT user_count FROM household_preparedness WHERE household_id = ?",
+        Integer.class, 1L);
+    assertEquals(2, stored);
+  }
+
+  @Test
+  void shouldKeepStoredSnapshotUntilRefreshed() {
+    repository.findSnapshotByHouseholdId(2L);
+    jdbc.update("INSERT INTO food (type_id, household_id, expiration_date, amount) "
+        + "VALUES (?, ?, CURRENT_DATE, ?)", 2L, 2L, 5.0);
+
+    assertEquals(10 * 3500.0,
+        repository.findSnapshotByHouseholdId(2L).get().getTotalCalories(), 0.001);
+
+    repository.refreshSnapshot(2L);
+
+    assertEquals(10 * 3500.0 + 5 * 400.0,
+        repository.findSnapshotByHouseholdId(2L).get().getTotalCalories(), 0.001);
+  }
+
+  @Test
+  void shouldReadWaterFromHouseholdWithoutRefresh() {
+    repository.findSnapshotByHouseholdId(1L);
+    jdbc.update("UPDATE household SET amount_water = ? WHERE id = ?", 12.0, 1L);
+
+    assertEquals(12.0,
+        repository.findSnapshotByHouseholdId(1L).get().getWaterAmountLiters(), 0.001);
+  }
+
+  @Test
+  void shouldRebuildAllSnapshots() {
+    repository.findSnapshotsByHouseholdIds(List.of(1L, 2L));
+    jdbc.update("UPDATE food_type SET calories_per_unit = ? WHERE id = ?", 1000.0, 1L);
+
+    repository.rebuildAllSnapshots();
+
+    assertEquals(2 * 1000.0 + 5 * 400.0,
+        repository.findSnapshotByHouseholdId(1L).get().getTotalCalories(), 0.001);
+    assertEquals(10 * 1000.0,
+        repository.findSnapshotByHouseholdId(2L).get().getTotalCalories(), 0.001);
+  }
+
+  @Test
+  void shouldIgnoreRefreshWithoutHousehold() {
+    repository.refreshSnapshot(null);
+
+    Integer stored = jdbc.queryForObject(
+        "SELECT COUNT(*) FROM household_preparedness", Integer.class);
+    assertEquals(0, stored);
+  }
+}
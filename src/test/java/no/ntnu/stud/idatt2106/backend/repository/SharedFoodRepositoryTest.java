@@ -8,23 +8,31 @@ import static org.mockito.ArgumentMatchers.anyFloat;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import no.ntnu.stud.idatt2106.backend.model.base.SharedFood;
 import no.ntnu.stud.idatt2106.backend.model.base.SharedFoodKey;
+import no.ntnu.stud.idatt2106.backend.model.response.FoodDetailedResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 
 /**
@@ -145,4 +153,37 @@ class SharedFoodRepositoryTest {
     List<SharedFood> result = repository.findByGroupHouseholdId(groupId);
     assertEquals(list, result);
   }
+
+  @Test
+  void findSummaryByGroupId_shouldGroupJoinedRowsPerFoodType() throws Exception {
+    final ResultSet rs = mock(ResultSet.class);
+    when(rs.getObject("type_id", Long.class)).thenReturn(3L, 3L, 4L);
+    when(rs.getString("type_name")).thenReturn("Ris", "Vann");
+    when(rs.getString("unit")).thenReturn("kg", "l");
+    when(rs.getFloat("calories_per_unit")).thenReturn(350f, 0f);
+    when(rs.getObject("food_id", Long.class)).thenReturn(10L, 11L, 12L);
+    when(rs.getFloat("amount")).thenReturn(2f, 1.5f, 6f);
+    when(rs.getDate("expiration_date")).thenReturn(Date.valueOf(LocalDate.of(2025, 12, 31)));
+    when(rs.getObject("household_id", Long.class)).thenReturn(100L);
+    when(rs.getObject("group_household_id", Long.class)).thenReturn(7L);
+
+    ArgumentCaptor<RowCallbackHandler> handler = ArgumentCaptor.forClass(RowCallbackHandler.class);
+    doAnswer(invocation -> {
+      for (int i = 0; i < 3; i++) {
+        handler.getValue().processRow(rs);
+      }
+      return null;
+    }).when(jdbcTemplate).query(anyString(), handler.capture(), eq(1L));
+
+    List<FoodDetailedResponse> result = repository.findSummaryByGroupId(1L);
+
+    assertEquals(2, result.size());
+    assertEquals("Ris", result.get(0).getTypeName());
+    assertEquals(2, result.get(0).getBatches().size());
+    assertEquals(3.5, result.get(0).getTotalAmount());
+    assertEquals(1225f, result.get(0).getTotalCalories());
+    assertEquals("Vann", result.get(1).getTypeName());
+    assertEquals(6, result.get(1).getTotalAmount());
+    assertEquals(7L, result.get(1).getBatches().get(0).getGroupHouseholdId());
+  }
 }
@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.List;
 import no.ntnu.stud.idatt2106.backend.model.base.User;
+import no.ntnu.stud.idatt2106.backend.model.update.LocationUpdate;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -159,6 +160,21 @@ public class UserRepositoryTest {
     assertEquals(userRepository.findById(1L).getLastLongitude(), 11.1f, 0.00001);
   }
 
+  @Test
+  void shouldUpdateLastKnownPositionsInBatch() {
+    jdbcTemplate.update("""
+      INSERT INTO `user` (id, username, email, password, household_id) VALUES
+      (1, 'user1', 'user1@example.com', 'pass1', 10),
+      (2, 'user2', 'user2@example.com', 'pass2', 10)
+        """);
+
+    userRepository.updateLastKnownPositions(List.of(
+        new LocationUpdate(1L, 63.43, 10.39), new LocationUpdate(2L, 59.91, 10.75)));
+
+    assertEquals(63.43f, userRepository.findById(1L).getLastLatitude(), 0.00001);
+    assertEquals(10.75f, userRepository.findById(2L).getLastLongitude(), 0.00001);
+  }
+
   @Test
   void shouldUpdateSharePositionHouseholdStatus() {
     jdbcTemplate.update("""
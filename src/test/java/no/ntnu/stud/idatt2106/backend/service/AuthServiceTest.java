@@ -3,6 +3,7 @@ package no.ntnu.stud.idatt2106.backend.service;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -11,10 +12,13 @@ import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import jakarta.mail.MessagingException;
+import no.ntnu.stud.idatt2106.backend.exception.TooManyRequestsException;
 import no.ntnu.stud.idatt2106.backend.model.base.PasswordResetKey;
 import no.ntnu.stud.idatt2106.backend.model.base.User;
 import no.ntnu.stud.idatt2106.backend.model.request.LoginRequest;
@@ -32,9 +36,9 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.test.util.ReflectionTestUtils;
 
 /**
@@ -62,7 +66,7 @@ public class AuthServiceTest {
   private PasswordResetService passwordResetKeyService;
 
   @Mock
-  private BCryptPasswordEncoder encoder;
+  private PasswordHasher encoder;
 
   @Mock
   private CloudflareTurnstileService cloudflareTurnstileService;
@@ -91,7 +95,7 @@ public class AuthServiceTest {
         .thenReturn("token123");
     RegisterRequest request = new RegisterRequest("newUser",
         "Password123", "new@example.com", "captha");
-    RegisterResponse response = authService.register(request);
+    RegisterResponse response = authService.register(request, "127.0.0.1");
     assertEquals("Registration successful!", response.getMessage());
     assertEquals("token123", response.getToken());
   }
@@ -115,7 +119,7 @@ public class AuthServiceTest {
     when(jwtService.generateToken("username", 1L, true, false)).thenReturn("token456");
 
     LoginRequest loginRequest = new LoginRequest("username", "Password123");
-    LoginResponse response = authService.login(loginRequest);
+    LoginResponse response = authService.login(loginRequest, "127.0.0.1");
 
     assertEquals("Login successful!", response.getMessage());
     assertEquals("token456", response.getToken());
@@ -130,7 +134,7 @@ public class AuthServiceTest {
         "Password123", "email@example.com", "captha");
 
     try {
-      authService.register(request);
+      authService.register(request, "127.0.0.1");
     } catch (IllegalArgumentException e) {
       assertEquals("Username is not available", e.getMessage());
     }
@@ -145,7 +149,7 @@ public class AuthServiceTest {
         new RegisterRequest("newUser", "Password123", "existing@example.com", "captha");
 
     try {
-      authService.register(request);
+      authService.register(request, "127.0.0.1");
     } catch (IllegalArgumentException e) {
       assertEquals("Email is already in use", e.getMessage());
     }
@@ -160,7 +164,7 @@ public class AuthServiceTest {
     LoginRequest loginRequest = new LoginRequest("username", "wrongPassword");
 
     try {
-      authService.login(loginRequest);
+      authService.login(loginRequest, "127.0.0.1");
     } catch (RuntimeException e) {
       assertEquals("Invalid credentials", e.getMessage());
     }
@@ -181,25 +185,21 @@ public class AuthServiceTest {
   }
 
   @Test
-  void testRegister_throwsRuntimeException_whenEmailFails() throws MessagingException {
+  void testRegister_queuesWelcomeEmailWithoutSending() throws MessagingException {
 
     when(userService.getUserByUsername(anyString())).thenReturn(null);
     when(userService.getUserByEmail(anyString())).thenReturn(null);
     when(authManager.authenticate(any())).thenReturn(mock(Authentication.class));
     when(cloudflareTurnstileService.verifyCaptcha(anyString())).thenReturn(true);
 
-    doThrow(new MessagingException("Simulated failure"))
-        .when(emailService)
-        .sendHtmlEmail(anyString(), anyString(), anyString());
-
     RegisterRequest request = new RegisterRequest("testuser",
         "SterktPassord1", "jacoblein@gmail.com", "captha");
 
-    // Act & Assert
-    RuntimeException exception = assertThrows(RuntimeException.class, () -> {
-      authService.register(request);
-    });
-    assertEquals("Failed to send welcome email", exception.getMessage());
+    authService.register(request, "127.0.0.1");
+
+    verify(emailService).queueHtmlEmail(eq("jacoblein@gmail.com"),
+        eq("Welcome to Our Platform"), anyString());
+    verify(emailService, never()).sendHtmlEmail(anyString(), anyString(), anyString());
   }
 
   @Test
@@ -212,7 +212,7 @@ public class AuthServiceTest {
 
     // Act & Assert
     RuntimeException exception = assertThrows(RuntimeException.class, () -> {
-      authService.register(request);
+      authService.register(request, "127.0.0.1");
     });
     assertEquals(
         "New password must be at least 8 characters long, including both a letter and a digit",
@@ -229,7 +229,7 @@ public class AuthServiceTest {
 
     // Act & Assert
     RuntimeException exception = assertThrows(RuntimeException.class, () -> {
-      authService.register(request);
+      authService.register(request, "127.0.0.1");
     });
     assertEquals("Email is not valid", exception.getMessage());
   }
@@ -244,7 +244,7 @@ public class AuthServiceTest {
 
     // Act & Assert
     RuntimeException exception = assertThrows(RuntimeException.class, () -> {
-      authService.register(request);
+      authService.register(request, "127.0.0.1");
     });
     assertEquals("Email is not valid", exception.getMessage());
   }
@@ -381,7 +381,7 @@ public class AuthServiceTest {
         new RegisterRequest(null, "Password123", "email@example.com", "captha");
 
     IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
-      authService.register(request);
+      authService.register(request, "127.0.0.1");
     });
     assertEquals("Username cannot be blank or null", exception.getMessage());
   }
@@ -391,7 +391,7 @@ public class AuthServiceTest {
     RegisterRequest request = new RegisterRequest("testuser", null, "email@example.com", "captha");
 
     IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
-      authService.register(request);
+      authService.register(request, "127.0.0.1");
     });
     assertEquals("New password cannot be blank or null", exception.getMessage());
   }
@@ -401,7 +401,7 @@ public class AuthServiceTest {
     RegisterRequest request = new RegisterRequest("testuser", "Password123", "null", "captha");
 
     IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
-      authService.register(request);
+      authService.register(request, "127.0.0.1");
     });
     assertEquals("Email is not valid", exception.getMessage());
   }
@@ -411,7 +411,7 @@ public class AuthServiceTest {
     LoginRequest loginRequest = new LoginRequest(null, "Password123");
 
     IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
-      authService.login(loginRequest);
+      authService.login(loginRequest, "127.0.0.1");
     });
     assertEquals("Username cannot be null or empty", exception.getMessage());
   }
@@ -421,7 +421,7 @@ public class AuthServiceTest {
     LoginRequest loginRequest = new LoginRequest("username", null);
 
     IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
-      authService.login(loginRequest);
+      authService.login(loginRequest, "127.0.0.1");
     });
     assertEquals("Password cannot be null or empty", exception.getMessage());
   }
@@ -456,6 +456,7 @@ public class AuthServiceTest {
 
     when(passwordResetKeyService.findByKey(key)).thenReturn(prk);
     when(userService.getUserById(17L)).thenReturn(u);
+    when(encoder.encode("NewPass123")).thenReturn("hashedNewPass123");
 
     PasswordResetRequest req = new PasswordResetRequest(key, "NewPass123");
     authService.resetPassword(req);
@@ -512,7 +513,7 @@ public class AuthServiceTest {
     verify(passwordResetKeyService).createPasswordResetKey(42L);
 
     String expectedHtml = EmailTemplates.getPasswordResetTemplate(key);
-    verify(emailService).sendHtmlEmail(
+    verify(emailService).queueHtmlEmail(
         eq(email),
         eq("Tilbakestill passord"),
         eq(expectedHtml));
@@ -541,7 +542,7 @@ public class AuthServiceTest {
   }
 
   @Test
-  public void testRequestPasswordResetEmailSendFails() throws MessagingException {
+  public void testRequestPasswordResetFailsWhenEmailCannotBeQueued() {
   
     String email = "user@example.com";
     User user = new User();
@@ -550,8 +551,8 @@ public class AuthServiceTest {
     when(userService.getUserByEmail(email)).thenReturn(user);
     when(passwordResetKeyService.createPasswordResetKey(99L)).thenReturn("any-key");
 
-    doThrow(new MessagingException("SMTP down"))
-        .when(emailService).sendHtmlEmail(anyString(), anyString(), anyString());
+    doThrow(new RuntimeException("Database down"))
+        .when(emailService).queueHtmlEmail(anyString(), anyString(), anyString());
 
     PasswordResetKeyRequest req = new PasswordResetKeyRequest();
     req.setEmail(email);
@@ -559,7 +560,42 @@ public class AuthServiceTest {
     RuntimeException ex = assertThrows(
         RuntimeException.class,
         () -> authService.requestPasswordReset(req));
-    assertEquals("Failed to send password reset email", ex.getMessage());
+    assertEquals("Database down", ex.getMessage());
+  }
+
+  @Test
+  public void testLoginIsRateLimitedPerUsername() {
+    when(authManager.authenticate(any()))
+        .thenThrow(new BadCredentialsException("Bad credentials"));
+    LoginRequest loginRequest = new LoginRequest("Victim", "WrongPassword1");
+
+    for (int i = 0; i < 5; i++) {
+      String address = "10.0.0." + i;
+      assertThrows(BadCredentialsException.class,
+          () -> authService.login(loginRequest, address));
+    }
+    LoginRequest sameUser = new LoginRequest("victim", "WrongPassword1");
+    TooManyRequestsException ex = assertThrows(TooManyRequestsException.class,
+        () -> authService.login(sameUser, "10.0.0.99"));
+
+    assertTrue(ex.getRetryAfterSeconds() > 0);
+    verify(authManager, times(5)).authenticate(any());
   }
 
+  @Test
+  public void testLoginIsRateLimitedPerAddress() {
+    when(authManager.authenticate(any()))
+        .thenThrow(new BadCredentialsException("Bad credentials"));
+
+    for (int i = 0; i < 20; i++) {
+      LoginRequest loginRequest = new LoginRequest("user" + i, "WrongPassword1");
+      assertThrows(BadCredentialsException.class,
+          () -> authService.login(loginRequest, "10.0.0.1"));
+    }
+
+    assertThrows(TooManyRequestsException.class,
+        () -> authService.login(new LoginRequest("other", "WrongPassword1"), "10.0.0.1"));
+    assertThrows(BadCredentialsException.class,
+        () -> authService.login(new LoginRequest("other", "WrongPassword1"), "10.0.0.2"));
+  }
 }
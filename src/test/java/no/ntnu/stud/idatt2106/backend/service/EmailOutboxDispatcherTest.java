@@ -0,0 +1,153 @@
+package no.ntnu.stud.idatt2106.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import jakarta.mail.internet.MimeMessage;
+import java.util.List;
+import java.util.Map;
+import no.ntnu.stud.idatt2106.backend.model.base.OutboxEmail;
+import no.ntnu.stud.idatt2106.backend.repository.EmailOutboxRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+
+/**
+ * Contains tests for the EmailOutboxDispatcher class.
+ */
+@ExtendWith(MockitoExtension.class)
+public class EmailOutboxDispatcherTest {
+
+  @Mock
+  private EmailOutboxRepository emailOutboxRepository;
+
+  @Mock
+  private EmailService emailService;
+
+  @Mock
+  private JavaMailSender mailSender;
+
+  @InjectMocks
+  private EmailOutboxDispatcher dispatcher;
+
+  @BeforeEach
+  void setUp() {
+    dispatcher.startExecutor();
+  }
+
+  @AfterEach
+  void tearDown() {
+    dispatcher.stopExecutor();
+  }
+
+  private static OutboxEmail email(Long id, int attempts) {
+    OutboxEmail email = new OutboxEmail();
+    email.setId(id);
+    email.setRecipient("user" + id + "@example.com");
+    email.setSubject("Subject");
+    email.setHtmlContent("<p>Hi</p>");
+    email.setStatus(OutboxEmail.PENDING);
+    email.setAttempts(attempts);
+    return email;
+  }
+
+  @Test
+  void shouldDoNothingWhenNoEmailsAreDue() {
+    when(emailOutboxRepository.findDue(any(), anyInt())).thenReturn(List.of());
+
+    assertEquals(0, dispatcher.dispatch());
+
+    verify(mailSender, never()).send(any(MimeMessage[].class));
+  }
+
+  @Test
+  void shouldSendClaimedEmailsInBatches() throws Exception {
+    when(emailOutboxRepository.findDue(any(), anyInt()))
+        .thenReturn(List.of(email(1L, 0), email(2L, 0), email(3L, 0), email(4L, 0)));
+    when(emailOutboxRepository.claim(anyLong(), any(), any())).thenReturn(true);
+    when(emailService.createHtmlMessage(anyString(), anyString(), anyString()))
+        .thenAnswer(invocation -> mock(MimeMessage.class));
+
+    assertEquals(4, dispatcher.dispatch());
+
+    // Two workers by default, each sending its chunk over one connection
+    verify(mailSender, times(2)).send(any(MimeMessage[].class));
+    verify(emailOutboxRepository, times(4)).markSent(anyLong(), any());
+  }
+
+  @Test
+  void shouldSkipEmailsClaimedByOthers() throws Exception {
+    when(emailOutboxRepository.findDue(any(), anyInt()))
+        .thenReturn(List.of(email(1L, 0), email(2L, 0)));
+    when(emailOutboxRepository.claim(eq(1L), any(), any())).thenReturn(false);
+    when(emailOutboxRepository.claim(eq(2L), any(), any())).thenReturn(true);
+    when(emailService.createHtmlMessage(anyString(), anyString(), anyString()))
+        .thenAnswer(invocation -> mock(MimeMessage.class));
+
+    assertEquals(1, dispatcher.dispatch());
+
+    verify(emailOutboxRepository, never()).markSent(eq(1L), any());
+    verify(emailOutboxRepository).markSent(eq(2L), any());
+  }
+
+  @Test
+  void shouldRetryOnlyFailedMessages() throws Exception {
+    final MimeMessage first = mock(MimeMessage.class);
+    final MimeMessage second = mock(MimeMessage.class);
+    when(emailOutboxRepository.findDue(any(), anyInt()))
+        .thenReturn(List.of(email(1L, 0), email(2L, 0)));
+    when(emailOutboxRepository.claim(anyLong(), any(), any())).thenReturn(true);
+    when(emailService.createHtmlMessage(eq("user1@example.com"), anyString(), anyString()))
+        .thenReturn(first);
+    when(emailService.createHtmlMessage(eq("user2@example.com"), anyString(), anyString()))
+        .thenReturn(second);
+    doThrow(new MailSendException(Map.of(second, new Exception("Mailbox full"))))
+        .when(mailSender).send(any(MimeMessage[].class));
+
+    assertEquals(1, dispatcher.dispatch());
+
+    verify(emailOutboxRepository).markSent(eq(1L), any());
+    verify(emailOutboxRepository).markFailed(eq(2L), eq(OutboxEmail.PENDING), any(),
+        eq("Mailbox full"));
+  }
+
+  @Test
+  void shouldGiveUpAfterMaxAttempts() throws Exception {
+    when(emailOutboxRepository.findDue(any(), anyInt())).thenReturn(List.of(email(1L, 4)));
+    when(emailOutboxRepository.claim(anyLong(), any(), any())).thenReturn(true);
+    when(emailService.createHtmlMessage(anyString(), anyString(), anyString()))
+        .thenReturn(mock(MimeMessage.class));
+    doThrow(new MailSendException("Connection refused"))
+        .when(mailSender).send(any(MimeMessage[].class));
+
+    assertEquals(0, dispatcher.dispatch());
+
+    verify(emailOutboxRepository).markFailed(eq(1L), eq(OutboxEmail.FAILED), any(),
+        eq("Connection refused"));
+  }
+
+  @Test
+  void shouldBackOffExponentially() {
+    assertEquals(30_000, EmailOutboxDispatcher.backoffMillis(1));
+    assertEquals(60_000, EmailOutboxDispatcher.backoffMillis(2));
+    assertEquals(120_000, EmailOutboxDispatcher.backoffMillis(3));
+    assertEquals(EmailOutboxDispatcher.MAX_BACKOFF_MILLIS,
+        EmailOutboxDispatcher.backoffMillis(30));
+  }
+}
@@ -17,9 +17,11 @@ import no.ntnu.stud.idatt2106.backend.model.base.User;
 import no.ntnu.stud.idatt2106.backend.model.request.EmergencyGroupRequest;
 import no.ntnu.stud.idatt2106.backend.model.response.EmergencyGroupResponse;
 import no.ntnu.stud.idatt2106.backend.model.response.EmergencyGroupSummaryResponse;
+import no.ntnu.stud.idatt2106.backend.model.response.HouseholdPreparednessResponse;
 import no.ntnu.stud.idatt2106.backend.repository.EmergencyGroupRepository;
 import no.ntnu.stud.idatt2106.backend.repository.GroupHouseholdRepository;
 import no.ntnu.stud.idatt2106.backend.service.mapper.EmergencyGroupMapper;
+import no.ntnu.stud.idatt2106.backend.websocket.GroupHouseholdLeftEvent;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -28,6 +30,7 @@ import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 /**
  * Contains unit tests for the EmergencyGroupService class.
@@ -56,6 +59,15 @@ public class EmergencyGroupServiceTest {
   @Mock
   private JwtService jwtService;
 
+  @Mock
+  private LevelOfPreparednessService levelOfPreparednessService;
+
+  @Mock
+  private HouseholdGroupIndex groupIndex;
+
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+
   @Nested
   class CreateTests {
 
@@ -138,6 +150,7 @@ public class EmergencyGroupServiceTest {
 
       assertTrue(response);
       verify(repository).deleteById(id);
+      verify(eventPublisher).publishEvent(new GroupHouseholdLeftEvent(id, null));
     }
 
     @Test
@@ -273,4 +286,79 @@ public class EmergencyGroupServiceTest {
       verify(repository).findGroupSummariesByHouseholdId(householdId);
     }
   }
+
+  @Nested
+  class GetSummaryByGroupIdTests {
+
+    @Test
+    void shouldReturnSummaryCountedByRepository() {
+      EmergencyGroupSummaryResponse summary =
+          new EmergencyGroupSummaryResponse(1L, "Group", "Desc", 2, 3, 1);
+      when(repository.findSummaryByGroupId(1L)).thenReturn(Optional.of(summary));
+
+      assertEquals(summary, emergencyGroupService.getSummaryByGroupId(1L));
+    }
+
+    @Test
+    void shouldThrowWhenGroupDoesNotExist() {
+      when(repository.findSummaryByGroupId(1L)).thenReturn(Optional.empty());
+
+      assertThrows(IllegalArgumentException.class,
+          () -> emergencyGroupService.getSummaryByGroupId(1L));
+    }
+  }
+
+  @Nested
+  class GetPreparednessByGroupIdTests {
+
+    @Test
+    void shouldReturnPreparednessForMemberOfGroup() {
+      Long groupId = 3L;
+      Long userId = 1L;
+      Long householdId = 2L;
+      User user = new User();
+      user.setId(userId);
+      user.setHouseholdId(householdId);
+      List<HouseholdPreparednessResponse> responses =
+          List.of(new HouseholdPreparednessResponse());
+
+      String token = "Bearer token";
+      when(jwtService.extractIsAdmin(token.substring(7))).thenReturn(false);
+      when(jwtService.extractUserId(token.substring(7))).thenReturn(userId);
+      when(userService.getUserById(userId)).thenReturn(user);
+      when(groupHouseholdRepository.findByHouseholdIdAndGroupId(householdId, groupId))
+          .thenReturn(new GroupHousehold(1L, householdId, groupId));
+      when(levelOfPreparednessService.getPreparednessForGroup(groupId)).thenReturn(responses);
+
+      assertEquals(responses, emergencyGroupService.getPreparednessByGroupId(groupId, token));
+    }
+
+    @Test
+    void shouldAllowAdminWithoutMembership() {
+      Long groupId = 3L;
+      String token = "Bearer token";
+      when(jwtService.extractIsAdmin(token.substring(7))).thenReturn(true);
+      when(levelOfPreparednessService.getPreparednessForGroup(groupId)).thenReturn(List.of());
+
+      assertTrue(emergencyGroupService.getPreparednessByGroupId(groupId, token).isEmpty());
+    }
+
+    @Test
+    void shouldThrowIfUserIsNotInGroup() {
+      Long groupId = 3L;
+      Long userId = 1L;
+      User user = new User();
+      user.setId(userId);
+      user.setHouseholdId(2L);
+
+      String token = "Bearer token";
+      when(jwtService.extractIsAdmin(token.substring(7))).thenReturn(false);
+      when(jwtService.extractUserId(token.substring(7))).thenReturn(userId);
+      when(userService.getUserById(userId)).thenReturn(user);
+      when(groupHouseholdRepository.findByHouseholdIdAndGroupId(2L, groupId)).thenReturn(null);
+
+      assertThrows(IllegalArgumentException.class,
+          () -> emergencyGroupService.getPreparednessByGroupId(groupId, token));
+    }
+  }
 }
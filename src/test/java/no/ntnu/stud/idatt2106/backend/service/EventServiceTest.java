@@ -1,19 +1,32 @@
 package no.ntnu.stud.idatt2106.backend.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.sql.Timestamp;
+import java.time.Instant;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
 import no.ntnu.stud.idatt2106.backend.model.base.Event;
+import no.ntnu.stud.idatt2106.backend.model.base.Household;
 import no.ntnu.stud.idatt2106.backend.model.request.EventRequest;
 import no.ntnu.stud.idatt2106.backend.model.response.EventResponse;
 import no.ntnu.stud.idatt2106.backend.repository.EventRepository;
+import no.ntnu.stud.idatt2106.backend.repository.HouseholdRepository;
 import no.ntnu.stud.idatt2106.backend.service.mapper.EventMapper;
+import no.ntnu.stud.idatt2106.backend.util.TileCache;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -35,6 +48,12 @@ public class EventServiceTest {
   @Mock
   private EventRepository repository;
 
+  @Mock
+  private HouseholdRepository householdRepository;
+
+  @Mock
+  private HouseholdService householdService;
+
   @Mock
   private JwtService jwtService;
 
@@ -64,6 +83,22 @@ public class EventServiceTest {
       }
     }
 
+    @Test
+    void shouldRejectRadiusLargerThanLimit() {
+      EventRequest request = new EventRequest();
+      Event event = new Event();
+      event.setRadius(EventService.MAX_RADIUS_KM * 1000);
+
+      try (MockedStatic<EventMapper> eventFactory = Mockito.mockStatic(EventMapper.class)) {
+        when(jwtService.extractIsAdmin(token.substring(7))).thenReturn(true);
+        eventFactory.when(() -> EventMapper.requestToEvent(request)).thenReturn(event);
+
+        assertThrows(IllegalArgumentException.class,
+            () -> eventService.saveEvent(request, token));
+        verify(repository, never()).save(any());
+      }
+    }
+
     @Test
     void shouldThrowIfUserIsNotAdmin() {
       EventRequest request = new EventRequest();
@@ -255,4 +290,192 @@ public class EventServiceTest {
       verify(repository).findAllWithSeverityInBounds(minLat, maxLat, minLong, maxLong);
     }
   }
+
+  @Nested
+  class EventTileTests {
+
+    private EventResponse eventAt(double latitude, double longitude, double radius) {
+      EventResponse event = new EventResponse();
+      event.setId(1L);
+      event.setLatitude(latitude);
+      event.setLongitude(longitude);
+      event.setRadius(radius);
+      return event;
+    }
+
+    @Test
+    void shouldCacheEventTiles() {
+      EventResponse event = eventAt(63.43, 10.4, 2);
+      when(repository.findAllWithSeverityInBounds(anyDouble(), anyDouble(), anyDouble(),
+          anyDouble())).thenReturn(List.of(event));
+
+      TileCache.Tile<EventResponse> first = eventService.findEventTile(10, 541, 276);
+      TileCache.Tile<EventResponse> second = eventService.findEventTile(10, 541, 276);
+
+      assertSame(first, second);
+      verify(repository, times(1))
+          .findAllWithSeverityInBounds(anyDouble(), anyDouble(), anyDouble(), anyDouble());
+    }
+
+    @Test
+    void shouldInvalidateTilesOfPreviousAreaOnUpdate() {
+      when(jwtService.extractIsAdmin(token.substring(7))).thenReturn(true);
+      when(repository.findAllWithSeverityInBounds(anyDouble(), anyDouble(), anyDouble(),
+          anyDouble())).thenReturn(List.of(eventAt(63.43, 10.4, 2)), List.of());
+      eventService.findEventTile(10, 541, 276);
+
+      Event moved = new Event();
+      moved.setId(1L);
+      moved.setLatitude(59.9);
+      moved.setLongitude(10.75);
+      moved.setRadius(2);
+      EventResponse updated = eventAt(59.9, 10.75, 2);
+      when(repository.findWithSeverityById(1L))
+          .thenReturn(eventAt(63.43, 10.4, 2), updated);
+
+      eventService.updateEvent(moved, token);
+
+      assertTrue(eventService.findEventTile(10, 541, 276).items().isEmpty());
+      verify(eventWebSocketService).broadcastUpdated(updated);
+    }
+
+    @Test
+    void shouldInvalidateTilesOfDeletedEvent() {
+      when(jwtService.extractIsAdmin(token.substring(7))).thenReturn(true);
+      when(repository.findAllWithSeverityInBounds(anyDouble(), anyDouble(), anyDouble(),
+          anyDouble())).thenReturn(List.of(eventAt(63.43, 10.4, 2)), List.of());
+      eventService.findEventTile(10, 541, 276);
+      Event deleted = new Event(1L, "Flood", null, 63.43, 10.4, 2, null, null, 1L, null);
+      when(repository.findEventById(1L)).thenReturn(deleted);
+
+      eventService.deleteEvent(1L, token);
+
+      assertTrue(eventService.findEventTile(10, 541, 276).items().isEmpty());
+    }
+
+    @Test
+    void shouldSendUpdateToHouseholdsInPreviousAndNewArea() {
+      when(jwtService.extractIsAdmin(token.substring(7))).thenReturn(true);
+      Event moved = new Event();
+      moved.setId(1L);
+      moved.setLatitude(59.9);
+      moved.setLongitude(10.75);
+      moved.setRadius(2);
+      EventResponse updated = eventAt(59.9, 10.75, 2);
+      when(repository.findWithSeverityById(1L))
+          .thenReturn(eventAt(63.43, 10.4, 2), updated);
+      when(householdService.findHouseholdIdsWithin(63.43, 10.4, 2)).thenReturn(List.of(3L));
+      when(householdService.findHouseholdIdsWithin(59.9, 10.75, 2))
+          .thenReturn(List.of(4L, 5L));
+
+      eventService.updateEvent(moved, token);
+
+      verify(eventWebSocketService).sendToAffected(eq("updated"), eq(updated),
+          eq(Set.of(3L, 4L, 5L)), argThat(areas -> areas.size() == 2));
+    }
+
+    @Test
+    void shouldKeepTilesAwayFromChangedEvent() {
+      when(jwtService.extractIsAdmin(token.substring(7))).thenReturn(true);
+      when(repository.findAllWithSeverityInBounds(anyDouble(), anyDouble(), anyDouble(),
+          anyDouble())).thenReturn(List.of(eventAt(63.43, 10.4, 2)));
+      TileCache.Tile<EventResponse> tile = eventService.findEventTile(10, 541, 276);
+      when(repository.findEventById(2L))
+          .thenReturn(new Event(2L, "Fire", null, 59.9, 10.75, 2, null, null, 1L, null));
+
+      eventService.deleteEvent(2L, token);
+
+      assertSame(tile, eventService.findEventTile(10, 541, 276));
+    }
+  }
+
+  @Nested
+  class ActiveEventTests {
+
+    private final Instant now = Instant.parse("2025-05-01T12:00:00Z");
+
+    private EventResponse event(long id, double latitude, double longitude, double radius,
+        String start, String end) {
+      EventResponse event = new EventResponse();
+      event.setId(id);
+      event.setLatitude(latitude);
+      event.setLongitude(longitude);
+      event.setRadius(radius);
+      event.setStartTime(start == null ? null : Timestamp.from(Instant.parse(start)));
+      event.setEndTime(end == null ? null : Timestamp.from(Instant.parse(end)));
+      return event;
+    }
+
+    @Test
+    void shouldFindActiveEventsCoveringLocation() {
+      when(repository.findAllWithSeverity()).thenReturn(List.of(
+          event(1L, 63.43, 10.40, 5, "2025-05-01T00:00:00Z", null),
+          event(2L, 63.45, 10.40, 5, "2025-05-01T00:00:00Z", "2025-05-02T00:00:00Z"),
+          event(3L, 63.43, 10.40, 5, "2025-05-01T00:00:00Z", "2025-05-01T06:00:00Z"),
+          event(4L, 63.43, 10.40, 5, "2025-05-01T18:00:00Z", null),
+          event(5L, 63.49, 10.49, 5, "2025-05-01T00:00:00Z", null)));
+
+      List<EventResponse> result = eventService.findEventsCovering(63.44, 10.41, now);
+
+      assertEquals(List.of(2L, 1L), result.stream().map(EventResponse::getId).toList());
+    }
+
+    @Test
+    void shouldIndexSavedEvent() {
+      when(repository.findAllWithSeverity()).thenReturn(List.of());
+      assertTrue(eventService.findEventsCovering(63.43, 10.40, now).isEmpty());
+
+      EventRequest request = new EventRequest();
+      Event event = new Event();
+      try (MockedStatic<EventMapper> eventFactory = Mockito.mockStatic(EventMapper.class)) {
+        when(jwtService.extractIsAdmin(token.substring(7))).thenReturn(true);
+        eventFactory.when(() -> EventMapper.requestToEvent(request)).thenReturn(event);
+        when(repository.save(event)).thenAnswer(invocation -> {
+          event.setId(7L);
+          return 1;
+        });
+        when(repository.findWithSeverityById(7L))
+            .thenReturn(event(7L, 63.43, 10.40, 5, "2025-05-01T00:00:00Z", null));
+
+        eventService.saveEvent(request, token);
+      }
+
+      List<EventResponse> result = eventService.findEventsCovering(63.43, 10.40, now);
+      assertEquals(List.of(7L), result.stream().map(EventResponse::getId).toList());
+    }
+
+    @Test
+    void shouldRemoveDeletedEventFromIndex() {
+      when(repository.findAllWithSeverity())
+          .thenReturn(List.of(event(1L, 63.43, 10.40, 5, "2025-05-01T00:00:00Z", null)));
+      assertEquals(1, eventService.findEventsCovering(63.43, 10.40, now).size());
+      when(jwtService.extractIsAdmin(token.substring(7))).thenReturn(true);
+
+      eventService.deleteEvent(1L, token);
+
+      assertTrue(eventService.findEventsCovering(63.43, 10.40, now).isEmpty());
+    }
+
+    @Test
+    void shouldUseStoredLocationOfHousehold() {
+      Household household = new Household();
+      household.setLatitude(63.43);
+      household.setLongitude(10.40);
+      when(householdRepository.findById(3L)).thenReturn(Optional.of(household));
+      when(repository.findAllWithSeverity())
+          .thenReturn(List.of(event(1L, 63.43, 10.40, 5, "2000-01-01T00:00:00Z", null)));
+
+      List<EventResponse> result = eventService.findActiveEventsForHousehold(3L);
+
+      assertEquals(List.of(1L), result.stream().map(EventResponse::getId).toList());
+    }
+
+    @Test
+    void shouldThrowIfHouseholdDoesNotExist() {
+      when(householdRepository.findById(3L)).thenReturn(Optional.empty());
+
+      assertThrows(NoSuchElementException.class,
+          () -> eventService.findActiveEventsForHousehold(3L));
+    }
+  }
 }
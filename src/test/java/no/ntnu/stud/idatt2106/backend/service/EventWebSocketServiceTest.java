@@ -0,0 +1,74 @@
+package no.ntnu.stud.idatt2106.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import no.ntnu.stud.idatt2106.backend.model.response.EventResponse;
+import no.ntnu.stud.idatt2106.backend.util.SpatialIndex;
+import no.ntnu.stud.idatt2106.backend.websocket.CoalescingBroadcaster;
+import no.ntnu.stud.idatt2106.backend.websocket.WebSocketEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * Contains unit tests for the EventWebSocketService class.
+ */
+@ExtendWith(MockitoExtension.class)
+public class EventWebSocketServiceTest {
+
+  @InjectMocks
+  private EventWebSocketService eventWebSocketService;
+
+  @Mock
+  private CoalescingBroadcaster broadcaster;
+
+  @Test
+  void shouldSendToEachAffectedHouseholdAndRegion() {
+    SpatialIndex.Box area = new SpatialIndex.Box(63.2, 63.6, 9.8, 10.4);
+
+    eventWebSocketService.sendToAffected("created", 1L, List.of(3L, 4L), List.of(area));
+
+    verify(broadcaster).send(eq("/topic/events/household/3"), isNull(),
+        any(WebSocketEvent.class));
+    verify(broadcaster).send(eq("/topic/events/household/4"), isNull(),
+        any(WebSocketEvent.class));
+    verify(broadcaster).send(eq("/topic/events/region/63/9"), isNull(),
+        any(WebSocketEvent.class));
+    verify(broadcaster).send(eq("/topic/events/region/63/10"), isNull(),
+        any(WebSocketEvent.class));
+    verify(broadcaster, times(4)).send(anyString(), any(), any(WebSocketEvent.class));
+  }
+
+  @Test
+  void shouldKeyUpdatesAndDeletionsByEventId() {
+    EventResponse event = new EventResponse();
+    event.setId(7L);
+    SpatialIndex.Box area = new SpatialIndex.Box(63.2, 63.4, 10.2, 10.4);
+
+    eventWebSocketService.broadcastUpdated(event);
+    eventWebSocketService.sendToAffected("deleted", 7L, List.of(3L), List.of(area));
+
+    verify(broadcaster).send(eq("/topic/events"), eq(7L), any(WebSocketEvent.class));
+    verify(broadcaster).send(eq("/topic/events/household/3"), eq(7L),
+        any(WebSocketEvent.class));
+  }
+
+  @Test
+  void shouldNameRegionsBySouthWestCorner() {
+    List<SpatialIndex.Box> areas = List.of(
+        new SpatialIndex.Box(-0.5, 0.5, -0.5, -0.2),
+        new SpatialIndex.Box(0.1, 0.2, -0.4, -0.3));
+
+    assertThat(EventWebSocketService.regions(areas))
+        .containsExactlyInAnyOrder("-1/-1", "0/-1");
+  }
+}
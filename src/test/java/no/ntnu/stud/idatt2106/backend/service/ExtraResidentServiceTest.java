@@ -16,6 +16,7 @@ import no.ntnu.stud.idatt2106.backend.model.request.ExtraResidentRequest;
 import no.ntnu.stud.idatt2106.backend.model.response.ExtraResidentResponse;
 import no.ntnu.stud.idatt2106.backend.model.update.ExtraResidentUpdate;
 import no.ntnu.stud.idatt2106.backend.repository.ExtraResidentRepository;
+import no.ntnu.stud.idatt2106.backend.repository.PreparednessRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -31,6 +32,9 @@ public class ExtraResidentServiceTest {
   @Mock
   private ExtraResidentRepository repository;
 
+  @Mock
+  private PreparednessRepository preparednessRepository;
+
   @Mock
   private JwtService jwtService;
 
@@ -6,6 +6,7 @@ import java.util.List;
 import no.ntnu.stud.idatt2106.backend.model.request.ExtraResidentTypeRequest;
 import no.ntnu.stud.idatt2106.backend.model.response.ExtraResidentTypeResponse;
 import no.ntnu.stud.idatt2106.backend.repository.ExtraResidentTypeRepositoryImpl;
+import no.ntnu.stud.idatt2106.backend.repository.PreparednessRepositoryImpl;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
@@ -17,7 +18,8 @@ import org.springframework.test.context.ActiveProfiles;
  */
 @JdbcTest
 @ActiveProfiles("test")
-@Import({ ExtraResidentTypeService.class, ExtraResidentTypeRepositoryImpl.class })
+@Import({ ExtraResidentTypeService.class, ExtraResidentTypeRepositoryImpl.class,
+    PreparednessRepositoryImpl.class })
 public class ExtraResidentTypeServiceIntegrationTest {
 
   @Autowired
@@ -13,6 +13,7 @@ import no.ntnu.stud.idatt2106.backend.model.base.ExtraResidentType;
 import no.ntnu.stud.idatt2106.backend.model.request.ExtraResidentTypeRequest;
 import no.ntnu.stud.idatt2106.backend.model.response.ExtraResidentTypeResponse;
 import no.ntnu.stud.idatt2106.backend.repository.ExtraResidentTypeRepository;
+import no.ntnu.stud.idatt2106.backend.repository.PreparednessRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -28,6 +29,9 @@ public class ExtraResidentTypeServiceTest {
   @Mock
   private ExtraResidentTypeRepository repository;
 
+  @Mock
+  private PreparednessRepository preparednessRepository;
+
   @InjectMocks
   private ExtraResidentTypeService service;
 
@@ -66,7 +70,7 @@ public class ExtraResidentTypeServiceTest {
     type.setConsumptionWater(2.0f);
     type.setConsumptionFood(1.8f);
 
-    when(repository.findById(1L)).thenReturn(Optional.of(type));
+    when(repository.findAll()).thenReturn(List.of(type));
 
     Optional<ExtraResidentTypeResponse> result = service.getById(1L);
     assertThat(result).isPresent();
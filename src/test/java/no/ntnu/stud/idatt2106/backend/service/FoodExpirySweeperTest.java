@@ -0,0 +1,97 @@
+package no.ntnu.stud.idatt2106.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.List;
+import no.ntnu.stud.idatt2106.backend.model.base.Food;
+import no.ntnu.stud.idatt2106.backend.model.response.FoodResponse;
+import no.ntnu.stud.idatt2106.backend.repository.FoodRepository;
+import no.ntnu.stud.idatt2106.backend.websocket.WebSocketEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Contains tests for the FoodExpirySweeper class.
+ */
+@ExtendWith(MockitoExtension.class)
+public class FoodExpirySweeperTest {
+
+  private static final LocalDate TODAY = LocalDate.of(2025, 5, 10);
+
+  @Mock
+  private FoodRepository foodRepository;
+
+  @Mock
+  private SimpMessagingTemplate messagingTemplate;
+
+  @InjectMocks
+  private FoodExpirySweeper sweeper;
+
+  private static Food food(Long id, Long householdId, LocalDate expirationDate) {
+    Food food = new Food();
+    food.setId(id);
+    food.setTypeId(1L);
+    food.setHouseholdId(householdId);
+    food.setExpirationDate(expirationDate);
+    food.setAmount(1);
+    return food;
+  }
+
+  @Test
+  void shouldStartFromToday() {
+    when(foodRepository.findUnnotifiedExpiringAfter(TODAY, 0L, TODAY.plusDays(3), 500))
+        .thenReturn(List.of());
+
+    assertEquals(0, sweeper.sweep(TODAY));
+    verify(foodRepository, never()).markExpiryNotified(any());
+  }
+
+  @Test
+  void shouldPageUntilShortPageAndMarkEachPageNotified() {
+    ReflectionTestUtils.setField(sweeper, "pageSize", 2);
+    LocalDate tomorrow = TODAY.plusDays(1);
+    when(foodRepository.findUnnotifiedExpiringAfter(TODAY, 0L, TODAY.plusDays(3), 2))
+        .thenReturn(List.of(food(8L, 1L, TODAY), food(3L, 2L, tomorrow)));
+    when(foodRepository.findUnnotifiedExpiringAfter(tomorrow, 3L, TODAY.plusDays(3), 2))
+        .thenReturn(List.of(food(9L, 1L, tomorrow)));
+
+    assertEquals(3, sweeper.sweep(TODAY));
+
+    verify(foodRepository).markExpiryNotified(List.of(8L, 3L));
+    verify(foodRepository).markExpiryNotified(List.of(9L));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void shouldSendOneMessagePerHouseholdPerPage() {
+    when(foodRepository.findUnnotifiedExpiringAfter(eq(TODAY), anyLong(), any(), anyInt()))
+        .thenReturn(List.of(food(1L, 1L, TODAY), food(2L, 2L, TODAY), food(3L, 1L, TODAY)));
+
+    sweeper.sweep(TODAY);
+
+    ArgumentCaptor<Object> event = ArgumentCaptor.forClass(Object.class);
+    verify(messagingTemplate).convertAndSend(eq(FoodExpirySweeper.HOUSEHOLD_TOPIC + 1),
+        event.capture());
+    verify(messagingTemplate).convertAndSend(eq(FoodExpirySweeper.HOUSEHOLD_TOPIC + 2),
+        any(Object.class));
+    WebSocketEvent<List<FoodResponse>> sent = (WebSocketEvent<List<FoodResponse>>) event
+        .getValue();
+    assertEquals(FoodExpirySweeper.FOOD_EXPIRING, sent.getEventType());
+    assertThat(sent.getPayload()).extracting(FoodResponse::getId).containsExactly(1L, 3L);
+  }
+}
@@ -3,7 +3,6 @@ package no.ntnu.stud.idatt2106.backend.service;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
-import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -11,17 +10,16 @@ import static org.mockito.Mockito.when;
 
 import java.time.LocalDate;
 import java.util.List;
-import java.util.NoSuchElementException;
+import java.util.Map;
 import java.util.Optional;
 import no.ntnu.stud.idatt2106.backend.model.base.Food;
-import no.ntnu.stud.idatt2106.backend.model.base.FoodType;
 import no.ntnu.stud.idatt2106.backend.model.request.FoodRequest;
 import no.ntnu.stud.idatt2106.backend.model.response.FoodDetailedResponse;
 import no.ntnu.stud.idatt2106.backend.model.response.FoodResponse;
 import no.ntnu.stud.idatt2106.backend.model.response.FoodSummaryResponse;
 import no.ntnu.stud.idatt2106.backend.model.update.FoodUpdate;
 import no.ntnu.stud.idatt2106.backend.repository.FoodRepository;
-import no.ntnu.stud.idatt2106.backend.repository.FoodTypeRepository;
+import no.ntnu.stud.idatt2106.backend.repository.PreparednessRepository;
 import no.ntnu.stud.idatt2106.backend.service.mapper.FoodMapper;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -42,12 +40,9 @@ class FoodServiceTest {
 
   @Mock
   private FoodRepository repository;
-  
-  @Mock
-  private FoodTypeRepository foodTypeRepository;
 
   @Mock
-  private FoodTypeService foodTypeService;
+  private PreparednessRepository preparednessRepository;
 
   @Test
   void shouldCreateFood() {
@@ -60,6 +55,7 @@ class FoodServiceTest {
     service.create(request);
 
     verify(repository).save(any(Food.class));
+    verify(preparednessRepository).refreshSnapshot(1L);
   }
 
   @Test
@@ -125,6 +121,25 @@ class FoodServiceTest {
 
     assertThat(result).isTrue();
     verify(repository).update(any(Food.class));
+    verify(preparednessRepository).refreshSnapshot(1L);
+  }
+
+  @Test
+  void shouldRefreshBothHouseholdsWhenFoodIsMoved() {
+    Food existing = new Food();
+    existing.setHouseholdId(2L);
+    when(repository.findById(1L)).thenReturn(Optional.of(existing));
+
+    FoodUpdate update = new FoodUpdate();
+    update.setAmount(10);
+    update.setExpirationDate(LocalDate.now());
+    update.setHouseholdId(1L);
+    update.setTypeId(1L);
+
+    service.update(1L, update);
+
+    verify(preparednessRepository).refreshSnapshot(1L);
+    verify(preparednessRepository).refreshSnapshot(2L);
   }
 
   @Test
@@ -137,6 +152,7 @@ class FoodServiceTest {
 
     assertThat(result).isFalse();
     verify(repository, never()).update(any());
+    verify(preparednessRepository, never()).refreshSnapshot(any());
   }
 
   @Test
@@ -170,166 +186,64 @@ class FoodServiceTest {
   }
 
   @Test
-  void shouldGetFoodDetailedByHouseholdId() {
-    Food food1 = new Food();
-    food1.setId(20L);
-    food1.setTypeId(1L);
-    food1.setAmount(2.2);
-    food1.setExpirationDate(LocalDate.now().plusDays(4));
-
-    Food food2 = new Food();
-    food2.setId(30L);
-    food2.setTypeId(2L);
-    food2.setAmount(9.4);
-    food2.setExpirationDate(LocalDate.now().plusDays(10));
+  void shouldGetFoodDetailedByHouseholdIdFromRepository() {
+    FoodDetailedResponse rice = new FoodDetailedResponse();
+    rice.setTypeId(1L);
+    rice.setTypeName("Rice");
+    when(repository.findDetailedByHouseholdId(1L)).thenReturn(List.of(rice));
 
-    Food food3 = new Food();
-    food3.setId(11L);
-    food3.setTypeId(2L);
-    food3.setAmount(4.4);
-    food3.setExpirationDate(LocalDate.now().plusDays(2));
-
-    List<Food> foods = List.of(food1, food2, food3);
-
-    Long householdId = 1L;
-    when(repository.findByHouseholdId(householdId)).thenReturn(foods);
+    List<FoodDetailedResponse> result = service.getFoodDetailedByHousehold(1L);
 
-    FoodType type1 = new FoodType();
-    type1.setId(1L);
-    type1.setName("Rice");
-    type1.setUnit("kg");
-    type1.setCaloriesPerUnit(120f);
-
-    FoodType type2 = new FoodType();
-    type2.setId(2L);
-    type2.setName("Beans");
-    type2.setUnit("kg");
-    type2.setCaloriesPerUnit(160f);
-
-    when(foodTypeRepository.findById(1L)).thenReturn(Optional.of(type1));
-    when(foodTypeRepository.findById(2L)).thenReturn(Optional.of(type2));
-
-    List<FoodDetailedResponse> result = service.getFoodDetailedByHousehold(householdId);
-
-    assertEquals(2, result.size());
-
-    FoodDetailedResponse riceSummary = result.stream()
-        .filter(r -> r.getTypeId().equals(1L))
-        .findFirst()
-        .orElseThrow();
-    
-    assertEquals("Rice", riceSummary.getTypeName());
-    assertEquals("kg", riceSummary.getUnit());
-    assertEquals(2.2, riceSummary.getTotalAmount(), 0.000001);
-    assertEquals(2.2 * 120, riceSummary.getTotalCalories());
-    assertEquals(1, riceSummary.getBatches().size());
-
-    FoodDetailedResponse beanSummary = result.stream()
-        .filter(r -> r.getTypeId().equals(2L))
-        .findFirst()
-        .orElseThrow();
-    
-    assertEquals("Beans", beanSummary.getTypeName());
-    assertEquals("kg", beanSummary.getUnit());
-    assertEquals(9.4 + 4.4, beanSummary.getTotalAmount(), 0.000001);
-    assertEquals((9.4 + 4.4) * 160, beanSummary.getTotalCalories());
-    assertEquals(2, beanSummary.getBatches().size());
+    assertThat(result).containsExactly(rice);
   }
 
   @Test
-  void shouldThrowIfFoodTypeNotFound() {
-    Food food1 = new Food();
-    food1.setId(20L);
-    food1.setTypeId(1L);
-    food1.setAmount(2.2);
-    food1.setExpirationDate(LocalDate.now().plusDays(4));
-
-    Food food2 = new Food();
-    food2.setId(30L);
-    food2.setTypeId(1L);
-    food2.setAmount(9.4);
-    food2.setExpirationDate(LocalDate.now().plusDays(10));
-
-    Food food3 = new Food();
-    food3.setId(11L);
-    food3.setTypeId(1L);
-    food3.setAmount(4.4);
-    food3.setExpirationDate(LocalDate.now().plusDays(2));
-
-    List<Food> foods = List.of(food1, food2, food3);
+  void shouldGetFoodSummaryByHouseholdFromRepository() {
+    FoodSummaryResponse summary = new FoodSummaryResponse();
+    summary.setTypeId(1L);
+    summary.setTotalAmount(15);
+    when(repository.findSummaryByHouseholdId(1L)).thenReturn(List.of(summary));
 
-    when(repository.findByHouseholdId(1L)).thenReturn(foods);
-    when(foodTypeRepository.findById(1L)).thenReturn(Optional.empty());
+    List<FoodSummaryResponse> result = service.getFoodSummaryByHousehold(1L);
 
-    Exception exception = assertThrows(NoSuchElementException.class, () -> {
-      service.getFoodDetailedByHousehold(1L);
-    });
-
-    assertTrue(exception.getMessage().contains("FoodType with ID = 1 not found"));
+    assertThat(result).containsExactly(summary);
   }
 
   @Test
-  void shouldReturnFoodSummaryByHousehold() {
-    Food food1 = new Food();
-    food1.setTypeId(1L);
-    food1.setAmount(10);
-
-    Food food2 = new Food();
-    food2.setTypeId(1L);
-    food2.setAmount(5);
-
-    Food food3 = new Food();
-    food3.setTypeId(2L);
-    food3.setAmount(1);
-
-    List<Food> foods = List.of(food1, food2, food3);
+  void shouldGetCaloriesByHouseholdId() {
+    when(repository.sumCaloriesByHouseholdId(1L)).thenReturn(250.0);
 
-    Long householdId = 1L;
-    when(repository.findByHouseholdId(householdId)).thenReturn(foods);
+    double result = service.getCaloriesByHouseholdId(1L);
 
-    List<FoodSummaryResponse> result = service.getFoodSummaryByHousehold(householdId);
-
-    assertEquals(2, result.size());
-    
-    FoodSummaryResponse response1 = result.stream()
-        .filter(r -> r.getTypeId().equals(1L))
-        .findFirst()
-        .orElseThrow();
-    
-    assertEquals(15, response1.getTotalAmount());
-
-    FoodSummaryResponse response2 = result.stream()
-        .filter(r -> r.getTypeId().equals(2L))
-        .findFirst()
-        .orElseThrow();
-    
-    assertEquals(1, response2.getTotalAmount());
+    assertEquals(250, result);
   }
 
   @Test
-  void shouldGetCaloriesByHouseholdId() {
-    FoodType foodType = new FoodType();
-    foodType.setId(1L);
-    foodType.setCaloriesPerUnit(10f);
+  void shouldGetCaloriesByHouseholdIdsWithZeroForHouseholdsWithoutFood() {
+    when(repository.sumCaloriesByHouseholdIds(List.of(1L, 2L))).thenReturn(Map.of(1L, 250.0));
 
-    Food food1 = new Food();
-    food1.setTypeId(1L);
-    food1.setAmount(10);
+    Map<Long, Double> result = service.getCaloriesByHouseholdIds(List.of(1L, 2L));
 
-    Food food2 = new Food();
-    food2.setTypeId(1L);
-    food2.setAmount(15);
+    assertThat(result).containsExactlyInAnyOrderEntriesOf(Map.of(1L, 250.0, 2L, 0.0));
+  }
 
-    List<Food> foods = List.of(food1, food2);
+  @Test
+  void shouldGetFoodExpiringWithinDays() {
+    Food food = new Food();
+    food.setId(5L);
+    food.setExpirationDate(LocalDate.now().plusDays(1));
+    when(repository.findByHouseholdIdAndExpirationDateBetween(1L, LocalDate.now(),
+        LocalDate.now().plusDays(3))).thenReturn(List.of(food));
 
-    Long householdId = 1L;
-    when(repository.findByHouseholdId(householdId)).thenReturn(foods);
-    when(foodTypeService.getCaloriesById(foodType.getId()))
-        .thenReturn(foodType.getCaloriesPerUnit());
+    List<FoodResponse> result = service.getExpiringByHouseholdId(1L, 3);
 
-    double result = service.getCaloriesByHouseholdId(householdId);
+    assertThat(result).extracting(FoodResponse::getId).containsExactly(5L);
+  }
 
-    assertEquals(250, result);
+  @Test
+  void shouldThrowIfExpiringDaysNegative() {
+    assertThrows(IllegalArgumentException.class,
+        () -> service.getExpiringByHouseholdId(1L, -1));
   }
 
   @Test
@@ -6,6 +6,7 @@ import java.util.List;
 import no.ntnu.stud.idatt2106.backend.model.request.FoodTypeRequest;
 import no.ntnu.stud.idatt2106.backend.model.response.FoodTypeResponse;
 import no.ntnu.stud.idatt2106.backend.repository.FoodTypeRepositoryImpl;
+import no.ntnu.stud.idatt2106.backend.repository.PreparednessRepositoryImpl;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
@@ -17,7 +18,8 @@ import org.springframework.test.context.ActiveProfiles;
  */
 @JdbcTest
 @ActiveProfiles("test")
-@Import({ FoodTypeService.class, FoodTypeRepositoryImpl.class })
+@Import({ FoodTypeService.class, FoodTypeRepositoryImpl.class,
+    PreparednessRepositoryImpl.class })
 public class FoodTypeServiceIntegrationTest {
 
   @Autowired
@@ -3,6 +3,7 @@ package no.ntnu.stud.idatt2106.backend.service;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -12,6 +13,7 @@ import no.ntnu.stud.idatt2106.backend.model.base.FoodType;
 import no.ntnu.stud.idatt2106.backend.model.request.FoodTypeRequest;
 import no.ntnu.stud.idatt2106.backend.model.response.FoodTypeResponse;
 import no.ntnu.stud.idatt2106.backend.repository.FoodTypeRepository;
+import no.ntnu.stud.idatt2106.backend.repository.PreparednessRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -27,6 +29,9 @@ class FoodTypeServiceTest {
   @Mock
   private FoodTypeRepository repository;
 
+  @Mock
+  private PreparednessRepository preparednessRepository;
+
   @InjectMocks
   private FoodTypeService service;
 
@@ -80,4 +85,22 @@ class FoodTypeServiceTest {
     assertThat(updated).isFalse();
     verify(repository, never()).update(any());
   }
+
+  @Test
+  void shouldServeReadsFromCacheUntilChanged() {
+    FoodType food = new FoodType();
+    food.setId(1L);
+    food.setName("Apple");
+    food.setCaloriesPerUnit(12.0f);
+    when(repository.findAll()).thenReturn(List.of(food));
+
+    assertThat(service.getCaloriesById(1L)).isEqualTo(12.0f);
+    assertThat(service.getById(1L)).isPresent();
+    assertThat(service.getAll()).hasSize(1);
+    verify(repository, times(1)).findAll();
+
+    service.create(new FoodTypeRequest());
+    assertThat(service.getById(1L)).isPresent();
+    verify(repository, times(2)).findAll();
+  }
 }
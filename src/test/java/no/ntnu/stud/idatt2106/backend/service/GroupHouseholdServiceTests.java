@@ -15,6 +15,7 @@ import no.ntnu.stud.idatt2106.backend.model.response.GroupHouseholdResponse;
 import no.ntnu.stud.idatt2106.backend.repository.GroupHouseholdRepository;
 import no.ntnu.stud.idatt2106.backend.repository.HouseholdRepository;
 import no.ntnu.stud.idatt2106.backend.service.mapper.GroupHouseholdMapper;
+import no.ntnu.stud.idatt2106.backend.websocket.GroupHouseholdLeftEvent;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -23,6 +24,7 @@ import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 /**
  * Contains tests for the GroupHouseholdService class.
@@ -54,6 +56,12 @@ public class GroupHouseholdServiceTests {
   @Mock
   private SharedFoodService sharedFoodService;
 
+  @Mock
+  private HouseholdGroupIndex groupIndex;
+
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+
   @Nested
   class DeleteTests {
 
@@ -86,6 +94,7 @@ public class GroupHouseholdServiceTests {
 
       assertEquals(true, result);
       verify(groupHouseholdRepository).deleteById(groupHouseholdId);
+      verify(eventPublisher).publishEvent(new GroupHouseholdLeftEvent(groupId, householdId));
     }
   }
 
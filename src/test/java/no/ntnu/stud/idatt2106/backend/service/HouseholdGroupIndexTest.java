@@ -0,0 +1,74 @@
+package no.ntnu.stud.idatt2106.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Set;
+import no.ntnu.stud.idatt2106.backend.model.base.GroupHousehold;
+import no.ntnu.stud.idatt2106.backend.repository.GroupHouseholdRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * Contains tests for the HouseholdGroupIndex class.
+ */
+@ExtendWith(MockitoExtension.class)
+public class HouseholdGroupIndexTest {
+
+  @Mock
+  private GroupHouseholdRepository groupHouseholdRepository;
+
+  @InjectMocks
+  private HouseholdGroupIndex index;
+
+  @Test
+  void shouldLoadMembershipsOnce() {
+    when(groupHouseholdRepository.findAll()).thenReturn(List.of(
+        new GroupHousehold(1L, 10L, 5L),
+        new GroupHousehold(2L, 10L, 6L),
+        new GroupHousehold(3L, 20L, 5L)));
+
+    assertEquals(Set.of(5L, 6L), index.getGroups(10L));
+    assertEquals(Set.of(10L, 20L), index.getHouseholds(5L));
+    assertTrue(index.getGroups(30L).isEmpty());
+    verify(groupHouseholdRepository, times(1)).findAll();
+  }
+
+  @Test
+  void shouldKeepIndexCurrentOnChanges() {
+    when(groupHouseholdRepository.findAll()).thenReturn(List.of(
+        new GroupHousehold(1L, 10L, 5L),
+        new GroupHousehold(2L, 20L, 5L)));
+
+    index.add(30L, 5L);
+    index.remove(10L, 5L);
+    assertEquals(Set.of(20L, 30L), index.getHouseholds(5L));
+
+    index.removeHousehold(20L);
+    assertEquals(Set.of(30L), index.getHouseholds(5L));
+
+    index.removeGroup(5L);
+    assertTrue(index.getGroups(30L).isEmpty());
+    assertTrue(index.getHouseholds(5L).isEmpty());
+  }
+
+  @Test
+  void shouldOnlyRefreshLoadedIndex() {
+    index.refresh();
+    verify(groupHouseholdRepository, times(0)).findAll();
+
+    when(groupHouseholdRepository.findAll()).thenReturn(List.of())
+        .thenReturn(List.of(new GroupHousehold(1L, 10L, 5L)));
+    index.getGroups(10L);
+    index.refresh();
+
+    assertEquals(Set.of(5L), index.getGroups(10L));
+  }
+}
@@ -14,6 +14,7 @@ import no.ntnu.stud.idatt2106.backend.model.request.HouseholdKitRequest;
 import no.ntnu.stud.idatt2106.backend.model.request.MoveHouseholdKitRequest;
 import no.ntnu.stud.idatt2106.backend.model.response.HouseholdKitResponse;
 import no.ntnu.stud.idatt2106.backend.repository.HouseholdKitRepository;
+import no.ntnu.stud.idatt2106.backend.repository.PreparednessRepository;
 import no.ntnu.stud.idatt2106.backend.service.mapper.HouseholdKitMapper;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -36,6 +37,9 @@ public class HouseholdKitServiceTest {
   @Mock
   private HouseholdKitRepository repository;
 
+  @Mock
+  private PreparednessRepository preparednessRepository;
+
   @Nested
   class CreateTests {
 
@@ -1,6 +1,7 @@
 package no.ntnu.stud.idatt2106.backend.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -11,8 +12,8 @@ import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -34,7 +35,9 @@ import no.ntnu.stud.idatt2106.backend.model.response.HouseholdResponse;
 import no.ntnu.stud.idatt2106.backend.model.response.LevelOfPreparednessResponse;
 import no.ntnu.stud.idatt2106.backend.model.response.UserResponse;
 import no.ntnu.stud.idatt2106.backend.repository.HouseholdRepository;
+import no.ntnu.stud.idatt2106.backend.repository.PreparednessRepository;
 import no.ntnu.stud.idatt2106.backend.service.mapper.HouseholdMapper;
+import no.ntnu.stud.idatt2106.backend.websocket.HouseholdMemberLeftEvent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -44,6 +47,7 @@ import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 /**
  * Contains tests for the HouseholdService class.
@@ -57,6 +61,9 @@ public class HouseholdServiceTest {
   @Mock
   private HouseholdRepository householdRepository;
 
+  @Mock
+  private PreparednessRepository preparednessRepository;
+
   @Mock
   private UserService userService;
 
@@ -72,6 +79,15 @@ public class HouseholdServiceTest {
   @Mock
   private JwtService jwtService;
 
+  @Mock
+  private LivePositionStore positionStore;
+
+  @Mock
+  private HouseholdGroupIndex groupIndex;
+
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+
   @Mock
   private Household existingHousehold;
 
@@ -427,6 +443,30 @@ public class HouseholdServiceTest {
       verify(householdRepository, never()).deleteById(oldHouseholdId);
     }
 
+    @Test
+    void shouldAcceptWithoutPreviousHousehold() {
+      HouseholdInvite invite = new HouseholdInvite();
+      invite.setUserId(1L);
+      invite.setHouseholdId(2L);
+
+      User user = new User();
+      user.setId(1L);
+      user.setHouseholdId(null);
+
+      when(householdInviteService.findByUserIdAndHouseholdId(1L, 2L)).thenReturn(invite);
+      when(userService.getUserById(1L)).thenReturn(user);
+      when(jwtService.extractUserId(anyString())).thenReturn(1L);
+
+      householdService.acceptHouseholdInvite(
+          new HouseHoldInviteAcceptRequest(2L), "abc1234");
+
+      assertEquals(2L, user.getHouseholdId());
+      verify(userService).updateUserCredentials(user);
+      verify(householdInviteService).deleteHouseholdInvite(1L, 2L);
+      verify(householdRepository, never()).deleteById(any());
+      verify(preparednessRepository).refreshSnapshot(2L);
+    }
+
     @Test
     void shouldThrowIfInviteNotFound() {
       when(jwtService.extractUserId(anyString())).thenReturn(0L);
@@ -471,7 +511,7 @@ public class HouseholdServiceTest {
       when(userService.getUserById(senderId)).thenReturn(sender);
       householdService.inviteUserToHousehold(inviteRequest, token);
       try {
-        verify(emailService).sendHtmlEmail(eq(email),
+        verify(emailService).queueHtmlEmail(eq(email),
             contains("Du har blitt invitert"), contains("Test Navn"));
       } catch (Exception e) {
         fail("Expected emailService.sendHTMLEmail to be called, but exception was thrown");
@@ -479,7 +519,7 @@ public class HouseholdServiceTest {
     }
 
     @Test
-    void shouldThrowRuntimeExceptionWhenFailedToSendMail() throws MessagingException {
+    void shouldQueueInviteEmailWithoutSending() throws MessagingException {
       Household household = new Household();
       Long houseHoldId = 10L;
       household.setId(houseHoldId);
@@ -504,15 +544,10 @@ public class HouseholdServiceTest {
       when(userService.getUserByUsername("Testuser")).thenReturn(receiver);
 
 
-      doThrow(new MessagingException())
-          .when(emailService)
-          .sendHtmlEmail(anyString(), anyString(), anyString());
+      householdService.inviteUserToHousehold(request, token);
 
-      RuntimeException exception = assertThrows(RuntimeException.class, () -> {
-        householdService.inviteUserToHousehold(request, token);
-      });
-
-      assertTrue(exception.getMessage().contains("Failed to send email"));
+      verify(emailService).queueHtmlEmail(eq("user@example.com"), anyString(), anyString());
+      verify(emailService, never()).sendHtmlEmail(anyString(), anyString(), anyString());
     }
   }
 
@@ -564,4 +599,120 @@ public class HouseholdServiceTest {
       householdService.leaveHousehold("Bearer token");
     });
   }
+
+  @Nested
+  class MemberIndexTests {
+
+    private UserResponse member(Long id) {
+      UserResponse response = new UserResponse();
+      response.setId(id);
+      return response;
+    }
+
+    @Test
+    void shouldLoadMembersOnce() {
+      when(userService.getUsersByHouseholdId(1L)).thenReturn(List.of(member(1L), member(2L)));
+
+      assertTrue(householdService.isMember(1L, 1L));
+      assertTrue(householdService.isMember(1L, 2L));
+      assertFalse(householdService.isMember(1L, 3L));
+
+      verify(userService, times(1)).getUsersByHouseholdId(1L);
+    }
+
+    @Test
+    void shouldDropLeastRecentlyUsedHouseholdWhenIndexIsFull() {
+      when(userService.getUsersByHouseholdId(anyLong())).thenReturn(List.of(member(1L)));
+      for (long id = 1; id <= HouseholdService.MAX_INDEXED_HOUSEHOLDS; id++) {
+        householdService.isMember(id, 1L);
+      }
+      householdService.isMember(1L, 1L);
+
+      householdService.isMember(HouseholdService.MAX_INDEXED_HOUSEHOLDS + 1L, 1L);
+      householdService.isMember(1L, 1L);
+      householdService.isMember(2L, 1L);
+
+      verify(userService, times(1)).getUsersByHouseholdId(1L);
+      verify(userService, times(2)).getUsersByHouseholdId(2L);
+    }
+
+    @Test
+    void shouldUpdateIndexAndNotifyWhenMemberLeaves() {
+      User user = new User();
+      user.setId(1L);
+      user.setHouseholdId(1L);
+      when(userService.getUsersByHouseholdId(1L)).thenReturn(List.of(member(1L), member(2L)));
+      assertTrue(householdService.isMember(1L, 1L));
+      when(jwtService.extractUserId(anyString())).thenReturn(1L);
+      when(userService.getUserById(1L)).thenReturn(user);
+
+      householdService.leaveHousehold("Bearer token");
+
+      assertFalse(householdService.isMember(1L, 1L));
+      verify(eventPublisher).publishEvent(new HouseholdMemberLeftEvent(1L, 1L));
+    }
+  }
+
+  @Nested
+  class LocationIndexTests {
+
+    private Household householdAt(Long id, double latitude, double longitude) {
+      Household household = new Household();
+      household.setId(id);
+      household.setLatitude(latitude);
+      household.setLongitude(longitude);
+      return household;
+    }
+
+    @Test
+    void shouldFindHouseholdsInsideCircle() {
+      when(householdRepository.findAll()).thenReturn(List.of(
+          householdAt(1L, 63.43, 10.40),
+          householdAt(2L, 63.47, 10.40),
+          householdAt(3L, 63.47, 10.47),
+          householdAt(4L, 59.91, 10.75)));
+
+      List<Long> result = householdService.findHouseholdIdsWithin(63.43, 10.40, 5);
+
+      assertEquals(List.of(1L, 2L), result.stream().sorted().toList());
+    }
+
+    @Test
+    void shouldMoveHouseholdWhenLocationIsUpdated() {
+      Household household = householdAt(1L, 63.43, 10.40);
+      when(householdRepository.findAll()).thenReturn(List.of(household));
+      assertEquals(List.of(1L), householdService.findHouseholdIdsWithin(63.43, 10.40, 1));
+
+      User user = new User();
+      user.setHouseholdId(1L);
+      when(jwtService.extractUserId("token")).thenReturn(5L);
+      when(userService.getUserById(5L)).thenReturn(user);
+      when(householdRepository.findById(1L)).thenReturn(Optional.of(household));
+      UpdateHouseholdRequest request = new UpdateHouseholdRequest();
+      request.setLatitude(59.91);
+      request.setLongitude(10.75);
+
+      householdService.updateHousehold(1L, request, "Bearer token");
+
+      assertTrue(householdService.findHouseholdIdsWithin(63.43, 10.40, 1).isEmpty());
+      assertEquals(List.of(1L), householdService.findHouseholdIdsWithin(59.91, 10.75, 1));
+    }
+
+    @Test
+    void shouldRemoveDeletedHousehold() {
+      when(householdRepository.findAll()).thenReturn(List.of(householdAt(1L, 63.43, 10.40)));
+      assertEquals(List.of(1L), householdService.findHouseholdIdsWithin(63.43, 10.40, 1));
+
+      User user = new User();
+      user.setId(5L);
+      user.setHouseholdId(1L);
+      when(jwtService.extractUserId("token")).thenReturn(5L);
+      when(userService.getUserById(5L)).thenReturn(user);
+      when(userService.getUsersByHouseholdId(1L)).thenReturn(List.of());
+
+      householdService.leaveHousehold("Bearer token");
+
+      assertTrue(householdService.findHouseholdIdsWithin(63.43, 10.40, 1).isEmpty());
+    }
+  }
 }
@@ -0,0 +1,82 @@
+package no.ntnu.stud.idatt2106.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+
+/**
+ * Contains unit tests for the JwtService class.
+ */
+public class JwtServiceTest {
+
+  private final JwtService jwtService = new JwtService();
+
+  @AfterEach
+  void clearContext() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void shouldExtractClaimsFromGeneratedToken() {
+    String token = jwtService.generateToken("user@example.com", 7L, true, false);
+
+    assertEquals("user@example.com", jwtService.extractUserName(token));
+    assertEquals(7L, jwtService.extractUserId(token));
+    assertTrue(jwtService.extractIsAdmin(token));
+    assertFalse(jwtService.extractIsSuperAdmin(token));
+    assertTrue(jwtService.validateToken(token,
+        new User("user@example.com", "password", List.of())));
+  }
+
+  @Test
+  void shouldCacheClaimsByToken() {
+    String token = jwtService.generateToken("user@example.com", 7L, false, false);
+
+    Claims first = jwtService.extractAllClaims(token);
+    Claims second = jwtService.extractAllClaims(token);
+
+    assertSame(first, second);
+    assertEquals(1, jwtService.cachedTokenCount());
+  }
+
+  @Test
+  void shouldReuseClaimsFromSecurityContext() {
+    String token = jwtService.generateToken("user@example.com", 7L, false, false);
+    Claims claims = Jwts.claims().subject("from-context").build();
+    SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+        "user@example.com", new JwtService.VerifiedToken(token, claims), List.of()));
+
+    assertEquals("from-context", jwtService.extractUserName(token));
+    assertEquals(0, jwtService.cachedTokenCount());
+  }
+
+  @Test
+  void shouldRejectTokenSignedWithAnotherKey() {
+    String foreign = new JwtService().generateToken("user@example.com", 7L, true, true);
+
+    assertThrows(JwtException.class, () -> jwtService.extractAllClaims(foreign));
+    assertEquals(0, jwtService.cachedTokenCount());
+  }
+
+  @Test
+  void shouldKeepUnexpiredClaimsWhenEvicting() {
+    jwtService.extractAllClaims(jwtService.generateToken("a@example.com", 1L, false, false));
+    jwtService.extractAllClaims(jwtService.generateToken("b@example.com", 2L, false, false));
+
+    jwtService.evictExpiredClaims();
+
+    assertEquals(2, jwtService.cachedTokenCount());
+  }
+}
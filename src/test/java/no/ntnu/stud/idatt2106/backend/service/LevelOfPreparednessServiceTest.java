@@ -7,13 +7,15 @@ import static org.mockito.Mockito.when;
 
 import java.util.List;
 import java.util.Optional;
+import no.ntnu.stud.idatt2106.backend.model.base.PreparednessSnapshot;
 import no.ntnu.stud.idatt2106.backend.model.response.ExtraResidentResponse;
 import no.ntnu.stud.idatt2106.backend.model.response.ExtraResidentTypeResponse;
 import no.ntnu.stud.idatt2106.backend.model.response.HouseholdKitResponse;
+import no.ntnu.stud.idatt2106.backend.model.response.HouseholdPreparednessResponse;
 import no.ntnu.stud.idatt2106.backend.model.response.HouseholdResponse;
-import no.ntnu.stud.idatt2106.backend.model.response.KitResponse;
 import no.ntnu.stud.idatt2106.backend.model.response.LevelOfPreparednessResponse;
 import no.ntnu.stud.idatt2106.backend.model.response.UserResponse;
+import no.ntnu.stud.idatt2106.backend.repository.PreparednessRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -41,6 +43,8 @@ public class LevelOfPreparednessServiceTest {
   private ExtraResidentTypeService extraResidentTypeService;
   @Mock
   private UserService userService;
+  @Mock
+  private PreparednessRepository preparednessRepository;
 
   @InjectMocks
   private LevelOfPreparednessService preparednessService;
@@ -169,10 +173,7 @@ public class LevelOfPreparednessServiceTest {
   void testCalculateLevelOfPreparednessKit_fullPreparedness() {
     long householdId = 3L;
 
-    when(kitService.getAll()).thenReturn(List.of(
-        new KitResponse(),
-        new KitResponse(),
-        new KitResponse())); // 3 kit types
+    when(kitService.count()).thenReturn(3); // 3 kit types
 
     when(householdKitService.getByHouseholdId(householdId)).thenReturn(List.of(
         new HouseholdKitResponse(),
@@ -199,8 +200,7 @@ public class LevelOfPreparednessServiceTest {
     when(householdKitService.getByHouseholdId(householdId))
         .thenReturn(List.of(new HouseholdKitResponse(),
             new HouseholdKitResponse())); // 2/3 of required kits
-    when(kitService.getAll()).thenReturn(List.of(
-        new KitResponse(), new KitResponse(), new KitResponse()));
+    when(kitService.count()).thenReturn(3);
 
     // Water preparedness: 12L / (1 user * 20L) = 0.6
     // Food preparedness: 4000 / 6000 = 0.66667
@@ -219,14 +219,9 @@ public class LevelOfPreparednessServiceTest {
     householdResponse.setId(householdId);
     householdResponse.setWaterAmountLiters(40.0);
 
-    when(foodService.getCaloriesByHouseholdId(householdId)).thenReturn(14000.0);
-    when(userService.getUsersByHouseholdId(householdId)).thenReturn(List.of(new UserResponse()));
-    when(extraResidentService.getAll()).thenReturn(List.of());
-    when(householdKitService.getByHouseholdId(householdId))
-        .thenReturn(List.of(new HouseholdKitResponse(),
-            new HouseholdKitResponse(), new HouseholdKitResponse()));
-    when(kitService.getAll()).thenReturn(List.of(new KitResponse(),
-        new KitResponse(), new KitResponse()));
+    // 1 user, 14000 calories, 3 of 3 kits
+    when(preparednessRepository.findSnapshotByHouseholdId(householdId))
+        .thenReturn(Optional.of(new PreparednessSnapshot(householdId, 0, 1, 14000, 0, 0, 3, 3)));
 
     LevelOfPreparednessResponse response = 
         preparednessService.getPreparednessForHousehold(householdResponse);
@@ -246,14 +241,9 @@ public class LevelOfPreparednessServiceTest {
     householdResponse.setId(householdId);
     householdResponse.setWaterAmountLiters(2.0);
 
-    when(foodService.getCaloriesByHouseholdId(householdId)).thenReturn(5000.0);
-    when(userService.getUsersByHouseholdId(householdId)).thenReturn(List.of(new UserResponse()));
-    when(extraResidentService.getAll()).thenReturn(List.of());
-    when(householdKitService.getByHouseholdId(householdId))
-        .thenReturn(List.of(new HouseholdKitResponse(),
-            new HouseholdKitResponse(), new HouseholdKitResponse()));
-    when(kitService.getAll()).thenReturn(List.of(new KitResponse(),
-        new KitResponse(), new KitResponse()));
+    // 1 user, 5000 calories, 3 of 3 kits
+    when(preparednessRepository.findSnapshotByHouseholdId(householdId))
+        .thenReturn(Optional.of(new PreparednessSnapshot(householdId, 0, 1, 5000, 0, 0, 3, 3)));
 
     LevelOfPreparednessResponse response = 
         preparednessService.getPreparednessForHousehold(householdResponse);
@@ -323,10 +313,7 @@ public class LevelOfPreparednessServiceTest {
             new HouseholdKitResponse(),
             new HouseholdKitResponse(),
             new HouseholdKitResponse()));
-    when(kitService.getAll()).thenReturn(List.of(
-        new KitResponse(),
-        new KitResponse(),
-        new KitResponse()));
+    when(kitService.count()).thenReturn(3);
 
     double initialResult = preparednessService
         .calculateOverallLevelOfPreparedness(householdResponse);
@@ -343,10 +330,7 @@ public class LevelOfPreparednessServiceTest {
   void testCalculatedLevelOfPreparednessKit_kitDecreases() {
     long householdId = 11L;
 
-    when(kitService.getAll()).thenReturn(List.of(
-        new KitResponse(),
-        new KitResponse(),
-        new KitResponse()));
+    when(kitService.count()).thenReturn(3);
 
     when(householdKitService.getByHouseholdId(householdId)).thenReturn(List.of(
         new HouseholdKitResponse(),
@@ -365,4 +349,57 @@ public class LevelOfPreparednessServiceTest {
     assertEquals(0.66667, decreasedResult, 0.0001);
   }
 
+  @Test
+  void testGetPreparednessForHousehold_withExtraResidentsFromSnapshot() {
+    long householdId = 12L;
+
+    // 1 user and extra residents needing 2.5L water and 2500 calories per day
+    when(preparednessRepository.findSnapshotByHouseholdId(householdId))
+        .thenReturn(Optional.of(
+            new PreparednessSnapshot(householdId, 18.0, 1, 16500, 2.5, 2500, 1, 4)));
+
+    LevelOfPreparednessResponse response =
+        preparednessService.getPreparednessForHousehold(householdId);
+
+    // Water: 18 / (20 + 2.5 * 7) = 0.48
+    // Food: 16500 / (2000 * 7 + 2500 * 7) = 0.52381
+    // Kit: 1 / 4 = 0.25
+    assertEquals(0.48, response.getLevelOfPreparednessWater(), 0.0001);
+    assertEquals(0.52381, response.getLevelOfPreparednessFood(), 0.0001);
+    assertEquals(0.25, response.getLevelOfPreparednessKit(), 0.0001);
+    assertEquals(0.41794, response.getLevelOfPreparedness(), 0.0001);
+    // Food lasts 16500 / 4500 = 3.67 days, water 18 / (20 / 7 + 2.5) = 3.36 days
+    assertEquals(81, response.getTimePrepared());
+  }
+
+  @Test
+  void testGetPreparednessForHousehold_unknownHouseholdIsUnprepared() {
+    long householdId = 13L;
+
+    when(preparednessRepository.findSnapshotByHouseholdId(householdId))
+        .thenReturn(Optional.empty());
+
+    LevelOfPreparednessResponse response =
+        preparednessService.getPreparednessForHousehold(householdId);
+
+    assertEquals(0.0, response.getLevelOfPreparedness());
+    assertEquals(0, response.getTimePrepared());
+  }
+
+  @Test
+  void testGetPreparednessForHouseholds_mapsEverySnapshot() {
+    when(preparednessRepository.findSnapshotsByHouseholdIds(List.of(1L, 2L)))
+        .thenReturn(List.of(
+            new PreparednessSnapshot(1L, 20.0, 1, 14000, 0, 0, 3, 3),
+            new PreparednessSnapshot(2L, 0.0, 1, 0, 0, 0, 0, 3)));
+
+    List<HouseholdPreparednessResponse> responses =
+        preparednessService.getPreparednessForHouseholds(List.of(1L, 2L));
+
+    assertEquals(2, responses.size());
+    assertEquals(1L, responses.get(0).getHouseholdId());
+    assertEquals(1.0, responses.get(0).getLevelOfPreparedness().getLevelOfPreparedness());
+    assertEquals(2L, responses.get(1).getHouseholdId());
+    assertEquals(0.0, responses.get(1).getLevelOfPreparedness().getLevelOfPreparedness());
+  }
 }
@@ -0,0 +1,187 @@
+package no.ntnu.stud.idatt2106.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import no.ntnu.stud.idatt2106.backend.model.base.User;
+import no.ntnu.stud.idatt2106.backend.model.update.LocationUpdate;
+import no.ntnu.stud.idatt2106.backend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Contains tests for the LivePositionStore class.
+ */
+@ExtendWith(MockitoExtension.class)
+public class LivePositionStoreTest {
+
+  @Mock
+  private UserRepository userRepository;
+
+  @InjectMocks
+  private LivePositionStore store;
+
+  private static User user(Long id, Long householdId, boolean share) {
+    User user = new User();
+    user.setId(id);
+    user.setHouseholdId(householdId);
+    user.setSharePositionHousehold(share);
+    return user;
+  }
+
+  @Test
+  void shouldLoadUserOnceAndKeepLatestPosition() {
+    when(userRepository.findById(1L)).thenReturn(user(1L, 10L, true));
+
+    store.update(1L, 63.43f, 10.39f);
+    LivePositionStore.LivePosition position = store.update(1L, 63.44f, 10.40f);
+
+    assertEquals(10L, position.householdId());
+    assertTrue(position.shareHousehold());
+    assertEquals(63.44f, store.get(1L).latitude());
+    verify(userRepository, times(1)).findById(1L);
+  }
+
+  @Test
+  void shouldReturnNullForUnknownUser() {
+    when(userRepository.findById(1L)).thenReturn(null);
+
+    assertNull(store.update(1L, 63.43f, 10.39f));
+    assertNull(store.get(1L));
+    assertEquals(0, store.flush());
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void shouldFlushOnlyDirtyPositionsInOneBatch() {
+    when(userRepository.findById(1L)).thenReturn(user(1L, 10L, true));
+    when(userRepository.findById(2L)).thenReturn(user(2L, 10L, false));
+    store.update(1L, 63.43f, 10.39f);
+    store.update(1L, 63.44f, 10.40f);
+    store.update(2L, 59.91f, 10.75f);
+
+    assertEquals(2, store.flush());
+    assertEquals(0, store.flush());
+
+    ArgumentCaptor<List<LocationUpdate>> captor = ArgumentCaptor.forClass(List.class);
+    verify(userRepository, times(1)).updateLastKnownPositions(captor.capture());
+    assertThat(captor.getValue()).extracting(LocationUpdate::getUserId)
+        .containsExactlyInAnyOrder(1L, 2L);
+    verify(userRepository, never()).updateLastKnownPosition(1L, 63.43f, 10.39f);
+  }
+
+  @Test
+  void shouldRetryPositionsWhenFlushFails() {
+    when(userRepository.findById(1L)).thenReturn(user(1L, 10L, true));
+    store.update(1L, 63.43f, 10.39f);
+    doThrow(new DataAccessResourceFailureException("Database down"))
+        .doNothing()
+        .when(userRepository).updateLastKnownPositions(anyList());
+
+    assertEquals(0, store.flush());
+    assertEquals(1, store.flush());
+  }
+
+  @Test
+  void shouldReloadSettingsAfterEviction() {
+    when(userRepository.findById(1L))
+        .thenReturn(user(1L, 10L, true))
+        .thenReturn(user(1L, 20L, false));
+    store.update(1L, 63.43f, 10.39f);
+    store.flush();
+
+    store.evictHousehold(10L);
+    LivePositionStore.LivePosition position = store.update(1L, 63.43f, 10.39f);
+
+    assertEquals(20L, position.householdId());
+    assertFalse(position.shareHousehold());
+  }
+
+  @Test
+  void shouldRewritePositionAfterUserIsEvicted() {
+    when(userRepository.findById(1L)).thenReturn(user(1L, 10L, true));
+    store.update(1L, 63.43f, 10.39f);
+    store.flush();
+
+    // A full user row written elsewhere may contain an older position
+    store.evictUser(1L);
+
+    assertEquals(1, store.flush());
+  }
+
+  @Test
+  void shouldServeHouseholdFromMemoryAfterFirstLoad() {
+    User sharing = user(1L, 10L, true);
+    sharing.setLastLatitude(63.43f);
+    when(userRepository.findUsersByHouseholdId(10L))
+        .thenReturn(List.of(sharing, user(2L, 10L, false)));
+
+    List<LivePositionStore.LivePosition> positions = store.getHousehold(10L);
+    store.update(1L, 63.44f, 10.40f);
+    List<LivePositionStore.LivePosition> cached = store.getHousehold(10L);
+
+    assertEquals(1, positions.size());
+    assertEquals(63.43f, positions.get(0).latitude());
+    assertEquals(1, cached.size());
+    assertEquals(63.44f, cached.get(0).latitude());
+    verify(userRepository, times(1)).findUsersByHouseholdId(10L);
+    verify(userRepository, never()).findById(1L);
+  }
+
+  @Test
+  void shouldKeepNewerPositionWhenLoadingHousehold() {
+    when(userRepository.findById(1L)).thenReturn(user(1L, 10L, true));
+    when(userRepository.findUsersByHouseholdId(10L)).thenReturn(List.of(user(1L, 10L, true)));
+    store.update(1L, 63.44f, 10.40f);
+
+    assertEquals(63.44f, store.getHousehold(10L).get(0).latitude());
+  }
+
+  @Test
+  void shouldDropPositionWhenReloadedUserNoLongerExists() {
+    ReflectionTestUtils.setField(store, "userTtlMillis", -1L);
+    when(userRepository.findById(1L)).thenReturn(user(1L, 10L, true)).thenReturn(null);
+    store.update(1L, 63.43f, 10.39f);
+
+    assertNull(store.update(1L, 63.44f, 10.40f));
+    assertNull(store.get(1L));
+  }
+
+  @Test
+  void shouldIgnoreEvictionOfNullHousehold() {
+    when(userRepository.findById(1L)).thenReturn(user(1L, 10L, true));
+    store.update(1L, 63.43f, 10.39f);
+
+    store.evictHousehold(null);
+
+    assertEquals(10L, store.get(1L).householdId());
+  }
+
+  @Test
+  void shouldReloadHouseholdAfterEviction() {
+    when(userRepository.findUsersByHouseholdId(10L))
+        .thenReturn(List.of(user(1L, 10L, true)))
+        .thenReturn(List.of(user(1L, 10L, true), user(2L, 10L, true)));
+    store.getHousehold(10L);
+
+    store.evictHousehold(10L);
+
+    assertEquals(2, store.getHousehold(10L).size());
+  }
+}
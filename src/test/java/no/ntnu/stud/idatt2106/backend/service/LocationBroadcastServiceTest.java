@@ -0,0 +1,164 @@
+package no.ntnu.stud.idatt2106.backend.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import no.ntnu.stud.idatt2106.backend.model.update.LocationUpdate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+/**
+ * Contains tests for the LocationBroadcastService class.
+ */
+@ExtendWith(MockitoExtension.class)
+public class LocationBroadcastServiceTest {
+
+  @Mock
+  private SimpMessagingTemplate messagingTemplate;
+
+  @Mock
+  private HouseholdGroupIndex groupIndex;
+
+  private LocationBroadcastService service;
+
+  private final AtomicLong clock = new AtomicLong(1_000_000);
+
+  @BeforeEach
+  void setUp() {
+    service = new LocationBroadcastService(messagingTemplate, groupIndex);
+    service.clock = clock::get;
+  }
+
+  private static LivePositionStore.LivePosition position(Long householdId, float lat,
+      float lon) {
+    return new LivePositionStore.LivePosition(1L, householdId, true, false, lat, lon);
+  }
+
+  @Test
+  void shouldNotBroadcastWhenSharingIsDisabledOrUserHasNoHousehold() {
+    service.broadcast(new LivePositionStore.LivePosition(1L, 10L, false, false,
+        63.43f, 10.39f));
+    service.broadcast(position(null, 63.43f, 10.39f));
+
+    verify(messagingTemplate, never()).convertAndSend(anyString(), any(Object.class));
+  }
+
+  @Test
+  void shouldSendFirstPositionImmediately() {
+    service.broadcast(position(10L, 63.43f, 10.39f));
+
+    verify(messagingTemplate).convertAndSend("/topic/location/10",
+        new LocationUpdate(1L, (double) 63.43f, (double) 10.39f));
+  }
+
+  @Test
+  void shouldDropPositionsThatHaveNotMoved() {
+    service.broadcast(position(10L, 63.43f, 10.39f));
+    clock.addAndGet(10_000);
+
+    // About 2 meters north
+    service.broadcast(position(10L, 63.43002f, 10.39f));
+    service.flushPending();
+
+    verify(messagingTemplate, times(1)).convertAndSend(anyString(), any(Object.class));
+  }
+
+  @Test
+  void shouldCoalescePositionsWithinIntervalAndSendLatest() {
+    service.broadcast(position(10L, 63.43f, 10.39f));
+    clock.addAndGet(500);
+    service.broadcast(position(10L, 63.431f, 10.39f));
+    clock.addAndGet(500);
+    service.broadcast(position(10L, 63.432f, 10.39f));
+
+    service.flushPending();
+    verify(messagingTemplate, times(1)).convertAndSend(anyString(), any(Object.class));
+
+    clock.addAndGet(1000);
+    service.flushPending();
+    service.flushPending();
+
+    verify(messagingTemplate, times(2)).convertAndSend(anyString(), any(Object.class));
+    verify(messagingTemplate).convertAndSend("/topic/location/10",
+        new LocationUpdate(1L, (double) 63.432f, (double) 10.39f));
+    verify(messagingTemplate, never()).convertAndSend(eq("/topic/location/10"),
+        eq(new LocationUpdate(1L, (double) 63.431f, (double) 10.39f)));
+  }
+
+  @Test
+  void shouldSendMovedPositionAfterInterval() {
+    service.broadcast(position(10L, 63.43f, 10.39f));
+    clock.addAndGet(2000);
+
+    service.broadcast(position(10L, 63.431f, 10.39f));
+
+    verify(messagingTemplate, times(2)).convertAndSend(anyString(), any(Object.class));
+  }
+
+  @Test
+  void shouldSendImmediatelyToNewHousehold() {
+    service.broadcast(position(10L, 63.43f, 10.39f));
+    clock.addAndGet(500);
+    service.broadcast(position(10L, 63.431f, 10.39f));
+
+    service.broadcast(position(20L, 63.43f, 10.39f));
+    clock.addAndGet(2000);
+    service.flushPending();
+
+    verify(messagingTemplate).convertAndSend(eq("/topic/location/20"), any(Object.class));
+    verify(messagingTemplate, times(1)).convertAndSend(eq("/topic/location/10"),
+        any(Object.class));
+  }
+
+  @Test
+  void shouldDropPendingPositionWhenSharingIsDisabledOrUserLeavesHousehold() {
+    service.broadcast(position(10L, 63.43f, 10.39f));
+    clock.addAndGet(500);
+    service.broadcast(position(10L, 63.431f, 10.39f));
+    service.broadcast(new LivePositionStore.LivePosition(1L, 10L, false, false,
+        63.432f, 10.39f));
+    clock.addAndGet(2000);
+    service.flushPending();
+
+    service.broadcast(position(10L, 63.43f, 10.39f));
+    clock.addAndGet(500);
+    service.broadcast(position(10L, 63.431f, 10.39f));
+    service.broadcast(position(null, 63.432f, 10.39f));
+    clock.addAndGet(2000);
+    service.flushPending();
+
+    verify(messagingTemplate, times(2)).convertAndSend(anyString(), any(Object.class));
+    verify(messagingTemplate, never()).convertAndSend(eq("/topic/location/10"),
+        eq(new LocationUpdate(1L, (double) 63.431f, (double) 10.39f)));
+  }
+
+  @Test
+  void shouldSendToGroupTopicsOnlyWhenSharingWithGroups() {
+    when(groupIndex.getGroups(10L)).thenReturn(Set.of(5L, 6L));
+    LocationUpdate update = new LocationUpdate(1L, (double) 63.43f, (double) 10.39f);
+
+    service.broadcast(new LivePositionStore.LivePosition(1L, 10L, false, true, 63.43f, 10.39f));
+
+    verify(messagingTemplate).convertAndSend("/topic/location/group/5", update);
+    verify(messagingTemplate).convertAndSend("/topic/location/group/6", update);
+    verify(messagingTemplate, never()).convertAndSend("/topic/location/10", update);
+  }
+
+  @Test
+  void shouldNotLookUpGroupsWhenNotSharingWithGroups() {
+    service.broadcast(position(10L, 63.43f, 10.39f));
+
+    verify(groupIndex, never()).getGroups(any());
+  }
+}
@@ -3,18 +3,22 @@ package no.ntnu.stud.idatt2106.backend.service;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.sql.Timestamp;
+import java.time.LocalTime;
 import java.util.Collections;
 import java.util.List;
 import no.ntnu.stud.idatt2106.backend.model.base.MapObject;
 import no.ntnu.stud.idatt2106.backend.model.request.MapObjectRequest;
 import no.ntnu.stud.idatt2106.backend.model.response.MapObjectResponse;
 import no.ntnu.stud.idatt2106.backend.repository.MapObjectRepositoryImpl;
+import no.ntnu.stud.idatt2106.backend.util.TileCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -146,54 +150,217 @@ public class MapObjectServiceTest {
 
   @Test
   void shouldFindMapObjectsInBounds() {
-    when(repositoryImpl
-        .findAllInBoundsWithDetail(anyDouble(), anyDouble(), anyDouble(), anyDouble()))
-        .thenReturn(Collections.emptyList());
+    when(repositoryImpl.findAllWithDetail()).thenReturn(Collections.emptyList());
     List<MapObjectResponse> result = service.getMapObjectsInBounds(0, 0, 0, 0);
     assertThat(result).isEmpty();
-    verify(repositoryImpl).findAllInBoundsWithDetail(0, 0, 0, 0);
+    verify(repositoryImpl).findAllWithDetail();
   }
 
   @Test
   void shouldFindMapObjectsInBoundsWithResults() {
-    MapObjectResponse response1 = new MapObjectResponse();
-    response1.setId(1L);
-    response1.setTypeId(1L);
-    response1.setLatitude(63.421057f);
-    response1.setLongitude(10.393674f);
+    MapObjectResponse response1 = mapObject(1L, 1L, 63.421057f, 10.393674f);
     response1.setDescription("Test Description 1");
-
-    MapObjectResponse response2 = new MapObjectResponse();
-    response2.setId(2L);
-    response2.setTypeId(2L);
-    response2.setLatitude(63.422000f);
-    response2.setLongitude(10.394000f);
+    MapObjectResponse response2 = mapObject(2L, 2L, 63.422000f, 10.394000f);
     response2.setDescription("Test Description 2");
+    MapObjectResponse outside = mapObject(3L, 1L, 59.9f, 10.75f);
 
-    when(repositoryImpl
-        .findAllInBoundsWithDetail(anyDouble(), anyDouble(), anyDouble(), anyDouble()))
-        .thenReturn(List.of(response1, response2));
+    when(repositoryImpl.findAllWithDetail()).thenReturn(List.of(response1, response2, outside));
 
     List<MapObjectResponse> result = service.getMapObjectsInBounds(63.420000,
         63.423000, 10.390000, 10.400000);
 
-    assertThat(result).hasSize(2);
-    assertThat(result.get(0).getId()).isEqualTo(1L);
-    assertThat(result.get(0).getDescription()).isEqualTo("Test Description 1");
-    assertThat(result.get(1).getId()).isEqualTo(2L);
-    assertThat(result.get(1).getDescription()).isEqualTo("Test Description 2");
+    assertThat(result).extracting(MapObjectResponse::getId)
+        .containsExactlyInAnyOrder(1L, 2L);
+    assertThat(result).extracting(MapObjectResponse::getDescription)
+        .contains("Test Description 1", "Test Description 2");
+  }
 
-    verify(repositoryImpl).findAllInBoundsWithDetail(63.420000,
-        63.423000, 10.390000, 10.400000);
+  @Test
+  void shouldLoadIndexOnlyOnce() {
+    when(repositoryImpl.findAllWithDetail()).thenReturn(Collections.emptyList());
+
+    service.getMapObjectsInBounds(0, 1, 0, 1);
+    service.getMapObjectsInBounds(0, 1, 0, 1);
+
+    verify(repositoryImpl, times(1)).findAllWithDetail();
   }
 
   @Test
   void shouldFindClosestMapObject() {
+    MapObjectResponse near = mapObject(1L, 1L, 63.43f, 10.40f);
+    MapObjectResponse nearOtherType = mapObject(2L, 2L, 63.4305f, 10.3951f);
+    MapObjectResponse far = mapObject(3L, 1L, 59.9f, 10.75f);
+    when(repositoryImpl.findAllWithDetail()).thenReturn(List.of(far, near, nearOtherType));
+
+    MapObjectResponse result = service.getClosestMapObject(63.4305, 10.3951, 1);
+
+    assertThat(result).isEqualTo(near);
+  }
+
+  @Test
+  void shouldReturnNullWhenNoObjectOfTypeExists() {
+    when(repositoryImpl.findAllWithDetail()).thenReturn(List.of(mapObject(1L, 1L, 63.43f, 10.4f)));
+
+    assertThat(service.getClosestMapObject(63.43, 10.4, 5)).isNull();
+  }
+
+  @Test
+  void shouldIndexCreatedMapObject() {
+    when(jwtService.extractIsAdmin(any())).thenReturn(true);
+    when(repositoryImpl.findAllWithDetail()).thenReturn(Collections.emptyList());
+    service.reloadIndex();
+
+    doAnswer(invocation -> {
+      MapObject arg = invocation.getArgument(0);
+      arg.setId(7L);
+      return null;
+    }).when(repositoryImpl).save(any(MapObject.class));
+    when(repositoryImpl.findByIdWithDetail(7L)).thenReturn(mapObject(7L, 1L, 63.43f, 10.4f));
+
+    service.createMapObject(new MapObjectRequest(), "Bearer token");
+
+    assertThat(service.getMapObjectsInBounds(63, 64, 10, 11))
+        .extracting(MapObjectResponse::getId).containsExactly(7L);
+  }
+
+  @Test
+  void shouldMoveUpdatedMapObjectInIndex() {
+    when(jwtService.extractIsAdmin(any())).thenReturn(true);
+    when(repositoryImpl.findAllWithDetail()).thenReturn(List.of(mapObject(1L, 1L, 63.43f, 10.4f)));
+    service.reloadIndex();
+
+    MapObject updated = new MapObject();
+    updated.setId(1L);
+    when(repositoryImpl.findByIdWithDetail(1L)).thenReturn(mapObject(1L, 1L, 59.9f, 10.75f));
+
+    service.updateMapObject(updated, "Bearer token");
+
+    assertThat(service.getMapObjectsInBounds(63, 64, 10, 11)).isEmpty();
+    assertThat(service.getMapObjectsInBounds(59, 60, 10, 11)).hasSize(1);
+  }
+
+  @Test
+  void shouldBroadcastDeletionWhenUpdatedMapObjectDoesNotExist() {
+    when(jwtService.extractIsAdmin(any())).thenReturn(true);
+    when(repositoryImpl.findAllWithDetail()).thenReturn(List.of(mapObject(1L, 1L, 63.43f, 10.4f)));
+    service.reloadIndex();
+
+    MapObject updated = new MapObject();
+    updated.setId(1L);
+    when(repositoryImpl.findByIdWithDetail(1L)).thenReturn(null);
+
+    service.updateMapObject(updated, "Bearer token");
+
+    verify(webSocketService).broadcastDeleted(1L);
+    verify(webSocketService, never()).broadcastUpdated(any());
+    assertThat(service.getMapObjectsInBounds(63, 64, 10, 11)).isEmpty();
+  }
+
+  @Test
+  void shouldRemoveDeletedMapObjectFromIndex() {
+    when(jwtService.extractIsAdmin(any())).thenReturn(true);
+    when(repositoryImpl.findAllWithDetail()).thenReturn(List.of(mapObject(1L, 1L, 63.43f, 10.4f)));
+    service.reloadIndex();
+
+    service.deleteMapObject(1L, "Bearer token");
+
+    assertThat(service.getMapObjectsInBounds(63, 64, 10, 11)).isEmpty();
+    assertThat(service.getClosestMapObject(63.43, 10.4, 1)).isNull();
+  }
+
+  @Test
+  void shouldFindNearestMapObjectsWithinRadius() {
+    MapObjectResponse first = mapObject(1L, 1L, 63.431f, 10.395f);
+    MapObjectResponse second = mapObject(2L, 1L, 63.45f, 10.40f);
+    MapObjectResponse third = mapObject(3L, 1L, 63.50f, 10.40f);
+    MapObjectResponse outside = mapObject(4L, 1L, 59.9f, 10.75f);
+    when(repositoryImpl.findAllWithDetail()).thenReturn(List.of(outside, third, first, second));
+
+    List<MapObjectResponse> result =
+        service.getNearestMapObjects(63.4305, 10.3951, 5, 10.0, null, null);
+
+    assertThat(result).extracting(MapObjectResponse::getId).containsExactly(1L, 2L, 3L);
+  }
+
+  @Test
+  void shouldLimitNearestMapObjectsToK() {
+    when(repositoryImpl.findAllWithDetail()).thenReturn(List.of(
+        mapObject(1L, 1L, 63.431f, 10.395f),
+        mapObject(2L, 1L, 63.45f, 10.40f),
+        mapObject(3L, 1L, 63.50f, 10.40f)));
+
+    List<MapObjectResponse> result =
+        service.getNearestMapObjects(63.4305, 10.3951, 2, null, null, null);
+
+    assertThat(result).extracting(MapObjectResponse::getId).containsExactly(1L, 2L);
+  }
+
+  @Test
+  void shouldFilterNearestMapObjectsByTypeAndOpeningHours() {
+    MapObjectResponse otherType = mapObject(1L, 2L, 63.431f, 10.395f);
+    MapObjectResponse closed = mapObject(2L, 1L, 63.432f, 10.395f);
+    closed.setOpening(Timestamp.valueOf("1970-01-01 08:00:00"));
+    closed.setClosing(Timestamp.valueOf("1970-01-01 16:00:00"));
+    MapObjectResponse openOvernight = mapObject(3L, 1L, 63.44f, 10.395f);
+    openOvernight.setOpening(Timestamp.valueOf("1970-01-01 20:00:00"));
+    openOvernight.setClosing(Timestamp.valueOf("1970-01-01 06:00:00"));
+    MapObjectResponse alwaysOpen = mapObject(4L, 3L, 63.45f, 10.395f);
+    when(repositoryImpl.findAllWithDetail())
+        .thenReturn(List.of(otherType, closed, openOvernight, alwaysOpen));
+
+    List<MapObjectResponse> result = service.getNearestMapObjects(
+        63.4305, 10.3951, 5, null, List.of(1L, 3L), LocalTime.of(22, 30));
+
+    assertThat(result).extracting(MapObjectResponse::getId).containsExactly(3L, 4L);
+  }
+
+  @Test
+  void shouldRejectInvalidNearestArguments() {
+    assertThrows(IllegalArgumentException.class,
+        () -> service.getNearestMapObjects(63.4, 10.4, 0, null, null, null));
+    assertThrows(IllegalArgumentException.class, () -> service.getNearestMapObjects(
+        63.4, 10.4, MapObjectService.MAX_NEAREST_RESULTS + 1, null, null, null));
+    assertThrows(IllegalArgumentException.class,
+        () -> service.getNearestMapObjects(63.4, 10.4, 5, -1.0, null, null));
+  }
+
+  @Test
+  void shouldCheckOpeningHours() {
+    MapObjectResponse object = mapObject(1L, 1L, 0f, 0f);
+    object.setOpening(Timestamp.valueOf("1970-01-01 08:00:00"));
+    object.setClosing(Timestamp.valueOf("1970-01-01 16:00:00"));
+
+    assertThat(MapObjectService.isOpenAt(object, LocalTime.of(8, 0))).isTrue();
+    assertThat(MapObjectService.isOpenAt(object, LocalTime.of(16, 0))).isFalse();
+    assertThat(MapObjectService.isOpenAt(object, LocalTime.of(3, 0))).isFalse();
+  }
+
+  @Test
+  void shouldCacheTilesUntilMapObjectInsideChanges() {
+    when(jwtService.extractIsAdmin(any())).thenReturn(true);
+    when(repositoryImpl.findAllWithDetail()).thenReturn(List.of(mapObject(1L, 1L, 63.43f, 10.4f)));
+    service.reloadIndex();
+
+    TileCache.Tile<MapObjectResponse> tile = service.getMapObjectTile(10, 541, 276);
+    assertThat(tile.items()).extracting(MapObjectResponse::getId).containsExactly(1L);
+    assertThat(service.getMapObjectTile(10, 541, 276)).isSameAs(tile);
+
+    MapObject updated = new MapObject();
+    updated.setId(1L);
+    when(repositoryImpl.findByIdWithDetail(1L)).thenReturn(mapObject(1L, 1L, 59.9f, 10.75f));
+    service.updateMapObject(updated, "Bearer token");
+
+    TileCache.Tile<MapObjectResponse> reloaded = service.getMapObjectTile(10, 541, 276);
+    assertThat(reloaded.items()).isEmpty();
+    assertThat(reloaded.etag()).isNotEqualTo(tile.etag());
+  }
+
+  private static MapObjectResponse mapObject(Long id, Long typeId, float lat, float lon) {
     MapObjectResponse response = new MapObjectResponse();
-    when(repositoryImpl.findClosestWithDetail(anyDouble(),
-        anyDouble(), anyLong())).thenReturn(response);
-    MapObjectResponse result = service.getClosestMapObject(0, 0, 1);
-    assertThat(result).isEqualTo(response);
-    verify(repositoryImpl).findClosestWithDetail(0, 0, 1);
+    response.setId(id);
+    response.setTypeId(typeId);
+    response.setLatitude(lat);
+    response.setLongitude(lon);
+    return response;
   }
 }
@@ -27,6 +27,9 @@ public class MapObjectTypeServiceTest {
   @Mock
   private JwtService jwtService;
 
+  @Mock
+  private MapObjectService mapObjectService;
+
   @InjectMocks
   private MapObjectTypeService service;
 
@@ -50,13 +53,13 @@ public class MapObjectTypeServiceTest {
   @Test
   void shouldGetMapObjectTypeById() {
     MapObjectType type = new MapObjectType(1L, "Shelter", "icon.png");
-    when(repository.findById(1L)).thenReturn(type);
+    when(repository.findAll()).thenReturn(List.of(type));
 
     MapObjectType result = service.getMapObjectTypeById(1L);
 
     assertThat(result).isNotNull();
     assertThat(result.getName()).isEqualTo("Shelter");
-    verify(repository).findById(1L);
+    verify(repository).findAll();
   }
 
   @Test
@@ -81,6 +84,7 @@ public class MapObjectTypeServiceTest {
     service.updateMapObjectType(type, "Bearer valid-token");
 
     verify(repository).update(type);
+    verify(mapObjectService).reloadIndex();
   }
 
   @Test
@@ -90,5 +94,6 @@ public class MapObjectTypeServiceTest {
     service.deleteMapObjectType(1L, "Bearer valid-token");
 
     verify(repository).deleteById(1L);
+    verify(mapObjectService).reloadIndex();
   }
 }
@@ -0,0 +1,91 @@
+package no.ntnu.stud.idatt2106.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import no.ntnu.stud.idatt2106.backend.model.base.User;
+import no.ntnu.stud.idatt2106.backend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Contains unit tests for the MyUserDetailsService class.
+ */
+@ExtendWith(MockitoExtension.class)
+public class MyUserDetailsServiceTest {
+
+  @InjectMocks
+  private MyUserDetailsService userDetailsService;
+
+  @Mock
+  private UserRepository userRepo;
+
+  @BeforeEach
+  void setup() {
+    ReflectionTestUtils.setField(userDetailsService, "ttlMillis", 60_000L);
+  }
+
+  private User user(Long id, String username, boolean admin) {
+    User user = new User();
+    user.setId(id);
+    user.setUsername(username);
+    user.setPassword("hash");
+    user.setAdmin(admin);
+    return user;
+  }
+
+  @Test
+  void shouldLoadUserOnlyOnceWhileCached() {
+    when(userRepo.findUserByUsername("alice")).thenReturn(user(1L, "alice", false));
+
+    UserDetails first = userDetailsService.loadUserByUsername("alice");
+    UserDetails second = userDetailsService.loadUserByUsername("alice");
+
+    assertSame(first, second);
+    verify(userRepo, times(1)).findUserByUsername("alice");
+  }
+
+  @Test
+  void shouldReloadUserAfterEviction() {
+    when(userRepo.findUserByUsername("alice"))
+        .thenReturn(user(1L, "alice", false), user(1L, "alice", true));
+    userDetailsService.loadUserByUsername("alice");
+
+    userDetailsService.evictUser(1L);
+    UserDetails reloaded = userDetailsService.loadUserByUsername("alice");
+
+    assertTrue(reloaded.getAuthorities().stream()
+        .anyMatch(authority -> authority.getAuthority().equals("ROLE_ADMIN")));
+    verify(userRepo, times(2)).findUserByUsername("alice");
+  }
+
+  @Test
+  void shouldReloadUserAfterTimeToLive() {
+    ReflectionTestUtils.setField(userDetailsService, "ttlMillis", 0L);
+    when(userRepo.findUserByUsername("alice")).thenReturn(user(1L, "alice", false));
+
+    userDetailsService.loadUserByUsername("alice");
+    userDetailsService.loadUserByUsername("alice");
+
+    verify(userRepo, times(2)).findUserByUsername("alice");
+  }
+
+  @Test
+  void shouldThrowIfUserDoesNotExist() {
+    when(userRepo.findUserByUsername("bob")).thenReturn(null);
+
+    assertThrows(UsernameNotFoundException.class,
+        () -> userDetailsService.loadUserByUsername("bob"));
+  }
+}
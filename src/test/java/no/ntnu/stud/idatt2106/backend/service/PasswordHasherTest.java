@@ -0,0 +1,67 @@
+package no.ntnu.stud.idatt2106.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import no.ntnu.stud.idatt2106.backend.exception.ServiceBusyException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Contains tests for the PasswordHasher class.
+ */
+public class PasswordHasherTest {
+
+  private PasswordHasher hasher;
+
+  @BeforeEach
+  void setUp() {
+    hasher = new PasswordHasher();
+    ReflectionTestUtils.setField(hasher, "threads", 1);
+    ReflectionTestUtils.setField(hasher, "queueCapacity", 1);
+    hasher.startExecutor();
+  }
+
+  @AfterEach
+  void tearDown() {
+    hasher.stopExecutor();
+  }
+
+  @Test
+  void shouldEncodeAndMatchPasswords() {
+    String hash = hasher.encode("Password123");
+
+    assertTrue(hasher.matches("Password123", hash));
+    assertFalse(hasher.matches("Password124", hash));
+    assertEquals(3, hasher.metrics().hashCount());
+    assertTrue(hasher.metrics().averageHashMillis() > 0);
+  }
+
+  @Test
+  void shouldRejectWhenQueueIsFull() throws Exception {
+    ExecutorService executor = (ExecutorService) ReflectionTestUtils.getField(hasher, "executor");
+    CountDownLatch release = new CountDownLatch(1);
+    // Occupy the only thread and the only queue slot
+    Future<Boolean> running = executor.submit(() -> release.await(10, TimeUnit.SECONDS));
+    Future<Boolean> queued = executor.submit(() -> release.await(10, TimeUnit.SECONDS));
+
+    ServiceBusyException ex = assertThrows(ServiceBusyException.class,
+        () -> hasher.encode("Password123"));
+
+    assertEquals(2, ex.getRetryAfterSeconds());
+    assertEquals(1, hasher.metrics().queueDepth());
+    assertEquals(1, hasher.metrics().rejectedCount());
+    release.countDown();
+    running.get(10, TimeUnit.SECONDS);
+    queued.get(10, TimeUnit.SECONDS);
+    assertTrue(hasher.matches("Password123", hasher.encode("Password123")));
+  }
+}
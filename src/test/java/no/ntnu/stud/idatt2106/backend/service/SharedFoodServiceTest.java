@@ -15,7 +15,6 @@ import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import no.ntnu.stud.idatt2106.backend.model.base.Food;
-import no.ntnu.stud.idatt2106.backend.model.base.FoodType;
 import no.ntnu.stud.idatt2106.backend.model.base.GroupHousehold;
 import no.ntnu.stud.idatt2106.backend.model.base.Household;
 import no.ntnu.stud.idatt2106.backend.model.base.SharedFood;
@@ -24,9 +23,9 @@ import no.ntnu.stud.idatt2106.backend.model.request.SharedFoodRequest;
 import no.ntnu.stud.idatt2106.backend.model.response.FoodDetailedResponse;
 import no.ntnu.stud.idatt2106.backend.model.response.SharedFoodResponse;
 import no.ntnu.stud.idatt2106.backend.repository.FoodRepository;
-import no.ntnu.stud.idatt2106.backend.repository.FoodTypeRepository;
 import no.ntnu.stud.idatt2106.backend.repository.GroupHouseholdRepository;
 import no.ntnu.stud.idatt2106.backend.repository.HouseholdRepository;
+import no.ntnu.stud.idatt2106.backend.repository.PreparednessRepository;
 import no.ntnu.stud.idatt2106.backend.repository.SharedFoodRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -42,12 +41,12 @@ class SharedFoodServiceTest {
   @Mock
   private SharedFoodRepository sharedRepo;
   @Mock
+  private PreparednessRepository preparednessRepository;
+  @Mock
   private FoodRepository foodRepo;
   @Mock
   private HouseholdRepository householdRepo;
   @Mock
-  private FoodTypeRepository typeRepo;
-  @Mock
   private GroupHouseholdRepository groupRepo;
   @Mock
   private JwtService jwtService;
@@ -293,72 +292,14 @@ class SharedFoodServiceTest {
 
   @Test
   void shouldReturnSummaryByGroupId() {
-    Long groupId = 1L;
-    Long groupHouseholdId = 10L;
-    final Long foodId = 5L;
-    final Long typeId = 3L;
-
-    GroupHousehold membership = new GroupHousehold();
-    membership.setId(groupHouseholdId);
-    membership.setGroupId(groupId);
-    membership.setHouseholdId(100L);
-
-    Food food = new Food();
-    food.setId(foodId);
-    food.setTypeId(typeId);
-    food.setExpirationDate(LocalDate.of(2025, 12, 31));
-    food.setAmount(10f);
-    food.setHouseholdId(100L);
-
-    final SharedFood shared = new SharedFood(new SharedFoodKey(foodId, groupHouseholdId), 2f);
-
-    FoodType type = new FoodType();
-    type.setId(typeId);
-    type.setName("Ris");
-    type.setUnit("kg");
-    type.setCaloriesPerUnit(350f);
-
-    when(groupRepo.findByGroupId(groupId)).thenReturn(List.of(membership));
-    when(sharedRepo.findByGroupHouseholdId(groupHouseholdId)).thenReturn(List.of(shared));
-    when(foodRepo.findById(foodId)).thenReturn(Optional.of(food));
-    when(typeRepo.findById(typeId)).thenReturn(Optional.of(type));
-
-    List<FoodDetailedResponse> result = service.getSharedFoodSummaryByGroupId(groupId);
-
-    assertThat(result).hasSize(1);
-    assertThat(result.get(0).getTypeName()).isEqualTo("Ris");
-    assertThat(result.get(0).getTotalCalories()).isEqualTo(700f);
-  }
-
-  @Test
-  void shouldSkipEntriesWithoutFoodTypeInSummaryByGroupId() {
-    Long groupId = 1L;
-    Long groupHouseholdId = 10L;
-    final Long foodId = 5L;
-    final Long typeId = 3L;
-
-    GroupHousehold membership = new GroupHousehold();
-    membership.setId(groupHouseholdId);
-    membership.setGroupId(groupId);
-    membership.setHouseholdId(100L);
-
-    Food food = new Food();
-    food.setId(foodId);
-    food.setTypeId(typeId);
-    food.setExpirationDate(LocalDate.of(2025, 12, 31));
-    food.setAmount(10f);
-    food.setHouseholdId(100L);
-
-    final SharedFood shared = new SharedFood(new SharedFoodKey(foodId, groupHouseholdId), 2f);
-
-    when(groupRepo.findByGroupId(groupId)).thenReturn(List.of(membership));
-    when(sharedRepo.findByGroupHouseholdId(groupHouseholdId)).thenReturn(List.of(shared));
-    when(foodRepo.findById(foodId)).thenReturn(Optional.of(food));
-    when(typeRepo.findById(typeId)).thenReturn(Optional.empty());
+    FoodDetailedResponse summary = new FoodDetailedResponse();
+    summary.setTypeName("Ris");
+    when(sharedRepo.findSummaryByGroupId(1L)).thenReturn(List.of(summary));
 
-    List<FoodDetailedResponse> result = service.getSharedFoodSummaryByGroupId(groupId);
+    List<FoodDetailedResponse> result = service.getSharedFoodSummaryByGroupId(1L);
 
-    assertThat(result).isEmpty();
+    assertThat(result).containsExactly(summary);
+    verify(foodRepo, never()).findById(any());
   }
 
   @Test
@@ -463,34 +404,14 @@ class SharedFoodServiceTest {
 
   @Test
   void shouldReturnSummaryByGroupHouseholdId() {
-    final Long groupHouseholdId = 7L;
-    final Long foodId = 10L;
-    final Long typeId = 3L;
+    FoodDetailedResponse summary = new FoodDetailedResponse();
+    summary.setTypeName("Mel");
+    when(sharedRepo.findSummaryByGroupHouseholdId(7L)).thenReturn(List.of(summary));
 
-    Food food = new Food();
-    food.setId(foodId);
-    food.setTypeId(typeId);
-    food.setExpirationDate(LocalDate.of(2025, 10, 10));
-    food.setAmount(20f);
-    food.setHouseholdId(4L);
-
-    FoodType type = new FoodType();
-    type.setId(typeId);
-    type.setName("Mel");
-    type.setUnit("kg");
-    type.setCaloriesPerUnit(360f);
+    List<FoodDetailedResponse> result = service.getSharedFoodSummaryByGroup(7L);
 
-    SharedFood shared = new SharedFood(new SharedFoodKey(foodId, groupHouseholdId), 2f);
-    when(sharedRepo.findByGroupHouseholdId(groupHouseholdId)).thenReturn(List.of(shared));
-    when(foodRepo.findById(foodId)).thenReturn(Optional.of(food));
-    when(typeRepo.findById(typeId)).thenReturn(Optional.of(type));
-
-    List<FoodDetailedResponse> result = service.getSharedFoodSummaryByGroup(groupHouseholdId);
-
-    assertThat(result).hasSize(1);
-    assertThat(result.get(0).getTypeName()).isEqualTo("Mel");
-    assertThat(result.get(0).getTotalAmount()).isEqualTo(2f);
-    assertThat(result.get(0).getTotalCalories()).isEqualTo(720f);
+    assertThat(result).containsExactly(summary);
+    verify(foodRepo, never()).findById(any());
   }
 
   @Test
@@ -742,21 +663,4 @@ class SharedFoodServiceTest {
     verify(sharedRepo).deleteById(key);
     verify(sharedRepo, never()).update(any());
   }
-
-  @Test
-  void getSharedFoodSummaryByGroup_skipsWhenTypeMissing() {
-    SharedFoodKey key = new SharedFoodKey(22L, 21L);
-    when(sharedRepo.findByGroupHouseholdId(21L))
-        .thenReturn(List.of(new SharedFood(key, 3f)));
-    Food food = new Food();
-    food.setId(22L);
-    food.setTypeId(99L);
-    food.setExpirationDate(LocalDate.now());
-    food.setHouseholdId(42L);
-    when(foodRepo.findById(22L)).thenReturn(Optional.of(food));
-    when(typeRepo.findById(99L)).thenReturn(Optional.empty());
-
-    assertTrue(service.getSharedFoodSummaryByGroup(21L).isEmpty());
-  }
-
-}
\ No newline at end of file
+}
@@ -17,7 +17,6 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import java.util.List;
 import java.util.NoSuchElementException;
-import jakarta.mail.MessagingException;
 import no.ntnu.stud.idatt2106.backend.model.base.EmailConfirmationKey;
 import no.ntnu.stud.idatt2106.backend.model.base.User;
 import no.ntnu.stud.idatt2106.backend.model.response.UserResponse;
@@ -52,12 +51,27 @@ public class UserServiceTest {
   private EmailService emailService;
   @Mock
   private EmailConfirmationKeyService emailConfirmationKeyService;
+  @Mock
+  private MyUserDetailsService userDetailsService;
+  @Mock
+  private LivePositionStore positionStore;
 
   @BeforeEach
   void setup() {
     MockitoAnnotations.openMocks(this);
   }
 
+  @Test
+  void updateUserCredentialsShouldEvictCachedUserDetails() {
+    User user = new User();
+    user.setId(4L);
+
+    userService.updateUserCredentials(user);
+
+    verify(repository).updateUser(user);
+    verify(userDetailsService).evictUser(4L);
+  }
+
   @Nested
   class UpdateUserTests {
 
@@ -328,6 +342,7 @@ public class UserServiceTest {
       when(repository.findById(8L)).thenReturn(u);
       assertTrue(userService.enableSharePositionForHousehold(8L));
       verify(repository).updateSharePositionHousehold(8L, true);
+      verify(positionStore).evictUser(8L);
     }
   }
 
@@ -395,7 +410,7 @@ public class UserServiceTest {
 
       verify(emailConfirmationKeyService, never()).deleteEmailConfirmationKey(1L);
       verify(emailConfirmationKeyService).createEmailConfirmationKey(1L);
-      verify(emailService).sendHtmlEmail(
+      verify(emailService).queueHtmlEmail(
           eq("a@b.com"),
           eq("Verify your email address"),
           eq(EmailTemplates.getEmailConfirmationTemplate("KEY123")));
@@ -415,11 +430,11 @@ public class UserServiceTest {
 
       verify(emailConfirmationKeyService).deleteEmailConfirmationKey(2L);
       verify(emailConfirmationKeyService).createEmailConfirmationKey(2L);
-      verify(emailService).sendHtmlEmail(any(), any(), any());
+      verify(emailService).queueHtmlEmail(any(), any(), any());
     }
 
     @Test
-    void sendEmailVerification_wrapsException() throws MessagingException {
+    void sendEmailVerification_propagatesQueueFailure() {
       when(jwtService.extractUserId("tok2")).thenReturn(3L);
       User u = new User();
       u.setId(3L);
@@ -428,10 +443,9 @@ public class UserServiceTest {
       when(emailConfirmationKeyService.emailConfirmationKeyExists(3L)).thenReturn(false);
       when(emailConfirmationKeyService.createEmailConfirmationKey(3L)).thenReturn("K");
 
-      doThrow(new RuntimeException("SMTP send failure",
-          new MessagingException("SMTP error")))
+      doThrow(new RuntimeException("Database failure"))
           .when(emailService)
-          .sendHtmlEmail(
+          .queueHtmlEmail(
               anyString(),
               anyString(),
               anyString());
@@ -456,6 +470,7 @@ public class UserServiceTest {
 
         assertTrue(u.isEmailConfirmed());
         verify(repository).updateUser(u);
+        verify(userDetailsService).evictUser(9L);
         verify(emailConfirmationKeyService).deleteEmailConfirmationKey(9L);
       }
 
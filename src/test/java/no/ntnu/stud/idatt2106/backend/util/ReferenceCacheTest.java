@@ -0,0 +1,56 @@
+package no.ntnu.stud.idatt2106.backend.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Contains tests for ReferenceCache.
+ */
+public class ReferenceCacheTest {
+
+  private record Row(Long id, String name) {
+  }
+
+  @Test
+  void shouldLoadOnceOnFirstRead() {
+    AtomicInteger loads = new AtomicInteger();
+    ReferenceCache<Row> cache = new ReferenceCache<>(() -> {
+      loads.incrementAndGet();
+      return List.of(new Row(1L, "Water"), new Row(2L, "Bread"));
+    }, Row::id);
+
+    assertEquals(0, loads.get());
+    assertEquals("Bread", cache.get(2L).name());
+    assertEquals(2, cache.size());
+    assertEquals(List.of(new Row(1L, "Water"), new Row(2L, "Bread")), cache.getAll());
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  void shouldReturnNullForUnknownOrNullId() {
+    ReferenceCache<Row> cache = new ReferenceCache<>(() -> List.of(new Row(1L, "Water")),
+        Row::id);
+
+    assertNull(cache.get(3L));
+    assertNull(cache.get(null));
+  }
+
+  @Test
+  void shouldReplaceSnapshotOnRefresh() {
+    List<Row> table = new ArrayList<>(List.of(new Row(1L, "Water")));
+    ReferenceCache<Row> cache = new ReferenceCache<>(() -> table, Row::id);
+    List<Row> before = cache.getAll();
+
+    table.add(new Row(2L, "Bread"));
+    assertNull(cache.get(2L));
+
+    cache.refresh();
+    assertEquals("Bread", cache.get(2L).name());
+    assertEquals(1, before.size());
+  }
+}
@@ -0,0 +1,204 @@
+package no.ntnu.stud.idatt2106.backend.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Contains tests for SpatialIndex.
+ */
+public class SpatialIndexTest {
+
+  private record Point(Long id, double lat, double lon) {
+  }
+
+  private record Area(Long id, double lat, double lon, double radiusKm) {
+  }
+
+  private static SpatialIndex<Point> pointIndex() {
+    return new SpatialIndex<>(0.05, Point::id, p -> SpatialIndex.Box.point(p.lat(), p.lon()));
+  }
+
+  @Test
+  void shouldFindPointsInBounds() {
+    SpatialIndex<Point> index = pointIndex();
+    index.put(new Point(1L, 63.43, 10.39));
+    index.put(new Point(2L, 63.44, 10.41));
+    index.put(new Point(3L, 59.91, 10.75));
+
+    List<Point> result = index.findInBounds(63.4, 63.5, 10.3, 10.5);
+
+    assertThat(result).extracting(Point::id).containsExactlyInAnyOrder(1L, 2L);
+  }
+
+  @Test
+  void shouldReturnEmptyListForEmptyIndex() {
+    assertThat(pointIndex().findInBounds(-90, 90, -180, 180)).isEmpty();
+    assertThat(pointIndex().findNearest(0, 0, 3, Double.POSITIVE_INFINITY, p -> true)).isEmpty();
+  }
+
+  @Test
+  void shouldMovePointWhenPutAgain() {
+    SpatialIndex<Point> index = pointIndex();
+    index.put(new Point(1L, 63.43, 10.39));
+    index.put(new Point(1L, 59.91, 10.75));
+
+    assertEquals(1, index.size());
+    assertThat(index.findInBounds(63.4, 63.5, 10.3, 10.5)).isEmpty();
+    assertThat(index.findInBounds(59.9, 60.0, 10.7, 10.8)).hasSize(1);
+  }
+
+  @Test
+  void shouldRemovePoint() {
+    SpatialIndex<Point> index = pointIndex();
+    index.put(new Point(1L, 63.43, 10.39));
+
+    index.remove(1L);
+    index.remove(99L);
+
+    assertEquals(0, index.size());
+    assertThat(index.findInBounds(63.4, 63.5, 10.3, 10.5)).isEmpty();
+  }
+
+  @Test
+  void shouldReplaceAllPoints() {
+    SpatialIndex<Point> index = pointIndex();
+    index.put(new Point(1L, 63.43, 10.39));
+
+    index.replaceAll(List.of(new Point(2L, 59.91, 10.75), new Point(3L, 60.39, 5.32)));
+
+    assertThat(index.findInBounds(55, 70, 0, 20)).extracting(Point::id)
+        .containsExactlyInAnyOrder(2L, 3L);
+  }
+
+  @Test
+  void shouldFindAreasOverlappingBounds() {
+    SpatialIndex<Area> index = new SpatialIndex<>(0.05, Area::id,
+        a -> SpatialIndex.Box.circle(a.lat(), a.lon(), a.radiusKm()));
+    index.put(new Area(1L, 63.43, 10.39, 20));
+    index.put(new Area(2L, 59.91, 10.75, 1));
+
+    List<Area> result = index.findInBounds(63.55, 63.56, 10.39, 10.40);
+
+    assertThat(result).extracting(Area::id).containsExactly(1L);
+  }
+
+  @Test
+  void shouldKeepLargeAreasOutOfTheGrid() {
+    SpatialIndex<Area> index = new SpatialIndex<>(0.1, Area::id,
+        a -> SpatialIndex.Box.circle(a.lat(), a.lon(), a.radiusKm()));
+    index.put(new Area(1L, 60, 10, 1000));
+    index.put(new Area(2L, 59.91, 10.75, 1));
+
+    assertThat(index.findInBounds(63.4, 63.5, 10.3, 10.5))
+        .extracting(Area::id).containsExactly(1L);
+    assertThat(index.findInBounds(59.9, 59.92, 10.74, 10.76))
+        .extracting(Area::id).containsExactlyInAnyOrder(1L, 2L);
+    assertThat(index.findNearest(59.91, 10.75, 2, Double.POSITIVE_INFINITY, a -> true))
+        .extracting(Area::id).containsExactly(2L, 1L);
+
+    index.remove(1L);
+    assertThat(index.findInBounds(63.4, 63.5, 10.3, 10.5)).isEmpty();
+    assertEquals(1, index.size());
+  }
+
+  @Test
+  void shouldClampCircleAtPole() {
+    SpatialIndex.Box box = SpatialIndex.Box.circle(89, 10, 500);
+
+    assertEquals(90, box.maxLat());
+    assertEquals(-170, box.minLong());
+    assertEquals(190, box.maxLong());
+  }
+
+  @Test
+  void shouldFindNearestMatchingBruteForce() {
+    Random random = new Random(42);
+    List<Point> points = new ArrayList<>();
+    for (long i = 0; i < 2000; i++) {
+      points.add(new Point(i, 58 + random.nextDouble() * 13, 5 + random.nextDouble() * 25));
+    }
+    SpatialIndex<Point> index = pointIndex();
+    index.replaceAll(points);
+
+    for (int query = 0; query < 50; query++) {
+      double lat = 58 + random.nextDouble() * 13;
+      double lon = 5 + random.nextDouble() * 25;
+      List<Long> expected = points.stream()
+          .filter(p -> p.id() % 3 == 0)
+          .sorted(Comparator.comparingDouble(
+              p -> SpatialIndex.distanceKm(lat, lon, p.lat(), p.lon())))
+          .limit(5)
+          .map(Point::id)
+          .toList();
+
+      List<Point> result = index.findNearest(lat, lon, 5, Double.POSITIVE_INFINITY,
+          p -> p.id() % 3 == 0);
+
+      assertThat(result).extracting(Point::id).containsExactlyElementsOf(expected);
+    }
+  }
+
+  @Test
+  void shouldLimitNearestByDistance() {
+    SpatialIndex<Point> index = pointIndex();
+    index.put(new Point(1L, 63.43, 10.39));
+    index.put(new Point(2L, 63.53, 10.39));
+    index.put(new Point(3L, 59.91, 10.75));
+
+    List<Point> result = index.findNearest(63.43, 10.39, 10, 15, p -> true);
+
+    assertThat(result).extracting(Point::id).containsExactly(1L, 2L);
+  }
+
+  @Test
+  void shouldCalculateDistance() {
+    double distance = SpatialIndex.distanceKm(63.4305, 10.3951, 59.9139, 10.7522);
+
+    assertEquals(391.5, distance, 1.0);
+  }
+
+  @Test
+  void shouldCalculateDistanceToBoxMatchingSampledEdges() {
+    Random random = new Random(7);
+    for (int i = 0; i < 200; i++) {
+      double minLat = -60 + random.nextDouble() * 100;
+      double minLong = -30 + random.nextDouble() * 60;
+      SpatialIndex.Box box = new SpatialIndex.Box(minLat, minLat + random.nextDouble() * 10,
+          minLong, minLong + random.nextDouble() * 10);
+      double lat = box.minLat() - 15 + random.nextDouble() * 40;
+      double lon = box.minLong() - 15 + random.nextDouble() * 40;
+
+      double sampled = Double.POSITIVE_INFINITY;
+      for (int step = 0; step <= 1000; step++) {
+        double t = step / 1000.0;
+        double edgeLat = box.minLat() + t * (box.maxLat() - box.minLat());
+        double edgeLong = box.minLong() + t * (box.maxLong() - box.minLong());
+        sampled = Math.min(sampled, Math.min(
+            Math.min(SpatialIndex.distanceKm(lat, lon, edgeLat, box.minLong()),
+                SpatialIndex.distanceKm(lat, lon, edgeLat, box.maxLong())),
+            Math.min(SpatialIndex.distanceKm(lat, lon, box.minLat(), edgeLong),
+                SpatialIndex.distanceKm(lat, lon, box.maxLat(), edgeLong))));
+      }
+      boolean inside = lat >= box.minLat() && lat <= box.maxLat()
+          && lon >= box.minLong() && lon <= box.maxLong();
+
+      double distance = box.distanceKm(lat, lon);
+
+      assertEquals(inside ? 0 : sampled, distance, 1.5);
+      assertThat(distance).isLessThanOrEqualTo(sampled + 1e-6);
+    }
+  }
+
+  @Test
+  void shouldRejectNonPositiveCellSize() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new SpatialIndex<Point>(0, Point::id, p -> SpatialIndex.Box.point(0, 0)));
+  }
+}
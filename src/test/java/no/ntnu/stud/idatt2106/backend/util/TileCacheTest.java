@@ -0,0 +1,121 @@
+package no.ntnu.stud.idatt2106.backend.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Contains tests for TileCache.
+ */
+public class TileCacheTest {
+
+  @Test
+  void shouldCalculateTileBounds() {
+    SpatialIndex.Box world = TileCache.tileBounds(0, 0, 0);
+    assertEquals(-180, world.minLong(), 1e-9);
+    assertEquals(180, world.maxLong(), 1e-9);
+    assertEquals(85.0511, world.maxLat(), 1e-4);
+    assertEquals(-85.0511, world.minLat(), 1e-4);
+
+    // Trondheim is in tile 12/2166/1107
+    SpatialIndex.Box tile = TileCache.tileBounds(12, 2166, 1107);
+    assertTrue(tile.minLat() < 63.4305 && tile.maxLat() > 63.4305);
+    assertTrue(tile.minLong() < 10.3951 && tile.maxLong() > 10.3951);
+  }
+
+  @Test
+  void shouldRejectTilesOutsideTheGrid() {
+    assertThrows(IllegalArgumentException.class, () -> TileCache.tileBounds(-1, 0, 0));
+    assertThrows(IllegalArgumentException.class,
+        () -> TileCache.tileBounds(TileCache.MAX_ZOOM + 1, 0, 0));
+    assertThrows(IllegalArgumentException.class, () -> TileCache.tileBounds(2, 4, 0));
+    assertThrows(IllegalArgumentException.class, () -> TileCache.tileBounds(2, 0, -1));
+  }
+
+  @Test
+  void shouldLoadTileOnlyOnce() {
+    TileCache<String> cache = new TileCache<>(10);
+    AtomicInteger loads = new AtomicInteger();
+
+    cache.get(1, 1, 0, bounds -> {
+      loads.incrementAndGet();
+      return List.of("a");
+    });
+    TileCache.Tile<String> tile = cache.get(1, 1, 0, bounds -> {
+      loads.incrementAndGet();
+      return List.of("b");
+    });
+
+    assertEquals(1, loads.get());
+    assertThat(tile.items()).containsExactly("a");
+  }
+
+  @Test
+  void shouldInvalidateOnlyOverlappingTiles() {
+    TileCache<String> cache = new TileCache<>(10);
+    cache.get(1, 1, 0, bounds -> List.of("north east"));
+    cache.get(1, 0, 1, bounds -> List.of("south west"));
+
+    cache.invalidate(SpatialIndex.Box.point(63.43, 10.39));
+
+    assertEquals(1, cache.size());
+    TileCache.Tile<String> reloaded = cache.get(1, 1, 0, bounds -> List.of("changed"));
+    assertThat(reloaded.items()).containsExactly("changed");
+  }
+
+  @Test
+  void shouldNotCacheTileLoadedDuringInvalidation() {
+    TileCache<String> cache = new TileCache<>(10);
+
+    cache.get(0, 0, 0, bounds -> {
+      cache.invalidate(SpatialIndex.Box.point(0, 0));
+      return List.of("stale");
+    });
+
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void shouldEvictLeastRecentlyUsedTile() {
+    TileCache<String> cache = new TileCache<>(2);
+    cache.get(1, 0, 0, bounds -> List.of("a"));
+    cache.get(1, 1, 0, bounds -> List.of("b"));
+    cache.get(1, 0, 0, bounds -> List.of("unused"));
+
+    cache.get(1, 1, 1, bounds -> List.of("c"));
+
+    assertEquals(2, cache.size());
+    assertThat(cache.get(1, 0, 0, bounds -> List.of("reloaded")).items()).containsExactly("a");
+    assertThat(cache.get(1, 1, 0, bounds -> List.of("reloaded")).items())
+        .containsExactly("reloaded");
+  }
+
+  @Test
+  void shouldDeriveEtagFromContents() {
+    TileCache<String> cache = new TileCache<>(10);
+    String first = cache.get(1, 0, 0, bounds -> List.of("a")).etag();
+    String same = cache.get(1, 1, 0, bounds -> List.of("a")).etag();
+    String other = cache.get(1, 1, 1, bounds -> List.of("b")).etag();
+
+    assertEquals(first, same);
+    assertNotEquals(first, other);
+  }
+
+  @Test
+  void shouldMatchIfNoneMatchHeader() {
+    TileCache.Tile<String> tile = new TileCache.Tile<>(List.of(), "\"abc-0\"");
+
+    assertTrue(tile.matches("\"abc-0\""));
+    assertTrue(tile.matches("\"other\", W/\"abc-0\""));
+    assertTrue(tile.matches("*"));
+    assertFalse(tile.matches("\"other\""));
+    assertFalse(tile.matches(null));
+  }
+}
@@ -0,0 +1,59 @@
+package no.ntnu.stud.idatt2106.backend.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Contains tests for TokenBucketLimiter.
+ */
+public class TokenBucketLimiterTest {
+
+  private static final long SECOND = 1_000_000_000L;
+
+  @Test
+  void shouldAllowBurstUpToCapacity() {
+    AtomicLong clock = new AtomicLong();
+    TokenBucketLimiter limiter = new TokenBucketLimiter(3, 1, clock::get);
+
+    assertEquals(0, limiter.tryAcquire("a"));
+    assertEquals(0, limiter.tryAcquire("a"));
+    assertEquals(0, limiter.tryAcquire("a"));
+    assertEquals(1, limiter.tryAcquire("a"));
+    assertEquals(0, limiter.tryAcquire("b"));
+  }
+
+  @Test
+  void shouldRefillOverTime() {
+    AtomicLong clock = new AtomicLong();
+    TokenBucketLimiter limiter = new TokenBucketLimiter(1, 0.1, clock::get);
+    limiter.tryAcquire("a");
+
+    clock.addAndGet(4 * SECOND);
+    assertEquals(6, limiter.tryAcquire("a"));
+
+    clock.addAndGet(6 * SECOND);
+    assertEquals(0, limiter.tryAcquire("a"));
+  }
+
+  @Test
+  void shouldNotRefillAboveCapacity() {
+    AtomicLong clock = new AtomicLong();
+    TokenBucketLimiter limiter = new TokenBucketLimiter(2, 1, clock::get);
+    limiter.tryAcquire("a");
+
+    clock.addAndGet(60 * SECOND);
+
+    assertEquals(0, limiter.tryAcquire("a"));
+    assertEquals(0, limiter.tryAcquire("a"));
+    assertEquals(1, limiter.tryAcquire("a"));
+  }
+
+  @Test
+  void shouldRejectInvalidLimits() {
+    assertThrows(IllegalArgumentException.class, () -> new TokenBucketLimiter(0, 1));
+    assertThrows(IllegalArgumentException.class, () -> new TokenBucketLimiter(1, 0));
+  }
+}
@@ -0,0 +1,60 @@
+package no.ntnu.stud.idatt2106.backend.websocket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+/**
+ * Contains tests for the CoalescingBroadcaster class.
+ */
+@ExtendWith(MockitoExtension.class)
+public class CoalescingBroadcasterTest {
+
+  @Mock
+  private SimpMessagingTemplate messagingTemplate;
+
+  @InjectMocks
+  private CoalescingBroadcaster broadcaster;
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void shouldSendOneListPerTopicWithLatestEventPerId() {
+    WebSocketEvent<String> created = new WebSocketEvent<>("created", "a");
+    WebSocketEvent<String> otherCreated = new WebSocketEvent<>("created", "b");
+    WebSocketEvent<Long> deleted = new WebSocketEvent<>("deleted", 1L);
+    broadcaster.send("/topic/a", 1L, new WebSocketEvent<>("updated", "first"));
+    broadcaster.send("/topic/a", null, created);
+    broadcaster.send("/topic/a", null, otherCreated);
+    broadcaster.send("/topic/a", 1L, deleted);
+    broadcaster.send("/topic/b", 1L, new WebSocketEvent<>("updated", "other topic"));
+
+    assertEquals(2, broadcaster.flush());
+
+    ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+    verify(messagingTemplate).convertAndSend(eq("/topic/a"), captor.capture());
+    assertEquals(List.of(created, otherCreated, deleted), captor.getValue());
+    verify(messagingTemplate).convertAndSend(eq("/topic/b"), any(Object.class));
+  }
+
+  @Test
+  void shouldSendNothingWhenNoEventsAreQueued() {
+    broadcaster.send("/topic/a", 1L, new WebSocketEvent<>("updated", "first"));
+    broadcaster.flush();
+
+    assertEquals(0, broadcaster.flush());
+    verify(messagingTemplate, never()).convertAndSend(eq("/topic/b"), any(Object.class));
+    verify(messagingTemplate).convertAndSend(anyString(), any(Object.class));
+  }
+}
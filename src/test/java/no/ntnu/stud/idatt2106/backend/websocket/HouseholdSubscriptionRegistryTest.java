@@ -0,0 +1,100 @@
+package no.ntnu.stud.idatt2106.backend.websocket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+
+/**
+ * Contains tests for the HouseholdSubscriptionRegistry class.
+ */
+@ExtendWith(MockitoExtension.class)
+public class HouseholdSubscriptionRegistryTest {
+
+  @Mock
+  private MessageChannel brokerChannel;
+
+  private HouseholdSubscriptionRegistry registry;
+
+  @BeforeEach
+  void setUp() {
+    registry = new HouseholdSubscriptionRegistry(brokerChannel);
+  }
+
+  @Test
+  void shouldUnsubscribeFromOldHouseholdTopicsWhenMemberLeaves() {
+    registry.add(1L, "session", "sub-0", 10L);
+    registry.add(1L, "session", "sub-1", 20L);
+
+    registry.onMemberLeft(new HouseholdMemberLeftEvent(1L, 10L));
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<Message<?>> captor = ArgumentCaptor.forClass(Message.class);
+    verify(brokerChannel).send(captor.capture());
+    SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(captor.getValue());
+    assertEquals(SimpMessageType.UNSUBSCRIBE, headers.getMessageType());
+    assertEquals("session", headers.getSessionId());
+    assertEquals("sub-0", headers.getSubscriptionId());
+    assertEquals(1, registry.subscriptionCount(1L));
+  }
+
+  @Test
+  void shouldUnsubscribeFromGroupTopicWhenHouseholdLeavesGroup() {
+    registry.addGroup(1L, "session", "sub-0", 10L, 100L);
+    registry.addGroup(1L, "session", "sub-1", 10L, 200L);
+    registry.addGroup(2L, "session-2", "sub-0", 20L, 100L);
+    registry.add(1L, "session", "sub-2", 10L);
+
+    registry.onGroupHouseholdLeft(new GroupHouseholdLeftEvent(100L, 10L));
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<Message<?>> captor = ArgumentCaptor.forClass(Message.class);
+    verify(brokerChannel).send(captor.capture());
+    SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(captor.getValue());
+    assertEquals("session", headers.getSessionId());
+    assertEquals("sub-0", headers.getSubscriptionId());
+    assertEquals(2, registry.subscriptionCount(1L));
+    assertEquals(1, registry.subscriptionCount(2L));
+  }
+
+  @Test
+  void shouldUnsubscribeAllHouseholdsFromGroupTopicWhenGroupIsDeleted() {
+    registry.addGroup(1L, "session", "sub-0", 10L, 100L);
+    registry.addGroup(2L, "session-2", "sub-0", 20L, 100L);
+    registry.addGroup(2L, "session-2", "sub-1", 20L, 200L);
+
+    registry.onGroupHouseholdLeft(new GroupHouseholdLeftEvent(100L, null));
+
+    verify(brokerChannel, times(2)).send(any());
+    assertEquals(0, registry.subscriptionCount(1L));
+    assertEquals(1, registry.subscriptionCount(2L));
+  }
+
+  @Test
+  void shouldForgetEndedSubscriptions() {
+    registry.add(1L, "session", "sub-0", 10L);
+    registry.add(1L, "session", "sub-1", 10L);
+    registry.add(1L, "other", "sub-0", 10L);
+
+    registry.remove(1L, "session", "sub-0");
+    registry.removeSession(1L, "other");
+
+    assertEquals(1, registry.subscriptionCount(1L));
+    registry.removeSession(1L, "session");
+    registry.onMemberLeft(new HouseholdMemberLeftEvent(1L, 10L));
+    assertEquals(0, registry.subscriptionCount(1L));
+    verify(brokerChannel, never()).send(any());
+  }
+}
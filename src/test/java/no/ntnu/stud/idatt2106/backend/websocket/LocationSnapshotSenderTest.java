@@ -0,0 +1,89 @@
+package no.ntnu.stud.idatt2106.backend.websocket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import no.ntnu.stud.idatt2106.backend.model.update.LocationUpdate;
+import no.ntnu.stud.idatt2106.backend.service.LocationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+/**
+ * Contains tests for the LocationSnapshotSender class.
+ */
+@ExtendWith(MockitoExtension.class)
+public class LocationSnapshotSenderTest {
+
+  @Mock
+  private LocationService locationService;
+
+  @Mock
+  private MessageChannel clientOutboundChannel;
+
+  @Mock
+  private SimpMessagingTemplate brokerTemplate;
+
+  private LocationSnapshotSender sender;
+
+  @BeforeEach
+  void setUp() {
+    sender = new LocationSnapshotSender(locationService, clientOutboundChannel, brokerTemplate);
+  }
+
+  private static SessionSubscribeEvent subscribe(String destination) {
+    SimpMessageHeaderAccessor headers =
+        SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+    headers.setSessionId("session");
+    headers.setSubscriptionId("sub-0");
+    headers.setDestination(destination);
+    return new SessionSubscribeEvent(new Object(),
+        MessageBuilder.createMessage(new byte[0], headers.getMessageHeaders()));
+  }
+
+  @Test
+  void shouldSendSnapshotToNewSubscription() {
+    when(brokerTemplate.getMessageConverter()).thenReturn(new MappingJackson2MessageConverter());
+    when(clientOutboundChannel.send(any())).thenReturn(true);
+    when(locationService.getLastKnownPositionsByHousehold(10L))
+        .thenReturn(List.of(new LocationUpdate(1L, 63.43, 10.39)));
+
+    sender.onSubscribe(subscribe("/topic/location/10"));
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<Message<?>> captor = ArgumentCaptor.forClass(Message.class);
+    verify(clientOutboundChannel).send(captor.capture());
+    SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(captor.getValue());
+    assertEquals(SimpMessageType.MESSAGE, headers.getMessageType());
+    assertEquals("session", headers.getSessionId());
+    assertEquals("sub-0", headers.getSubscriptionId());
+    assertEquals("/topic/location/10", headers.getDestination());
+    String payload = new String((byte[]) captor.getValue().getPayload(), StandardCharsets.UTF_8);
+    assertThat(payload).startsWith("[").contains("\"userId\":1");
+  }
+
+  @Test
+  void shouldIgnoreOtherTopics() {
+    sender.onSubscribe(subscribe("/topic/events/household/10"));
+
+    verify(locationService, never()).getLastKnownPositionsByHousehold(any());
+    verify(clientOutboundChannel, never()).send(any());
+  }
+}